@@ -0,0 +1,75 @@
+#!/usr/bin/env bash
+# Startup time and first-request latency of each build variant.
+#
+#   mvn -Pfast-start package -DskipTests             # jar + AOT/AppCDS variant
+#   mvn -Pnative native:compile -DskipTests          # optional, needs GraalVM
+#   scripts/startup-report.sh [runs]
+#
+# Variants whose build output is missing are skipped. Each variant is started [runs] times (default 3);
+# "ready" is the time until /actuator/health answers, "first parse" the latency of the first /parse call.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-3}
+PORT=${PORT:-18080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+JAR=semantic-visualizer-0.0.1-SNAPSHOT-exec.jar
+LOG=$(mktemp)
+SAMPLE='@prefix ex: <http://example.org/> . ex:a ex:knows ex:b . ex:b ex:knows ex:c . ex:c ex:label "c" .'
+
+trap 'rm -f "$LOG"' EXIT
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+# run <dir> <command...>: prints "ready_ms first_parse_ms started_in_s rss_mb"
+run() {
+    local dir=$1; shift
+    local start pid ready first started rss
+    start=$(now_ms)
+    (cd "$dir" && exec "$@" --server.port="$PORT") > "$LOG" 2>&1 &
+    pid=$!
+
+    until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health"; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "failed to start, see output:" >&2; tail -20 "$LOG" >&2; exit 1
+        fi
+        sleep 0.05
+    done
+    ready=$(( $(now_ms) - start ))
+
+    first=$(curl -s -o /dev/null -w '%{time_total}' -X POST --data-binary "$SAMPLE" \
+        "http://localhost:$PORT/api/ontology/parse?format=turtle")
+    first=$(awk -v t="$first" 'BEGIN { printf "%d", t * 1000 }')
+
+    started=$(grep -o 'Started SemanticVisualizerApplication in [0-9.]*' "$LOG" | awk '{print $NF}')
+    rss=$(awk '/VmRSS/ { printf "%d", $2 / 1024 }' "/proc/$pid/status" 2>/dev/null || echo "-")
+
+    kill "$pid"; wait "$pid" 2>/dev/null || true
+    echo "$ready $first ${started:--} ${rss:--}"
+}
+
+report() {
+    local name=$1; shift
+    local total_ready=0 total_first=0 result ready first started rss
+    for _ in $(seq "$RUNS"); do
+        result=$(run "$@")
+        read -r ready first started rss <<< "$result"
+        total_ready=$(( total_ready + ready ))
+        total_first=$(( total_first + first ))
+    done
+    printf "%-12s %10d %14d %14s %10s\n" "$name" $(( total_ready / RUNS )) $(( total_first / RUNS )) "$started" "$rss"
+}
+
+printf "%-12s %10s %14s %14s %10s\n" "variant" "ready ms" "first parse ms" "spring boot s" "rss MB"
+
+if [ -f "target/$JAR" ]; then
+    report jar target "$JAVA" -jar "$JAR"
+fi
+if [ -f target/fast-start/application.jsa ]; then
+    report aot-cds target/fast-start "$JAVA" -XX:SharedArchiveFile=application.jsa -Xlog:cds=off \
+        -Dspring.aot.enabled=true -jar "$JAR"
+fi
+if [ -x target/semantic-visualizer ]; then
+    report native target ./semantic-visualizer
+fi
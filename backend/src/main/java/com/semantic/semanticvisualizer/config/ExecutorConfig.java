@@ -0,0 +1,68 @@
+package com.semantic.semanticvisualizer.config;
+
+import com.semantic.semanticvisualizer.monitoring.ServerTiming;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Requests are served on virtual threads (spring.threads.virtual.enabled), while the heavy
+ * work - parsing, graph generation, validation - runs on these bounded platform-thread pools.
+ * A full queue rejects new work instead of letting it pile up behind cheap requests.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Every task on this pool waits for parse admission first, so by default it has a thread for every admitted
+     * and every queued parse and no queue of its own: admission does the queueing, with its timeout and
+     * queue-depth gauge, and only work beyond that is rejected by the executor.
+     */
+    @Bean(name = "ontologyExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor ontologyExecutor(@Value("${ontology.executor.pool-size:0}") int poolSize,
+                                                   @Value("${ontology.executor.queue-capacity:0}") int queueCapacity,
+                                                   @Value("${ontology.parse.max-concurrent:4}") int maxConcurrentParses,
+                                                   @Value("${ontology.parse.max-queued:16}") int maxQueuedParses) {
+        return boundedExecutor("ontology-", poolSize > 0 ? poolSize : maxConcurrentParses + maxQueuedParses, queueCapacity);
+    }
+
+    @Bean(name = "vqaExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor vqaExecutor(@Value("${vqa.executor.pool-size:4}") int poolSize,
+                                              @Value("${vqa.executor.queue-capacity:64}") int queueCapacity) {
+        return boundedExecutor("vqa-", poolSize, queueCapacity);
+    }
+
+    // Prediction file scoring jobs, each reads its file and waits for its chunks on the batch pool
+    @Bean(name = "evaluationExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor evaluationExecutor(@Value("${vqa.evaluation.threads:1}") int poolSize,
+                                                     @Value("${vqa.evaluation.queue-capacity:8}") int queueCapacity) {
+        return boundedExecutor("evaluation-", poolSize, queueCapacity);
+    }
+
+    // Startup preload of configured ontologies/datasets, one task per file
+    @Bean(name = "preloadExecutor", destroyMethod = "shutdown")
+    public ThreadPoolTaskExecutor preloadExecutor(@Value("${preload.threads:2}") int poolSize) {
+        return boundedExecutor("preload-", poolSize, Integer.MAX_VALUE);
+    }
+
+    // Batch path validation splits every chunk of answer paths across this pool (shared by concurrent batches)
+    @Bean(name = "vqaBatchPool", destroyMethod = "shutdown")
+    public ForkJoinPool vqaBatchPool(@Value("${vqa.batch.parallelism:0}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    private ThreadPoolTaskExecutor boundedExecutor(String threadNamePrefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        // Stages run on the pool still report into the Server-Timing header of their request
+        executor.setTaskDecorator(ServerTiming::propagate);
+        executor.initialize();
+        return executor;
+    }
+}
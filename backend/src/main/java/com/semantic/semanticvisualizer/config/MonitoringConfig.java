@@ -0,0 +1,19 @@
+package com.semantic.semanticvisualizer.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.monitoring.TimedJacksonHttpMessageConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+@Configuration
+public class MonitoringConfig {
+
+    // Replaces Boot's default Jackson converter, so JSON serialization shows up as its own pipeline stage
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   MeterRegistry registry) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, registry);
+    }
+}
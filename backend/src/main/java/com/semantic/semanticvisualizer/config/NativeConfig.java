@@ -0,0 +1,93 @@
+package com.semantic.semanticvisualizer.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Reflection and resource metadata for the GraalVM native image (mvn -Pnative native:compile).
+ * Spring AOT covers the beans, but not what Jena and Jackson look up at runtime.
+ */
+@Configuration
+@ImportRuntimeHints(NativeConfig.JenaAndJacksonHints.class)
+public class NativeConfig {
+
+    static class JenaAndJacksonHints implements RuntimeHintsRegistrar {
+
+        private static final String JENA_SUBSYSTEMS = "META-INF/services/org.apache.jena.sys.JenaSubsystemLifecycle";
+        private static final String MODEL_PACKAGE = "com.semantic.semanticvisualizer.model";
+
+        private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            registerJena(hints, classLoader);
+            registerModel(hints, classLoader);
+        }
+
+        // JenaSystem.init() finds the RIOT/ARQ/core subsystems through ServiceLoader
+        private void registerJena(RuntimeHints hints, ClassLoader classLoader) {
+            hints.resources().registerPattern(JENA_SUBSYSTEMS);
+            for (String subsystem : serviceProviders(classLoader, JENA_SUBSYSTEMS)) {
+                hints.reflection().registerType(TypeReference.of(subsystem),
+                        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+            }
+            // JSON-LD parsing goes through jakarta.json, whose provider is also loaded by ServiceLoader
+            hints.resources().registerPattern("META-INF/services/jakarta.json.spi.JsonProvider");
+            // Vocabulary files and rule sets Jena reads from the classpath on first use
+            hints.resources().registerPattern("org/apache/jena/vocabulary/*.ttl");
+            hints.resources().registerPattern("ont-policy.rdf");
+            hints.resources().registerPattern("etc/*.rules");
+        }
+
+        // VQA datasets are read with ObjectMapper.treeToValue and controllers return ResponseEntity<?>,
+        // so AOT cannot infer the DTO types from the method signatures - bind the whole model package
+        private void registerModel(RuntimeHints hints, ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+
+            for (BeanDefinition candidate : scanner.findCandidateComponents(MODEL_PACKAGE)) {
+                Class<?> type = ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader);
+                bindingHints.registerReflectionHints(hints.reflection(), type);
+            }
+        }
+
+        private static List<String> serviceProviders(ClassLoader classLoader, String serviceFile) {
+            List<String> providers = new ArrayList<>();
+            try {
+                Enumeration<URL> files = classLoader.getResources(serviceFile);
+                while (files.hasMoreElements()) {
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(files.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                        reader.lines()
+                                .map(line -> line.replaceAll("#.*", "").trim())
+                                .filter(line -> !line.isEmpty())
+                                .forEach(providers::add);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read " + serviceFile, e);
+            }
+            return providers;
+        }
+    }
+}
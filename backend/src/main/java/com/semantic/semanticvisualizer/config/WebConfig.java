@@ -1,6 +1,10 @@
 package com.semantic.semanticvisualizer.config;
 
+import com.semantic.semanticvisualizer.monitoring.ServerTiming;
+import org.apache.tomcat.util.buf.EncodedSolidusHandling;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -15,8 +19,20 @@ public class WebConfig {
             public void addCorsMappings(@NotNull CorsRegistry registry) {
                 registry.addMapping("/**")
                         .allowedOrigins("http://localhost:5173")
-                        .allowedMethods("*");
+                        .allowedMethods("*")
+                        .exposedHeaders(ServerTiming.HEADER);
             }
         };
     }
+
+    // Node ids are URIs sent as encoded path variables (/node-details/http%3A%2F%2F...),
+    // Tomcat rejects %2F by default - pass it through so Spring decodes it into the variable.
+    // This applies to every path: an encoded slash stays inside its segment and never acts as a separator.
+    // Nothing here depends on segment boundaries otherwise - no static resources are served and there are
+    // no path-prefix security mappings.
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> encodedSlashCustomizer() {
+        return factory -> factory.addConnectorCustomizers(connector ->
+                connector.setEncodedSolidusHandling(EncodedSolidusHandling.PASS_THROUGH.getValue()));
+    }
 }
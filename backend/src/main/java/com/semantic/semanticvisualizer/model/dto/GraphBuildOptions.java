@@ -0,0 +1,49 @@
+package com.semantic.semanticvisualizer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Options controlling how an RDF model is turned into an ontology graph.
+ * Bound directly from request parameters, e.g. ?foldLiterals=true&includePredicates=rdfs:subClassOf,partOf
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GraphBuildOptions {
+    // Attach literal-valued properties to their subject node instead of creating literal nodes
+    private boolean foldLiterals;
+    // Collapse blank-node structures (OWL restrictions, lists) into attributes/edges of the owning node
+    private boolean collapseBlankNodes;
+
+    // Predicates to keep/drop - full URIs, prefixed names (rdfs:subClassOf) or local names (subClassOf)
+    private List<String> includePredicates;
+    private List<String> excludePredicates;
+
+    // Namespaces (full URIs or known prefixes like "owl:") the subject and object must belong to / must not touch
+    private List<String> includeNamespaces;
+    private List<String> excludeNamespaces;
+
+    // rdf:type values the subject must have / the subject and object must not have
+    private List<String> includeTypes;
+    private List<String> excludeTypes;
+
+    public static GraphBuildOptions defaults() {
+        return new GraphBuildOptions();
+    }
+
+    public boolean hasFilters() {
+        return isSet(includePredicates) || isSet(excludePredicates)
+                || isSet(includeNamespaces) || isSet(excludeNamespaces)
+                || isSet(includeTypes) || isSet(excludeTypes);
+    }
+
+    private static boolean isSet(List<String> values) {
+        return values != null && !values.isEmpty();
+    }
+}
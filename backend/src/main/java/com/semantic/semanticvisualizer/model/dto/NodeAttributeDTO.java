@@ -0,0 +1,28 @@
+package com.semantic.semanticvisualizer.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A literal value or a collapsed blank-node structure attached directly to a node
+ * instead of being represented as a separate node in the graph
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NodeAttributeDTO {
+    public static final String KIND_LITERAL = "literal";
+    public static final String KIND_RESTRICTION = "restriction";
+    public static final String KIND_LIST = "list";
+    public static final String KIND_BLANK = "blank";
+
+    private String predicate;
+    private String label;
+    private String value;
+    private String datatype;
+    private String language;
+    private String kind;
+}
@@ -1,7 +1,11 @@
 package com.semantic.semanticvisualizer.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a node in the ontology graph
  */
@@ -12,6 +16,10 @@ public class NodeDTO {
     private String id;
     private String label;
 
+    // Only populated when literals/blank nodes are folded into their subject node
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<NodeAttributeDTO> attributes;
+
     public NodeDTO(String id) {
         this.id = id;
 
@@ -24,4 +32,11 @@ public class NodeDTO {
             this.label = id;
         }
     }
-}
\ No newline at end of file
+
+    public void addAttribute(NodeAttributeDTO attribute) {
+        if (attributes == null) {
+            attributes = new ArrayList<>();
+        }
+        attributes.add(attribute);
+    }
+}
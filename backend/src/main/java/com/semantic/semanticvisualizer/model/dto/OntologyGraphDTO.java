@@ -1,14 +1,10 @@
 package com.semantic.semanticvisualizer.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.semantic.semanticvisualizer.model.Triple;
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.*;
 
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Data Transfer Object for representing an ontology graph
@@ -16,13 +12,44 @@ import java.util.Set;
  */
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
 public class OntologyGraphDTO {
 
     private List<Triple> triples = new ArrayList<>();
     private List<NodeDTO> nodes = new ArrayList<>();
     private List<EdgeDTO> edges = new ArrayList<>();
 
+    // Lookup of nodes by id, so adding a triple doesn't scan the whole node list. Kept in step with nodes by
+    // setNodes, addNode and addNodeIfNotExists - nodes are not to be added to getNodes() directly
+    @JsonIgnore
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Map<String, NodeDTO> nodeIndex = new HashMap<>();
+
+    public OntologyGraphDTO(List<Triple> triples, List<NodeDTO> nodes, List<EdgeDTO> edges) {
+        this.triples = triples;
+        this.edges = edges;
+        setNodes(nodes);
+    }
+
+    public void setNodes(List<NodeDTO> nodes) {
+        this.nodes = nodes;
+        nodeIndex = new HashMap<>();
+        if (nodes != null) {
+            nodes.forEach(node -> nodeIndex.putIfAbsent(node.getId(), node));
+        }
+    }
+
+    /**
+     * Add a node built elsewhere, e.g. while sampling, unless one with the same id is already there
+     */
+    public void addNode(NodeDTO node) {
+        if (nodeIndex.putIfAbsent(node.getId(), node) == null) {
+            nodes.add(node);
+        }
+    }
+
     public void addTriple(Triple triple) {
         triples.add(triple);
 
@@ -42,16 +69,20 @@ public class OntologyGraphDTO {
         edges.add(edge);
     }
 
-    private void addNodeIfNotExists(String nodeId) {
-        // Check if node already exists
-        boolean exists = nodes.stream()
-                .anyMatch(node -> node.getId().equals(nodeId));
+    /**
+     * Attach a literal value or collapsed structure to a node, creating the node if needed
+     */
+    public void addAttribute(String nodeId, NodeAttributeDTO attribute) {
+        addNodeIfNotExists(nodeId).addAttribute(attribute);
+    }
 
-        if (!exists) {
+    public NodeDTO addNodeIfNotExists(String nodeId) {
+        return nodeIndex.computeIfAbsent(nodeId, id -> {
             // Create a new node
-            NodeDTO node = new NodeDTO(nodeId);
+            NodeDTO node = new NodeDTO(id);
             nodes.add(node);
-        }
+            return node;
+        });
     }
 
 
@@ -0,0 +1,24 @@
+package com.semantic.semanticvisualizer.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PreloadedResourceDTO {
+    public static final String KIND_ONTOLOGY = "ontology";
+    public static final String KIND_DATASET = "dataset";
+
+    private String kind; // ontology or dataset
+    private String name; // file name
+    private String path;
+    private String format;
+    private String id; // dataset id, ontologies are matched by content
+    private long size; // triples of an ontology, questions of a dataset
+    private long loadMillis;
+    private String error; // null when loaded successfully
+}
@@ -0,0 +1,34 @@
+package com.semantic.semanticvisualizer.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "vqa_dataset")
+@Getter
+@Setter
+@NoArgsConstructor
+public class DatasetEntity {
+
+    @Id
+    private String id;
+
+    private String name;
+    private String format;
+    private String description;
+    private int questionCount;
+    private int rejectedCount;
+    private LocalDateTime uploadedAt;
+
+    @Lob
+    @Column(name = "errors_json")
+    private String errorsJson; // DatasetRecordError list
+}
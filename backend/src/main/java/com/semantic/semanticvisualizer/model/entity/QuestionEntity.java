@@ -0,0 +1,37 @@
+package com.semantic.semanticvisualizer.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One question of a dataset. The question itself is kept as its JSON record, the columns next to it
+ * are only there to find it.
+ */
+@Entity
+@Table(name = "vqa_question", indexes = {
+        @Index(name = "idx_vqa_question_dataset", columnList = "datasetId, position"),
+        @Index(name = "idx_vqa_question_question", columnList = "questionId")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+public class QuestionEntity {
+
+    @Id
+    private String id; // datasetId:position, question ids are not unique within a dataset
+
+    private String datasetId;
+    private int position;
+    private String questionId;
+
+    @Lob
+    @Column(name = "question_json")
+    private String questionJson;
+}
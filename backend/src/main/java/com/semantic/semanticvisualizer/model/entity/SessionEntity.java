@@ -0,0 +1,37 @@
+package com.semantic.semanticvisualizer.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "vqa_session", indexes = @Index(name = "idx_vqa_session_start", columnList = "startTime"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class SessionEntity {
+
+    @Id
+    private String sessionId;
+
+    private String questionId;
+    private LocalDateTime startTime;
+    private boolean completed;
+    private int attempts;
+    private int expectedPathLength;
+    private double progress;
+    private String difficulty;
+    private LocalDateTime updatedAt;
+
+    @Lob
+    @Column(name = "path_json")
+    private String pathJson; // current path node URIs
+}
@@ -0,0 +1,45 @@
+package com.semantic.semanticvisualizer.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "vqa_validation_result", indexes = @Index(name = "idx_vqa_validation_session", columnList = "sessionId"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ValidationResultEntity {
+
+    // A sequence rather than identity, so inserts can be batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vqa_validation_result_seq")
+    @SequenceGenerator(name = "vqa_validation_result_seq", allocationSize = 50)
+    private Long id;
+
+    private String sessionId;
+    private String questionId;
+    private boolean correct;
+    private double similarityScore;
+    private String feedback;
+    private LocalDateTime validatedAt;
+
+    @Lob
+    @Column(name = "user_path_json")
+    private String userPathJson;
+
+    @Lob
+    @Column(name = "expected_path_json")
+    private String expectedPathJson;
+}
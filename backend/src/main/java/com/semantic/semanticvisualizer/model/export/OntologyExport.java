@@ -0,0 +1,45 @@
+package com.semantic.semanticvisualizer.model.export;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A prepared ontology export: the subgraph is already parsed and sampled,
+ * the serialization itself only happens when {@link #writeTo(OutputStream)} is called.
+ * What the export holds on to, e.g. an admission permit, is freed by {@link #close()}.
+ */
+@Getter
+@AllArgsConstructor
+public class OntologyExport implements AutoCloseable {
+    private final String format;
+    private final String contentType;
+    private final String fileName;
+    private final ExportWriter writer;
+    private final Runnable release;
+
+    public OntologyExport(String format, String contentType, String fileName, ExportWriter writer) {
+        this(format, contentType, fileName, writer, () -> {
+        });
+    }
+
+    public void writeTo(OutputStream out) throws IOException {
+        writer.writeTo(out);
+    }
+
+    /**
+     * Frees what the export holds. Called once it is written, or when it never will be, e.g. because the
+     * client went away; calling it more than once is harmless.
+     */
+    @Override
+    public void close() {
+        release.run();
+    }
+
+    @FunctionalInterface
+    public interface ExportWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,22 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of a batch validation response: the result for the answer path at index, or why it could not be validated
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchValidationItem {
+    private long index; // position of the answer path in the request
+    private String questionId;
+    private PathValidationResult result;
+    private String error;
+}
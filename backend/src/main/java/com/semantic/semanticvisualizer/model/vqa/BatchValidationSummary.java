@@ -0,0 +1,26 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last line of a batch validation response
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchValidationSummary {
+    private long total; // answer paths read from the request
+    private long evaluated;
+    private long failed; // could not be validated, e.g. unknown question
+    private long correct;
+    private double accuracy; // correct / evaluated
+    private double meanSimilarity; // over the evaluated paths
+    private long durationMs;
+    private String error; // set when the request body could not be read to the end
+}
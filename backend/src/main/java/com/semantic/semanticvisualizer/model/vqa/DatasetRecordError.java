@@ -0,0 +1,17 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A question record of an uploaded dataset that could not be loaded
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DatasetRecordError {
+    private int index; // position of the record in the questions array
+    private String questionId; // null when the record has no usable id
+    private String message;
+}
@@ -0,0 +1,32 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EvaluationJobDTO {
+    public static final String STATUS_QUEUED = "QUEUED";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private String id;
+    private String datasetId;
+    private String status;
+    private long processed; // predictions scored so far
+    private double progress; // share of the predictions file read, 0.0 - 1.0
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+    private Long durationMs;
+    private String error;
+    private EvaluationReport report; // set once completed
+}
@@ -0,0 +1,28 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Mean scores over a set of scored predictions
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EvaluationMetrics {
+    private long count;
+    private double exactMatch; // same nodes in the same order
+    private double setMatch; // same nodes in any order
+    private double jaccard;
+    private double precision;
+    private double recall;
+    private double f1;
+    private double orderScore; // longest common subsequence over the longer path
+    private long answered; // predictions with a textual answer for a question that has one
+    private Double answerAccuracy; // null when nothing was answered
+}
@@ -0,0 +1,23 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EvaluationReport {
+    private String datasetId;
+    private long predictions; // records read from the predictions file
+    private long unknownQuestions; // predictions for question ids the dataset doesn't have
+    private long invalid; // predictions without a path, or for questions without an expected path
+    private long missingQuestions; // dataset questions without any prediction
+    private EvaluationMetrics overall;
+    private Map<String, EvaluationMetrics> byDifficulty;
+    private Map<String, EvaluationMetrics> byRelation; // a question with several relations counts for each
+}
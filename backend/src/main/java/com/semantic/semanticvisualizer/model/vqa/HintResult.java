@@ -0,0 +1,25 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Where to go next on the way to a question's answer, from the end of the current path
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class HintResult {
+    private String questionId;
+    private boolean complete; // every answer node is on the path already
+    private String targetNode; // the next answer node not on the path yet
+    private List<String> nextNodes; // neighbours of the last node one step closer to the target, or the target
+    private int distanceToTarget; // steps from the last node to the target, 0 for an empty path (start there), -1 when unreachable
+    private int remainingDistance; // steps to complete the answer, from the target for an empty path, -1 when a part can't be reached
+    private String message;
+}
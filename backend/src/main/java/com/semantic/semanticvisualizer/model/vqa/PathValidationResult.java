@@ -14,7 +14,8 @@ import java.util.Map;
 @NoArgsConstructor
 public class PathValidationResult {
     private boolean isCorrect;
-    private double similarityScore;
+    private double similarityScore; // Jaccard over the distinct nodes, order ignored
+    private double orderScore; // longest common subsequence over the longer path, 1.0 only for the exact path
     private List<String> correctNodes;
     private List<String> incorrectNodes;
     private List<String> missedNodes;
@@ -0,0 +1,22 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a dataset's questions, pass nextCursor as cursor to get the next one
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionPage {
+    private String datasetId;
+    private List<QuestionSummary> items;
+    private int limit;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,16 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionSearchHit {
+    private double score; // BM25 score, higher is better
+    private QuestionSummary question;
+    private String factSurface;
+}
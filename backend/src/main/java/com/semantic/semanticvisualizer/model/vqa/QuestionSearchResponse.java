@@ -0,0 +1,23 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The best matches of a full-text question search
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionSearchResponse {
+    private String query;
+    private String datasetId; // null when every dataset was searched
+    private int total; // matching questions, hits holds at most limit of them
+    private List<QuestionSearchHit> hits; // best first
+    private double tookMs;
+}
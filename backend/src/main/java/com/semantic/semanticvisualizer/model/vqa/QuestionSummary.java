@@ -0,0 +1,27 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A question as listed in a page, without its triples and paths
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionSummary {
+    private String id;
+    private String datasetId;
+    private String questionText;
+    private String answer;
+    private String difficulty;
+    private String imageId;
+    private String factId;
+    private List<String> relations; // relation types of the answer triples
+    private int pathLength; // nodes of the expected path, 0 when the question has none
+}
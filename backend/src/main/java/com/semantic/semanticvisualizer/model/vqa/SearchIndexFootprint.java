@@ -0,0 +1,22 @@
+package com.semantic.semanticvisualizer.model.vqa;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Memory held by a dataset's part of the question search index
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SearchIndexFootprint {
+    private String datasetId;
+    private int questions;
+    private int terms; // distinct words
+    private long postings; // (word, question) pairs
+    private long positions; // word occurrences
+    private long estimatedBytes; // heap of the index itself, the questions are not counted
+}
@@ -31,7 +31,7 @@ public class TripleVQA {
                 .build();
     }
 
-    private static String extractLocalName(String uri) {
+    public static String extractLocalName(String uri) {
         if (uri == null) return null;
         int idx = Math.max(uri.lastIndexOf('#'), uri.lastIndexOf('/'));
         return idx >= 0 ? uri.substring(idx + 1) : uri;
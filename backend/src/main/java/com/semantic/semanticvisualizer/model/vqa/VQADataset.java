@@ -20,4 +20,6 @@ public class VQADataset {
     private int questionCount;
     private LocalDateTime uploadedAt;
     private String description;
+    private int rejectedCount; // records that could not be loaded
+    private List<DatasetRecordError> errors; // the first of them, with the reason
 }
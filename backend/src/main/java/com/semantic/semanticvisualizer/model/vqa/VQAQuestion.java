@@ -49,6 +49,10 @@ public class VQAQuestion {
     @JsonProperty("answerTriplets")
     private List<TripleVQA> answerTriplets;
 
+    // Set when the question is loaded, "datasetId::id" addresses it even when ids collide across datasets
+    @JsonProperty(value = "datasetId", access = JsonProperty.Access.READ_ONLY)
+    private String datasetId;
+
 //    private String category;
 //    private String source;
 //    private String kbSource;
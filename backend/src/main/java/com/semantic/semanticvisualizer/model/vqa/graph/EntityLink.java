@@ -0,0 +1,23 @@
+package com.semantic.semanticvisualizer.model.vqa.graph;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A dataset graph node resolved to a resource of an ontology
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EntityLink {
+    public static final String MATCH_URI = "uri";
+    public static final String MATCH_LABEL = "label";
+    public static final String MATCH_LOCAL_NAME = "localName";
+
+    private String nodeId;
+    private String ontologyUri;
+    private String match; // how the node was resolved: same URI, normalized label or local name
+}
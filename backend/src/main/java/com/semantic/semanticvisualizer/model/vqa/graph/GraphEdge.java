@@ -11,4 +11,9 @@ public class GraphEdge {
     private String source;
     private String target;
     private String label;
-}
\ No newline at end of file
+    private int count = 1; // times the dataset states this edge, in question triples or expected paths
+
+    public GraphEdge(String source, String target, String label) {
+        this(source, target, label, 1);
+    }
+}
@@ -0,0 +1,28 @@
+package com.semantic.semanticvisualizer.model.vqa.graph;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A dataset graph joined with an ontology: the dataset's nodes and edges, "sameAs" edges to the
+ * ontology resources they resolve to, and the ontology statements around those resources
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LinkedGraphResponse {
+    public static final String TYPE_ONTOLOGY = "ontology";
+    public static final String SAME_AS = "sameAs";
+
+    private String datasetId;
+    private String ontologyId;
+    private List<GraphNode> nodes; // dataset nodes are typed "entity", ontology-only ones "ontology"
+    private List<GraphEdge> edges;
+    private List<EntityLink> links;
+    private boolean truncated; // maxNodes was reached before every ontology neighbour was added
+}
@@ -0,0 +1,23 @@
+package com.semantic.semanticvisualizer.model.vqa.graph;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How much of a dataset graph resolves to one of the pinned (preloaded) ontologies
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OntologyLinkSummary {
+    private String ontologyId; // the model cache key, for /{datasetId}/linked-graph?ontologyId=
+    private long triples;
+    private int datasetNodes;
+    private int linkedNodes;
+    private int uriMatches;
+    private int labelMatches;
+    private int localNameMatches;
+}
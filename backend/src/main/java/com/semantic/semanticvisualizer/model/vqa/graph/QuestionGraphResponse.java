@@ -0,0 +1,25 @@
+package com.semantic.semanticvisualizer.model.vqa.graph;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * The part of a dataset graph around one question: its answer nodes and what lies within a few hops of them
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class QuestionGraphResponse {
+    private String questionId;
+    private String datasetId;
+    private int hops;
+    private List<String> answerNodes; // ids of the nodes of the answer triples or expected path
+    private List<GraphNode> nodes; // answer nodes first, then by distance from them
+    private List<GraphEdge> edges; // every dataset edge between the returned nodes
+    private boolean truncated; // maxNodes was reached before all nodes within the hops were added
+}
@@ -0,0 +1,107 @@
+package com.semantic.semanticvisualizer.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timers, counters and gauges for the stages of the ontology and VQA pipelines.
+ * Every recorded stage also ends up in the Server-Timing header of the request it ran for.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String TAG_FORMAT = "format";
+    public static final String TAG_SIZE = "size";
+    public static final String TAG_TRIPLES = "triples";
+    public static final String TAG_OUTCOME = "outcome";
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    // Last observed throughput per stage, exposed as <stage>.triples.per.second
+    private final Map<String, AtomicLong> triplesPerSecond = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Record a finished stage
+     *
+     * @param meterName  Micrometer timer name, e.g. ontology.load
+     * @param timingName Server-Timing metric name, e.g. load
+     * @param startNanos Value returned by {@link #start()}
+     * @param tags       Tags of the timer
+     * @return The stage duration in nanoseconds
+     */
+    public long record(String meterName, String timingName, long startNanos, Tags tags) {
+        long nanos = System.nanoTime() - startNanos;
+        Timer.builder(meterName)
+                .tags(tags)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        ServerTiming.recordCurrent(timingName, nanos);
+        return nanos;
+    }
+
+    /**
+     * Record how many triples a stage went through and how fast
+     */
+    public void recordThroughput(String meterName, long triples, long nanos) {
+        Counter.builder(meterName + ".triples")
+                .register(registry)
+                .increment(triples);
+
+        if (nanos > 0) {
+            triplesPerSecond.computeIfAbsent(meterName, this::registerThroughputGauge)
+                    .set(triples * TimeUnit.SECONDS.toNanos(1) / nanos);
+        }
+    }
+
+    private AtomicLong registerThroughputGauge(String meterName) {
+        AtomicLong value = new AtomicLong();
+        Gauge.builder(meterName + ".triples.per.second", value, AtomicLong::get)
+                .description("Triples per second of the last " + meterName + " run")
+                .register(registry);
+        return value;
+    }
+
+    // Buckets keep the tag cardinality fixed no matter what gets uploaded
+
+    public static String sizeBucket(long bytes) {
+        if (bytes < 100 * 1024) {
+            return "<100KB";
+        } else if (bytes < 1024 * 1024) {
+            return "100KB-1MB";
+        } else if (bytes < 10 * 1024 * 1024) {
+            return "1MB-10MB";
+        }
+        return ">10MB";
+    }
+
+    public static String tripleBucket(long triples) {
+        if (triples < 1_000) {
+            return "<1k";
+        } else if (triples < 10_000) {
+            return "1k-10k";
+        } else if (triples < 100_000) {
+            return "10k-100k";
+        }
+        return ">100k";
+    }
+}
@@ -0,0 +1,91 @@
+package com.semantic.semanticvisualizer.monitoring;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-request stage durations, emitted as a Server-Timing response header so the stage
+ * breakdown of a request shows up in the browser's network panel.
+ * The collector is bound to the request thread and carried over to executor threads.
+ */
+public class ServerTiming {
+
+    public static final String HEADER = "Server-Timing";
+    public static final String REQUEST_ATTRIBUTE = ServerTiming.class.getName();
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+    // Stages may run more than once per request (e.g. label lookups), their durations add up
+    private final Map<String, LongAdder> stageNanos = new ConcurrentHashMap<>();
+
+    public void record(String stage, long nanos) {
+        stageNanos.computeIfAbsent(stage, s -> new LongAdder()).add(nanos);
+    }
+
+    public boolean isEmpty() {
+        return stageNanos.isEmpty();
+    }
+
+    public String toHeaderValue() {
+        StringJoiner header = new StringJoiner(", ");
+        stageNanos.forEach((stage, nanos) ->
+                header.add(String.format(Locale.ROOT, "%s;dur=%.2f", stage, nanos.sum() / 1_000_000.0)));
+        return header.toString();
+    }
+
+    public static ServerTiming current() {
+        return CURRENT.get();
+    }
+
+    public static void bind(ServerTiming timing) {
+        if (timing == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(timing);
+        }
+    }
+
+    /**
+     * Record a stage on the collector bound to the current thread, if any
+     */
+    public static void recordCurrent(String stage, long nanos) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.record(stage, nanos);
+        }
+    }
+
+    /**
+     * Add the current stage durations to response headers built by hand (streaming responses skip body advice)
+     */
+    public static void addCurrentTo(HttpHeaders headers) {
+        ServerTiming timing = CURRENT.get();
+        if (timing != null && !timing.isEmpty()) {
+            headers.set(HEADER, timing.toHeaderValue());
+        }
+    }
+
+    /**
+     * Wrap a task so it records into the collector of the thread that submitted it
+     */
+    public static Runnable propagate(Runnable task) {
+        ServerTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+        return () -> {
+            ServerTiming previous = CURRENT.get();
+            CURRENT.set(timing);
+            try {
+                task.run();
+            } finally {
+                bind(previous);
+            }
+        };
+    }
+}
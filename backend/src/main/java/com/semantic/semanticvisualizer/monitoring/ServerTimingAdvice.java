@@ -0,0 +1,35 @@
+package com.semantic.semanticvisualizer.monitoring;
+
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the collected stage durations as a Server-Timing header right before a response body is written.
+ * JSON serialization itself happens after the headers are sent, so it is only reported as a metric.
+ */
+@ControllerAdvice
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(@NotNull MethodParameter returnType, @NotNull Class converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, @NotNull MethodParameter returnType, @NotNull MediaType contentType,
+                                  @NotNull Class selectedConverterType, @NotNull ServerHttpRequest request,
+                                  @NotNull ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest servletRequest
+                && servletRequest.getServletRequest().getAttribute(ServerTiming.REQUEST_ATTRIBUTE) instanceof ServerTiming timing
+                && !timing.isEmpty()) {
+            response.getHeaders().set(ServerTiming.HEADER, timing.toHeaderValue());
+        }
+        return body;
+    }
+}
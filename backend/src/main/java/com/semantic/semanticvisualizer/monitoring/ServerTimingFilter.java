@@ -0,0 +1,44 @@
+package com.semantic.semanticvisualizer.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Creates the Server-Timing collector of a request and binds it to the thread handling it,
+ * including the async dispatch that writes the result of CompletableFuture handlers
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(@NotNull HttpServletRequest request, @NotNull HttpServletResponse response,
+                                    @NotNull FilterChain filterChain) throws ServletException, IOException {
+        ServerTiming timing = (ServerTiming) request.getAttribute(ServerTiming.REQUEST_ATTRIBUTE);
+        if (timing == null) {
+            timing = new ServerTiming();
+            request.setAttribute(ServerTiming.REQUEST_ATTRIBUTE, timing);
+        }
+
+        ServerTiming.bind(timing);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ServerTiming.bind(null);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.semantic.semanticvisualizer.monitoring;
+
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every {@link com.semantic.semanticvisualizer.service.VQAService} method as vqa.service{method=...},
+ * so methods added to the service later are covered without touching them
+ */
+@Aspect
+@Component
+public class VQAServiceMetricsAspect {
+
+    private static final String METER_VQA = "vqa.service";
+    private static final String TIMING_PREFIX = "vqa-";
+
+    private final PipelineMetrics metrics;
+
+    public VQAServiceMetricsAspect(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Around("execution(* com.semantic.semanticvisualizer.service.VQAService.*(..))")
+    public Object timeServiceCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        long start = metrics.start();
+        String outcome = PipelineMetrics.OUTCOME_ERROR;
+        try {
+            Object result = joinPoint.proceed();
+            outcome = PipelineMetrics.OUTCOME_SUCCESS;
+            return result;
+        } finally {
+            metrics.record(METER_VQA, TIMING_PREFIX + method, start,
+                    Tags.of("method", method, PipelineMetrics.TAG_OUTCOME, outcome));
+        }
+    }
+}
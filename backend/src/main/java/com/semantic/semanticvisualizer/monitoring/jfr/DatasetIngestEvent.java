@@ -0,0 +1,27 @@
+package com.semantic.semanticvisualizer.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.semantic.DatasetIngest")
+@Label("VQA Dataset Ingest")
+@Category({"Semantic Visualizer", "VQA"})
+@Description("Parsing and registration of an uploaded VQA dataset")
+public class DatasetIngestEvent extends jdk.jfr.Event {
+
+    @Label("Dataset")
+    public String datasetId;
+
+    @Label("Size")
+    @DataAmount
+    public long sizeBytes;
+
+    @Label("Questions")
+    public int questions;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
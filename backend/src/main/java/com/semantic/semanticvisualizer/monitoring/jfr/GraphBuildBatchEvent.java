@@ -0,0 +1,28 @@
+package com.semantic.semanticvisualizer.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.semantic.GraphBuildBatch")
+@Label("Graph Build Batch")
+@Category({"Semantic Visualizer", "Ontology"})
+@Description("One batch of statements turned into graph nodes and edges")
+public class GraphBuildBatchEvent extends jdk.jfr.Event {
+
+    @Label("Batch")
+    public int batchIndex;
+
+    @Label("Statements")
+    public int statements;
+
+    @Label("Model Triples")
+    public long modelTriples;
+
+    @Label("Nodes So Far")
+    public int nodes;
+
+    @Label("Edges So Far")
+    public int edges;
+}
@@ -0,0 +1,28 @@
+package com.semantic.semanticvisualizer.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.semantic.GraphSample")
+@Label("Graph Sampling")
+@Category({"Semantic Visualizer", "Ontology"})
+@Description("Reduction of a graph to its highest-degree nodes")
+public class GraphSampleEvent extends jdk.jfr.Event {
+
+    @Label("Input Nodes")
+    public int inputNodes;
+
+    @Label("Input Edges")
+    public int inputEdges;
+
+    @Label("Max Nodes")
+    public int maxNodes;
+
+    @Label("Output Nodes")
+    public int outputNodes;
+
+    @Label("Output Edges")
+    public int outputEdges;
+}
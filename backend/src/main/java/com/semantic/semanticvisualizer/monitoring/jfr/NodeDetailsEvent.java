@@ -0,0 +1,25 @@
+package com.semantic.semanticvisualizer.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.semantic.NodeDetails")
+@Label("Node Details")
+@Category({"Semantic Visualizer", "Ontology"})
+@Description("Lookup of the incoming and outgoing connections of a node")
+public class NodeDetailsEvent extends jdk.jfr.Event {
+
+    @Label("Node")
+    public String nodeId;
+
+    @Label("Model Triples")
+    public long modelTriples;
+
+    @Label("Outgoing")
+    public int outgoing;
+
+    @Label("Incoming")
+    public int incoming;
+}
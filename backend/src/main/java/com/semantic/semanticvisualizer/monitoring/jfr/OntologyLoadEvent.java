@@ -0,0 +1,31 @@
+package com.semantic.semanticvisualizer.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.semantic.OntologyLoad")
+@Label("Ontology Load")
+@Category({"Semantic Visualizer", "Ontology"})
+@Description("Parsing of an uploaded ontology into a Jena model")
+public class OntologyLoadEvent extends jdk.jfr.Event {
+
+    @Label("Ontology")
+    @Description("File name of the upload, or a hash of the request body")
+    public String ontologyId;
+
+    @Label("Format")
+    public String format;
+
+    @Label("Size")
+    @DataAmount
+    public long sizeBytes;
+
+    @Label("Triples")
+    public long triples;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,31 @@
+package com.semantic.semanticvisualizer.monitoring.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.semantic.PathValidation")
+@Label("Path Validation")
+@Category({"Semantic Visualizer", "VQA"})
+@Description("Validation of a user's answer path against the expected path")
+public class PathValidationEvent extends jdk.jfr.Event {
+
+    @Label("Session")
+    public String sessionId;
+
+    @Label("Question")
+    public String questionId;
+
+    @Label("User Path Length")
+    public int userPathLength;
+
+    @Label("Expected Path Length")
+    public int expectedPathLength;
+
+    @Label("Correct")
+    public boolean correct;
+
+    @Label("Similarity")
+    public double similarity;
+}
@@ -0,0 +1,13 @@
+package com.semantic.semanticvisualizer.repository;
+
+import com.semantic.semanticvisualizer.model.entity.DatasetEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface DatasetRepository extends JpaRepository<DatasetEntity, String> {
+
+    @Query("select d.id from DatasetEntity d order by d.uploadedAt")
+    List<String> findAllIds();
+}
@@ -0,0 +1,15 @@
+package com.semantic.semanticvisualizer.repository;
+
+import com.semantic.semanticvisualizer.model.entity.QuestionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface QuestionRepository extends JpaRepository<QuestionEntity, String> {
+
+    List<QuestionEntity> findByDatasetIdOrderByPosition(String datasetId);
+
+    @Query("select distinct q.datasetId from QuestionEntity q where q.questionId = :questionId")
+    List<String> findDatasetIdsByQuestionId(String questionId);
+}
@@ -0,0 +1,7 @@
+package com.semantic.semanticvisualizer.repository;
+
+import com.semantic.semanticvisualizer.model.entity.SessionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface SessionRepository extends JpaRepository<SessionEntity, String> {
+}
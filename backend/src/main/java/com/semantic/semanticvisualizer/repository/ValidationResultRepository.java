@@ -0,0 +1,7 @@
+package com.semantic.semanticvisualizer.repository;
+
+import com.semantic.semanticvisualizer.model.entity.ValidationResultEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ValidationResultRepository extends JpaRepository<ValidationResultEntity, Long> {
+}
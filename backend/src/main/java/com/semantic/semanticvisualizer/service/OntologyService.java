@@ -1,8 +1,10 @@
 package com.semantic.semanticvisualizer.service;
 
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
 import com.semantic.semanticvisualizer.model.dto.NodeDetailsDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyStatsDTO;
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -51,4 +53,42 @@ public interface OntologyService {
     OntologyStatsDTO getOntologyStatistics(String ontologyContent, String format);
 
     OntologyGraphDTO parseOntologyWithLimit(String ontologyContent, String format, Integer maxNodes);
+
+    /**
+     * Parse ontology content into a graph sampled down to maxNodes
+     *
+     * @param ontologyContent The content of the ontology
+     * @param format The format of the ontology
+     * @param maxNodes The maximum number of nodes to keep
+     * @param options How literals and blank nodes are represented in the graph
+     * @return An OntologyGraphDTO containing the sampled graph
+     */
+    OntologyGraphDTO parseOntologyWithLimit(String ontologyContent, String format, Integer maxNodes,
+                                            GraphBuildOptions options);
+
+    /**
+     * Parse an uploaded ontology file straight from its input stream and sample it down to maxNodes
+     *
+     * @param file The MultipartFile containing the ontology data
+     * @param format The format of the ontology
+     * @param maxNodes The maximum number of nodes to keep
+     * @param options How literals and blank nodes are represented in the graph
+     * @return An OntologyGraphDTO containing the sampled graph
+     * @throws IOException If there is an error reading the file
+     */
+    OntologyGraphDTO parseOntologyFileWithLimit(MultipartFile file, String format, Integer maxNodes,
+                                                GraphBuildOptions options) throws IOException;
+
+    /**
+     * Prepare an RDF export of the sampled subgraph the user is currently looking at
+     *
+     * @param ontologyContent The content of the ontology
+     * @param format The format of the ontology content
+     * @param maxNodes The node limit used when sampling the view
+     * @param options The predicate/namespace/type filters of the view
+     * @param exportFormat The output format (turtle, ntriples, jsonld, thrift)
+     * @return A prepared export that streams the subgraph when written, and has to be closed if it never is
+     */
+    OntologyExport exportOntology(String ontologyContent, String format, Integer maxNodes, GraphBuildOptions options,
+                                  String exportFormat);
 }
\ No newline at end of file
@@ -2,9 +2,13 @@ package com.semantic.semanticvisualizer.service;
 
 import com.semantic.semanticvisualizer.model.vqa.*;
 import com.semantic.semanticvisualizer.model.vqa.graph.GraphResponse;
+import com.semantic.semanticvisualizer.model.vqa.graph.LinkedGraphResponse;
+import com.semantic.semanticvisualizer.model.vqa.graph.OntologyLinkSummary;
+import com.semantic.semanticvisualizer.model.vqa.graph.QuestionGraphResponse;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 
 /**
@@ -30,6 +34,24 @@ public interface VQAService {
      */
     VQADataset loadVQADatasetFromJson(String jsonContent);
 
+    /**
+     * Load a VQA dataset from a local JSON file
+     *
+     * @param file Path of the dataset file
+     * @return The loaded VQA dataset
+     * @throws IOException If there is an error reading the file
+     */
+    VQADataset loadVQADatasetFromFile(Path file) throws IOException;
+
+    /**
+     * Append questions to a loaded dataset, its index, graph and stored copy are extended in place
+     *
+     * @param datasetId   dataset ID
+     * @param jsonContent The questions, in the format of a VQA dataset
+     * @return The dataset with the appended questions
+     */
+    VQADataset appendQuestions(String datasetId, String jsonContent);
+
     /**
      * Get all questions for a specific dataset
      * This method is designed for loading FVQA (Fact-based Visual Question Answering) datasets (JSON format)
@@ -42,11 +64,51 @@ public interface VQAService {
     /**
      * Get a specific question by its ID
      *
-     * @param questionId question ID
+     * @param questionId question ID, or "datasetId::questionId" when several datasets use the same ID
      * @return The VQA question
      */
     VQAQuestion getQuestionById(String questionId);
 
+    /**
+     * Find questions by their attributes, all given ones have to match
+     *
+     * @param datasetId  dataset ID, or null for all datasets
+     * @param difficulty difficulty, or null
+     * @param imageId    image file, or null
+     * @param factId     fact ID, or null
+     * @return Matching questions in load order
+     */
+    List<VQAQuestion> findQuestions(String datasetId, String difficulty, String imageId, String factId);
+
+    /**
+     * One page of a dataset's questions in load order, all given filters have to match
+     *
+     * @param difficulty difficulty, or null
+     * @param imageId    image file, or null
+     * @param relation   relation type of an answer triple, or null
+     * @param text       words that all occur in the question text or fact, as indexed for search, or null
+     * @param cursor     nextCursor of the previous page, or null for the first page
+     * @param limit      at most this many questions
+     * @return The page, with the cursor of the next one
+     */
+    QuestionPage getQuestionPage(String datasetId, String difficulty, String imageId, String relation, String text,
+                                 String cursor, int limit);
+
+    /**
+     * Full-text search over question texts and facts, ranked by BM25
+     *
+     * @param query     words, and phrases in double quotes that have to occur as written
+     * @param datasetId dataset ID, or null for all datasets
+     * @param limit     at most this many hits
+     * @return The best matches, best first
+     */
+    QuestionSearchResponse searchQuestions(String query, String datasetId, int limit);
+
+    /**
+     * @return Memory held by the question search index, per dataset
+     */
+    List<SearchIndexFootprint> getSearchIndexFootprint();
+
     /**
      * Start a VQA session for a specific question
      *
@@ -64,6 +126,14 @@ public interface VQAService {
      */
     PathValidationResult validateUserPath(String sessionId, UserAnswerPath userPath);
 
+    /**
+     * Validate an answer path against its question without a session, e.g. for evaluating model predictions
+     *
+     * @param userPath the answer path, with the question ID
+     * @return The result of the path validation
+     */
+    PathValidationResult evaluatePath(UserAnswerPath userPath);
+
     /**
      * Generate a graph representation for a specific dataset
      *
@@ -73,11 +143,49 @@ public interface VQAService {
     GraphResponse generateGraphForDataset(String datasetId);
 
     /**
-     * Get a hint for the next step in answering a question based on the current path
+     * The dataset graph serialized as JSON, kept until questions are appended to the dataset
+     *
+     * @param datasetId dataset ID
+     * @return The JSON of the GraphResponse
+     */
+    byte[] getDatasetGraphJson(String datasetId);
+
+    /**
+     * The part of the dataset graph a question needs: the nodes of its answer triples or expected path,
+     * the nodes within the given number of hops of them (including distractors) and the edges between them
+     *
      * @param questionId question ID
-     * @param currentPath List of node URIs representing the current path
-     * @return A map containing hint information
+     * @param hops       hops to follow from the answer nodes, 0 for the answer nodes only
+     * @param maxNodes   upper limit on the nodes returned, nearest ones are kept
+     * @return The question's subgraph
      */
-//    Map<String, Object> getHint(String questionId, List<String> currentPath);
+    QuestionGraphResponse getQuestionGraph(String questionId, int hops, int maxNodes);
 
+    /**
+     * How many nodes of the dataset graph resolve to each loaded ontology, by exact URI, label or local name
+     *
+     * @param datasetId dataset ID
+     * @return One summary per ontology in the model cache, with the ID to request its linked graph by
+     */
+    List<OntologyLinkSummary> getOntologyLinks(String datasetId);
+
+    /**
+     * The dataset graph joined with a loaded ontology: links from dataset nodes to the resources they
+     * resolve to, and the ontology statements around those resources
+     *
+     * @param datasetId  dataset ID
+     * @param ontologyId ontology ID, from {@link #getOntologyLinks(String)}
+     * @param maxNodes   upper limit on the ontology nodes added
+     * @return The linked graph
+     */
+    LinkedGraphResponse getLinkedGraph(String datasetId, String ontologyId, int maxNodes);
+
+    /**
+     * Get a hint for the next step in answering a question based on the current path
+     *
+     * @param questionId  question ID
+     * @param currentPath List of node URIs representing the current path, empty when not started
+     * @return The next answer node, the neighbours of the last path node leading to it and the distances left
+     */
+    HintResult getHint(String questionId, List<String> currentPath);
 }
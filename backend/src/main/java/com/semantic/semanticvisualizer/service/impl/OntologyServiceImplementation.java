@@ -2,17 +2,25 @@ package com.semantic.semanticvisualizer.service.impl;
 
 import com.semantic.semanticvisualizer.model.dto.NodeDetailsDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.model.dto.NodeDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyStatsDTO;
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
 import com.semantic.semanticvisualizer.service.OntologyService;
+import com.semantic.semanticvisualizer.service.impl.admission.ParseAdmissionControl;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyExporter;
 import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyGraphBuilder;
 import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyModelLoader;
 import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyNodeDetails;
 import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologySampler;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyTripleFilter;
 import org.apache.jena.rdf.model.Model;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class OntologyServiceImplementation implements OntologyService {
@@ -23,38 +31,67 @@ public class OntologyServiceImplementation implements OntologyService {
     private final OntologyGraphBuilder graphBuilder;
     private final OntologySampler sampler;
     private final OntologyNodeDetails nodeDetailsService;
+    private final OntologyExporter exporter;
+    private final ParseAdmissionControl admissionControl;
 
     public OntologyServiceImplementation(OntologyModelLoader modelLoader, OntologyGraphBuilder graphBuilder
-            , OntologySampler sampler, OntologyNodeDetails nodeDetailsService) {
+            , OntologySampler sampler, OntologyNodeDetails nodeDetailsService, OntologyExporter exporter
+            , ParseAdmissionControl admissionControl) {
         this.modelLoader = modelLoader;
         this.graphBuilder = graphBuilder;
         this.sampler = sampler;
         this.nodeDetailsService = nodeDetailsService;
+        this.exporter = exporter;
+        this.admissionControl = admissionControl;
     }
 
 
     @Override
     public OntologyGraphDTO parseOntology(String ontologyContent, String format) {
-        Model model = modelLoader.loadModel(ontologyContent, format);
-        return graphBuilder.buildGraphFromModel(model, MAX_NODES_DEFAULT);
+        try (ParseAdmissionControl.Permit ignored = admissionControl.admit(contentLength(ontologyContent), format)) {
+            Model model = modelLoader.loadModel(ontologyContent, format);
+            return graphBuilder.buildGraphFromModel(model, MAX_NODES_DEFAULT);
+        }
     }
 
     @Override
     public OntologyGraphDTO parseOntologyFile(MultipartFile file, String format) throws IOException {
-        Model model = modelLoader.loadModelFromFile(file, format);
-        return graphBuilder.buildGraphFromModel(model, MAX_NODES_DEFAULT);
+        try (ParseAdmissionControl.Permit ignored = admissionControl.admit(file.getSize(), format)) {
+            Model model = modelLoader.loadModelFromFile(file, format);
+            return graphBuilder.buildGraphFromModel(model, MAX_NODES_DEFAULT);
+        }
     }
 
     public OntologyGraphDTO parseOntologyWithLimit(String ontologyContent, String format, Integer maxNodes) {
-        Model model = modelLoader.loadModel(ontologyContent, format);
-        OntologyGraphDTO graph = graphBuilder.buildGraphFromModel(model, maxNodes);
-        return sampler.limitGraph(graph, maxNodes);
+        return parseOntologyWithLimit(ontologyContent, format, maxNodes, GraphBuildOptions.defaults());
+    }
+
+    @Override
+    public OntologyGraphDTO parseOntologyWithLimit(String ontologyContent, String format, Integer maxNodes,
+                                                   GraphBuildOptions options) {
+        try (ParseAdmissionControl.Permit ignored = admissionControl.admit(contentLength(ontologyContent), format)) {
+            Model model = modelLoader.loadModel(ontologyContent, format);
+            OntologyGraphDTO graph = graphBuilder.buildGraphFromModel(model, maxNodes, options);
+            return sampler.limitGraph(graph, maxNodes);
+        }
+    }
+
+    @Override
+    public OntologyGraphDTO parseOntologyFileWithLimit(MultipartFile file, String format, Integer maxNodes,
+                                                       GraphBuildOptions options) throws IOException {
+        try (ParseAdmissionControl.Permit ignored = admissionControl.admit(file.getSize(), format)) {
+            Model model = modelLoader.loadModelFromFile(file, format);
+            OntologyGraphDTO graph = graphBuilder.buildGraphFromModel(model, maxNodes, options);
+            return sampler.limitGraph(graph, maxNodes);
+        }
     }
 
     @Override
     public NodeDetailsDTO getNodeDetails(String nodeId, String ontologyContent, String format) {
-        Model model = modelLoader.loadModel(ontologyContent, format);
-        return nodeDetailsService.extractDetails(model, nodeId);
+        try (ParseAdmissionControl.Permit ignored = admissionControl.admit(contentLength(ontologyContent), format)) {
+            Model model = modelLoader.loadModel(ontologyContent, format);
+            return nodeDetailsService.extractDetails(model, nodeId);
+        }
     }
 
     @Override
@@ -62,4 +99,47 @@ public class OntologyServiceImplementation implements OntologyService {
         OntologyGraphDTO graph = parseOntology(ontologyContent, format);
         return graph.calculateStatistics();
     }
+
+    @Override
+    public OntologyExport exportOntology(String ontologyContent, String format, Integer maxNodes,
+                                         GraphBuildOptions options, String exportFormat) {
+        // The model stays alive until the export is streamed, so the permit is only released after writing,
+        // or when the export is closed without being written
+        ParseAdmissionControl.Permit permit = admissionControl.admit(contentLength(ontologyContent), format);
+        try {
+            // The exported RDF keeps literals and blank nodes as they are, only the filters carry over
+            GraphBuildOptions filters = GraphBuildOptions.builder()
+                    .includePredicates(options.getIncludePredicates())
+                    .excludePredicates(options.getExcludePredicates())
+                    .includeNamespaces(options.getIncludeNamespaces())
+                    .excludeNamespaces(options.getExcludeNamespaces())
+                    .includeTypes(options.getIncludeTypes())
+                    .excludeTypes(options.getExcludeTypes())
+                    .build();
+
+            Model model = modelLoader.loadModel(ontologyContent, format);
+            OntologyGraphDTO graph = graphBuilder.buildGraphFromModel(model, maxNodes, filters);
+            OntologyGraphDTO sampled = sampler.limitGraph(graph, maxNodes);
+
+            // Nothing was sampled away - stream the whole model without a node filter
+            Set<String> nodeIds = sampled == graph ? null : sampled.getNodes().stream()
+                    .map(NodeDTO::getId)
+                    .collect(Collectors.toSet());
+
+            OntologyExport export = exporter.prepareExport(model, nodeIds, OntologyTripleFilter.of(model, filters),
+                    exportFormat);
+            return new OntologyExport(export.getFormat(), export.getContentType(), export.getFileName(), out -> {
+                try (permit) {
+                    export.writeTo(out);
+                }
+            }, permit::close);
+        } catch (RuntimeException e) {
+            permit.close();
+            throw e;
+        }
+    }
+
+    private long contentLength(String ontologyContent) {
+        return ontologyContent == null ? 0 : ontologyContent.length();
+    }
 }
@@ -1,13 +1,25 @@
 package com.semantic.semanticvisualizer.service.impl;
 
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.semantic.semanticvisualizer.model.vqa.*;
-import com.semantic.semanticvisualizer.model.vqa.TripleVQA.KGEntity;
-import com.semantic.semanticvisualizer.model.vqa.graph.GraphEdge;
-import com.semantic.semanticvisualizer.model.vqa.graph.GraphNode;
 import com.semantic.semanticvisualizer.model.vqa.graph.GraphResponse;
+import com.semantic.semanticvisualizer.model.vqa.graph.LinkedGraphResponse;
+import com.semantic.semanticvisualizer.model.vqa.graph.OntologyLinkSummary;
+import com.semantic.semanticvisualizer.model.vqa.graph.QuestionGraphResponse;
+import com.semantic.semanticvisualizer.monitoring.jfr.DatasetIngestEvent;
+import com.semantic.semanticvisualizer.monitoring.jfr.PathValidationEvent;
 import com.semantic.semanticvisualizer.service.VQAService;
+import com.semantic.semanticvisualizer.service.impl.persistence.VQAPersistence;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.DatasetGraph;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.DistanceFieldCache;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.ExpectedPath;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.FvqaDatasetReader;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.OntologyLinker;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.PathScoring;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.QuestionIndex;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.QuestionSearchIndex;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.ReachabilityIndex;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.SessionStore;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
@@ -16,48 +28,136 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
 
 @Service
 @Slf4j
 public class VQAServiceImplementation implements VQAService {
 
-    private final ObjectMapper objectMapper; // for JSON processing (serialization/deserialization)
-    private final Map<String, VQADataset> vqaDatasets = new ConcurrentHashMap<>();
-    private final Map<String, VQASessionDTO> vqaSessions = new ConcurrentHashMap<>();
+    private static final int MAX_HINT_STEPS = 3;
+    private static final int MAX_PAGE_SIZE = 500;
 
-    public VQAServiceImplementation(ObjectMapper objectMapper) {
+    private final Map<String, VQADataset> vqaDatasets = new ConcurrentHashMap<>();
+    private final QuestionIndex questionIndex = new QuestionIndex();
+    private final QuestionSearchIndex searchIndex = new QuestionSearchIndex();
+    private final Map<String, DatasetGraph> graphs = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final FvqaDatasetReader datasetReader;
+    private final SessionStore sessionStore;
+    private final VQAPersistence persistence;
+    private final OntologyLinker ontologyLinker;
+    private final DistanceFieldCache distanceFields;
+    private volatile boolean allDatasetsLoaded;
+
+    public VQAServiceImplementation(ObjectMapper objectMapper, SessionStore sessionStore, VQAPersistence persistence,
+                                    OntologyLinker ontologyLinker, DistanceFieldCache distanceFields) {
         this.objectMapper = objectMapper;
+        this.datasetReader = new FvqaDatasetReader(objectMapper);
+        this.sessionStore = sessionStore;
+        this.persistence = persistence;
+        this.ontologyLinker = ontologyLinker;
+        this.distanceFields = distanceFields;
     }
 
     @Override
     public VQADataset loadVQADataset(MultipartFile file) throws IOException {
-        String content = new String(file.getBytes());
-        return loadVQADatasetFromJson(content);
+        try (InputStream in = file.getInputStream()) {
+            return registerDataset(file.getSize(), () -> datasetReader.read(in), true);
+        }
+    }
+
+    @Override
+    public VQADataset loadVQADatasetFromFile(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            // Not persisted, the file is loaded again on the next start
+            return registerDataset(Files.size(file), () -> datasetReader.read(in), false);
+        }
     }
 
     @Override
     public VQADataset loadVQADatasetFromJson(String jsonContent) {
-        try {
-            JsonNode root = objectMapper.readTree(jsonContent);
+        if (jsonContent == null) {
+            throw new IllegalArgumentException("Dataset JSON cannot be empty");
+        }
+        return registerDataset(jsonContent.length(), () -> datasetReader.read(jsonContent), true);
+    }
+
+    @Override
+    public VQADataset appendQuestions(String datasetId, String jsonContent) {
+        VQADataset dataset = dataset(datasetId);
+        if (dataset == null) {
+            throw new IllegalArgumentException("Dataset not found: " + datasetId);
+        }
+        if (jsonContent == null) {
+            throw new IllegalArgumentException("Questions JSON cannot be empty");
+        }
 
-            List<VQAQuestion> questions = new ArrayList<>();
+        FvqaDatasetReader.Result result;
+        try {
+            result = datasetReader.read(jsonContent);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid questions JSON: " + e.getMessage(), e);
+        }
+        List<VQAQuestion> questions = result.questions();
+        if (questions.isEmpty() && result.rejectedCount() > 0) {
+            throw new IllegalArgumentException("None of the " + result.rejectedCount()
+                    + " question records could be loaded, first error: " + result.errors().get(0).getMessage());
+        }
 
-            if (root.isArray()) {
-                for (JsonNode qNode : root) {
-                    VQAQuestion q = objectMapper.treeToValue(qNode, VQAQuestion.class);
-                    questions.add(q);
-                }
-            } else if (root.has("questions") && root.get("questions").isArray()) {
-                for (JsonNode qNode : root.get("questions")) {
-                    VQAQuestion q = objectMapper.treeToValue(qNode, VQAQuestion.class);
-                    questions.add(q);
+        synchronized (dataset) {
+            int firstPosition = dataset.getQuestions().size();
+            questions.forEach(question -> question.setDatasetId(datasetId));
+            questionIndex.addDataset(datasetId, questions);
+            searchIndex.addDataset(datasetId, questions);
+            DatasetGraph graph = graphs.get(datasetId);
+            graph.addQuestions(questions);
+            ontologyLinker.linkDataset(graph);
+
+            // New lists rather than adding to them, readers may be going through the current ones
+            List<VQAQuestion> all = new ArrayList<>(firstPosition + questions.size());
+            all.addAll(dataset.getQuestions());
+            all.addAll(questions);
+            List<DatasetRecordError> errors = new ArrayList<>(
+                    dataset.getErrors() == null ? List.of() : dataset.getErrors());
+            for (DatasetRecordError error : result.errors()) {
+                if (errors.size() < FvqaDatasetReader.MAX_REPORTED_ERRORS) {
+                    errors.add(error);
                 }
-            } else {
-                throw new IllegalArgumentException("Invalid dataset JSON: must be an array or an object containing a 'questions' array");
+            }
+            dataset.setQuestions(all);
+            dataset.setQuestionCount(all.size());
+            dataset.setRejectedCount(dataset.getRejectedCount() + result.rejectedCount());
+            dataset.setErrors(errors);
+
+            persistence.saveQuestions(dataset, firstPosition, questions);
+        }
+        log.info("Appended {} questions to dataset {}", questions.size(), datasetId);
+        return dataset;
+    }
+
+    @FunctionalInterface
+    private interface DatasetSource {
+        FvqaDatasetReader.Result read() throws IOException;
+    }
+
+    /**
+     * Single ingest path for uploads, request bodies and preloaded files: the questions are streamed
+     * from the source, indexed and registered under a new dataset id, and saved in the background
+     */
+    private VQADataset registerDataset(long sizeBytes, DatasetSource source, boolean persist) {
+        DatasetIngestEvent event = new DatasetIngestEvent();
+        event.begin();
+        try {
+            FvqaDatasetReader.Result result = source.read();
+            List<VQAQuestion> questions = result.questions();
+            if (questions.isEmpty() && result.rejectedCount() > 0) {
+                throw new IllegalArgumentException("None of the " + result.rejectedCount()
+                        + " question records could be loaded, first error: " + result.errors().get(0).getMessage());
             }
 
             String datasetId = generateDatasetId();
@@ -70,20 +170,74 @@ public class VQAServiceImplementation implements VQAService {
             dataset.setUploadedAt(LocalDateTime.now());
             dataset.setFormat("FVQA");
             dataset.setDescription("Automatically imported FVQA dataset");
+            dataset.setRejectedCount(result.rejectedCount());
+            dataset.setErrors(result.errors());
 
+            index(dataset);
+            // Saved before it is registered, so questions appended to it are saved after it
+            if (persist) {
+                persistence.saveDataset(dataset);
+            }
             vqaDatasets.put(datasetId, dataset);
 
+            if (result.rejectedCount() > 0) {
+                log.warn("Dataset {} loaded with {} rejected question records", datasetId, result.rejectedCount());
+            }
+            commitIngestEvent(event, datasetId, sizeBytes, questions.size(), true);
             return dataset;
 
+        } catch (IllegalArgumentException e) {
+            commitIngestEvent(event, null, sizeBytes, 0, false);
+            throw e;
         } catch (Exception e) {
+            commitIngestEvent(event, null, sizeBytes, 0, false);
             log.error("Failed to parse VQA dataset JSON", e);
-            throw new IllegalArgumentException("Invalid VQA dataset JSON", e);
+            throw new IllegalArgumentException("Invalid VQA dataset JSON: " + e.getMessage(), e);
+        }
+    }
+
+    private void commitIngestEvent(DatasetIngestEvent event, String datasetId, long sizeBytes,
+                                   int questions, boolean succeeded) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.datasetId = datasetId;
+            event.sizeBytes = sizeBytes;
+            event.questions = questions;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    private VQADataset index(VQADataset dataset) {
+        dataset.getQuestions().forEach(question -> question.setDatasetId(dataset.getId()));
+        questionIndex.addDataset(dataset.getId(), dataset.getQuestions());
+        searchIndex.addDataset(dataset.getId(), dataset.getQuestions());
+        DatasetGraph graph = new DatasetGraph(dataset.getQuestions(), distanceFields);
+        graphs.put(dataset.getId(), graph);
+        ontologyLinker.linkDataset(graph);
+        return dataset;
+    }
+
+    /**
+     * A loaded dataset, or a stored one that is loaded and indexed on first use
+     *
+     * @return The dataset, or null when it is unknown
+     */
+    private VQADataset dataset(String datasetId) {
+        if (datasetId == null) {
+            return null;
         }
+        VQADataset dataset = vqaDatasets.get(datasetId);
+        if (dataset != null) {
+            return dataset;
+        }
+        return vqaDatasets.computeIfAbsent(datasetId,
+                id -> persistence.findDataset(id).map(this::index).orElse(null));
     }
 
     @Override
     public List<VQAQuestion> getAllQuestions(String datasetId) {
-        VQADataset dataset = vqaDatasets.get(datasetId);
+        VQADataset dataset = dataset(datasetId);
         if (dataset == null) {
             throw new IllegalArgumentException("Dataset not found: " + datasetId);
         }
@@ -92,12 +246,132 @@ public class VQAServiceImplementation implements VQAService {
 
     @Override
     public VQAQuestion getQuestionById(String questionId) {
-        return vqaDatasets.values()
-                .stream()
-                .flatMap(dataset -> dataset.getQuestions().stream())
-                .filter(q -> q.getId().equals(questionId))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Question not found: " + questionId));
+        VQAQuestion question = questionIndex.get(questionId);
+        if (question == null && questionId != null) {
+            question = loadStoredQuestion(questionId);
+        }
+        if (question == null) {
+            throw new IllegalArgumentException("Question not found: " + questionId);
+        }
+        return question;
+    }
+
+    @Override
+    public List<VQAQuestion> findQuestions(String datasetId, String difficulty, String imageId, String factId) {
+        if (datasetId != null && !datasetId.isEmpty()) {
+            if (dataset(datasetId) == null) {
+                throw new IllegalArgumentException("Dataset not found: " + datasetId);
+            }
+        } else {
+            loadStoredDatasets();
+        }
+        return questionIndex.find(datasetId, difficulty, imageId, factId);
+    }
+
+    // Searching every dataset needs the stored ones in the indexes too
+    private void loadStoredDatasets() {
+        if (!allDatasetsLoaded) {
+            persistence.findDatasetIds().forEach(this::dataset);
+            allDatasetsLoaded = true;
+        }
+    }
+
+    @Override
+    public QuestionSearchResponse searchQuestions(String query, String datasetId, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (datasetId != null && !datasetId.isEmpty()) {
+            if (dataset(datasetId) == null) {
+                throw new IllegalArgumentException("Dataset not found: " + datasetId);
+            }
+        } else {
+            loadStoredDatasets();
+        }
+
+        long start = System.nanoTime();
+        QuestionSearchIndex.Result result = searchIndex.search(query, datasetId, limit);
+        List<QuestionSearchHit> hits = result.hits().stream()
+                .map(hit -> QuestionSearchHit.builder()
+                        .score(hit.score())
+                        .question(summarize(hit.question()))
+                        .factSurface(hit.question().getFactSurface())
+                        .build())
+                .toList();
+        return QuestionSearchResponse.builder()
+                .query(query)
+                .datasetId(datasetId)
+                .total(result.total())
+                .hits(hits)
+                .tookMs((System.nanoTime() - start) / 1_000_000.0)
+                .build();
+    }
+
+    @Override
+    public List<SearchIndexFootprint> getSearchIndexFootprint() {
+        return searchIndex.footprint().stream()
+                .map(footprint -> SearchIndexFootprint.builder()
+                        .datasetId(footprint.datasetId())
+                        .questions(footprint.questions())
+                        .terms(footprint.terms())
+                        .postings(footprint.postings())
+                        .positions(footprint.positions())
+                        .estimatedBytes(footprint.estimatedBytes())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public QuestionPage getQuestionPage(String datasetId, String difficulty, String imageId, String relation,
+                                        String text, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        int fromPosition = 0;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                fromPosition = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                fromPosition = -1;
+            }
+            if (fromPosition < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+        if (dataset(datasetId) == null) {
+            throw new IllegalArgumentException("Dataset not found: " + datasetId);
+        }
+
+        List<String> words = QuestionIndex.tokenize(text);
+        int[] textPositions = words.isEmpty() ? null : searchIndex.positionsWithAll(datasetId, words);
+        QuestionIndex.Page page = questionIndex.page(datasetId, difficulty, imageId, relation, textPositions,
+                fromPosition, limit);
+        return QuestionPage.builder()
+                .datasetId(datasetId)
+                .items(page.questions().stream().map(this::summarize).toList())
+                .limit(limit)
+                .nextCursor(page.nextPosition() == null ? null : String.valueOf(page.nextPosition()))
+                .build();
+    }
+
+    private QuestionSummary summarize(VQAQuestion question) {
+        int pathLength;
+        try {
+            pathLength = questionIndex.expectedPath(question).nodes().size();
+        } catch (IllegalArgumentException e) {
+            pathLength = 0;
+        }
+        return QuestionSummary.builder()
+                .id(question.getId())
+                .datasetId(question.getDatasetId())
+                .questionText(question.getQuestionText())
+                .answer(question.getAnswer())
+                .difficulty(question.getDifficulty())
+                .imageId(question.getImageId())
+                .factId(question.getFactId())
+                .relations(ExpectedPath.relationsOf(question))
+                .pathLength(pathLength)
+                .build();
     }
 
     @Override
@@ -115,273 +389,245 @@ public class VQAServiceImplementation implements VQAService {
                 .completed(false)
                 .build();
 
-        vqaSessions.put(session.getSessionId(), session);
+        sessionStore.put(session);
         return session;
     }
 
     @Override
     public PathValidationResult validateUserPath(String sessionId, UserAnswerPath userPath) {
+        PathValidationEvent event = new PathValidationEvent();
+        event.begin();
 
-        VQASessionDTO session = vqaSessions.get(sessionId);
-        if (session == null) throw new IllegalArgumentException("Session not found: " + sessionId);
+        if (sessionStore.get(sessionId) == null) {
+            throw new IllegalArgumentException("Session not found or expired: " + sessionId);
+        }
 
         VQAQuestion question = getQuestionById(userPath.getQuestionId());
+        PathValidationResult result = evaluate(question, userPath);
+
+        // A correct answer completes the session, which then only lives for vqa.sessions.completed-ttl
+        sessionStore.update(sessionId, session -> {
+            session.setAttempts(session.getAttempts() + 1);
+            session.setCurrentPathNodeURIs(result.getUserPath());
+            session.setExpectedPathLength(result.getExpectedPath().size());
+            session.setProgress(result.getSimilarityScore());
+            session.setCompleted(session.isCompleted() || result.isCorrect());
+            return session;
+        });
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.sessionId = sessionId;
+            event.questionId = question.getId();
+            event.userPathLength = result.getUserPath().size();
+            event.expectedPathLength = result.getExpectedPath().size();
+            event.correct = result.isCorrect();
+            event.similarity = result.getSimilarityScore();
+            event.commit();
+        }
 
-        List<String> correctPath = resolveCorrectPath(question);
-        List<String> userNodeURIs = userPath.getNodeURIs();
+        persistence.saveValidation(sessionId, QuestionIndex.qualify(question.getDatasetId(), question.getId()), result);
+        return result;
+    }
 
-        double similarity = calculatePathSimilarity(correctPath, userNodeURIs);
+    @Override
+    public PathValidationResult evaluatePath(UserAnswerPath userPath) {
+        if (userPath == null || userPath.getQuestionId() == null) {
+            throw new IllegalArgumentException("questionId is required");
+        }
+        return evaluate(getQuestionById(userPath.getQuestionId()), userPath);
+    }
 
-        // Normalize both paths
-        List<String> normalizedUser = normalizePath(userNodeURIs);
-        List<String> normalizedExpected = normalizePath(correctPath);
+    /**
+     * Scores a path against the question's compiled expected path: one set of the submitted nodes,
+     * every membership test a hash lookup
+     */
+    private PathValidationResult evaluate(VQAQuestion question, UserAnswerPath userPath) {
+        if (userPath.getNodeURIs() == null) {
+            throw new IllegalArgumentException("nodeURIs is required for question " + question.getId());
+        }
 
-        boolean isCorrect = new HashSet<>(normalizedUser).equals(new HashSet<>(normalizedExpected));
+        ExpectedPath expected = questionIndex.expectedPath(question);
+        List<String> userNodeURIs = userPath.getNodeURIs();
+        Set<String> userNodes = PathScoring.distinctNodes(userNodeURIs);
+        PathScoring.PathScore score = PathScoring.score(expected, userNodeURIs, userNodes);
 
         //  classify nodes properly ----
-        List<String> correctNodes = new ArrayList<>();
+        List<String> correctNodes = new ArrayList<>(userNodeURIs.size());
         List<String> incorrectNodes = new ArrayList<>();
+        Map<String, Double> opacity = new HashMap<>();
 
         for (String node : userNodeURIs) {
-            if (normalizedExpected.contains(node)) correctNodes.add(node);
+            boolean correct = expected.nodeSet().contains(PathScoring.trim(node));
+            if (correct) correctNodes.add(node);
             else incorrectNodes.add(node);
+            opacity.put(node, correct ? 1.0 : 0.3);
         }
 
         // Missed nodes
         List<String> missedNodes = new ArrayList<>();
-        for (String expected : normalizedExpected) {
-            if (!normalizedUser.contains(expected)) missedNodes.add(expected);
+        for (String node : expected.nodes()) {
+            if (!userNodes.contains(node)) missedNodes.add(node);
+            opacity.putIfAbsent(node, 0.5);
         }
 
-        Map<String, Double> opacity = calculateNodeOpacity(userNodeURIs, correctPath);
-
-        String feedback = generateFeedback(similarity, correctNodes.size(), incorrectNodes.size(), missedNodes.size());
+        String feedback = generateFeedback(score.jaccard(), correctNodes.size(), incorrectNodes.size(), missedNodes.size());
 
         return PathValidationResult.builder()
-                .isCorrect(isCorrect)
-                .similarityScore(similarity)
+                .isCorrect(score.setMatch())
+                .similarityScore(score.jaccard())
+                .orderScore(score.orderScore())
                 .correctNodes(correctNodes)
                 .incorrectNodes(incorrectNodes)
                 .missedNodes(missedNodes)
-                .highlightedTriples(question.getAnswerTriplets() == null ?
-                        List.of(question.getTriple()) :
-                        question.getAnswerTriplets())
+                .highlightedTriples(question.getAnswerTriplets() != null ? question.getAnswerTriplets()
+                        : question.getTriple() != null ? List.of(question.getTriple())
+                        : List.of()) // path-only questions have no triples to highlight
                 .nodeOpacityMap(opacity)
-                .expectedPath(correctPath)
+                .expectedPath(expected.nodes())
                 .userPath(userNodeURIs)
                 .feedback(feedback)
                 .build();
     }
 
-    @Override
-    public GraphResponse generateGraphForDataset(String datasetId) {
-
-        VQADataset dataset = vqaDatasets.get(datasetId);
-        if (dataset == null)
-            throw new IllegalArgumentException("Dataset not found: " + datasetId);
-
-        Map<String, GraphNode> nodes = new LinkedHashMap<>();
-        List<GraphEdge> edges = new ArrayList<>();
-
-        for (VQAQuestion q : dataset.getQuestions()) {
-
-            // FVQA single triple
-            if (q.getTriple() != null) {
-                addTriple(q.getTriple(), nodes, edges);
-            }
-
-            // FVQA multiple triples
-            if (q.getAnswerTriplets() != null) {
-                for (TripleVQA t : q.getAnswerTriplets()) {
-                    addTriple(t, nodes, edges);
-                }
-            }
-
-            // Path-based datasets
-            List<String> path = q.getExpectedPath();
-            if (path != null && !path.isEmpty()) {
-                for (int i = 0; i < path.size(); i++) {
-
-                    String nodeId = path.get(i);
-                    if (nodeId == null) continue;
-
-                    String label = nodeId.contains("/")
-                            ? nodeId.substring(nodeId.lastIndexOf("/") + 1)
-                            : nodeId;
-
-                    nodes.putIfAbsent(nodeId, new GraphNode(nodeId, label, "entity"));
-
-                    if (i < path.size() - 1) {
-                        edges.add(new GraphEdge(
-                                nodeId,
-                                path.get(i + 1),
-                                "relatedTo"
-                        ));
-                    }
-                }
+    // Loads the stored dataset a question belongs to, its own or the first one having its plain id
+    private VQAQuestion loadStoredQuestion(String questionId) {
+        int separator = questionId.indexOf(QuestionIndex.QUALIFIER_SEPARATOR);
+        if (separator > 0) {
+            dataset(questionId.substring(0, separator));
+        } else {
+            List<String> datasetIds = persistence.findDatasetIdsWithQuestion(questionId);
+            if (!datasetIds.isEmpty()) {
+                dataset(datasetIds.get(0));
             }
         }
-
-        return new GraphResponse(new ArrayList<>(nodes.values()), edges);
+        return questionIndex.get(questionId);
     }
 
-
-    // ---------------------------------------------------------
-    // UTILITY METHODS
-    // ---------------------------------------------------------
-
-    private String generateDatasetId() {
-        return "fvqa-" + UUID.randomUUID().toString().substring(0, 7);
+    @Override
+    public GraphResponse generateGraphForDataset(String datasetId) {
+        return graph(datasetId).toResponse();
     }
 
-    private List<String> normalizePath(List<String> rawPath) {
-        return rawPath.stream()
-                .map(node -> {
-                    // If it's already a full URI → keep it
-                    if (node.startsWith("http://") || node.startsWith("https://")) {
-                        return node.trim();
-                    }
-                    // otherwise keep label AS IS (no splitting!)
-                    return node.trim();
-                })
-                .toList();
+    @Override
+    public byte[] getDatasetGraphJson(String datasetId) {
+        return graph(datasetId).toJson(objectMapper);
     }
 
-
-    private void addTriple(TripleVQA triple,
-                           Map<String, GraphNode> nodeMap,
-                           List<GraphEdge> edges) {
-
-        if (triple == null ||
-                triple.getSubject() == null ||
-                triple.getObject() == null ||
-                triple.getRelation() == null) {
-            return; // skip invalid triple
-        }
-
-        // subject
-        String subjectId = triple.getSubject().getUri();
-        if (subjectId == null || subjectId.isBlank()) {
-            subjectId = triple.getSubject().getLabel();
-        }
-        if (subjectId == null || subjectId.isBlank()) {
-            return; // skip broken triple
+    @Override
+    public QuestionGraphResponse getQuestionGraph(String questionId, int hops, int maxNodes) {
+        if (hops < 0) {
+            throw new IllegalArgumentException("hops must not be negative");
         }
-        subjectId = subjectId.trim();
-
-        String sLabel = triple.getSubject().getLabel();
-        if (sLabel == null || sLabel.isBlank()) {
-            sLabel = subjectId.contains("/") ? subjectId.substring(subjectId.lastIndexOf("/") + 1) : subjectId;
+        if (maxNodes < 1) {
+            throw new IllegalArgumentException("maxNodes must be at least 1");
         }
+        VQAQuestion question = getQuestionById(questionId);
+        List<String> answerNodes = DatasetGraph.answerNodes(question);
+        DatasetGraph.Subgraph subgraph = graph(question.getDatasetId()).neighbourhood(answerNodes, hops, maxNodes);
+
+        return QuestionGraphResponse.builder()
+                .questionId(question.getId())
+                .datasetId(question.getDatasetId())
+                .hops(hops)
+                .answerNodes(answerNodes)
+                .nodes(subgraph.nodes())
+                .edges(subgraph.edges())
+                .truncated(subgraph.truncated())
+                .build();
+    }
 
-        // object
-        String objectId = triple.getObject().getUri();
-        if (objectId == null || objectId.isBlank()) {
-            objectId = triple.getObject().getLabel();
-        }
-        if (objectId == null || objectId.isBlank()) {
-            return; // skip broken triple
+    @Override
+    public HintResult getHint(String questionId, List<String> currentPath) {
+        VQAQuestion question = getQuestionById(questionId);
+        List<String> path = currentPath == null ? List.of() : currentPath;
+        Set<String> visited = PathScoring.distinctNodes(path);
+
+        // Answer nodes still missing, in the order of the expected path
+        List<String> remaining = new ArrayList<>();
+        for (String node : questionIndex.expectedPath(question).nodes()) {
+            if (node != null && !visited.contains(node) && !remaining.contains(node)) {
+                remaining.add(node);
+            }
         }
-        objectId = objectId.trim();
-
-        String oLabel = triple.getObject().getLabel();
-        if (oLabel == null || oLabel.isBlank()) {
-            oLabel = objectId.contains("/") ? objectId.substring(objectId.lastIndexOf("/") + 1) : objectId;
+        if (remaining.isEmpty()) {
+            return HintResult.builder()
+                    .questionId(question.getId())
+                    .complete(true)
+                    .nextNodes(List.of())
+                    .message("Every node of the answer is on your path, validate it!")
+                    .build();
         }
 
-        // ---- RELATION ----
-        String rLabel = triple.getRelation().getLabel();
-        if (rLabel == null || rLabel.isBlank()) {
-            rLabel = triple.getRelation().getUri();
+        ReachabilityIndex reachability = graph(question.getDatasetId()).reachability();
+        String target = remaining.get(0);
+        String last = path.isEmpty() ? null : PathScoring.trim(path.get(path.size() - 1));
+
+        int toTarget;
+        List<String> nextNodes = List.of();
+        if (last == null) {
+            toTarget = 0; // the path starts at the target
+        } else {
+            toTarget = reachability.distance(last, target);
+            nextNodes = reachability.nextSteps(last, target, MAX_HINT_STEPS);
         }
-        if (rLabel == null || rLabel.isBlank()) {
-            rLabel = "relatedTo"; // fallback
+        if (nextNodes.isEmpty()) {
+            nextNodes = List.of(target);
         }
-        rLabel = rLabel.trim();
 
-        // ---- Add nodes ----
-        nodeMap.putIfAbsent(subjectId, new GraphNode(subjectId, sLabel, "entity"));
-        nodeMap.putIfAbsent(objectId, new GraphNode(objectId, oLabel, "entity"));
+        int remainingDistance = toTarget;
+        for (int i = 0; i + 1 < remaining.size() && remainingDistance != ReachabilityIndex.UNREACHABLE; i++) {
+            int segment = reachability.distance(remaining.get(i), remaining.get(i + 1));
+            remainingDistance = segment == ReachabilityIndex.UNREACHABLE
+                    ? ReachabilityIndex.UNREACHABLE : remainingDistance + segment;
+        }
 
-        // ---- Add edge ----
-        edges.add(new GraphEdge(subjectId, objectId, rLabel));
+        return HintResult.builder()
+                .questionId(question.getId())
+                .complete(false)
+                .targetNode(target)
+                .nextNodes(nextNodes)
+                .distanceToTarget(toTarget)
+                .remainingDistance(remainingDistance)
+                .message(generateHintMessage(last, toTarget, remaining.size()))
+                .build();
     }
 
-    private List<String> resolveCorrectPath(VQAQuestion question) {
-
-        if (question.getExpectedPath() != null && !question.getExpectedPath().isEmpty()) {
-            return question.getExpectedPath();
-        }
-
-        Function<KGEntity, String> nodeId = entity -> {
-            if (entity.getUri() != null && !entity.getUri().isBlank()) {
-                return entity.getUri();
-            }
-            return entity.getLabel();
-        };
-
-        if (question.getAnswerTriplets() != null && !question.getAnswerTriplets().isEmpty()) {
-            List<String> seq = new ArrayList<>();
-            for (TripleVQA t : question.getAnswerTriplets()) {
-                // subject → object (relation stays as edge label, NOT a node)
-                seq.add(nodeId.apply(t.getSubject()));
-                seq.add(nodeId.apply(t.getObject()));
-            }
-            return seq;
-        }
+    @Override
+    public List<OntologyLinkSummary> getOntologyLinks(String datasetId) {
+        return ontologyLinker.summarize(graph(datasetId));
+    }
 
-        if (question.getTriple() != null) {
-            TripleVQA t = question.getTriple();
-            return List.of(
-                    nodeId.apply(t.getSubject()),
-                    nodeId.apply(t.getObject())
-            );
+    @Override
+    public LinkedGraphResponse getLinkedGraph(String datasetId, String ontologyId, int maxNodes) {
+        if (maxNodes < 0) {
+            throw new IllegalArgumentException("maxNodes must not be negative");
         }
-
-        throw new IllegalArgumentException("No valid path found in VQAQuestion: " + question.getId());
+        return ontologyLinker.linkedGraph(datasetId, graph(datasetId), ontologyId, maxNodes);
     }
 
+    private DatasetGraph graph(String datasetId) {
+        if (dataset(datasetId) == null)
+            throw new IllegalArgumentException("Dataset not found: " + datasetId);
+        return graphs.get(datasetId);
+    }
 
-    /**
-     * Calculate similarity between correct path and user path using Jaccard similarity
-     *
-     * @param correctPath correct path of the user
-     * @param userPath    user's answer path
-     * @return similarity score between 0.0 and 1.0
-     */
-    private double calculatePathSimilarity(List<String> correctPath, List<String> userPath) {
-
-        Set<String> A = new HashSet<>(correctPath);
-        Set<String> B = new HashSet<>(userPath);
-
-        Set<String> intersection = new HashSet<>(A);
-        intersection.retainAll(B);
 
-        Set<String> union = new HashSet<>(A);
-        union.addAll(B);
+    // ---------------------------------------------------------
+    // UTILITY METHODS
+    // ---------------------------------------------------------
 
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+    private String generateDatasetId() {
+        return "fvqa-" + UUID.randomUUID().toString().substring(0, 7);
     }
 
-    /**
-     * Calculate node opacity based on correctness
-     *
-     * @param userPath    user's answer path
-     * @param correctPath correct path of the user
-     * @return Map of node URIs to their opacity values
-     */
-    private Map<String, Double> calculateNodeOpacity(List<String> userPath, List<String> correctPath) {
-        Map<String, Double> opacityMap = new HashMap<>();
-
-        for (String u : userPath) {
-            opacityMap.put(u, correctPath.contains(u) ? 1.0 : 0.3);
-        }
-
-        for (String c : correctPath) {
-            opacityMap.putIfAbsent(c, 0.5);
-        }
+    private String generateHintMessage(String last, int toTarget, int missing) {
 
-        return opacityMap;
+        if (last == null) return "Start at the highlighted node.";
+        if (toTarget == ReachabilityIndex.UNREACHABLE)
+            return "Your last node is not connected to the answer, go back to the highlighted node.";
+        if (toTarget == 1) return "The next answer node is right next to your last one. " + missing + " to go.";
+        return "The next answer node is " + toTarget + " steps away, follow the highlighted nodes.";
     }
 
     private String generateFeedback(double similarity, int correct, int incorrect, int missed) {
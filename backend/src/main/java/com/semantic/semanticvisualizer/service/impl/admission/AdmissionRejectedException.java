@@ -0,0 +1,18 @@
+package com.semantic.semanticvisualizer.service.impl.admission;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a parse request cannot be admitted within its queue timeout.
+ * Controllers translate it to 503 Service Unavailable with a Retry-After header.
+ */
+@Getter
+public class AdmissionRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AdmissionRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
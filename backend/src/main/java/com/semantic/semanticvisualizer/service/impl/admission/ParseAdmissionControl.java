@@ -0,0 +1,176 @@
+package com.semantic.semanticvisualizer.service.impl.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control for ontology parsing.
+ * Every parse estimates its heap cost from the content length and format and has to reserve
+ * that much of a global heap budget, on top of one of a fixed number of parse slots.
+ * Requests that don't fit wait in a bounded queue until their timeout and are then rejected.
+ * HTTP parses wait on the ontology executor, which has a thread for every admitted and every queued parse.
+ */
+@Component
+@Slf4j
+public class ParseAdmissionControl {
+
+    private static final long KB = 1024;
+
+    // Rough heap bytes per input byte: Jena model + graph DTOs (+ the request String where there is one)
+    private static final int EXPANSION_RDFXML = 14;
+    private static final int EXPANSION_JSONLD = 16;
+    private static final int EXPANSION_TURTLE = 12;
+    private static final int EXPANSION_NTRIPLES = 8;
+    private static final int EXPANSION_DEFAULT = 12;
+
+    private final Semaphore parseSlots;
+    private final Semaphore memoryBudget;
+    private final int budgetKb;
+    private final int maxQueued;
+    private final long queueTimeoutMs;
+    private final long retryAfterSeconds;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter admitted;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedInterrupted;
+
+    public ParseAdmissionControl(MeterRegistry registry,
+                                 @Value("${ontology.parse.max-concurrent:4}") int maxConcurrent,
+                                 @Value("${ontology.parse.max-queued:16}") int maxQueued,
+                                 @Value("${ontology.parse.queue-timeout-ms:10000}") long queueTimeoutMs,
+                                 @Value("${ontology.parse.heap-budget-ratio:0.5}") double heapBudgetRatio,
+                                 @Value("${ontology.parse.retry-after-seconds:5}") long retryAfterSeconds) {
+        long budgetBytes = (long) (Runtime.getRuntime().maxMemory() * heapBudgetRatio);
+
+        this.budgetKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1, budgetBytes / KB));
+        this.parseSlots = new Semaphore(maxConcurrent, true);
+        this.memoryBudget = new Semaphore(budgetKb, true);
+        this.maxQueued = maxQueued;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        Gauge.builder("ontology.parse.admission.queue.depth", queued, AtomicInteger::get)
+                .description("Parse requests waiting for admission")
+                .register(registry);
+        Gauge.builder("ontology.parse.admission.active", active, AtomicInteger::get)
+                .description("Parse requests currently admitted")
+                .register(registry);
+        Gauge.builder("ontology.parse.admission.memory.reserved", memoryBudget,
+                        budget -> (double) (budgetKb - budget.availablePermits()) * KB)
+                .baseUnit("bytes")
+                .description("Estimated heap reserved by admitted parse requests")
+                .register(registry);
+        Gauge.builder("ontology.parse.admission.memory.budget", () -> (double) budgetKb * KB)
+                .baseUnit("bytes")
+                .register(registry);
+
+        this.admitted = Counter.builder("ontology.parse.admission.admitted").register(registry);
+        this.rejectedQueueFull = Counter.builder("ontology.parse.admission.rejected")
+                .tag("reason", "queue_full").register(registry);
+        this.rejectedTimeout = Counter.builder("ontology.parse.admission.rejected")
+                .tag("reason", "timeout").register(registry);
+        this.rejectedInterrupted = Counter.builder("ontology.parse.admission.rejected")
+                .tag("reason", "interrupted").register(registry);
+
+        log.info("Parse admission: {} concurrent parses, {} MB heap budget, {} queued max",
+                maxConcurrent, budgetBytes / (KB * KB), maxQueued);
+    }
+
+    /**
+     * Wait for a parse slot and enough heap budget for the given input
+     *
+     * @param contentLength Size of the ontology input in bytes
+     * @param format The format of the ontology
+     * @return A permit that must be closed once the parsed data is no longer needed
+     * @throws AdmissionRejectedException If the request could not be admitted in time, or was interrupted while waiting
+     */
+    public Permit admit(long contentLength, String format) {
+        int costKb = estimateCostKb(contentLength, format);
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejectedQueueFull.increment();
+            throw new AdmissionRejectedException("Too many ontologies are being parsed, please retry later", retryAfterSeconds);
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(queueTimeoutMs);
+        boolean slotAcquired = false;
+        try {
+            slotAcquired = parseSlots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+            if (slotAcquired && memoryBudget.tryAcquire(costKb, remainingNanos(deadline), TimeUnit.NANOSECONDS)) {
+                active.incrementAndGet();
+                admitted.increment();
+                return new Permit(costKb);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (slotAcquired) {
+                parseSlots.release();
+            }
+            rejectedInterrupted.increment();
+            throw new AdmissionRejectedException("Parse request was interrupted while waiting for admission", retryAfterSeconds);
+        } finally {
+            queued.decrementAndGet();
+        }
+
+        if (slotAcquired) {
+            parseSlots.release();
+        }
+        rejectedTimeout.increment();
+        throw new AdmissionRejectedException("Server is busy parsing other ontologies, please retry later", retryAfterSeconds);
+    }
+
+    int estimateCostKb(long contentLength, String format) {
+        long estimate = Math.max(contentLength, 0) * expansionFactor(format) / KB + 1;
+        // A request larger than the whole budget is clamped so it can still run on its own
+        return (int) Math.min(estimate, budgetKb);
+    }
+
+    private int expansionFactor(String format) {
+        if (format == null) {
+            return EXPANSION_DEFAULT;
+        }
+        return switch (format.toLowerCase().trim()) {
+            case "rdfxml", "rdf/xml" -> EXPANSION_RDFXML;
+            case "jsonld", "json-ld" -> EXPANSION_JSONLD;
+            case "turtle", "ttl", "trig" -> EXPANSION_TURTLE;
+            case "ntriples", "n-triples", "nt" -> EXPANSION_NTRIPLES;
+            default -> EXPANSION_DEFAULT;
+        };
+    }
+
+    private long remainingNanos(long deadline) {
+        return Math.max(0, deadline - System.nanoTime());
+    }
+
+    public class Permit implements AutoCloseable {
+        private final int costKb;
+        private boolean released;
+
+        private Permit(int costKb) {
+            this.costKb = costKb;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (released) {
+                return;
+            }
+            released = true;
+            active.decrementAndGet();
+            memoryBudget.release(costKb);
+            parseSlots.release();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+import org.apache.jena.vocabulary.RDF;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Writes a (sampled) ontology subgraph back out as RDF.
+ * Statements are pulled from the model subject by subject and pushed straight into
+ * Jena's streaming writers, so the serialized document is never held in memory.
+ */
+@Component
+public class OntologyExporter {
+
+    private static final String FORMAT_TURTLE = "turtle";
+    private static final String FORMAT_TURTLE_SHORT = "ttl";
+    private static final String FORMAT_NTRIPLES = "ntriples";
+    private static final String FORMAT_NTRIPLES_ALT = "n-triples";
+    private static final String FORMAT_NTRIPLES_SHORT = "nt";
+    private static final String FORMAT_JSONLD = "jsonld";
+    private static final String FORMAT_JSONLD_ALT = "json-ld";
+    private static final String FORMAT_THRIFT = "thrift";
+    private static final String FORMAT_THRIFT_ALT = "rdf-thrift";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Prepare an export of the given model
+     *
+     * @param model        The parsed ontology model
+     * @param nodeIds      Ids of the nodes to keep (as produced by the graph builder), or null to export everything
+     * @param filter       Statement filter of the view (predicate/namespace/type filters)
+     * @param exportFormat The requested output format (turtle, ntriples, jsonld, thrift)
+     * @return An export that serializes the subgraph when written
+     */
+    public OntologyExport prepareExport(Model model, Set<String> nodeIds, Predicate<Statement> filter,
+                                        String exportFormat) {
+        if (exportFormat == null) {
+            throw new IllegalArgumentException("Export format cannot be null");
+        }
+
+        String normalizedFormat = exportFormat.toLowerCase().trim();
+
+        return switch (normalizedFormat) {
+            case FORMAT_TURTLE, FORMAT_TURTLE_SHORT -> new OntologyExport(FORMAT_TURTLE, "text/turtle", "ontology.ttl",
+                    out -> writeStream(model, nodeIds, filter, RDFFormat.TURTLE_BLOCKS, out));
+            case FORMAT_NTRIPLES, FORMAT_NTRIPLES_ALT, FORMAT_NTRIPLES_SHORT ->
+                    new OntologyExport(FORMAT_NTRIPLES, "application/n-triples", "ontology.nt",
+                            out -> writeStream(model, nodeIds, filter, RDFFormat.NTRIPLES_UTF8, out));
+            case FORMAT_THRIFT, FORMAT_THRIFT_ALT ->
+                    new OntologyExport(FORMAT_THRIFT, "application/rdf+thrift", "ontology.trdf",
+                            out -> writeStream(model, nodeIds, filter, RDFFormat.RDF_THRIFT, out));
+            case FORMAT_JSONLD, FORMAT_JSONLD_ALT -> new OntologyExport(FORMAT_JSONLD, "application/ld+json", "ontology.jsonld",
+                    out -> writeJsonLd(model, nodeIds, filter, out));
+            default -> throw new IllegalArgumentException("Unsupported export format: " + exportFormat
+                    + ". Supported formats: turtle, ntriples, jsonld, thrift");
+        };
+    }
+
+    private void writeStream(Model model, Set<String> nodeIds, Predicate<Statement> filter, RDFFormat format, OutputStream out) {
+        StreamRDF stream = StreamRDFWriter.getWriterStream(out, format, null);
+        stream.start();
+        model.getNsPrefixMap().forEach(stream::prefix);
+
+        ResIterator subjects = model.listSubjects();
+        try {
+            while (subjects.hasNext()) {
+                Resource subject = subjects.nextResource();
+                if (!isKept(nodeIds, subject)) {
+                    continue;
+                }
+                StmtIterator statements = model.listStatements(subject, null, (RDFNode) null);
+                try {
+                    while (statements.hasNext()) {
+                        Statement stmt = statements.nextStatement();
+                        if (isKept(nodeIds, stmt.getObject()) && filter.test(stmt)) {
+                            stream.triple(stmt.asTriple());
+                        }
+                    }
+                } finally {
+                    statements.close();
+                }
+            }
+        } finally {
+            subjects.close();
+        }
+
+        stream.finish();
+    }
+
+    /**
+     * Jena has no streaming JSON-LD writer, so the subgraph is written as expanded JSON-LD,
+     * one node object per subject. Only the statements of the current subject are buffered.
+     */
+    private void writeJsonLd(Model model, Set<String> nodeIds, Predicate<Statement> filter, OutputStream out) throws IOException {
+        JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        json.writeStartArray();
+
+        ResIterator subjects = model.listSubjects();
+        try {
+            while (subjects.hasNext()) {
+                Resource subject = subjects.nextResource();
+                if (!isKept(nodeIds, subject)) {
+                    continue;
+                }
+
+                List<Resource> types = new ArrayList<>();
+                Map<String, List<RDFNode>> properties = new LinkedHashMap<>();
+
+                StmtIterator statements = model.listStatements(subject, null, (RDFNode) null);
+                try {
+                    while (statements.hasNext()) {
+                        Statement stmt = statements.nextStatement();
+                        RDFNode object = stmt.getObject();
+                        if (!isKept(nodeIds, object) || !filter.test(stmt)) {
+                            continue;
+                        }
+                        if (stmt.getPredicate().equals(RDF.type) && object.isURIResource()) {
+                            types.add(object.asResource());
+                        } else {
+                            properties.computeIfAbsent(stmt.getPredicate().getURI(), p -> new ArrayList<>()).add(object);
+                        }
+                    }
+                } finally {
+                    statements.close();
+                }
+
+                if (types.isEmpty() && properties.isEmpty()) {
+                    continue;
+                }
+
+                json.writeStartObject();
+                json.writeStringField("@id", nodeReference(subject));
+                if (!types.isEmpty()) {
+                    json.writeArrayFieldStart("@type");
+                    for (Resource type : types) {
+                        json.writeString(type.getURI());
+                    }
+                    json.writeEndArray();
+                }
+                for (Map.Entry<String, List<RDFNode>> property : properties.entrySet()) {
+                    json.writeArrayFieldStart(property.getKey());
+                    for (RDFNode value : property.getValue()) {
+                        writeJsonLdValue(json, value);
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndObject();
+            }
+        } finally {
+            subjects.close();
+        }
+
+        json.writeEndArray();
+        json.flush();
+    }
+
+    private void writeJsonLdValue(JsonGenerator json, RDFNode value) throws IOException {
+        json.writeStartObject();
+        if (value.isLiteral()) {
+            Literal literal = value.asLiteral();
+            json.writeStringField("@value", literal.getLexicalForm());
+            if (!literal.getLanguage().isEmpty()) {
+                json.writeStringField("@language", literal.getLanguage());
+            } else if (literal.getDatatypeURI() != null
+                    && !XSDDatatype.XSDstring.getURI().equals(literal.getDatatypeURI())) {
+                json.writeStringField("@type", literal.getDatatypeURI());
+            }
+        } else {
+            json.writeStringField("@id", nodeReference(value.asResource()));
+        }
+        json.writeEndObject();
+    }
+
+    private String nodeReference(Resource resource) {
+        return resource.isAnon() ? "_:" + resource.getId().getLabelString() : resource.getURI();
+    }
+
+    // Node ids are compared the same way the graph builder produces them (RDFNode.toString)
+    private boolean isKept(Set<String> nodeIds, RDFNode node) {
+        return nodeIds == null || nodeIds.contains(node.toString());
+    }
+}
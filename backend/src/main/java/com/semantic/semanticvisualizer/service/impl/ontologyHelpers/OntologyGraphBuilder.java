@@ -1,10 +1,17 @@
 package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
 
 import com.semantic.semanticvisualizer.model.Triple;
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.model.dto.NodeAttributeDTO;
+import com.semantic.semanticvisualizer.model.dto.NodeDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
-import org.apache.jena.rdf.model.Model;
-import org.apache.jena.rdf.model.Statement;
-import org.apache.jena.rdf.model.StmtIterator;
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import com.semantic.semanticvisualizer.monitoring.jfr.GraphBuildBatchEvent;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils.BlankNodeRenderer;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils.OntologyUtils;
+import io.micrometer.core.instrument.Tags;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.RDFS;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -16,41 +23,147 @@ import java.util.Map;
 public class OntologyGraphBuilder {
 
     private static final int BATCH_SIZE = 500;
+    private static final String METER_BUILD = "ontology.graph.build";
+    private static final String TIMING_BUILD = "build";
+
+    private final PipelineMetrics metrics;
+
+    public OntologyGraphBuilder(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
 
     public OntologyGraphDTO buildGraphFromModel(Model model, int maxNodes) {
+        return buildGraphFromModel(model, maxNodes, GraphBuildOptions.defaults());
+    }
+
+    public OntologyGraphDTO buildGraphFromModel(Model model, int maxNodes, GraphBuildOptions options) {
+        long start = metrics.start();
         OntologyGraphDTO graph = new OntologyGraphDTO();
         Map<String, Integer> nodeDegrees = new HashMap<>();
+        OntologyTripleFilter filter = OntologyTripleFilter.of(model, options);
 
+        long triples = model.size();
         StmtIterator iterator = model.listStatements();
         List<Statement> batchStatements = new ArrayList<>(BATCH_SIZE);
+        int batchIndex = 0;
 
         while (iterator.hasNext()) {
             batchStatements.add(iterator.nextStatement());
             if (batchStatements.size() >= BATCH_SIZE) {
-                processBatch(graph, batchStatements, nodeDegrees);
+                processBatch(graph, batchStatements, nodeDegrees, options, filter, batchIndex++, triples);
                 batchStatements.clear();
             }
         }
 
         if (!batchStatements.isEmpty()) {
-            processBatch(graph, batchStatements, nodeDegrees);
+            processBatch(graph, batchStatements, nodeDegrees, options, filter, batchIndex, triples);
         }
 
+        long nanos = metrics.record(METER_BUILD, TIMING_BUILD, start, Tags.of(
+                PipelineMetrics.TAG_TRIPLES, PipelineMetrics.tripleBucket(triples),
+                "filtered", String.valueOf(options.hasFilters())));
+        metrics.recordThroughput(METER_BUILD, triples, nanos);
+
         return graph;
     }
 
     private void processBatch(OntologyGraphDTO graph, List<Statement> batchStatements,
-                              Map<String, Integer> nodeDegrees) {
+                              Map<String, Integer> nodeDegrees, GraphBuildOptions options,
+                              OntologyTripleFilter filter, int batchIndex, long modelTriples) {
+        GraphBuildBatchEvent event = new GraphBuildBatchEvent();
+        event.begin();
 
         for (Statement stmt : batchStatements) {
-            String subject = stmt.getSubject().toString();
-            String predicate = stmt.getPredicate().toString();
-            String object = stmt.getObject().toString();
+            // Filtered statements are dropped before any String or DTO is allocated for them
+            if (!filter.test(stmt)) {
+                continue;
+            }
+
+            Resource subjectNode = stmt.getSubject();
+            RDFNode objectNode = stmt.getObject();
+
+            // Statements about a nested blank node are folded into the node that owns it
+            if (options.isCollapseBlankNodes() && subjectNode.isAnon() && isReferenced(subjectNode)) {
+                continue;
+            }
+
+            String subject = subjectNode.toString();
+
+            if (options.isFoldLiterals() && objectNode.isLiteral()) {
+                foldLiteral(graph, subject, stmt);
+                continue;
+            }
+
+            if (options.isCollapseBlankNodes() && objectNode.isAnon()) {
+                collapseBlankNode(graph, subject, stmt, nodeDegrees);
+                continue;
+            }
+
+            addTriple(graph, subject, stmt.getPredicate().toString(), objectNode.toString(), nodeDegrees);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.batchIndex = batchIndex;
+            event.statements = batchStatements.size();
+            event.modelTriples = modelTriples;
+            event.nodes = graph.getNodes().size();
+            event.edges = graph.getEdges().size();
+            event.commit();
+        }
+    }
+
+    private void addTriple(OntologyGraphDTO graph, String subject, String predicate, String object,
+                           Map<String, Integer> nodeDegrees) {
+        graph.addTriple(new Triple(subject, predicate, object));
+
+        nodeDegrees.merge(subject, 1, Integer::sum);
+        nodeDegrees.merge(object, 1, Integer::sum);
+    }
+
+    private void foldLiteral(OntologyGraphDTO graph, String subject, Statement stmt) {
+        Literal literal = stmt.getLiteral();
+        String predicate = stmt.getPredicate().getURI();
 
-            graph.addTriple(new Triple(subject, predicate, object));
+        NodeAttributeDTO attribute = new NodeAttributeDTO(
+                predicate,
+                OntologyUtils.extractLabel(predicate),
+                literal.getLexicalForm(),
+                literal.getLanguage().isEmpty() ? literal.getDatatypeURI() : null,
+                literal.getLanguage().isEmpty() ? null : literal.getLanguage(),
+                NodeAttributeDTO.KIND_LITERAL
+        );
 
-            nodeDegrees.merge(subject, 1, Integer::sum);
-            nodeDegrees.merge(object, 1, Integer::sum);
+        NodeDTO node = graph.addNodeIfNotExists(subject);
+        node.addAttribute(attribute);
+
+        // With literals folded, rdfs:label can finally be used as the node's display label
+        if (stmt.getPredicate().equals(RDFS.label) && node.getLabel().equals(OntologyUtils.extractLabel(subject))) {
+            node.setLabel(literal.getLexicalForm());
+        }
+    }
+
+    private void collapseBlankNode(OntologyGraphDTO graph, String subject, Statement stmt,
+                                   Map<String, Integer> nodeDegrees) {
+        Resource blank = stmt.getResource();
+        String predicate = stmt.getPredicate().getURI();
+
+        graph.addAttribute(subject, new NodeAttributeDTO(
+                predicate,
+                OntologyUtils.extractLabel(predicate),
+                BlankNodeRenderer.describe(blank),
+                null,
+                null,
+                BlankNodeRenderer.kindOf(blank)
+        ));
+
+        // Keep the named classes a restriction or list refers to connected to the owning node
+        for (Statement target : BlankNodeRenderer.namedTargets(stmt)) {
+            addTriple(graph, subject, target.getPredicate().toString(), target.getObject().toString(), nodeDegrees);
         }
     }
+
+    private boolean isReferenced(Resource blank) {
+        return blank.getModel().contains(null, null, blank);
+    }
 }
@@ -0,0 +1,148 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.jena.rdf.model.Model;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The preloaded ontology models, keyed by the SHA-256 of their content and the RDF language they were read as,
+ * so a request sending the same content is answered without parsing it again.
+ * Models are only ever read after parsing, so one instance can serve concurrent requests.
+ * Only preloaded models are kept: they are configured, so their heap is bounded, while a model parsed for a
+ * request is dropped with it and never outlives its admission permit.
+ * A request body is only hashed when a pinned model has content of exactly its size, so without preloaded
+ * ontologies, the default, looking it up costs nothing.
+ */
+@Component
+public class OntologyModelCache {
+
+    // Insertion order, models() lists the ontologies in the order they were preloaded
+    private final Map<String, Model> pinned = new LinkedHashMap<>();
+    // UTF-8 byte sizes of the pinned contents
+    private final Set<Long> pinnedSizes = new HashSet<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public OntologyModelCache(MeterRegistry registry) {
+        this.hits = Counter.builder("cache.gets")
+                .tags("cache", "ontology.models.pinned", "result", "hit")
+                .register(registry);
+        this.misses = Counter.builder("cache.gets")
+                .tags("cache", "ontology.models.pinned", "result", "miss")
+                .register(registry);
+    }
+
+    public synchronized Model get(String key) {
+        Model model = pinned.get(key);
+        (model != null ? hits : misses).increment();
+        return model;
+    }
+
+    /**
+     * Find the pinned model with the given content, which is hashed only if a pinned model has its size
+     *
+     * @return The pinned model, or null when no ontology with this content was preloaded
+     */
+    public Model find(String lang, String content) {
+        synchronized (this) {
+            if (pinned.isEmpty()) {
+                return null;
+            }
+            if (!pinnedSizes.contains(utf8Length(content))) {
+                misses.increment();
+                return null;
+            }
+        }
+        return get(key(lang, content));
+    }
+
+    /**
+     * Every pinned model, by key, in the order they were pinned
+     */
+    public synchronized Map<String, Model> models() {
+        return new LinkedHashMap<>(pinned);
+    }
+
+    public synchronized void pin(String key, long sizeBytes, Model model) {
+        pinned.put(key, model);
+        pinnedSizes.add(sizeBytes);
+    }
+
+    public static String key(String lang, byte[] content) {
+        MessageDigest digest = digest();
+        digest.update(content);
+        return key(lang, digest);
+    }
+
+    /**
+     * Key of text content, hashed as UTF-8 a chunk at a time instead of copying it into one byte array
+     */
+    public static String key(String lang, String content) {
+        MessageDigest digest = digest();
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer in = CharBuffer.wrap(content);
+        ByteBuffer out = ByteBuffer.allocate(8192);
+        CoderResult result;
+        do {
+            result = encoder.encode(in, out, true);
+            digest.update(out.flip());
+            out.clear();
+        } while (result.isOverflow());
+        encoder.flush(out);
+        digest.update(out.flip());
+        return key(lang, digest);
+    }
+
+    /**
+     * @param digest A {@link #digest()} that was fed the whole content, e.g. through a DigestInputStream
+     */
+    public static String key(String lang, MessageDigest digest) {
+        return lang + ":" + HexFormat.of().formatHex(digest.digest());
+    }
+
+    // The size String.getBytes(UTF_8) would have, without encoding it
+    static long utf8Length(String content) {
+        long length = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < content.length()
+                    && Character.isLowSurrogate(content.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                // Lone surrogates are encoded as the one-byte replacement '?'
+                length += Character.isSurrogate(c) ? 1 : 3;
+            }
+        }
+        return length;
+    }
+
+    public static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
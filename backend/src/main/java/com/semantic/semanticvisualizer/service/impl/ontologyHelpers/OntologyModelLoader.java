@@ -1,15 +1,27 @@
 package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
 
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import com.semantic.semanticvisualizer.monitoring.jfr.OntologyLoadEvent;
+import io.micrometer.core.instrument.Tags;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.RDFParserBuilder;
 import org.apache.jena.riot.RiotException;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 
 @Component
 public class OntologyModelLoader {
@@ -25,25 +37,79 @@ public class OntologyModelLoader {
     private static final String FORMAT_TURTLE = "turtle";
     private static final String FORMAT_TURTLE_SHORT = "ttl";
 
+    private static final String METER_LOAD = "ontology.load";
+    private static final String TIMING_LOAD = "load";
+
+    private final PipelineMetrics metrics;
+    private final OntologyModelCache cache;
+
+    public OntologyModelLoader(PipelineMetrics metrics, OntologyModelCache cache) {
+        this.metrics = metrics;
+        this.cache = cache;
+    }
+
+    /**
+     * Parse ontology content, or return the preloaded model when it is the content of a preloaded ontology
+     */
     public Model loadModel(String ontologyContent, String format) {
         if (ontologyContent == null || ontologyContent.isEmpty()) {
             throw new IllegalArgumentException("Ontology content cannot be empty");
         }
 
+        String lang = convertFormat(format);
+        Model cached = cache.find(lang, ontologyContent);
+        if (cached != null) {
+            return cached;
+        }
+
+        return loadModelUncached(ontologyContent, format);
+    }
+
+    /**
+     * Parse ontology content without consulting the model cache.
+     * It is read from the String itself, without another copy of it in bytes.
+     */
+    public Model loadModelUncached(String ontologyContent, String format) {
+        if (ontologyContent == null || ontologyContent.isEmpty()) {
+            throw new IllegalArgumentException("Ontology content cannot be empty");
+        }
+        return parse(RDFParser.fromString(ontologyContent, lang(format)), ontologyContent.length(), format,
+                bodyId(ontologyContent));
+    }
+
+    /**
+     * Parse a local ontology file and pin it in the model cache, so requests sending the same
+     * content are never parsed again
+     */
+    public Model preloadModel(Path file, String format) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        Model model = parse(RDFParser.source(new ByteArrayInputStream(content)).lang(lang(format)), content.length,
+                format, file.getFileName().toString());
+        cache.pin(OntologyModelCache.key(convertFormat(format), content), content.length, model);
+        return model;
+    }
+
+    private Model parse(RDFParserBuilder source, long sizeBytes, String format, String ontologyId) {
+        String lang = convertFormat(format);
+        OntologyLoadEvent event = new OntologyLoadEvent();
+        event.begin();
+        long start = metrics.start();
         Model model = ModelFactory.createDefaultModel();
         try {
-            model.read(
-                    new java.io.ByteArrayInputStream(ontologyContent.getBytes(StandardCharsets.UTF_8)),
-                    null,
-                    convertFormat(format)
-            );
+            source.parse(model);
         } catch (RiotException e) {
+            recordLoad(event, ontologyId, start, lang, sizeBytes, null);
             throw new IllegalArgumentException("Failed to parse ontology in format: " + format, e);
         }
 
+        recordLoad(event, ontologyId, start, lang, sizeBytes, model);
         return model;
     }
 
+    private Lang lang(String format) {
+        return RDFLanguages.nameToLang(convertFormat(format));
+    }
+
     private String convertFormat(String format) {
         if (format == null) {
             throw new IllegalArgumentException("Format cannot be null");
@@ -62,11 +128,63 @@ public class OntologyModelLoader {
         };
     }
 
+    /**
+     * Parse an uploaded file. It is hashed while it is read, so the stream is only read once; when it turns
+     * out to be a preloaded ontology, the fresh model is dropped at once and the preloaded one returned.
+     */
     public Model loadModelFromFile(MultipartFile file, String format) throws IOException {
-        try (InputStream inputStream = file.getInputStream()) {
-            Model model = ModelFactory.createDefaultModel();
-            model.read(inputStream, null, convertFormat(format));
-            return model;
+        String lang = convertFormat(format);
+        MessageDigest digest = OntologyModelCache.digest();
+
+        OntologyLoadEvent event = new OntologyLoadEvent();
+        event.begin();
+        long start = metrics.start();
+        Model model = ModelFactory.createDefaultModel();
+        try (InputStream inputStream = new DigestInputStream(file.getInputStream(), digest)) {
+            // Jena closes what it has read, the rest still has to go through the digest
+            model.read(new FilterInputStream(inputStream) {
+                @Override
+                public void close() {
+                }
+            }, null, lang);
+            // A parser may stop before the end, e.g. after the closing tag of an RDF/XML document
+            inputStream.transferTo(OutputStream.nullOutputStream());
+        } catch (RiotException e) {
+            recordLoad(event, file.getOriginalFilename(), start, lang, file.getSize(), null);
+            throw new IllegalArgumentException("Failed to parse ontology in format: " + format, e);
+        }
+        recordLoad(event, file.getOriginalFilename(), start, lang, file.getSize(), model);
+
+        Model preloaded = cache.get(OntologyModelCache.key(lang, digest));
+        return preloaded != null ? preloaded : model;
+    }
+
+    // Request bodies have no name, so a recording identifies them by content hash
+    private static String bodyId(String ontologyContent) {
+        return "body-" + Integer.toHexString(ontologyContent.hashCode());
+    }
+
+    // A null model means the parse failed
+    private void recordLoad(OntologyLoadEvent event, String ontologyId, long start, String lang,
+                            long sizeBytes, Model model) {
+        long triples = model == null ? 0 : model.size();
+        event.end();
+        if (event.shouldCommit()) {
+            event.ontologyId = ontologyId;
+            event.format = lang;
+            event.sizeBytes = sizeBytes;
+            event.triples = triples;
+            event.succeeded = model != null;
+            event.commit();
+        }
+
+        long nanos = metrics.record(METER_LOAD, TIMING_LOAD, start, Tags.of(
+                PipelineMetrics.TAG_FORMAT, lang,
+                PipelineMetrics.TAG_SIZE, PipelineMetrics.sizeBucket(sizeBytes),
+                PipelineMetrics.TAG_TRIPLES, PipelineMetrics.tripleBucket(triples),
+                PipelineMetrics.TAG_OUTCOME, model == null ? PipelineMetrics.OUTCOME_ERROR : PipelineMetrics.OUTCOME_SUCCESS));
+        if (model != null) {
+            metrics.recordThroughput(METER_LOAD, triples, nanos);
         }
     }
 }
@@ -1,22 +1,68 @@
 package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
 
 import com.semantic.semanticvisualizer.model.dto.NodeDetailsDTO;
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import com.semantic.semanticvisualizer.monitoring.ServerTiming;
+import com.semantic.semanticvisualizer.monitoring.jfr.NodeDetailsEvent;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils.BlankNodeRenderer;
 import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils.OntologyUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import org.apache.jena.rdf.model.*;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.TimeUnit;
+
 @Service
 public class OntologyNodeDetails {
 
+    private static final String METER_DETAILS = "ontology.node.details";
+    private static final String TIMING_DETAILS = "details";
+    private static final String TIMING_LABELS = "labels";
+
+    private final PipelineMetrics metrics;
+    private final Timer labelLookupTimer;
+
+    public OntologyNodeDetails(PipelineMetrics metrics, MeterRegistry registry) {
+        this.metrics = metrics;
+        this.labelLookupTimer = Timer.builder("ontology.label.lookup")
+                .description("Label lookups done while extracting node details")
+                .register(registry);
+    }
+
     public NodeDetailsDTO extractDetails(Model model, String nodeId) {
 
         if (model == null || nodeId == null || nodeId.isEmpty()) {
             throw new IllegalArgumentException("Model and nodeId must be provided");
         }
 
+        NodeDetailsEvent event = new NodeDetailsEvent();
+        event.begin();
+        long start = metrics.start();
+        LabelLookup labels = new LabelLookup(model);
+        NodeDetailsDTO details = collectDetails(model, nodeId, labels);
+        event.end();
+        if (event.shouldCommit()) {
+            event.nodeId = nodeId;
+            event.modelTriples = model.size();
+            event.outgoing = details.getOutgoingConnections().size();
+            event.incoming = details.getIncomingConnections().size();
+            event.commit();
+        }
+
+        labelLookupTimer.record(labels.nanos, TimeUnit.NANOSECONDS);
+        ServerTiming.recordCurrent(TIMING_LABELS, labels.nanos);
+        metrics.record(METER_DETAILS, TIMING_DETAILS, start,
+                Tags.of(PipelineMetrics.TAG_TRIPLES, PipelineMetrics.tripleBucket(model.size())));
+
+        return details;
+    }
+
+    private NodeDetailsDTO collectDetails(Model model, String nodeId, LabelLookup labels) {
         NodeDetailsDTO details = new NodeDetailsDTO();
         details.setId(nodeId);
-        details.setLabel(OntologyUtils.extractLabelFromModel(model, nodeId));
+        details.setLabel(labels.of(nodeId));
 
         Resource nodeResource = model.createResource(nodeId);
 
@@ -27,9 +73,12 @@ public class OntologyNodeDetails {
 
             String objectId, objectLabel;
 
-            if (obj.isResource()) { // handling resources
+            if (obj.isAnon()) { // blank nodes are described by their structure (restrictions, lists)
+                objectId = obj.toString();
+                objectLabel = BlankNodeRenderer.describe(obj.asResource());
+            } else if (obj.isResource()) { // handling resources
                 objectId = obj.toString();
-                objectLabel = OntologyUtils.extractLabelFromModel(model, objectId);
+                objectLabel = labels.of(objectId);
             } else if (obj.isLiteral()) { // handling literals
                 objectId = obj.asLiteral().getString();
                 objectLabel = objectId; // literals are their own labels
@@ -40,7 +89,7 @@ public class OntologyNodeDetails {
             details.getOutgoingConnections().add(new NodeDetailsDTO.RelatedNodeDTO(
                     objectId,
                     objectLabel,
-                    OntologyUtils.extractLabelFromModel(model, stmt.getPredicate().toString())
+                    labels.of(stmt.getPredicate().toString())
             ));
         }
 
@@ -50,8 +99,8 @@ public class OntologyNodeDetails {
             Resource subject = stmt.getSubject();
             details.getIncomingConnections().add(new NodeDetailsDTO.RelatedNodeDTO(
                     subject.toString(),
-                    OntologyUtils.extractLabelFromModel(model, subject.toString()),
-                    OntologyUtils.extractLabelFromModel(model, stmt.getPredicate().toString())
+                    labels.of(subject.toString()),
+                    labels.of(stmt.getPredicate().toString())
             ));
         }
 
@@ -60,4 +109,23 @@ public class OntologyNodeDetails {
 
         return details;
     }
+
+    // Label lookups are summed up per call, timing each one separately would cost more than the lookup itself
+    private static final class LabelLookup {
+        private final Model model;
+        private long nanos;
+
+        private LabelLookup(Model model) {
+            this.model = model;
+        }
+
+        private String of(String uri) {
+            long start = System.nanoTime();
+            try {
+                return OntologyUtils.extractLabelFromModel(model, uri);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+    }
 }
@@ -0,0 +1,133 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.SKOS;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Finds the resource of an ontology that an entity named elsewhere - e.g. in a VQA dataset - stands for.
+ * Built in one pass over the model: a hash index of every resource URI, and indexes of normalized
+ * labels (rdfs:label, skos:prefLabel, skos:altLabel) and normalized local names. An entity resolves
+ * by its exact URI first, then by its label, then by the local name of its URI; labels win over local
+ * names, and of several resources with the same label the first one read is taken. The match type says
+ * what was matched on the ontology side as well: an entity label that only equals a resource's local name
+ * is a local-name match.
+ */
+public class OntologyResolutionIndex {
+
+    public enum MatchType { URI, LABEL, LOCAL_NAME }
+
+    public record Match(String uri, MatchType type) {
+    }
+
+    private static final Set<String> LABEL_PREDICATES = Set.of(
+            RDFS.label.getURI(), SKOS.prefLabel.getURI(), SKOS.altLabel.getURI());
+    private static final Pattern CAMEL_CASE = Pattern.compile("([\\p{Ll}\\d])(\\p{Lu})");
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s_\\-.]+");
+
+    private final Map<String, String> labelsByUri = new HashMap<>(); // display label, null until one is read
+    private final Map<String, String> uriByLabel = new HashMap<>();
+    private final Map<String, String> uriByLocalName = new HashMap<>();
+
+    public OntologyResolutionIndex(Model model) {
+        StmtIterator statements = model.listStatements();
+        try {
+            while (statements.hasNext()) {
+                Statement statement = statements.next();
+                Resource subject = statement.getSubject();
+                RDFNode object = statement.getObject();
+                if (subject.isURIResource()) {
+                    labelsByUri.putIfAbsent(subject.getURI(), null);
+                    if (object.isLiteral() && LABEL_PREDICATES.contains(statement.getPredicate().getURI())) {
+                        String label = object.asLiteral().getLexicalForm();
+                        if (labelsByUri.get(subject.getURI()) == null) {
+                            labelsByUri.put(subject.getURI(), label);
+                        }
+                        String normalized = normalize(label);
+                        if (normalized != null) {
+                            uriByLabel.putIfAbsent(normalized, subject.getURI());
+                        }
+                    }
+                }
+                if (object.isURIResource()) {
+                    labelsByUri.putIfAbsent(object.asResource().getURI(), null);
+                }
+            }
+        } finally {
+            statements.close();
+        }
+
+        for (String uri : labelsByUri.keySet()) {
+            String normalized = normalize(TripleVQA.extractLocalName(uri));
+            if (normalized != null) {
+                uriByLocalName.putIfAbsent(normalized, uri);
+            }
+        }
+    }
+
+    /**
+     * @param id    The entity's URI, or its label when it has none
+     * @param label The entity's label, may be null
+     * @return The matching resource, or null when none matches
+     */
+    public Match resolve(String id, String label) {
+        if (id != null && labelsByUri.containsKey(id)) {
+            return new Match(id, MatchType.URI);
+        }
+        Match byLabel = byName(label);
+        if (byLabel != null) {
+            return byLabel;
+        }
+        Match byLocalName = byName(id == null ? null : TripleVQA.extractLocalName(id));
+        return byLocalName == null ? null : new Match(byLocalName.uri(), MatchType.LOCAL_NAME);
+    }
+
+    /**
+     * @return The label of a resource of the ontology, or its local name when it has none
+     */
+    public String label(String uri) {
+        String label = labelsByUri.get(uri);
+        return label != null ? label : TripleVQA.extractLocalName(uri);
+    }
+
+    public int size() {
+        return labelsByUri.size();
+    }
+
+    private Match byName(String name) {
+        String normalized = normalize(name);
+        if (normalized == null) {
+            return null;
+        }
+        String uri = uriByLabel.get(normalized);
+        if (uri != null) {
+            return new Match(uri, MatchType.LABEL);
+        }
+        uri = uriByLocalName.get(normalized);
+        return uri == null ? null : new Match(uri, MatchType.LOCAL_NAME);
+    }
+
+    /**
+     * Lower case, with camel case, underscores, hyphens and dots turned into single spaces:
+     * "ChemicalElement", "chemical_element" and "Chemical element" all become "chemical element"
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String spaced = CAMEL_CASE.matcher(name.trim()).replaceAll("$1 $2");
+        String normalized = SEPARATORS.matcher(spaced).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        return normalized.isEmpty() ? null : normalized;
+    }
+}
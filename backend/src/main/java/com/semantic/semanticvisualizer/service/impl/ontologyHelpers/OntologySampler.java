@@ -3,9 +3,12 @@ package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
 import com.semantic.semanticvisualizer.model.dto.EdgeDTO;
 import com.semantic.semanticvisualizer.model.dto.NodeDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import com.semantic.semanticvisualizer.monitoring.jfr.GraphSampleEvent;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -13,12 +16,46 @@ import java.util.stream.Collectors;
 @Component
 public class OntologySampler {
 
+    private static final String METER_SAMPLE = "ontology.sample";
+    private static final String TIMING_SAMPLE = "sample";
+
+    private final PipelineMetrics metrics;
+
+    public OntologySampler(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public OntologyGraphDTO limitGraph(OntologyGraphDTO fullGraph, Integer maxNodes) {
         if (maxNodes == null || fullGraph.getNodes().size() <= maxNodes) {
             return fullGraph;
         }
 
-        Map<String, Integer> degrees = new HashMap<>();
+        GraphSampleEvent event = new GraphSampleEvent();
+        event.begin();
+        long start = metrics.start();
+        OntologyGraphDTO sampled = sampleTopDegree(fullGraph, maxNodes);
+        event.end();
+        if (event.shouldCommit()) {
+            event.inputNodes = fullGraph.getNodes().size();
+            event.inputEdges = fullGraph.getEdges().size();
+            event.maxNodes = maxNodes;
+            event.outputNodes = sampled.getNodes().size();
+            event.outputEdges = sampled.getEdges().size();
+            event.commit();
+        }
+        metrics.record(METER_SAMPLE, TIMING_SAMPLE, start,
+                Tags.of(PipelineMetrics.TAG_TRIPLES, PipelineMetrics.tripleBucket(fullGraph.getEdges().size())));
+        return sampled;
+    }
+
+    private OntologyGraphDTO sampleTopDegree(OntologyGraphDTO fullGraph, int maxNodes) {
+
+        // Every node starts at 0: with folded literals a node may only have attributes and no edges,
+        // it is still sampled when there is room. Ties keep the node order.
+        Map<String, Integer> degrees = new LinkedHashMap<>();
+        for (NodeDTO node : fullGraph.getNodes()) {
+            degrees.put(node.getId(), 0);
+        }
         for (EdgeDTO edge : fullGraph.getEdges()) {
             degrees.merge(edge.getSubject(), 1, Integer::sum);
             degrees.merge(edge.getObject(), 1, Integer::sum);
@@ -34,7 +71,7 @@ public class OntologySampler {
 
         for (NodeDTO node : fullGraph.getNodes()) {
             if (topNodes.contains(node.getId())) {
-                sampled.getNodes().add(node);
+                sampled.addNode(node);
             }
         }
 
@@ -0,0 +1,176 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils.OntologyUtils;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.shared.PrefixMapping;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Predicate/namespace/rdf:type filter compiled once per build from {@link GraphBuildOptions}.
+ * It is checked against the raw Jena statement, before any String or DTO is created for it.
+ */
+public class OntologyTripleFilter implements Predicate<Statement> {
+
+    private static final OntologyTripleFilter ACCEPT_ALL = new OntologyTripleFilter();
+
+    private final Set<String> includePredicateUris = new HashSet<>();
+    private final Set<String> includePredicateNames = new HashSet<>();
+    private final Set<String> excludePredicateUris = new HashSet<>();
+    private final Set<String> excludePredicateNames = new HashSet<>();
+    private final List<String> includeNamespaces = new ArrayList<>();
+    private final List<String> excludeNamespaces = new ArrayList<>();
+    private final Set<Resource> includeTypes = new HashSet<>();
+    private final Set<Resource> excludeTypes = new HashSet<>();
+
+    private final boolean hasIncludePredicates;
+    private final boolean acceptAll;
+
+    // rdf:type checks are repeated for every statement of a subject, so their results are cached
+    private final Map<Resource, Boolean> includeTypeCache = new HashMap<>();
+    private final Map<Resource, Boolean> excludeTypeCache = new HashMap<>();
+
+    private OntologyTripleFilter() {
+        this.hasIncludePredicates = false;
+        this.acceptAll = true;
+    }
+
+    private OntologyTripleFilter(Model model, GraphBuildOptions options) {
+        // Common prefixes (rdf, rdfs, owl, xsd...) work even when the ontology doesn't declare them
+        PrefixMapping prefixes = PrefixMapping.Factory.create()
+                .setNsPrefixes(PrefixMapping.Standard)
+                .setNsPrefixes(model);
+
+        splitPredicates(options.getIncludePredicates(), prefixes, includePredicateUris, includePredicateNames);
+        splitPredicates(options.getExcludePredicates(), prefixes, excludePredicateUris, excludePredicateNames);
+        expandNamespaces(options.getIncludeNamespaces(), prefixes, includeNamespaces);
+        expandNamespaces(options.getExcludeNamespaces(), prefixes, excludeNamespaces);
+        expandTypes(options.getIncludeTypes(), model, prefixes, includeTypes);
+        expandTypes(options.getExcludeTypes(), model, prefixes, excludeTypes);
+
+        this.hasIncludePredicates = !includePredicateUris.isEmpty() || !includePredicateNames.isEmpty();
+        this.acceptAll = false;
+    }
+
+    public static OntologyTripleFilter of(Model model, GraphBuildOptions options) {
+        if (options == null || !options.hasFilters()) {
+            return ACCEPT_ALL;
+        }
+        return new OntologyTripleFilter(model, options);
+    }
+
+    @Override
+    public boolean test(Statement stmt) {
+        if (acceptAll) {
+            return true;
+        }
+
+        String predicate = stmt.getPredicate().getURI();
+        if (hasIncludePredicates && !matchesPredicate(predicate, includePredicateUris, includePredicateNames)) {
+            return false;
+        }
+        if (matchesPredicate(predicate, excludePredicateUris, excludePredicateNames)) {
+            return false;
+        }
+
+        Resource subject = stmt.getSubject();
+        RDFNode object = stmt.getObject();
+
+        if (!includeNamespaces.isEmpty()
+                && !(inNamespace(subject, includeNamespaces) && (!object.isURIResource() || inNamespace(object, includeNamespaces)))) {
+            return false;
+        }
+        if (!excludeNamespaces.isEmpty()
+                && (startsWithAny(predicate, excludeNamespaces) || inNamespace(subject, excludeNamespaces)
+                || inNamespace(object, excludeNamespaces))) {
+            return false;
+        }
+
+        if (!includeTypes.isEmpty() && !includeTypeCache.computeIfAbsent(subject, r -> hasAnyType(r, includeTypes))) {
+            return false;
+        }
+        if (!excludeTypes.isEmpty()) {
+            if (excludeTypeCache.computeIfAbsent(subject, r -> hasAnyType(r, excludeTypes))) {
+                return false;
+            }
+            return !object.isResource()
+                    || !excludeTypeCache.computeIfAbsent(object.asResource(), r -> hasAnyType(r, excludeTypes));
+        }
+        return true;
+    }
+
+    private boolean matchesPredicate(String predicate, Set<String> uris, Set<String> names) {
+        return uris.contains(predicate) || (!names.isEmpty() && names.contains(OntologyUtils.extractLabel(predicate)));
+    }
+
+    private boolean inNamespace(RDFNode node, List<String> namespaces) {
+        return node.isURIResource() && startsWithAny(node.asResource().getURI(), namespaces);
+    }
+
+    private boolean startsWithAny(String uri, List<String> namespaces) {
+        for (String namespace : namespaces) {
+            if (uri.startsWith(namespace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasAnyType(Resource resource, Set<Resource> types) {
+        StmtIterator typeStatements = resource.listProperties(RDF.type);
+        try {
+            while (typeStatements.hasNext()) {
+                if (types.contains(typeStatements.nextStatement().getObject())) {
+                    return true;
+                }
+            }
+        } finally {
+            typeStatements.close();
+        }
+        return false;
+    }
+
+    private static void splitPredicates(List<String> values, PrefixMapping prefixes, Set<String> uris, Set<String> names) {
+        for (String value : cleaned(values)) {
+            String expanded = expand(value, prefixes);
+            if (expanded.contains(":")) {
+                uris.add(expanded);
+            } else {
+                names.add(expanded);
+            }
+        }
+    }
+
+    private static void expandNamespaces(List<String> values, PrefixMapping prefixes, List<String> namespaces) {
+        for (String value : cleaned(values)) {
+            String prefix = value.endsWith(":") ? value.substring(0, value.length() - 1) : null;
+            String namespace = prefix == null ? null : prefixes.getNsPrefixURI(prefix);
+            namespaces.add(namespace != null ? namespace : value);
+        }
+    }
+
+    private static void expandTypes(List<String> values, Model model, PrefixMapping prefixes, Set<Resource> types) {
+        for (String value : cleaned(values)) {
+            types.add(model.createResource(expand(value, prefixes)));
+        }
+    }
+
+    // Prefixed names (owl:Class) are expanded with the ontology's own prefix declarations
+    private static String expand(String value, PrefixMapping prefixes) {
+        return value.contains("://") ? value : prefixes.expandPrefix(value);
+    }
+
+    private static List<String> cleaned(List<String> values) {
+        if (values == null) {
+            return List.of();
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+}
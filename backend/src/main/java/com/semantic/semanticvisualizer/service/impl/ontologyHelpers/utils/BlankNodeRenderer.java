@@ -0,0 +1,176 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils;
+
+import com.semantic.semanticvisualizer.model.dto.NodeAttributeDTO;
+import org.apache.jena.rdf.model.*;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Renders blank-node structures (OWL restrictions, RDF lists, anonymous resources)
+ * as short human-readable descriptions, e.g. "eats some Food" or "(Dog, Cat)"
+ */
+public final class BlankNodeRenderer {
+
+    private static final int MAX_DEPTH = 3;
+    private static final int MAX_LIST_ITEMS = 20;
+
+    private BlankNodeRenderer() {
+    }
+
+    public static String describe(Resource blank) {
+        return describe(blank, 0);
+    }
+
+    /**
+     * Classify a blank node as one of the NodeAttributeDTO kinds
+     */
+    public static String kindOf(Resource blank) {
+        if (isList(blank)) {
+            return NodeAttributeDTO.KIND_LIST;
+        }
+        if (blank.hasProperty(OWL.onProperty)) {
+            return NodeAttributeDTO.KIND_RESTRICTION;
+        }
+        return NodeAttributeDTO.KIND_BLANK;
+    }
+
+    /**
+     * Named resources a collapsed blank node points at, paired with the predicate that
+     * should connect them to the owning node (the restricted property, or the original predicate for lists)
+     */
+    public static List<Statement> namedTargets(Statement owner) {
+        Resource blank = owner.getObject().asResource();
+        Model model = owner.getModel();
+        List<Statement> targets = new ArrayList<>();
+
+        if (isList(blank)) {
+            for (RDFNode item : listItems(blank)) {
+                if (item.isURIResource()) {
+                    targets.add(model.createStatement(owner.getSubject(), owner.getPredicate(), item));
+                }
+            }
+        } else if (blank.hasProperty(OWL.onProperty)) {
+            Resource property = blank.getPropertyResourceValue(OWL.onProperty);
+            RDFNode filler = restrictionFiller(blank);
+            if (property != null && property.isURIResource() && filler != null && filler.isURIResource()) {
+                targets.add(model.createStatement(owner.getSubject(), model.createProperty(property.getURI()), filler));
+            }
+        }
+        return targets;
+    }
+
+    private static String describe(RDFNode node, int depth) {
+        if (node.isLiteral()) {
+            return node.asLiteral().getLexicalForm();
+        }
+
+        Resource resource = node.asResource();
+        if (!resource.isAnon()) {
+            return OntologyUtils.extractLabelFromModel(resource.getModel(), resource.getURI());
+        }
+        if (depth >= MAX_DEPTH) {
+            return "[…]";
+        }
+
+        if (isList(resource)) {
+            StringJoiner joiner = new StringJoiner(", ", "(", ")");
+            for (RDFNode item : listItems(resource)) {
+                joiner.add(describe(item, depth + 1));
+            }
+            return joiner.toString();
+        }
+
+        if (resource.hasProperty(OWL.onProperty)) {
+            return describeRestriction(resource, depth);
+        }
+
+        for (Property operator : List.of(OWL.unionOf, OWL.intersectionOf, OWL.oneOf)) {
+            Statement stmt = resource.getProperty(operator);
+            if (stmt != null) {
+                return operator.getLocalName() + " " + describe(stmt.getObject(), depth + 1);
+            }
+        }
+        Statement complement = resource.getProperty(OWL.complementOf);
+        if (complement != null) {
+            return "not " + describe(complement.getObject(), depth + 1);
+        }
+
+        StringJoiner joiner = new StringJoiner("; ", "[", "]");
+        StmtIterator properties = resource.listProperties();
+        try {
+            while (properties.hasNext()) {
+                Statement stmt = properties.nextStatement();
+                if (stmt.getPredicate().equals(RDF.type)) {
+                    continue;
+                }
+                joiner.add(stmt.getPredicate().getLocalName() + " " + describe(stmt.getObject(), depth + 1));
+            }
+        } finally {
+            properties.close();
+        }
+        return joiner.toString();
+    }
+
+    private static String describeRestriction(Resource restriction, int depth) {
+        Resource onProperty = restriction.getPropertyResourceValue(OWL.onProperty);
+        String property = onProperty == null ? "?" : describe(onProperty, depth + 1);
+
+        if (restriction.hasProperty(OWL.someValuesFrom)) {
+            return property + " some " + describe(restriction.getProperty(OWL.someValuesFrom).getObject(), depth + 1);
+        }
+        if (restriction.hasProperty(OWL.allValuesFrom)) {
+            return property + " only " + describe(restriction.getProperty(OWL.allValuesFrom).getObject(), depth + 1);
+        }
+        if (restriction.hasProperty(OWL.hasValue)) {
+            return property + " value " + describe(restriction.getProperty(OWL.hasValue).getObject(), depth + 1);
+        }
+        for (Property cardinality : List.of(OWL.cardinality, OWL.qualifiedCardinality)) {
+            if (restriction.hasProperty(cardinality)) {
+                return property + " exactly " + restriction.getProperty(cardinality).getObject().asLiteral().getLexicalForm();
+            }
+        }
+        for (Property cardinality : List.of(OWL.minCardinality, OWL.minQualifiedCardinality)) {
+            if (restriction.hasProperty(cardinality)) {
+                return property + " min " + restriction.getProperty(cardinality).getObject().asLiteral().getLexicalForm();
+            }
+        }
+        for (Property cardinality : List.of(OWL.maxCardinality, OWL.maxQualifiedCardinality)) {
+            if (restriction.hasProperty(cardinality)) {
+                return property + " max " + restriction.getProperty(cardinality).getObject().asLiteral().getLexicalForm();
+            }
+        }
+        return property + " restriction";
+    }
+
+    private static RDFNode restrictionFiller(Resource restriction) {
+        for (Property filler : List.of(OWL.someValuesFrom, OWL.allValuesFrom, OWL.hasValue)) {
+            Statement stmt = restriction.getProperty(filler);
+            if (stmt != null) {
+                return stmt.getObject();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isList(Resource resource) {
+        return resource.hasProperty(RDF.first) || resource.equals(RDF.nil);
+    }
+
+    private static List<RDFNode> listItems(Resource list) {
+        List<RDFNode> items = new ArrayList<>();
+        Resource current = list;
+        while (current != null && !current.equals(RDF.nil) && items.size() < MAX_LIST_ITEMS) {
+            Statement first = current.getProperty(RDF.first);
+            if (first == null) {
+                break;
+            }
+            items.add(first.getObject());
+            current = current.getPropertyResourceValue(RDF.rest);
+        }
+        return items;
+    }
+}
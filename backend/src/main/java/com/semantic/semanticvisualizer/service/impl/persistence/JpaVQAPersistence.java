@@ -0,0 +1,398 @@
+package com.semantic.semanticvisualizer.service.impl.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.model.entity.DatasetEntity;
+import com.semantic.semanticvisualizer.model.entity.QuestionEntity;
+import com.semantic.semanticvisualizer.model.entity.SessionEntity;
+import com.semantic.semanticvisualizer.model.entity.ValidationResultEntity;
+import com.semantic.semanticvisualizer.model.vqa.DatasetRecordError;
+import com.semantic.semanticvisualizer.model.vqa.PathValidationResult;
+import com.semantic.semanticvisualizer.model.vqa.VQADataset;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.model.vqa.VQASessionDTO;
+import com.semantic.semanticvisualizer.repository.DatasetRepository;
+import com.semantic.semanticvisualizer.repository.QuestionRepository;
+import com.semantic.semanticvisualizer.repository.SessionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * VQA persistence in the embedded H2 database (spring.datasource.url).
+ * Writes go through a write-behind queue and are applied in batches of vqa.persistence.batch-size,
+ * one transaction per batch; when a batch fails, each of its writes is retried in its own transaction. Repeated saves of a session within a batch become a single write, and
+ * sessions that are saved but not written yet are served from memory, so a read never sees an older state.
+ */
+@Component
+public class JpaVQAPersistence implements VQAPersistence {
+
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {
+    };
+    private static final TypeReference<List<DatasetRecordError>> ERROR_LIST = new TypeReference<>() {
+    };
+
+    private sealed interface Write {
+    }
+
+    private record DatasetWrite(DatasetEntity dataset, List<VQAQuestion> questions) implements Write {
+    }
+
+    private record QuestionsWrite(String datasetId, int questionCount, int rejectedCount, String errorsJson,
+                                  int firstPosition, List<VQAQuestion> questions) implements Write {
+    }
+
+    private record SessionWrite(SessionEntity session) implements Write {
+    }
+
+    private record SessionDelete(String sessionId) implements Write {
+    }
+
+    private record SessionPurge(LocalDateTime cutoff) implements Write {
+    }
+
+    private record ValidationWrite(String sessionId, String questionId, PathValidationResult result,
+                                   LocalDateTime validatedAt) implements Write {
+    }
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactions;
+    private final DatasetRepository datasetRepository;
+    private final QuestionRepository questionRepository;
+    private final SessionRepository sessionRepository;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Map<String, SessionEntity> unwrittenSessions = new ConcurrentHashMap<>();
+    private final WriteBehindQueue<Write> queue;
+
+    public JpaVQAPersistence(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             DatasetRepository datasetRepository, QuestionRepository questionRepository,
+                             SessionRepository sessionRepository, ObjectMapper objectMapper, MeterRegistry registry,
+                             @Value("${vqa.persistence.queue-capacity:10000}") int queueCapacity,
+                             @Value("${vqa.persistence.batch-size:500}") int batchSize) {
+        this.entityManager = entityManager;
+        this.transactions = new TransactionTemplate(transactionManager);
+        this.datasetRepository = datasetRepository;
+        this.questionRepository = questionRepository;
+        this.sessionRepository = sessionRepository;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.queue = new WriteBehindQueue<>("vqa", queueCapacity, batchSize, this::write, registry);
+    }
+
+    @PreDestroy
+    public void close() {
+        queue.close();
+    }
+
+    // ---------------------------------------------------------
+    // WRITES
+    // ---------------------------------------------------------
+
+    @Override
+    public void saveDataset(VQADataset dataset) {
+        // Not copied: appends replace the dataset's question list instead of adding to it, so this one
+        // stays as it is now, and questions appended before the write is applied are saved by their own write
+        queue.submit(new DatasetWrite(toEntity(dataset), dataset.getQuestions()));
+    }
+
+    @Override
+    public void saveQuestions(VQADataset dataset, int firstPosition, List<VQAQuestion> questions) {
+        // Counts taken now, later appends change them
+        queue.submit(new QuestionsWrite(dataset.getId(), dataset.getQuestionCount(), dataset.getRejectedCount(),
+                toJson(dataset.getErrors()), firstPosition, List.copyOf(questions)));
+    }
+
+    @Override
+    public void saveSession(VQASessionDTO session) {
+        // Copied now, the session keeps changing in memory
+        SessionEntity entity = toEntity(session);
+        unwrittenSessions.put(entity.getSessionId(), entity);
+        queue.submit(new SessionWrite(entity));
+    }
+
+    @Override
+    public void deleteSession(String sessionId) {
+        unwrittenSessions.remove(sessionId);
+        queue.submit(new SessionDelete(sessionId));
+    }
+
+    @Override
+    public void deleteSessionsStartedBefore(LocalDateTime cutoff) {
+        queue.submit(new SessionPurge(cutoff));
+    }
+
+    @Override
+    public void saveValidation(String sessionId, String questionId, PathValidationResult result) {
+        queue.submit(new ValidationWrite(sessionId, questionId, result, LocalDateTime.now()));
+    }
+
+    // A failed batch is retried one write at a time, its sessions stay in memory until then
+    private void write(List<Write> batch) {
+        try {
+            transactions.executeWithoutResult(status -> writeInTransaction(batch));
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                forgetUnwritten(batch);
+            }
+            throw e;
+        }
+        forgetUnwritten(batch);
+    }
+
+    private void forgetUnwritten(List<Write> batch) {
+        for (Write write : batch) {
+            if (write instanceof SessionWrite(SessionEntity session)) {
+                unwrittenSessions.remove(session.getSessionId(), session);
+            }
+        }
+    }
+
+    private void writeInTransaction(List<Write> batch) {
+        Batch writes = new Batch();
+        Map<String, SessionEntity> sessions = new LinkedHashMap<>();
+        for (Write write : batch) {
+            switch (write) {
+                case DatasetWrite(DatasetEntity dataset, List<VQAQuestion> questions) -> {
+                    writes.persist(dataset);
+                    persistQuestions(dataset.getId(), 0, questions, writes);
+                }
+                case QuestionsWrite questions -> writeQuestions(questions, writes);
+                case SessionWrite(SessionEntity session) -> sessions.put(session.getSessionId(), session);
+                case SessionDelete(String sessionId) -> {
+                    sessions.remove(sessionId);
+                    entityManager.createQuery("delete from SessionEntity s where s.sessionId = :id")
+                            .setParameter("id", sessionId)
+                            .executeUpdate();
+                }
+                case SessionPurge(LocalDateTime cutoff) -> {
+                    // Sessions saved before the purge are written first, so it can't be undone by them
+                    writeSessions(sessions, writes);
+                    sessions.clear();
+                    entityManager.flush();
+                    entityManager.createQuery("delete from SessionEntity s where s.startTime < :cutoff")
+                            .setParameter("cutoff", cutoff)
+                            .executeUpdate();
+                }
+                case ValidationWrite validation -> writes.persist(toEntity(validation));
+            }
+        }
+        writeSessions(sessions, writes);
+    }
+
+    // A bulk update, so the new counts can't be dropped when a later persist clears the persistence context.
+    // The dataset may have been persisted in this batch, so it is flushed first.
+    private void writeQuestions(QuestionsWrite append, Batch writes) {
+        entityManager.flush();
+        int updated = entityManager.createQuery("update DatasetEntity d set d.questionCount = :questionCount,"
+                        + " d.rejectedCount = :rejectedCount, d.errorsJson = :errorsJson where d.id = :id")
+                .setParameter("questionCount", append.questionCount())
+                .setParameter("rejectedCount", append.rejectedCount())
+                .setParameter("errorsJson", append.errorsJson())
+                .setParameter("id", append.datasetId())
+                .executeUpdate();
+        if (updated > 0) {
+            persistQuestions(append.datasetId(), append.firstPosition(), append.questions(), writes);
+        }
+    }
+
+    private void persistQuestions(String datasetId, int firstPosition, List<VQAQuestion> questions, Batch writes) {
+        for (int i = 0; i < questions.size(); i++) {
+            int position = firstPosition + i;
+            VQAQuestion question = questions.get(i);
+            QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setId(datasetId + ":" + position);
+            questionEntity.setDatasetId(datasetId);
+            questionEntity.setPosition(position);
+            questionEntity.setQuestionId(question.getId());
+            questionEntity.setQuestionJson(toJson(question));
+            writes.persist(questionEntity);
+        }
+    }
+
+    // Stored sessions are loaded with one query and updated in place, new ones are inserted
+    private void writeSessions(Map<String, SessionEntity> sessions, Batch writes) {
+        if (sessions.isEmpty()) {
+            return;
+        }
+        Map<String, SessionEntity> stored = new LinkedHashMap<>();
+        for (SessionEntity entity : sessionRepository.findAllById(sessions.keySet())) {
+            stored.put(entity.getSessionId(), entity);
+        }
+        // Updates first: persisting can clear the persistence context, which would drop them
+        List<SessionEntity> inserts = new ArrayList<>();
+        for (SessionEntity session : sessions.values()) {
+            SessionEntity existing = stored.get(session.getSessionId());
+            if (existing == null) {
+                inserts.add(session);
+            } else {
+                existing.setCompleted(session.isCompleted());
+                existing.setAttempts(session.getAttempts());
+                existing.setExpectedPathLength(session.getExpectedPathLength());
+                existing.setProgress(session.getProgress());
+                existing.setDifficulty(session.getDifficulty());
+                existing.setUpdatedAt(session.getUpdatedAt());
+                existing.setPathJson(session.getPathJson());
+            }
+        }
+        inserts.forEach(writes::persist);
+    }
+
+    /**
+     * Persists entities and flushes them every batch-size inserts, which Hibernate sends as one JDBC batch
+     */
+    private class Batch {
+        private int pending;
+
+        void persist(Object entity) {
+            entityManager.persist(entity);
+            if (++pending % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------
+    // READS
+    // ---------------------------------------------------------
+
+    @Override
+    public Optional<VQADataset> findDataset(String datasetId) {
+        return datasetRepository.findById(datasetId).map(entity -> {
+            List<VQAQuestion> questions = new ArrayList<>(entity.getQuestionCount());
+            for (QuestionEntity question : questionRepository.findByDatasetIdOrderByPosition(datasetId)) {
+                questions.add(fromJson(question.getQuestionJson(), VQAQuestion.class));
+            }
+            return VQADataset.builder()
+                    .id(entity.getId())
+                    .name(entity.getName())
+                    .format(entity.getFormat())
+                    .description(entity.getDescription())
+                    .questions(questions)
+                    .questionCount(questions.size())
+                    .rejectedCount(entity.getRejectedCount())
+                    .uploadedAt(entity.getUploadedAt())
+                    .errors(entity.getErrorsJson() == null ? List.of() : fromJson(entity.getErrorsJson(), ERROR_LIST))
+                    .build();
+        });
+    }
+
+    @Override
+    public List<String> findDatasetIds() {
+        return datasetRepository.findAllIds();
+    }
+
+    @Override
+    public List<String> findDatasetIdsWithQuestion(String questionId) {
+        return questionRepository.findDatasetIdsByQuestionId(questionId);
+    }
+
+    @Override
+    public Optional<VQASessionDTO> findSession(String sessionId) {
+        SessionEntity unwritten = unwrittenSessions.get(sessionId);
+        if (unwritten != null) {
+            return Optional.of(toSession(unwritten));
+        }
+        return sessionRepository.findById(sessionId).map(this::toSession);
+    }
+
+    // ---------------------------------------------------------
+    // MAPPING
+    // ---------------------------------------------------------
+
+    private DatasetEntity toEntity(VQADataset dataset) {
+        DatasetEntity entity = new DatasetEntity();
+        entity.setId(dataset.getId());
+        entity.setName(dataset.getName());
+        entity.setFormat(dataset.getFormat());
+        entity.setDescription(dataset.getDescription());
+        entity.setQuestionCount(dataset.getQuestionCount());
+        entity.setRejectedCount(dataset.getRejectedCount());
+        entity.setUploadedAt(dataset.getUploadedAt());
+        entity.setErrorsJson(toJson(dataset.getErrors()));
+        return entity;
+    }
+
+    private SessionEntity toEntity(VQASessionDTO session) {
+        SessionEntity entity = new SessionEntity();
+        entity.setSessionId(session.getSessionId());
+        entity.setQuestionId(session.getQuestionId());
+        entity.setStartTime(session.getStartTime());
+        entity.setCompleted(session.isCompleted());
+        entity.setAttempts(session.getAttempts());
+        entity.setExpectedPathLength(session.getExpectedPathLength());
+        entity.setProgress(session.getProgress());
+        entity.setDifficulty(session.getDifficulty());
+        entity.setUpdatedAt(LocalDateTime.now());
+        entity.setPathJson(toJson(session.getCurrentPathNodeURIs()));
+        return entity;
+    }
+
+    private VQASessionDTO toSession(SessionEntity entity) {
+        return VQASessionDTO.builder()
+                .sessionId(entity.getSessionId())
+                .questionId(entity.getQuestionId())
+                .currentPathNodeURIs(entity.getPathJson() == null
+                        ? new ArrayList<>() : new ArrayList<>(fromJson(entity.getPathJson(), STRING_LIST)))
+                .startTime(entity.getStartTime())
+                .completed(entity.isCompleted())
+                .attempts(entity.getAttempts())
+                .expectedPathLength(entity.getExpectedPathLength())
+                .progress(entity.getProgress())
+                .difficulty(entity.getDifficulty())
+                .build();
+    }
+
+    private ValidationResultEntity toEntity(ValidationWrite validation) {
+        PathValidationResult result = validation.result();
+        ValidationResultEntity entity = new ValidationResultEntity();
+        entity.setSessionId(validation.sessionId());
+        entity.setQuestionId(validation.questionId());
+        entity.setCorrect(result.isCorrect());
+        entity.setSimilarityScore(result.getSimilarityScore());
+        entity.setFeedback(result.getFeedback());
+        entity.setValidatedAt(validation.validatedAt());
+        entity.setUserPathJson(toJson(result.getUserPath()));
+        entity.setExpectedPathJson(toJson(result.getExpectedPath()));
+        return entity;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T fromJson(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
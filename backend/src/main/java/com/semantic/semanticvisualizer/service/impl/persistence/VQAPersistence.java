@@ -0,0 +1,99 @@
+package com.semantic.semanticvisualizer.service.impl.persistence;
+
+import com.semantic.semanticvisualizer.model.vqa.PathValidationResult;
+import com.semantic.semanticvisualizer.model.vqa.VQADataset;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.model.vqa.VQASessionDTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Durable storage behind the in-memory VQA datasets and sessions.
+ * The save and delete methods only queue the write and return; the find methods read the store
+ * and are used when something is not in memory, e.g. after a restart.
+ */
+public interface VQAPersistence {
+
+    /**
+     * Keeps nothing, for running the VQA service without a database
+     */
+    VQAPersistence NONE = new VQAPersistence() {
+        @Override
+        public void saveDataset(VQADataset dataset) {
+        }
+
+        @Override
+        public void saveQuestions(VQADataset dataset, int firstPosition, List<VQAQuestion> questions) {
+        }
+
+        @Override
+        public Optional<VQADataset> findDataset(String datasetId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<String> findDatasetIds() {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findDatasetIdsWithQuestion(String questionId) {
+            return List.of();
+        }
+
+        @Override
+        public void saveSession(VQASessionDTO session) {
+        }
+
+        @Override
+        public Optional<VQASessionDTO> findSession(String sessionId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public void deleteSession(String sessionId) {
+        }
+
+        @Override
+        public void deleteSessionsStartedBefore(LocalDateTime cutoff) {
+        }
+
+        @Override
+        public void saveValidation(String sessionId, String questionId, PathValidationResult result) {
+        }
+    };
+
+    void saveDataset(VQADataset dataset);
+
+    /**
+     * Appends questions to a stored dataset and updates its counts, nothing is stored for datasets that
+     * aren't, e.g. preloaded ones
+     *
+     * @param firstPosition Position of the first appended question in the dataset
+     */
+    void saveQuestions(VQADataset dataset, int firstPosition, List<VQAQuestion> questions);
+
+    /**
+     * @return The dataset with its questions in their original order
+     */
+    Optional<VQADataset> findDataset(String datasetId);
+
+    /**
+     * @return Ids of every stored dataset, oldest first
+     */
+    List<String> findDatasetIds();
+
+    List<String> findDatasetIdsWithQuestion(String questionId);
+
+    void saveSession(VQASessionDTO session);
+
+    Optional<VQASessionDTO> findSession(String sessionId);
+
+    void deleteSession(String sessionId);
+
+    void deleteSessionsStartedBefore(LocalDateTime cutoff);
+
+    void saveValidation(String sessionId, String questionId, PathValidationResult result);
+}
@@ -0,0 +1,129 @@
+package com.semantic.semanticvisualizer.service.impl.persistence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Hands writes to a single background thread, which drains whatever has queued up - up to batch-size
+ * writes - and passes them to the writer together, so they share one transaction and JDBC batch.
+ * If the batch fails, its writes are retried one at a time in order, so only the writes that fail
+ * on their own are dropped. Callers only wait when capacity writes are already pending. Writes still queued on close are flushed;
+ * writes queued when the process dies are lost.
+ */
+@Slf4j
+public class WriteBehindQueue<T> implements AutoCloseable {
+
+    private final BlockingQueue<T> pending;
+    private final int batchSize;
+    private final Consumer<List<T>> writer;
+    private final Thread thread;
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter failed;
+    private volatile boolean closed;
+
+    public WriteBehindQueue(String name, int capacity, int batchSize, Consumer<List<T>> writer, MeterRegistry registry) {
+        this.pending = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.writer = writer;
+        Gauge.builder("persistence.queue.size", pending, BlockingQueue::size)
+                .description("Writes waiting for the background writer")
+                .tag("queue", name)
+                .register(registry);
+        this.flushTimer = Timer.builder("persistence.flush")
+                .description("Batches written by the background writer")
+                .tag("queue", name)
+                .register(registry);
+        this.written = Counter.builder("persistence.writes").tags("queue", name, "result", "success").register(registry);
+        this.failed = Counter.builder("persistence.writes").tags("queue", name, "result", "failure").register(registry);
+        this.thread = Thread.ofPlatform().name(name + "-writer").daemon().start(this::run);
+    }
+
+    public void submit(T write) {
+        if (closed) {
+            throw new IllegalStateException("Write-behind queue is closed");
+        }
+        try {
+            pending.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a write", e);
+        }
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (!closed || !pending.isEmpty()) {
+            try {
+                T first = pending.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<T> batch) {
+        long start = System.nanoTime();
+        try {
+            writer.accept(batch);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                dropped(batch.get(0), e);
+            } else {
+                log.warn("Failed to write a batch of {} pending writes, retrying them one at a time", batch.size(), e);
+                retrySeparately(batch);
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void retrySeparately(List<T> batch) {
+        for (T write : batch) {
+            try {
+                writer.accept(List.of(write));
+                written.increment();
+            } catch (RuntimeException e) {
+                dropped(write, e);
+            }
+        }
+    }
+
+    private void dropped(T write, RuntimeException e) {
+        failed.increment();
+        // Only the type is logged, a write can hold a whole dataset
+        log.error("Dropped a pending {} that could not be written", write.getClass().getSimpleName(), e);
+    }
+
+    @Override
+    public void close() {
+        // Not interrupted: H2 closes its file channel when a thread is interrupted during I/O.
+        // The writer sees the flag within one poll timeout and drains what is left.
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.semantic.semanticvisualizer.service.impl.preload;
+
+import com.semantic.semanticvisualizer.model.dto.PreloadedResourceDTO;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Out of service until the startup preload and warm-up have finished. Part of the readiness group,
+ * so a load balancer only routes traffic to an instance whose reference data is in memory.
+ * Files that failed to load are reported in the details but don't hold readiness back.
+ */
+@Component
+public class PreloadHealthIndicator implements HealthIndicator {
+
+    private final StartupPreloader preloader;
+
+    public PreloadHealthIndicator(StartupPreloader preloader) {
+        this.preloader = preloader;
+    }
+
+    @Override
+    public Health health() {
+        List<PreloadedResourceDTO> resources = preloader.getResources();
+        Health.Builder health = preloader.isDone() ? Health.up() : Health.outOfService();
+        return health
+                .withDetail("loaded", resources.stream().filter(resource -> resource.getError() == null).count())
+                .withDetail("failed", resources.stream()
+                        .filter(resource -> resource.getError() != null)
+                        .map(PreloadedResourceDTO::getPath)
+                        .toList())
+                .build();
+    }
+}
@@ -0,0 +1,241 @@
+package com.semantic.semanticvisualizer.service.impl.preload;
+
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
+import com.semantic.semanticvisualizer.model.dto.PreloadedResourceDTO;
+import com.semantic.semanticvisualizer.model.vqa.VQADataset;
+import com.semantic.semanticvisualizer.service.VQAService;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyGraphBuilder;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyModelLoader;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyNodeDetails;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologySampler;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the ontologies and FVQA datasets listed in preload.ontologies / preload.datasets once the
+ * application has started, pinning the ontologies in the model cache and registering the datasets.
+ * Afterwards the parse, build and sample path is run on a synthetic ontology a few times, so the
+ * JIT has compiled it before the first real request. The application reports itself ready
+ * (see {@link PreloadHealthIndicator}) only after both have finished.
+ */
+@Component
+@Slf4j
+public class StartupPreloader {
+
+    private static final String WARMUP_NS = "http://example.org/warmup#";
+    private static final int WARMUP_ENTITIES = 2000;
+    private static final int WARMUP_MAX_NODES = 500;
+
+    private static final Map<String, String> FORMATS_BY_EXTENSION = Map.of(
+            "ttl", "turtle",
+            "nt", "ntriples",
+            "rdf", "rdfxml",
+            "owl", "rdfxml",
+            "xml", "rdfxml",
+            "jsonld", "jsonld",
+            "trig", "trig");
+
+    private static final Map<String, Lang> WARMUP_LANGS = Map.of(
+            "turtle", Lang.TURTLE,
+            "ntriples", Lang.NTRIPLES,
+            "rdfxml", Lang.RDFXML,
+            "jsonld", Lang.JSONLD,
+            "trig", Lang.TRIG);
+
+    private final OntologyModelLoader modelLoader;
+    private final OntologyGraphBuilder graphBuilder;
+    private final OntologySampler sampler;
+    private final OntologyNodeDetails nodeDetails;
+    private final VQAService vqaService;
+    private final Executor preloadExecutor;
+    private final List<String> ontologyFiles;
+    private final List<String> datasetFiles;
+    private final int warmupIterations;
+
+    private final List<PreloadedResourceDTO> resources = new CopyOnWriteArrayList<>();
+    private volatile boolean done;
+
+    public StartupPreloader(OntologyModelLoader modelLoader, OntologyGraphBuilder graphBuilder,
+                            OntologySampler sampler, OntologyNodeDetails nodeDetails, VQAService vqaService,
+                            @Qualifier("preloadExecutor") Executor preloadExecutor,
+                            @Value("${preload.ontologies:}") List<String> ontologyFiles,
+                            @Value("${preload.datasets:}") List<String> datasetFiles,
+                            @Value("${preload.warmup-iterations:0}") int warmupIterations) {
+        this.modelLoader = modelLoader;
+        this.graphBuilder = graphBuilder;
+        this.sampler = sampler;
+        this.nodeDetails = nodeDetails;
+        this.vqaService = vqaService;
+        this.preloadExecutor = preloadExecutor;
+        this.ontologyFiles = ontologyFiles.stream().map(String::trim).filter(path -> !path.isEmpty()).toList();
+        this.datasetFiles = datasetFiles.stream().map(String::trim).filter(path -> !path.isEmpty()).toList();
+        this.warmupIterations = warmupIterations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (String file : ontologyFiles) {
+            loads.add(CompletableFuture.runAsync(() -> preloadOntology(Path.of(file)), preloadExecutor));
+        }
+        for (String file : datasetFiles) {
+            loads.add(CompletableFuture.runAsync(() -> preloadDataset(Path.of(file)), preloadExecutor));
+        }
+
+        CompletableFuture.allOf(loads.toArray(CompletableFuture[]::new))
+                .thenRunAsync(this::warmUp, preloadExecutor)
+                .whenComplete((ignored, e) -> {
+                    if (e != null) {
+                        log.error("Startup preload did not finish cleanly", e);
+                    }
+                    done = true;
+                    log.info("Startup preload finished: {} resources, {} warm-up iterations",
+                            resources.size(), warmupIterations);
+                });
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public List<PreloadedResourceDTO> getResources(String kind) {
+        return resources.stream().filter(resource -> resource.getKind().equals(kind)).toList();
+    }
+
+    public List<PreloadedResourceDTO> getResources() {
+        return List.copyOf(resources);
+    }
+
+    private void preloadOntology(Path file) {
+        String format = formatOf(file);
+        long start = System.nanoTime();
+        PreloadedResourceDTO.PreloadedResourceDTOBuilder resource = PreloadedResourceDTO.builder()
+                .kind(PreloadedResourceDTO.KIND_ONTOLOGY)
+                .name(file.getFileName().toString())
+                .path(file.toString())
+                .format(format);
+        try {
+            if (format == null) {
+                throw new IllegalArgumentException("Cannot tell the RDF format from the file extension, supported: "
+                        + FORMATS_BY_EXTENSION.keySet());
+            }
+            Model model = modelLoader.preloadModel(file, format);
+            resource.size(model.size());
+            log.info("Preloaded ontology {} ({} triples)", file, model.size());
+        } catch (Exception e) {
+            resource.error(e.toString());
+            log.error("Could not preload ontology {}", file, e);
+        }
+        resources.add(resource.loadMillis((System.nanoTime() - start) / 1_000_000).build());
+    }
+
+    private void preloadDataset(Path file) {
+        long start = System.nanoTime();
+        PreloadedResourceDTO.PreloadedResourceDTOBuilder resource = PreloadedResourceDTO.builder()
+                .kind(PreloadedResourceDTO.KIND_DATASET)
+                .name(file.getFileName().toString())
+                .path(file.toString())
+                .format("FVQA");
+        try {
+            VQADataset dataset = vqaService.loadVQADatasetFromFile(file);
+            resource.id(dataset.getId()).size(dataset.getQuestionCount());
+            log.info("Preloaded dataset {} as {} ({} questions)", file, dataset.getId(), dataset.getQuestionCount());
+        } catch (Exception e) {
+            resource.error(e.toString());
+            log.error("Could not preload dataset {}", file, e);
+        }
+        resources.add(resource.loadMillis((System.nanoTime() - start) / 1_000_000).build());
+    }
+
+    /**
+     * Parse, build, sample and look up node details on a synthetic ontology, in turtle and in every
+     * format of the preloaded ontologies. The parse bypasses the model cache so it really runs each time.
+     */
+    private void warmUp() {
+        if (warmupIterations <= 0) {
+            return;
+        }
+
+        Set<String> formats = new LinkedHashSet<>();
+        formats.add("turtle");
+        for (String file : ontologyFiles) {
+            String format = formatOf(Path.of(file));
+            if (format != null) {
+                formats.add(format);
+            }
+        }
+
+        Model warmupModel = warmupModel();
+        Map<String, String> documents = new LinkedHashMap<>();
+        for (String format : formats) {
+            StringWriter out = new StringWriter();
+            RDFDataMgr.write(out, warmupModel, WARMUP_LANGS.get(format));
+            documents.put(format, out.toString());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < warmupIterations; i++) {
+            for (Map.Entry<String, String> document : documents.entrySet()) {
+                Model model = modelLoader.loadModelUncached(document.getValue(), document.getKey());
+                OntologyGraphDTO graph = graphBuilder.buildGraphFromModel(model, WARMUP_MAX_NODES,
+                        GraphBuildOptions.defaults());
+                sampler.limitGraph(graph, WARMUP_MAX_NODES);
+                nodeDetails.extractDetails(model, WARMUP_NS + "e" + (i % WARMUP_ENTITIES));
+            }
+        }
+        log.info("JIT warm-up: {} iterations over {} in {} ms", warmupIterations, formats,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private Model warmupModel() {
+        Model model = ModelFactory.createDefaultModel();
+        model.setNsPrefix("w", WARMUP_NS);
+        Resource type = model.createResource(WARMUP_NS + "Entity");
+        Property[] properties = {
+                model.createProperty(WARMUP_NS, "relatedTo"),
+                model.createProperty(WARMUP_NS, "partOf"),
+                model.createProperty(WARMUP_NS, "dependsOn")
+        };
+        for (int i = 0; i < WARMUP_ENTITIES; i++) {
+            Resource entity = model.createResource(WARMUP_NS + "e" + i)
+                    .addProperty(RDF.type, type)
+                    .addProperty(RDFS.label, "Entity " + i);
+            // A few hubs, so sampling has something to cut
+            entity.addProperty(properties[i % 3], model.createResource(WARMUP_NS + "e" + (i % 50)));
+            entity.addProperty(properties[(i + 1) % 3], model.createResource(WARMUP_NS + "e" + ((i * 7 + 1) % WARMUP_ENTITIES)));
+        }
+        return model;
+    }
+
+    // null when the extension is not a known RDF format
+    private static String formatOf(Path file) {
+        String name = file.getFileName().toString();
+        return FORMATS_BY_EXTENSION.get(name.substring(name.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,160 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.semantic.semanticvisualizer.model.vqa.BatchValidationItem;
+import com.semantic.semanticvisualizer.model.vqa.BatchValidationSummary;
+import com.semantic.semanticvisualizer.model.vqa.PathValidationResult;
+import com.semantic.semanticvisualizer.model.vqa.UserAnswerPath;
+import com.semantic.semanticvisualizer.service.VQAService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Validates a stream of answer paths without sessions and writes the results as NDJSON.
+ * The input - a JSON array or newline-delimited objects - is read chunk-size paths at a time. Each chunk
+ * is validated in parallel on the batch pool while the next one is read, and its results are written in
+ * request order, so only two chunks are ever held in memory. A summary line closes the response.
+ */
+@Slf4j
+@Component
+public class BatchPathValidator {
+
+    private final VQAService vqaService;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public BatchPathValidator(VQAService vqaService, ObjectMapper objectMapper,
+                              @Qualifier("vqaBatchPool") ForkJoinPool pool,
+                              @Value("${vqa.batch.chunk-size:1024}") int chunkSize) {
+        this.vqaService = vqaService;
+        this.objectMapper = objectMapper;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    private static class Totals {
+        long evaluated;
+        long failed;
+        long correct;
+        double similaritySum;
+    }
+
+    public void validate(InputStream in, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        ObjectWriter writer = objectMapper.writer();
+        Totals totals = new Totals();
+        long read = 0;
+        String failure = null;
+
+        try (MappingIterator<UserAnswerPath> paths = objectMapper.readerFor(UserAnswerPath.class).readValues(in)) {
+            ForkJoinTask<BatchValidationItem[]> inFlight = null;
+            while (true) {
+                List<UserAnswerPath> chunk = new ArrayList<>(chunkSize);
+                try {
+                    while (chunk.size() < chunkSize && paths.hasNextValue()) {
+                        chunk.add(paths.nextValue());
+                    }
+                } catch (JsonProcessingException e) {
+                    failure = "Invalid answer path at index " + (read + chunk.size()) + ": " + e.getOriginalMessage();
+                }
+
+                if (inFlight != null) {
+                    write(inFlight.join(), writer, out, totals);
+                    inFlight = null;
+                }
+                if (!chunk.isEmpty()) {
+                    long first = read;
+                    inFlight = pool.submit(() -> IntStream.range(0, chunk.size())
+                            .parallel()
+                            .mapToObj(i -> evaluate(first + i, chunk.get(i)))
+                            .toArray(BatchValidationItem[]::new));
+                    read += chunk.size();
+                }
+                if (failure != null || chunk.size() < chunkSize) {
+                    if (inFlight != null) {
+                        write(inFlight.join(), writer, out, totals);
+                    }
+                    break;
+                }
+            }
+        }
+
+        BatchValidationSummary summary = BatchValidationSummary.builder()
+                .total(read)
+                .evaluated(totals.evaluated)
+                .failed(totals.failed)
+                .correct(totals.correct)
+                .accuracy(totals.evaluated == 0 ? 0.0 : (double) totals.correct / totals.evaluated)
+                .meanSimilarity(totals.evaluated == 0 ? 0.0 : totals.similaritySum / totals.evaluated)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .error(failure)
+                .build();
+        writeLine(summary, writer, out);
+        out.flush();
+    }
+
+    private BatchValidationItem evaluate(long index, UserAnswerPath path) {
+        String questionId = path == null ? null : path.getQuestionId();
+        try {
+            return BatchValidationItem.builder()
+                    .index(index)
+                    .questionId(questionId)
+                    .result(vqaService.evaluatePath(path))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            return BatchValidationItem.builder()
+                    .index(index)
+                    .questionId(questionId)
+                    .error(e.getMessage())
+                    .build();
+        } catch (RuntimeException e) {
+            // One broken question fails its own line, not the rest of the stream
+            log.warn("Could not evaluate answer path {} for question {}", index, questionId, e);
+            return BatchValidationItem.builder()
+                    .index(index)
+                    .questionId(questionId)
+                    .error("Could not evaluate the path: " + e)
+                    .build();
+        }
+    }
+
+    // Results reach the client chunk by chunk
+    private void write(BatchValidationItem[] items, ObjectWriter writer, OutputStream out, Totals totals)
+            throws IOException {
+        for (BatchValidationItem item : items) {
+            PathValidationResult result = item.getResult();
+            if (result == null) {
+                totals.failed++;
+            } else {
+                totals.evaluated++;
+                totals.similaritySum += result.getSimilarityScore();
+                if (result.isCorrect()) {
+                    totals.correct++;
+                }
+            }
+            writeLine(item, writer, out);
+        }
+        out.flush();
+    }
+
+    private static void writeLine(Object value, ObjectWriter writer, OutputStream out) throws IOException {
+        out.write(writer.writeValueAsBytes(value));
+        out.write('\n');
+    }
+}
@@ -0,0 +1,318 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphEdge;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphNode;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphResponse;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The knowledge graph of a dataset: the entities and relations of its question triples and expected paths.
+ * Built once when the dataset is indexed and extended when questions are appended. An edge stated by
+ * several questions is kept once, with the number of times it occurs. The graph response and its JSON
+ * are built on the first request after a change and then served as they are.
+ * An adjacency index - the edges of each node, either direction - serves neighbourhood queries, and a
+ * {@link ReachabilityIndex} serves shortest-path distances for hints. After a change it is rebuilt on
+ * the next hint rather than with every append, keeping the distance fields computed so far.
+ */
+public class DatasetGraph {
+
+    private static final String PATH_RELATION = "relatedTo";
+
+    private record EdgeKey(String source, String target, String label) {
+
+        String otherEnd(String node) {
+            return node.equals(source) ? target : source;
+        }
+    }
+
+    /**
+     * @param truncated Whether nodes within the hops were left out to stay within maxNodes
+     */
+    public record Subgraph(List<GraphNode> nodes, List<GraphEdge> edges, boolean truncated) {
+    }
+
+    private final Map<String, GraphNode> nodes = new LinkedHashMap<>();
+    private final Map<EdgeKey, GraphEdge> edges = new LinkedHashMap<>();
+    private final Map<String, Set<EdgeKey>> adjacency = new HashMap<>();
+    private final DistanceFieldCache distanceFields;
+    private volatile ReachabilityIndex reachability;
+    private volatile boolean reachabilityStale;
+    private volatile GraphResponse response;
+    private volatile byte[] json;
+
+    public DatasetGraph(List<VQAQuestion> questions, DistanceFieldCache distanceFields) {
+        this.distanceFields = distanceFields;
+        addQuestions(questions);
+    }
+
+    public synchronized void addQuestions(List<VQAQuestion> questions) {
+        for (VQAQuestion q : questions) {
+
+            // FVQA single triple
+            if (q.getTriple() != null) {
+                addTriple(q.getTriple());
+            }
+
+            // FVQA multiple triples
+            if (q.getAnswerTriplets() != null) {
+                for (TripleVQA t : q.getAnswerTriplets()) {
+                    addTriple(t);
+                }
+            }
+
+            // Path-based datasets
+            List<String> path = q.getExpectedPath();
+            if (path != null && !path.isEmpty()) {
+                for (int i = 0; i < path.size(); i++) {
+                    String nodeId = pathNodeId(path.get(i));
+                    if (nodeId == null) continue;
+
+                    addNode(nodeId, null);
+                    String next = i < path.size() - 1 ? pathNodeId(path.get(i + 1)) : null;
+                    if (next != null) {
+                        addEdge(nodeId, next, PATH_RELATION);
+                    }
+                }
+            }
+        }
+        // Responses handed out before keep their state, the next request builds new ones
+        response = null;
+        json = null;
+        reachabilityStale = true;
+    }
+
+    public ReachabilityIndex reachability() {
+        if (reachabilityStale) {
+            synchronized (this) {
+                if (reachabilityStale) {
+                    reachability = ReachabilityIndex.extend(reachability, neighbours(), distanceFields);
+                    reachabilityStale = false;
+                }
+            }
+        }
+        return reachability;
+    }
+
+    public GraphResponse toResponse() {
+        GraphResponse current = response;
+        if (current == null) {
+            synchronized (this) {
+                if (response == null) {
+                    response = new GraphResponse(List.copyOf(nodes.values()), List.copyOf(edges.values()));
+                }
+                current = response;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * @return The graph response serialized with the given mapper, shared between callers - don't modify it
+     */
+    public byte[] toJson(ObjectMapper objectMapper) {
+        byte[] current = json;
+        if (current == null) {
+            synchronized (this) {
+                if (json == null) {
+                    try {
+                        json = objectMapper.writeValueAsBytes(toResponse());
+                    } catch (JsonProcessingException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                current = json;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * The given nodes and every node up to the given number of hops from them, following edges either way,
+     * nearest first, together with the edges between them. Nodes missing from the graph are ignored.
+     *
+     * @param seeds    Ids of the nodes to start from, always included (unless more than maxNodes)
+     * @param maxNodes Upper limit on the nodes returned, the breadth-first search stops when it is reached
+     */
+    public synchronized Subgraph neighbourhood(Collection<String> seeds, int hops, int maxNodes) {
+        Set<String> included = new LinkedHashSet<>();
+        List<String> frontier = new ArrayList<>();
+        boolean truncated = false;
+        for (String seed : seeds) {
+            if (seed == null || !nodes.containsKey(seed) || included.contains(seed)) {
+                continue;
+            }
+            if (included.size() == maxNodes) {
+                truncated = true;
+                break;
+            }
+            included.add(seed);
+            frontier.add(seed);
+        }
+
+        for (int hop = 0; hop < hops && !frontier.isEmpty() && !truncated; hop++) {
+            List<String> next = new ArrayList<>();
+            search:
+            for (String node : frontier) {
+                for (EdgeKey edge : adjacency.getOrDefault(node, Set.of())) {
+                    String neighbour = edge.otherEnd(node);
+                    if (included.contains(neighbour)) {
+                        continue;
+                    }
+                    if (included.size() == maxNodes) {
+                        truncated = true;
+                        break search;
+                    }
+                    included.add(neighbour);
+                    next.add(neighbour);
+                }
+            }
+            frontier = next;
+        }
+
+        List<GraphNode> subgraphNodes = new ArrayList<>(included.size());
+        Set<EdgeKey> subgraphEdges = new LinkedHashSet<>();
+        for (String node : included) {
+            subgraphNodes.add(nodes.get(node));
+            for (EdgeKey edge : adjacency.getOrDefault(node, Set.of())) {
+                if (included.contains(edge.otherEnd(node))) {
+                    subgraphEdges.add(edge);
+                }
+            }
+        }
+        return new Subgraph(subgraphNodes, subgraphEdges.stream().map(edges::get).toList(), truncated);
+    }
+
+    // In node order, which only ever grows at the end
+    private Map<String, Set<String>> neighbours() {
+        Map<String, Set<String>> neighbours = new LinkedHashMap<>();
+        for (String node : nodes.keySet()) {
+            Set<String> adjacent = new LinkedHashSet<>(); // one per neighbour, whatever the relations
+            for (EdgeKey edge : adjacency.getOrDefault(node, Set.of())) {
+                adjacent.add(edge.otherEnd(node));
+            }
+            neighbours.put(node, adjacent);
+        }
+        return neighbours;
+    }
+
+    /**
+     * Ids of the nodes a question's answer triples and expected path add to the graph, in order
+     */
+    public static List<String> answerNodes(VQAQuestion question) {
+        Set<String> answer = new LinkedHashSet<>();
+        List<TripleVQA> triples = new ArrayList<>();
+        if (question.getTriple() != null) {
+            triples.add(question.getTriple());
+        }
+        if (question.getAnswerTriplets() != null) {
+            triples.addAll(question.getAnswerTriplets());
+        }
+        for (TripleVQA triple : triples) {
+            if (triple != null && triple.getSubject() != null && triple.getObject() != null
+                    && triple.getRelation() != null) {
+                String subjectId = entityId(triple.getSubject());
+                String objectId = entityId(triple.getObject());
+                if (subjectId != null && objectId != null) {
+                    answer.add(subjectId);
+                    answer.add(objectId);
+                }
+            }
+        }
+        if (question.getExpectedPath() != null) {
+            for (String node : question.getExpectedPath()) {
+                String nodeId = pathNodeId(node);
+                if (nodeId != null) {
+                    answer.add(nodeId);
+                }
+            }
+        }
+        return new ArrayList<>(answer);
+    }
+
+    public synchronized int nodeCount() {
+        return nodes.size();
+    }
+
+    public synchronized int edgeCount() {
+        return edges.size();
+    }
+
+    private void addTriple(TripleVQA triple) {
+        if (triple == null ||
+                triple.getSubject() == null ||
+                triple.getObject() == null ||
+                triple.getRelation() == null) {
+            return; // skip invalid triple
+        }
+
+        String subjectId = entityId(triple.getSubject());
+        String objectId = entityId(triple.getObject());
+        if (subjectId == null || objectId == null) {
+            return; // skip broken triple
+        }
+
+        String relation = triple.getRelation().getLabel();
+        if (relation == null || relation.isBlank()) {
+            relation = triple.getRelation().getUri();
+        }
+        if (relation == null || relation.isBlank()) {
+            relation = PATH_RELATION; // fallback
+        }
+
+        addNode(subjectId, triple.getSubject().getLabel());
+        addNode(objectId, triple.getObject().getLabel());
+        addEdge(subjectId, objectId, relation.trim());
+    }
+
+    // Trimmed like expected and submitted paths, so hints find the node
+    private static String pathNodeId(String node) {
+        String id = PathScoring.trim(node);
+        return id == null || id.isEmpty() ? null : id;
+    }
+
+    // The URI, or the label of entities without one
+    private static String entityId(TripleVQA.KGEntity entity) {
+        String id = entity.getUri();
+        if (id == null || id.isBlank()) {
+            id = entity.getLabel();
+        }
+        return id == null || id.isBlank() ? null : id.trim();
+    }
+
+    // The first label seen for a node is kept, nodes without one are labelled with the end of their id
+    private void addNode(String id, String label) {
+        if (nodes.containsKey(id)) {
+            return;
+        }
+        if (label == null || label.isBlank()) {
+            label = id.contains("/") ? id.substring(id.lastIndexOf("/") + 1) : id;
+        }
+        nodes.put(id, new GraphNode(id, label, "entity"));
+    }
+
+    // Edges are replaced rather than counted up in place, responses already built hold on to them
+    private void addEdge(String source, String target, String label) {
+        EdgeKey key = new EdgeKey(source, target, label);
+        GraphEdge existing = edges.get(key);
+        if (existing != null) {
+            edges.put(key, new GraphEdge(source, target, label, existing.getCount() + 1));
+            return;
+        }
+        edges.put(key, new GraphEdge(source, target, label));
+        adjacency.computeIfAbsent(source, node -> new LinkedHashSet<>()).add(key);
+        adjacency.computeIfAbsent(target, node -> new LinkedHashSet<>()).add(key);
+    }
+}
@@ -0,0 +1,65 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * The distance fields of every dataset's {@link ReachabilityIndex}, in one cache bounded by their total size
+ * (vqa.hints.distance-field-bytes), so the least used fields are dropped first whichever dataset they belong to.
+ * Fields are kept per index and target node. When a dataset graph grows, its new index takes over the
+ * fields of the old one instead of starting empty.
+ */
+@Component
+public class DistanceFieldCache {
+
+    // Indexes compare by identity
+    private record Key(ReachabilityIndex index, int target) {
+    }
+
+    private final Cache<Key, int[]> fields;
+
+    public DistanceFieldCache(MeterRegistry registry,
+                              @Value("${vqa.hints.distance-field-bytes:67108864}") long maxBytes) {
+        this.fields = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, int[] field) -> field.length * Integer.BYTES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, fields, "vqa.hints.distance-fields");
+    }
+
+    int[] get(ReachabilityIndex index, int target, IntFunction<int[]> compute) {
+        return fields.get(new Key(index, target), key -> compute.apply(key.target()));
+    }
+
+    void put(ReachabilityIndex index, int target, int[] field) {
+        fields.put(new Key(index, target), field);
+    }
+
+    /**
+     * Removes the fields of an index
+     *
+     * @return The removed fields by target node
+     */
+    Map<Integer, int[]> remove(ReachabilityIndex index) {
+        Map<Integer, int[]> removed = new HashMap<>();
+        Iterator<Map.Entry<Key, int[]>> entries = fields.asMap().entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Key, int[]> entry = entries.next();
+            if (entry.getKey().index() == index) {
+                removed.put(entry.getKey().target(), entry.getValue());
+                entries.remove();
+            }
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,388 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.semantic.semanticvisualizer.model.vqa.EvaluationJobDTO;
+import com.semantic.semanticvisualizer.model.vqa.EvaluationMetrics;
+import com.semantic.semanticvisualizer.model.vqa.EvaluationReport;
+import com.semantic.semanticvisualizer.model.vqa.UserAnswerPath;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.service.VQAService;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.PathScoring.PathScore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Leaderboard-style scoring of a whole predictions file against a dataset.
+ * The predictions - answer paths with question ids, as a JSON array or one per line - are spooled to a
+ * temporary file and scored by a background job, which reads them chunk-size at a time and scores each
+ * chunk in parallel on the batch pool while reading the next. Expected paths are compiled once per job,
+ * and every chunk is reduced into its own partial sums, so workers share nothing but the read-only questions. Finished jobs are kept for vqa.evaluation.retention.
+ * Jobs run on their own small executor, so a few long evaluations never hold the VQA executor's threads,
+ * and a predictions file larger than vqa.evaluation.max-file-bytes is refused while it is spooled.
+ */
+@Component
+@Slf4j
+public class EvaluationEngine {
+
+    private static final String NO_DIFFICULTY = "(none)";
+
+    private final VQAService vqaService;
+    private final ObjectMapper objectMapper;
+    private final Executor evaluationExecutor;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final long maxFileBytes;
+    private final Cache<String, Job> jobs;
+
+    public EvaluationEngine(VQAService vqaService, ObjectMapper objectMapper,
+                            @Qualifier("evaluationExecutor") Executor evaluationExecutor,
+                            @Qualifier("vqaBatchPool") ForkJoinPool pool,
+                            @Value("${vqa.batch.chunk-size:1024}") int chunkSize,
+                            @Value("${vqa.evaluation.max-file-bytes:104857600}") long maxFileBytes,
+                            @Value("${vqa.evaluation.max-jobs:100}") long maxJobs,
+                            @Value("${vqa.evaluation.retention:1h}") Duration retention) {
+        this.vqaService = vqaService;
+        this.objectMapper = objectMapper;
+        this.evaluationExecutor = evaluationExecutor;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxFileBytes = maxFileBytes;
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * Start scoring predictions against a dataset
+     *
+     * @return The queued job, poll {@link #getJob(String)} for progress and the report
+     * @throws IllegalArgumentException    When the dataset doesn't exist or the predictions exceed the maximum size
+     * @throws RejectedExecutionException When the evaluation executor is full
+     */
+    public EvaluationJobDTO submit(String datasetId, InputStream predictions) throws IOException {
+        List<VQAQuestion> questions = vqaService.getAllQuestions(datasetId);
+
+        Path file = Files.createTempFile("predictions-", ".json");
+        try {
+            long size = spool(predictions, file);
+            Job job = new Job(UUID.randomUUID().toString(), datasetId, size);
+            jobs.put(job.id, job);
+            try {
+                evaluationExecutor.execute(() -> run(job, questions, file));
+            } catch (RejectedExecutionException e) {
+                // A job that never runs must not be reported as queued
+                jobs.invalidate(job.id);
+                throw e;
+            }
+            return job.toDTO();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    // Copies the predictions to the file, stopping as soon as they exceed the maximum size
+    private long spool(InputStream predictions, Path file) throws IOException {
+        byte[] buffer = new byte[8192];
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = predictions.read(buffer)) != -1) {
+                size += read;
+                if (size > maxFileBytes) {
+                    throw new IllegalArgumentException("Predictions file exceeds the maximum size of "
+                            + maxFileBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return size;
+    }
+
+    public EvaluationJobDTO getJob(String jobId) {
+        Job job = jobId == null ? null : jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new IllegalArgumentException("Evaluation job not found: " + jobId);
+        }
+        return job.toDTO();
+    }
+
+    private void run(Job job, List<VQAQuestion> questions, Path file) {
+        job.status = EvaluationJobDTO.STATUS_RUNNING;
+        try (InputStream in = Files.newInputStream(file);
+             MappingIterator<UserAnswerPath> predictions =
+                     objectMapper.readerFor(UserAnswerPath.class).readValues(in)) {
+            CompiledDataset dataset = CompiledDataset.of(questions);
+            Totals totals = new Totals(questions.size());
+
+            ForkJoinTask<Totals> inFlight = null;
+            while (true) {
+                List<UserAnswerPath> chunk = new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && predictions.hasNextValue()) {
+                    chunk.add(predictions.nextValue());
+                }
+                job.bytesRead = predictions.getParser().currentLocation().getByteOffset();
+
+                if (inFlight != null) {
+                    job.processed.addAndGet(totals.merge(inFlight.join()));
+                    inFlight = null;
+                }
+                if (!chunk.isEmpty()) {
+                    inFlight = pool.submit(() -> chunk.parallelStream().collect(
+                            () -> new Totals(dataset.size()),
+                            (partial, prediction) -> partial.add(dataset, prediction),
+                            Totals::merge));
+                }
+                if (chunk.size() < chunkSize) {
+                    if (inFlight != null) {
+                        job.processed.addAndGet(totals.merge(inFlight.join()));
+                    }
+                    break;
+                }
+            }
+
+            job.report = totals.report(job.datasetId, dataset.size());
+            job.bytesRead = job.sizeBytes;
+            job.status = EvaluationJobDTO.STATUS_COMPLETED;
+        } catch (Exception e) {
+            log.warn("Evaluation job {} for dataset {} failed", job.id, job.datasetId, e);
+            job.error = e.getMessage();
+            job.status = EvaluationJobDTO.STATUS_FAILED;
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete predictions file {}", file, e);
+            }
+        }
+    }
+
+    private static final class Job {
+        final String id;
+        final String datasetId;
+        final long sizeBytes;
+        final LocalDateTime createdAt = LocalDateTime.now();
+        final AtomicLong processed = new AtomicLong();
+        volatile String status = EvaluationJobDTO.STATUS_QUEUED;
+        volatile long bytesRead;
+        volatile LocalDateTime finishedAt;
+        volatile String error;
+        volatile EvaluationReport report;
+
+        Job(String id, String datasetId, long sizeBytes) {
+            this.id = id;
+            this.datasetId = datasetId;
+            this.sizeBytes = sizeBytes;
+        }
+
+        EvaluationJobDTO toDTO() {
+            LocalDateTime finished = finishedAt;
+            return EvaluationJobDTO.builder()
+                    .id(id)
+                    .datasetId(datasetId)
+                    .status(status)
+                    .processed(processed.get())
+                    .progress(sizeBytes == 0 ? 1.0 : Math.min(1.0, (double) bytesRead / sizeBytes))
+                    .createdAt(createdAt)
+                    .finishedAt(finished)
+                    .durationMs(finished == null ? null : Duration.between(createdAt, finished).toMillis())
+                    .error(error)
+                    .report(report)
+                    .build();
+        }
+    }
+
+    /**
+     * The dataset's questions by position, with plain and dataset-qualified ids pointing to them
+     */
+    private record CompiledDataset(Map<String, Integer> positions, ExpectedPath[] paths, String[] difficulties,
+                                   String[] answers) {
+
+        static CompiledDataset of(List<VQAQuestion> questions) {
+            int size = questions.size();
+            Map<String, Integer> positions = new HashMap<>(size * 2);
+            ExpectedPath[] paths = new ExpectedPath[size];
+            String[] difficulties = new String[size];
+            String[] answers = new String[size];
+            for (int i = 0; i < size; i++) {
+                VQAQuestion question = questions.get(i);
+                if (question.getId() != null) {
+                    positions.putIfAbsent(question.getId(), i);
+                    positions.putIfAbsent(QuestionIndex.qualify(question.getDatasetId(), question.getId()), i);
+                }
+                try {
+                    paths[i] = ExpectedPath.of(question);
+                } catch (IllegalArgumentException e) {
+                    paths[i] = null; // no valid expected path, predictions for it count as invalid
+                }
+                difficulties[i] = question.getDifficulty() == null || question.getDifficulty().isBlank()
+                        ? NO_DIFFICULTY : question.getDifficulty();
+                answers[i] = question.getAnswer() == null ? null : question.getAnswer().trim();
+            }
+            return new CompiledDataset(positions, paths, difficulties, answers);
+        }
+
+        int size() {
+            return paths.length;
+        }
+    }
+
+    /**
+     * Score sums of a part of the predictions; partial sums of parallel chunks are merged
+     */
+    private static final class Totals {
+        final Sums overall = new Sums();
+        final Map<String, Sums> byDifficulty = new HashMap<>();
+        final Map<String, Sums> byRelation = new HashMap<>();
+        final BitSet predicted;
+        long predictions;
+        long unknown;
+        long invalid;
+
+        Totals(int questions) {
+            this.predicted = new BitSet(questions);
+        }
+
+        void add(CompiledDataset dataset, UserAnswerPath prediction) {
+            predictions++;
+            Integer position = prediction == null || prediction.getQuestionId() == null ? null
+                    : dataset.positions().get(prediction.getQuestionId());
+            if (position == null) {
+                unknown++;
+                return;
+            }
+            ExpectedPath expected = dataset.paths()[position];
+            if (expected == null || prediction.getNodeURIs() == null) {
+                invalid++;
+                return;
+            }
+            predicted.set(position);
+
+            PathScore score = PathScoring.score(expected, prediction.getNodeURIs());
+            String answer = dataset.answers()[position];
+            Boolean answerCorrect = answer == null || prediction.getUserAnswer() == null ? null
+                    : answer.equalsIgnoreCase(prediction.getUserAnswer().trim());
+
+            overall.add(score, answerCorrect);
+            byDifficulty.computeIfAbsent(dataset.difficulties()[position], k -> new Sums()).add(score, answerCorrect);
+            for (String relation : expected.relations()) {
+                byRelation.computeIfAbsent(relation, k -> new Sums()).add(score, answerCorrect);
+            }
+        }
+
+        /**
+         * @return The number of predictions merged in
+         */
+        long merge(Totals other) {
+            overall.merge(other.overall);
+            other.byDifficulty.forEach((key, sums) -> byDifficulty.computeIfAbsent(key, k -> new Sums()).merge(sums));
+            other.byRelation.forEach((key, sums) -> byRelation.computeIfAbsent(key, k -> new Sums()).merge(sums));
+            predicted.or(other.predicted);
+            predictions += other.predictions;
+            unknown += other.unknown;
+            invalid += other.invalid;
+            return other.predictions;
+        }
+
+        EvaluationReport report(String datasetId, int questions) {
+            Map<String, EvaluationMetrics> difficulties = new TreeMap<>();
+            byDifficulty.forEach((key, sums) -> difficulties.put(key, sums.metrics()));
+            Map<String, EvaluationMetrics> relations = new TreeMap<>();
+            byRelation.forEach((key, sums) -> relations.put(key, sums.metrics()));
+            return EvaluationReport.builder()
+                    .datasetId(datasetId)
+                    .predictions(predictions)
+                    .unknownQuestions(unknown)
+                    .invalid(invalid)
+                    .missingQuestions(questions - predicted.cardinality())
+                    .overall(overall.metrics())
+                    .byDifficulty(difficulties)
+                    .byRelation(relations)
+                    .build();
+        }
+    }
+
+    private static final class Sums {
+        long count;
+        long exactMatches;
+        long setMatches;
+        double jaccard;
+        double precision;
+        double recall;
+        double f1;
+        double orderScore;
+        long answered;
+        long answeredCorrectly;
+
+        void add(PathScore score, Boolean answerCorrect) {
+            count++;
+            exactMatches += score.exactMatch() ? 1 : 0;
+            setMatches += score.setMatch() ? 1 : 0;
+            jaccard += score.jaccard();
+            precision += score.precision();
+            recall += score.recall();
+            f1 += score.f1();
+            orderScore += score.orderScore();
+            if (answerCorrect != null) {
+                answered++;
+                answeredCorrectly += answerCorrect ? 1 : 0;
+            }
+        }
+
+        void merge(Sums other) {
+            count += other.count;
+            exactMatches += other.exactMatches;
+            setMatches += other.setMatches;
+            jaccard += other.jaccard;
+            precision += other.precision;
+            recall += other.recall;
+            f1 += other.f1;
+            orderScore += other.orderScore;
+            answered += other.answered;
+            answeredCorrectly += other.answeredCorrectly;
+        }
+
+        EvaluationMetrics metrics() {
+            double n = Math.max(1, count);
+            return EvaluationMetrics.builder()
+                    .count(count)
+                    .exactMatch(exactMatches / n)
+                    .setMatch(setMatches / n)
+                    .jaccard(jaccard / n)
+                    .precision(precision / n)
+                    .recall(recall / n)
+                    .f1(f1 / n)
+                    .orderScore(orderScore / n)
+                    .answered(answered)
+                    .answerAccuracy(answered == 0 ? null : (double) answeredCorrectly / answered)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA.KGEntity;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The answer path of a question, resolved once so it can be scored against any number of submitted paths.
+ * Path-based questions use their expected path; FVQA questions the subject and object of each answer triple
+ * (relations are edges, not nodes). Relation types are kept for per-relation score breakdowns.
+ * Loaded questions are compiled when their dataset is indexed and kept with their {@link QuestionIndex} entry,
+ * so validation only looks them up.
+ */
+public final class ExpectedPath {
+
+    public static final String NO_RELATION = "(none)";
+
+    private final List<String> nodes;
+    private final Set<String> nodeSet;
+    private final List<String> relations;
+
+    private ExpectedPath(List<String> nodes, List<String> relations) {
+        // Trimmed like submitted paths. Not List.copyOf, entities may lack both URI and label
+        List<String> trimmed = new ArrayList<>(nodes.size());
+        for (String node : nodes) {
+            trimmed.add(node == null ? null : node.trim());
+        }
+        this.nodes = Collections.unmodifiableList(trimmed);
+        this.nodeSet = Collections.unmodifiableSet(new HashSet<>(trimmed));
+        this.relations = List.copyOf(relations);
+    }
+
+    /**
+     * @throws IllegalArgumentException When the question has neither an expected path nor complete answer triples
+     */
+    public static ExpectedPath of(VQAQuestion question) {
+        return new ExpectedPath(resolve(question), relationsOf(question));
+    }
+
+    /**
+     * The node sequence a correct answer has to visit
+     *
+     * @throws IllegalArgumentException When the question has neither an expected path nor answer triples,
+     *                                  or one of its answer triples lacks a subject or object
+     */
+    public static List<String> resolve(VQAQuestion question) {
+
+        if (question.getExpectedPath() != null && !question.getExpectedPath().isEmpty()) {
+            return question.getExpectedPath();
+        }
+
+        if (question.getAnswerTriplets() != null && !question.getAnswerTriplets().isEmpty()) {
+            List<String> seq = new ArrayList<>();
+            for (TripleVQA t : question.getAnswerTriplets()) {
+                // subject → object (relation stays as edge label, NOT a node)
+                seq.add(nodeId(question, t == null ? null : t.getSubject()));
+                seq.add(nodeId(question, t == null ? null : t.getObject()));
+            }
+            return seq;
+        }
+
+        if (question.getTriple() != null) {
+            TripleVQA t = question.getTriple();
+            return Arrays.asList(
+                    nodeId(question, t.getSubject()),
+                    nodeId(question, t.getObject())
+            );
+        }
+
+        throw new IllegalArgumentException("No valid path found in VQAQuestion: " + question.getId());
+    }
+
+    // The graph skips such triples, so the path could never be walked
+    private static String nodeId(VQAQuestion question, KGEntity entity) {
+        if (entity == null) {
+            throw new IllegalArgumentException("Answer triple without subject or object in VQAQuestion: "
+                    + question.getId());
+        }
+        if (entity.getUri() != null && !entity.getUri().isBlank()) {
+            return entity.getUri();
+        }
+        return entity.getLabel();
+    }
+
+    /**
+     * Relation types of the answer triples, {@link #NO_RELATION} when there are none
+     */
+    public static List<String> relationsOf(VQAQuestion question) {
+        Set<String> relations = new LinkedHashSet<>();
+        List<TripleVQA> triples = question.getAnswerTriplets() != null ? question.getAnswerTriplets()
+                : question.getTriple() != null ? List.of(question.getTriple())
+                : List.of();
+        for (TripleVQA triple : triples) {
+            if (triple == null || triple.getRelation() == null) {
+                continue;
+            }
+            String relation = triple.getRelation().getLabel();
+            if (relation == null || relation.isBlank()) {
+                relation = triple.getRelation().getUri();
+            }
+            if (relation != null && !relation.isBlank()) {
+                relations.add(relation.trim());
+            }
+        }
+        return relations.isEmpty() ? List.of(NO_RELATION) : new ArrayList<>(relations);
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public Set<String> nodeSet() {
+        return nodeSet;
+    }
+
+    public List<String> relations() {
+        return relations;
+    }
+}
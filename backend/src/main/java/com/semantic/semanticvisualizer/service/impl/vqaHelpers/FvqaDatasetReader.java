@@ -0,0 +1,173 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.semantic.semanticvisualizer.model.vqa.DatasetRecordError;
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads FVQA datasets - a top-level array of questions or an object with a "questions" array - one
+ * question at a time from the token stream, so neither the raw document nor a JsonNode tree of it is
+ * held in memory. A record that can't be bound is reported and skipped, the rest of the dataset still
+ * loads; only malformed JSON aborts the whole read.
+ * Entity and relation URIs/labels repeat across thousands of questions and are interned.
+ */
+public class FvqaDatasetReader {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String QUESTIONS_FIELD = "questions";
+
+    // Shared by all datasets, so the same FVQA facts loaded twice still point to one String each
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+    private final ObjectMapper objectMapper;
+
+    public record Result(List<VQAQuestion> questions, int rejectedCount, List<DatasetRecordError> errors) {
+    }
+
+    public FvqaDatasetReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Result read(InputStream in) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            return read(parser);
+        }
+    }
+
+    public Result read(String json) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            return read(parser);
+        }
+    }
+
+    private Result read(JsonParser parser) throws IOException {
+        moveToQuestionsArray(parser);
+        JsonStreamContext arrayContext = parser.getParsingContext();
+
+        List<VQAQuestion> questions = new ArrayList<>();
+        List<DatasetRecordError> errors = new ArrayList<>();
+        int rejected = 0;
+        int index = 0;
+
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken(), index++) {
+            if (token == null) {
+                throw new IllegalArgumentException("Invalid dataset JSON: unexpected end of the questions array");
+            }
+            String problem;
+            String questionId = null;
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                problem = "Question record must be a JSON object, found " + token;
+            } else {
+                try {
+                    VQAQuestion question = objectMapper.readValue(parser, VQAQuestion.class);
+                    questionId = question.getId();
+                    problem = validate(question);
+                    if (problem == null) {
+                        questions.add(intern(question));
+                    }
+                } catch (JsonParseException e) {
+                    throw e;
+                } catch (JsonProcessingException e) {
+                    problem = e.getOriginalMessage();
+                    skipRestOfRecord(parser, arrayContext);
+                }
+            }
+
+            if (problem != null) {
+                rejected++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add(new DatasetRecordError(index, questionId, problem));
+                }
+            }
+        }
+
+        return new Result(questions, rejected, errors);
+    }
+
+    // Leaves the parser on the START_ARRAY of the question records
+    private void moveToQuestionsArray(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.START_ARRAY) {
+            return;
+        }
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (QUESTIONS_FIELD.equals(field) && value == JsonToken.START_ARRAY) {
+                    return;
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new IllegalArgumentException("Invalid dataset JSON: must be an array or an object containing a 'questions' array");
+    }
+
+    // A binding error can leave the parser anywhere inside the record, move on to its end
+    private void skipRestOfRecord(JsonParser parser, JsonStreamContext arrayContext) throws IOException {
+        while (parser.getParsingContext() != arrayContext) {
+            if (parser.nextToken() == null) {
+                throw new IllegalArgumentException("Invalid dataset JSON: unexpected end of input");
+            }
+        }
+    }
+
+    private static String validate(VQAQuestion question) {
+        if (question.getId() == null || question.getId().isBlank()) {
+            return "Question has no id";
+        }
+        return null;
+    }
+
+    private static VQAQuestion intern(VQAQuestion question) {
+        question.setDifficulty(intern(question.getDifficulty()));
+        question.setImageId(intern(question.getImageId()));
+        question.setFactId(intern(question.getFactId()));
+        if (question.getExpectedPath() != null) {
+            question.getExpectedPath().replaceAll(FvqaDatasetReader::intern);
+        }
+        intern(question.getTriple());
+        if (question.getAnswerTriplets() != null) {
+            question.getAnswerTriplets().forEach(FvqaDatasetReader::intern);
+        }
+        return question;
+    }
+
+    private static void intern(TripleVQA triple) {
+        if (triple == null) {
+            return;
+        }
+        intern(triple.getSubject());
+        intern(triple.getObject());
+        if (triple.getRelation() != null) {
+            triple.getRelation().setUri(intern(triple.getRelation().getUri()));
+            triple.getRelation().setLabel(intern(triple.getRelation().getLabel()));
+        }
+    }
+
+    private static void intern(TripleVQA.KGEntity entity) {
+        if (entity != null) {
+            entity.setUri(intern(entity.getUri()));
+            entity.setLabel(intern(entity.getLabel()));
+        }
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : STRINGS.intern(value);
+    }
+}
@@ -0,0 +1,202 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.google.common.collect.MapMaker;
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import com.semantic.semanticvisualizer.model.vqa.graph.EntityLink;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphEdge;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphNode;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphResponse;
+import com.semantic.semanticvisualizer.model.vqa.graph.LinkedGraphResponse;
+import com.semantic.semanticvisualizer.model.vqa.graph.OntologyLinkSummary;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyModelCache;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyResolutionIndex;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Links the entities of VQA datasets to the pinned ontologies of the model cache - the ones preloaded at
+ * startup - identified by their cache key. Ontologies that are only uploaded or parsed on request are
+ * never linked to.
+ * Every node of a dataset graph is resolved against every pinned ontology when the dataset is indexed
+ * or questions are appended, in one pass over its nodes per ontology; an ontology pinned later is resolved
+ * against on first use. The resolution index of an ontology is kept per model instance, the links per
+ * dataset graph and model instance, so they go with the graph.
+ */
+@Component
+public class OntologyLinker {
+
+    private final OntologyModelCache modelCache;
+    // Weak keys compare by identity, a model is never hashed
+    private final ConcurrentMap<Model, OntologyResolutionIndex> indexes = new MapMaker().weakKeys().makeMap();
+    private final ConcurrentMap<DatasetGraph, ConcurrentMap<Model, List<EntityLink>>> links =
+            new MapMaker().weakKeys().makeMap();
+
+    public OntologyLinker(OntologyModelCache modelCache) {
+        this.modelCache = modelCache;
+    }
+
+    /**
+     * Resolve every node of the dataset graph against every pinned ontology, replacing earlier links
+     */
+    public void linkDataset(DatasetGraph graph) {
+        ConcurrentMap<Model, List<EntityLink>> datasetLinks = new MapMaker().weakKeys().makeMap();
+        for (Model model : modelCache.models().values()) {
+            datasetLinks.put(model, resolve(graph, model));
+        }
+        links.put(graph, datasetLinks);
+    }
+
+    public List<OntologyLinkSummary> summarize(DatasetGraph graph) {
+        List<OntologyLinkSummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, Model> ontology : modelCache.models().entrySet()) {
+            int uri = 0;
+            int label = 0;
+            int localName = 0;
+            List<EntityLink> resolved = links(graph, ontology.getValue());
+            for (EntityLink link : resolved) {
+                switch (link.getMatch()) {
+                    case EntityLink.MATCH_URI -> uri++;
+                    case EntityLink.MATCH_LABEL -> label++;
+                    default -> localName++;
+                }
+            }
+            summaries.add(OntologyLinkSummary.builder()
+                    .ontologyId(ontology.getKey())
+                    .triples(ontology.getValue().size())
+                    .datasetNodes(graph.nodeCount())
+                    .linkedNodes(resolved.size())
+                    .uriMatches(uri)
+                    .labelMatches(label)
+                    .localNameMatches(localName)
+                    .build());
+        }
+        return summaries;
+    }
+
+    /**
+     * The dataset graph with the ontology resources its nodes resolve to and the statements around them
+     *
+     * @param maxNodes Most ontology nodes to add, the dataset's own nodes are always included
+     * @throws IllegalArgumentException When the ontology is not pinned in the model cache
+     */
+    public LinkedGraphResponse linkedGraph(String datasetId, DatasetGraph graph, String ontologyId, int maxNodes) {
+        Model model = ontologyId == null ? null : modelCache.models().get(ontologyId);
+        if (model == null) {
+            throw new IllegalArgumentException("Ontology not loaded: " + ontologyId);
+        }
+        OntologyResolutionIndex index = index(model);
+        List<EntityLink> resolved = links(graph, model);
+
+        GraphResponse base = graph.toResponse();
+        Map<String, GraphNode> nodes = new LinkedHashMap<>();
+        base.getNodes().forEach(node -> nodes.put(node.getId(), node));
+        List<GraphEdge> edges = new ArrayList<>(base.getEdges());
+        int budget = maxNodes;
+        boolean truncated = false;
+
+        for (EntityLink link : resolved) {
+            if (link.getNodeId().equals(link.getOntologyUri())) {
+                continue;
+            }
+            if (!nodes.containsKey(link.getOntologyUri())) {
+                if (budget == 0) {
+                    truncated = true;
+                    continue;
+                }
+                nodes.put(link.getOntologyUri(), ontologyNode(link.getOntologyUri(), index));
+                budget--;
+            }
+            edges.add(new GraphEdge(link.getNodeId(), link.getOntologyUri(), LinkedGraphResponse.SAME_AS));
+        }
+
+        // The statements of each linked resource, either side, that lead to other resources
+        Set<Statement> added = new HashSet<>();
+        for (EntityLink link : resolved) {
+            if (!nodes.containsKey(link.getOntologyUri())) {
+                continue;
+            }
+            Resource resource = model.createResource(link.getOntologyUri());
+            for (StmtIterator around : List.of(model.listStatements(resource, null, (RDFNode) null),
+                    model.listStatements(null, null, resource))) {
+                try {
+                    while (around.hasNext()) {
+                        Statement statement = around.next();
+                        if (!statement.getSubject().isURIResource() || !statement.getObject().isURIResource()
+                                || !added.add(statement)) {
+                            continue;
+                        }
+                        String subject = statement.getSubject().getURI();
+                        String object = statement.getObject().asResource().getURI();
+                        String other = subject.equals(link.getOntologyUri()) ? object : subject;
+                        if (!nodes.containsKey(other)) {
+                            if (budget == 0) {
+                                truncated = true;
+                                continue;
+                            }
+                            nodes.put(other, ontologyNode(other, index));
+                            budget--;
+                        }
+                        edges.add(new GraphEdge(subject, object,
+                                TripleVQA.extractLocalName(statement.getPredicate().getURI())));
+                    }
+                } finally {
+                    around.close();
+                }
+            }
+        }
+
+        return LinkedGraphResponse.builder()
+                .datasetId(datasetId)
+                .ontologyId(ontologyId)
+                .nodes(new ArrayList<>(nodes.values()))
+                .edges(edges)
+                .links(resolved)
+                .truncated(truncated)
+                .build();
+    }
+
+    private List<EntityLink> links(DatasetGraph graph, Model model) {
+        return links.computeIfAbsent(graph, g -> new MapMaker().weakKeys().makeMap())
+                .computeIfAbsent(model, m -> resolve(graph, m));
+    }
+
+    private List<EntityLink> resolve(DatasetGraph graph, Model model) {
+        OntologyResolutionIndex index = index(model);
+        List<EntityLink> resolved = new ArrayList<>();
+        for (GraphNode node : graph.toResponse().getNodes()) {
+            OntologyResolutionIndex.Match match = index.resolve(node.getId(), node.getLabel());
+            if (match != null) {
+                resolved.add(EntityLink.builder()
+                        .nodeId(node.getId())
+                        .ontologyUri(match.uri())
+                        .match(switch (match.type()) {
+                            case URI -> EntityLink.MATCH_URI;
+                            case LABEL -> EntityLink.MATCH_LABEL;
+                            case LOCAL_NAME -> EntityLink.MATCH_LOCAL_NAME;
+                        })
+                        .build());
+            }
+        }
+        return List.copyOf(resolved);
+    }
+
+    private OntologyResolutionIndex index(Model model) {
+        return indexes.computeIfAbsent(model, OntologyResolutionIndex::new);
+    }
+
+    private static GraphNode ontologyNode(String uri, OntologyResolutionIndex index) {
+        return new GraphNode(uri, index.label(uri), LinkedGraphResponse.TYPE_ONTOLOGY);
+    }
+}
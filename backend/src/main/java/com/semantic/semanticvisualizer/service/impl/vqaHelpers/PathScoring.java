@@ -0,0 +1,97 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scores of a submitted path against an expected one. Nodes are compared trimmed.
+ * <ul>
+ *     <li>exact match - the same nodes in the same order</li>
+ *     <li>set match - the same nodes in any order (what interactive validation calls correct)</li>
+ *     <li>Jaccard, precision, recall and F1 over the distinct nodes</li>
+ *     <li>order score - longest common subsequence over the longer of the two paths, so a reversed
+ *     path no longer scores like a correct one</li>
+ * </ul>
+ */
+public final class PathScoring {
+
+    public record PathScore(boolean exactMatch, boolean setMatch, double jaccard, double precision,
+                            double recall, double f1, double orderScore) {
+    }
+
+    private PathScoring() {
+    }
+
+    public static PathScore score(ExpectedPath expected, List<String> submitted) {
+        return score(expected, submitted, distinctNodes(submitted));
+    }
+
+    /**
+     * @param submittedSet The trimmed distinct nodes of submitted, see {@link #distinctNodes(List)}
+     */
+    public static PathScore score(ExpectedPath expected, List<String> submitted, Set<String> submittedSet) {
+        List<String> expectedNodes = expected.nodes();
+        Set<String> expectedSet = expected.nodeSet();
+
+        boolean exactMatch = submitted.size() == expectedNodes.size();
+        for (int i = 0; exactMatch && i < submitted.size(); i++) {
+            String node = trim(submitted.get(i));
+            exactMatch = node != null && node.equals(expectedNodes.get(i));
+        }
+
+        int intersection = 0;
+        for (String node : submittedSet) {
+            if (expectedSet.contains(node)) {
+                intersection++;
+            }
+        }
+        int union = expectedSet.size() + submittedSet.size() - intersection;
+
+        double jaccard = union == 0 ? 0.0 : (double) intersection / union;
+        double precision = submittedSet.isEmpty() ? 0.0 : (double) intersection / submittedSet.size();
+        double recall = expectedSet.isEmpty() ? 0.0 : (double) intersection / expectedSet.size();
+        double f1 = precision + recall == 0 ? 0.0 : 2 * precision * recall / (precision + recall);
+        boolean setMatch = intersection == expectedSet.size() && intersection == submittedSet.size();
+
+        return new PathScore(exactMatch, setMatch, jaccard, precision, recall, f1,
+                orderScore(expectedNodes, submitted));
+    }
+
+    public static Set<String> distinctNodes(List<String> path) {
+        Set<String> nodes = new HashSet<>(Math.max(16, path.size() * 2));
+        for (String node : path) {
+            nodes.add(trim(node));
+        }
+        return nodes;
+    }
+
+    /**
+     * Longest common subsequence of the two paths over the longer length, 1.0 only for identical paths
+     */
+    public static double orderScore(List<String> expected, List<String> submitted) {
+        int longer = Math.max(expected.size(), submitted.size());
+        if (longer == 0) {
+            return 0.0;
+        }
+        // Two rows of the LCS table; answer paths are short, so this stays cheap
+        int[] previous = new int[submitted.size() + 1];
+        int[] current = new int[submitted.size() + 1];
+        for (String expectedNode : expected) {
+            for (int j = 1; j <= submitted.size(); j++) {
+                String node = trim(submitted.get(j - 1));
+                current[j] = node != null && node.equals(expectedNode)
+                        ? previous[j - 1] + 1
+                        : Math.max(previous[j], current[j - 1]);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return (double) previous[submitted.size()] / longer;
+    }
+
+    public static String trim(String node) {
+        return node == null ? null : node.trim();
+    }
+}
@@ -0,0 +1,329 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Index over the questions of every loaded dataset, filled when a dataset is registered.
+ * Questions are found by their dataset-qualified id ("datasetId::questionId") or by their plain id;
+ * when several datasets use the same plain id, the question of the dataset loaded first is returned.
+ * Secondary indexes by difficulty, image and fact keep questions in load order. Their buckets are
+ * immutable and replaced whenever questions are added, so lookups never lock. A bucket is a few segments,
+ * the older ones larger: an append adds a segment and merges only those not much larger than it.
+ * For paging through one dataset there are per-dataset indexes by difficulty, image and relation; words
+ * are looked up in the {@link QuestionSearchIndex}. Each question has a position in its dataset, the order
+ * it was added in; a page starts at a position found by binary search in the smallest matching bucket.
+ * Expected paths of the questions are compiled while indexing and kept in their entries (see {@link ExpectedPath}).
+ */
+public class QuestionIndex {
+
+    public static final String QUALIFIER_SEPARATOR = "::";
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * @param path Compiled expected path, null when the question has none
+     */
+    private record Entry(String datasetId, VQAQuestion question, int position, ExpectedPath path) {
+    }
+
+    /**
+     * @param nextPosition Position to continue from, null when there are no more questions
+     */
+    public record Page(List<VQAQuestion> questions, Integer nextPosition) {
+    }
+
+    private final Map<String, Entry> byQualifiedId = new ConcurrentHashMap<>();
+    private final Map<String, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byDataset = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byDifficulty = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byImageId = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> byFactId = new ConcurrentHashMap<>();
+    // Keyed by datasetKey(datasetId, value)
+    private final Map<String, Bucket> datasetByDifficulty = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> datasetByImageId = new ConcurrentHashMap<>();
+    private final Map<String, Bucket> datasetByRelation = new ConcurrentHashMap<>();
+
+    public static String qualify(String datasetId, String questionId) {
+        return datasetId + QUALIFIER_SEPARATOR + questionId;
+    }
+
+    /**
+     * Adds the questions of a newly loaded dataset, or questions appended to a loaded one
+     */
+    public synchronized void addDataset(String datasetId, List<VQAQuestion> questions) {
+        List<Entry> entries = new ArrayList<>(questions.size());
+        int position = byDataset.getOrDefault(datasetId, Bucket.EMPTY).size();
+        for (VQAQuestion question : questions) {
+            if (question.getId() == null) {
+                continue;
+            }
+            Entry entry = new Entry(datasetId, question, position++, compile(question));
+            entries.add(entry);
+            byQualifiedId.put(qualify(datasetId, question.getId()), entry);
+            byId.putIfAbsent(question.getId(), entry);
+        }
+
+        byDataset.put(datasetId, byDataset.getOrDefault(datasetId, Bucket.EMPTY).append(entries));
+        append(byDifficulty, entries, VQAQuestion::getDifficulty);
+        append(byImageId, entries, VQAQuestion::getImageId);
+        append(byFactId, entries, VQAQuestion::getFactId);
+        append(datasetByDifficulty, entries, question -> datasetKey(datasetId, question.getDifficulty()));
+        append(datasetByImageId, entries, question -> datasetKey(datasetId, question.getImageId()));
+        appendAll(datasetByRelation, entries, question -> ExpectedPath.relationsOf(question).stream()
+                .map(relation -> datasetKey(datasetId, relation))
+                .toList());
+    }
+
+    /**
+     * @param questionId A plain or dataset-qualified question id
+     * @return The question, or null when no loaded dataset has it
+     */
+    public VQAQuestion get(String questionId) {
+        if (questionId == null) {
+            return null;
+        }
+        Entry entry = entry(questionId);
+        return entry == null ? null : entry.question();
+    }
+
+    /**
+     * The expected path compiled when the question was indexed, other questions are compiled now
+     *
+     * @throws IllegalArgumentException When the question has no valid expected path
+     */
+    public ExpectedPath expectedPath(VQAQuestion question) {
+        Entry entry = question.getDatasetId() == null || question.getId() == null ? null
+                : byQualifiedId.get(qualify(question.getDatasetId(), question.getId()));
+        // Another question when a dataset repeats an id. Without a path, compiling again throws the reason
+        if (entry == null || entry.question() != question || entry.path() == null) {
+            return ExpectedPath.of(question);
+        }
+        return entry.path();
+    }
+
+    private Entry entry(String questionId) {
+        Entry entry = byQualifiedId.get(questionId);
+        return entry != null ? entry : byId.get(questionId);
+    }
+
+    // Questions without a valid path are reported when they are validated
+    private static ExpectedPath compile(VQAQuestion question) {
+        try {
+            return ExpectedPath.of(question);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Questions matching every given attribute, null or empty ones are ignored.
+     * Only the smallest of the matching buckets is scanned, its entries are checked against the rest.
+     */
+    public List<VQAQuestion> find(String datasetId, String difficulty, String imageId, String factId) {
+        List<Entry> candidates = null;
+        for (List<Entry> bucket : Arrays.asList(bucket(byDataset, datasetId), bucket(byDifficulty, difficulty),
+                bucket(byImageId, imageId), bucket(byFactId, factId))) {
+            if (bucket != null && (candidates == null || bucket.size() < candidates.size())) {
+                candidates = bucket;
+            }
+        }
+        if (candidates == null) {
+            throw new IllegalArgumentException("At least one of datasetId, difficulty, imageId or factId is required");
+        }
+
+        List<VQAQuestion> matches = new ArrayList<>();
+        for (Entry entry : candidates) {
+            VQAQuestion question = entry.question();
+            if (matches(entry.datasetId(), datasetId)
+                    && matches(question.getDifficulty(), difficulty)
+                    && matches(question.getImageId(), imageId)
+                    && matches(question.getFactId(), factId)) {
+                matches.add(question);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Questions of one dataset matching every given attribute, in dataset order, starting at a position.
+     * Only the smallest matching bucket is read: from the position on, until the page is full.
+     *
+     * @param textPositions Ascending positions of the questions matching a text query, from
+     *                      {@link QuestionSearchIndex#positionsWithAll}, or null when there is none
+     */
+    public Page page(String datasetId, String difficulty, String imageId, String relation, int[] textPositions,
+                     int fromPosition, int limit) {
+        List<Entry> all = byDataset.getOrDefault(datasetId, Bucket.EMPTY);
+        List<Entry> candidates = all;
+        List<Entry> textMatches = textPositions == null ? null : new AbstractList<>() {
+            @Override
+            public Entry get(int index) {
+                return all.get(textPositions[index]);
+            }
+
+            @Override
+            public int size() {
+                return textPositions.length;
+            }
+        };
+        for (List<Entry> bucket : Arrays.asList(bucket(datasetByDifficulty, datasetKey(datasetId, difficulty)),
+                bucket(datasetByImageId, datasetKey(datasetId, imageId)),
+                bucket(datasetByRelation, datasetKey(datasetId, relation)), textMatches)) {
+            if (bucket != null && bucket.size() < candidates.size()) {
+                candidates = bucket;
+            }
+        }
+
+        List<VQAQuestion> matches = new ArrayList<>(Math.min(limit, candidates.size()));
+        int i = firstAtOrAfter(candidates, fromPosition);
+        for (; i < candidates.size() && matches.size() < limit; i++) {
+            Entry entry = candidates.get(i);
+            VQAQuestion question = entry.question();
+            if (matches(question.getDifficulty(), difficulty)
+                    && matches(question.getImageId(), imageId)
+                    && (relation == null || relation.isEmpty() || ExpectedPath.relationsOf(question).contains(relation))
+                    && (textPositions == null || Arrays.binarySearch(textPositions, entry.position()) >= 0)) {
+                matches.add(question);
+            }
+        }
+        return new Page(matches, i < candidates.size() ? candidates.get(i).position() : null);
+    }
+
+    /**
+     * Lower-case letter and digit runs of a text, e.g. for matching questions by their words
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Entries are in position order
+    private static int firstAtOrAfter(List<Entry> entries, int position) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (entries.get(mid).position() < position) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Null when the attribute is not filtered on
+    private static String datasetKey(String datasetId, String value) {
+        return value == null || value.isEmpty() ? null : datasetId + '\u0000' + value;
+    }
+
+    public int size() {
+        return byQualifiedId.size();
+    }
+
+    // An empty list for a value nobody has, null when the attribute is not filtered on
+    private static List<Entry> bucket(Map<String, Bucket> index, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        return index.getOrDefault(value, Bucket.EMPTY);
+    }
+
+    private static void append(Map<String, Bucket> index, List<Entry> entries,
+                               Function<VQAQuestion, String> attribute) {
+        appendAll(index, entries, question -> {
+            String key = attribute.apply(question);
+            return key == null || key.isEmpty() ? List.of() : List.of(key);
+        });
+    }
+
+    // For attributes with several values per question, a question is added once per distinct value
+    private static void appendAll(Map<String, Bucket> index, List<Entry> entries,
+                                  Function<VQAQuestion, Collection<String>> attribute) {
+        Map<String, List<Entry>> added = new HashMap<>();
+        for (Entry entry : entries) {
+            for (String key : new LinkedHashSet<>(attribute.apply(entry.question()))) {
+                added.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+            }
+        }
+        added.forEach((key, bucket) -> index.put(key, index.getOrDefault(key, Bucket.EMPTY).append(bucket)));
+    }
+
+    private static boolean matches(String actual, String wanted) {
+        return wanted == null || wanted.isEmpty() || wanted.equals(actual);
+    }
+
+    /**
+     * Immutable entries in position order, held in segments each more than twice the size of the next one.
+     * A bucket of n entries has at most log2(n) + 1 segments, and over all appends, however small, an entry
+     * is copied O(log n) times: a segment grows by half at least whenever it is merged.
+     */
+    private static final class Bucket extends AbstractList<Entry> implements RandomAccess {
+
+        static final Bucket EMPTY = new Bucket(new Entry[0][], new int[]{0});
+
+        private final Entry[][] segments;
+        private final int[] starts; // segments[s] holds entries starts[s] .. starts[s + 1] - 1
+
+        private Bucket(Entry[][] segments, int[] starts) {
+            this.segments = segments;
+            this.starts = starts;
+        }
+
+        Bucket append(List<Entry> more) {
+            if (more.isEmpty()) {
+                return this;
+            }
+            Entry[] added = more.toArray(Entry[]::new);
+            int kept = segments.length;
+            while (kept > 0 && segments[kept - 1].length <= 2 * added.length) {
+                Entry[] merged = Arrays.copyOf(segments[kept - 1], segments[kept - 1].length + added.length);
+                System.arraycopy(added, 0, merged, segments[kept - 1].length, added.length);
+                added = merged;
+                kept--;
+            }
+            Entry[][] newSegments = Arrays.copyOf(segments, kept + 1);
+            newSegments[kept] = added;
+            int[] newStarts = Arrays.copyOf(starts, kept + 2);
+            newStarts[kept + 1] = newStarts[kept] + added.length;
+            return new Bucket(newSegments, newStarts);
+        }
+
+        @Override
+        public Entry get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            int found = Arrays.binarySearch(starts, 0, segments.length, index);
+            int segment = found >= 0 ? found : -found - 2;
+            return segments[segment][index - starts[segment]];
+        }
+
+        @Override
+        public int size() {
+            return starts[segments.length];
+        }
+    }
+}
@@ -0,0 +1,474 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text index over the question text and fact of every loaded question, ranked with BM25.
+ * Words are tokenized like {@link QuestionIndex#tokenize}. Every add builds an immutable segment - an inverted
+ * index from word to the questions containing it, with the word's positions for phrase queries - so a dataset
+ * has one segment per load or append and searches never lock. Document counts and frequencies are summed over
+ * the searched segments per query, so scores are the same whichever segment a question is in.
+ * A query is words, and phrases in double quotes that a question has to contain word for word:
+ * {@code "used for" kitchen} finds questions with "used for", those also mentioning kitchen first.
+ */
+public class QuestionSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Position gap between the indexed fields, so phrases don't span question text and fact
+    private static final int FIELD_GAP = 1000;
+    private static final Pattern PHRASE = Pattern.compile("\"([^\"]*)\"");
+
+    public record Hit(VQAQuestion question, double score) {
+    }
+
+    /**
+     * @param hits  The best matches, best first
+     * @param total Number of matching questions
+     */
+    public record Result(List<Hit> hits, int total) {
+    }
+
+    /**
+     * Size of a dataset's part of the index
+     *
+     * @param postings       (word, question) pairs
+     * @param positions      Word occurrences
+     * @param estimatedBytes Heap held by the index, with compressed references and without the questions
+     */
+    public record Footprint(String datasetId, int questions, int terms, long postings, long positions,
+                            long estimatedBytes) {
+    }
+
+    private final Map<String, List<Segment>> segments = new ConcurrentHashMap<>();
+    private final AtomicLong nextOrdinal = new AtomicLong();
+
+    /**
+     * Adds the questions of a newly loaded dataset, or questions appended to a loaded one
+     */
+    public synchronized void addDataset(String datasetId, List<VQAQuestion> questions) {
+        Segment segment = Segment.build(questions, nextOrdinal.getAndAdd(questions.size()));
+        if (segment.size() > 0) {
+            segments.merge(datasetId, List.of(segment), QuestionSearchIndex::concat);
+        }
+    }
+
+    /**
+     * @param datasetId Dataset to search, or null for all
+     * @throws IllegalArgumentException When the query has no words
+     */
+    public Result search(String query, String datasetId, int limit) {
+        List<String> words = new ArrayList<>();
+        List<List<String>> phrases = new ArrayList<>();
+        parse(query, words, phrases);
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("The query has no words to search for");
+        }
+
+        List<Segment> searched = new ArrayList<>();
+        if (datasetId != null && !datasetId.isEmpty()) {
+            searched.addAll(segments.getOrDefault(datasetId, List.of()));
+        } else {
+            segments.values().forEach(searched::addAll);
+        }
+
+        long documents = 0;
+        long totalLength = 0;
+        for (Segment segment : searched) {
+            documents += segment.size();
+            totalLength += segment.totalLength;
+        }
+        if (documents == 0) {
+            return new Result(List.of(), 0);
+        }
+        double averageLength = (double) totalLength / documents;
+        double[] idf = new double[words.size()];
+        for (int w = 0; w < words.size(); w++) {
+            long frequency = 0;
+            for (Segment segment : searched) {
+                Postings postings = segment.postings.get(words.get(w));
+                frequency += postings == null ? 0 : postings.docs.length;
+            }
+            idf[w] = Math.log(1 + (documents - frequency + 0.5) / (frequency + 0.5));
+        }
+
+        // Worst of the best on top
+        Comparator<Candidate> ranking = Comparator.comparingDouble(Candidate::score)
+                .thenComparing(Comparator.comparingLong(Candidate::ordinal).reversed());
+        PriorityQueue<Candidate> best = new PriorityQueue<>(ranking);
+        int total = 0;
+        for (Segment segment : searched) {
+            total += segment.score(words, idf, phrases, averageLength, limit, best, ranking);
+        }
+
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort(ranking.reversed());
+        return new Result(sorted.stream().map(c -> new Hit(c.question(), c.score())).toList(), total);
+    }
+
+    /**
+     * Positions of the questions of a dataset whose text or fact contains every word, in any order.
+     * Positions count the dataset's questions with an id in the order they were added, like {@link QuestionIndex}.
+     *
+     * @return Ascending positions, empty when there are no words
+     */
+    public int[] positionsWithAll(String datasetId, List<String> words) {
+        if (words.isEmpty()) {
+            return new int[0];
+        }
+        int[] positions = new int[0];
+        int count = 0;
+        int offset = 0;
+        for (Segment segment : segments.getOrDefault(datasetId, List.of())) {
+            int[] docs = segment.docsWithAll(words);
+            if (count + docs.length > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, count + docs.length));
+            }
+            for (int doc : docs) {
+                positions[count++] = offset + doc;
+            }
+            offset += segment.size();
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    public List<Footprint> footprint() {
+        List<Footprint> footprints = new ArrayList<>();
+        segments.forEach((datasetId, datasetSegments) -> {
+            int questions = 0;
+            int terms = 0;
+            long postings = 0;
+            long positions = 0;
+            long bytes = 0;
+            for (Segment segment : datasetSegments) {
+                questions += segment.size();
+                terms += segment.postings.size();
+                postings += segment.postingCount;
+                positions += segment.positionCount;
+                bytes += segment.estimatedBytes;
+            }
+            footprints.add(new Footprint(datasetId, questions, terms, postings, positions, bytes));
+        });
+        footprints.sort(Comparator.comparing(Footprint::datasetId));
+        return footprints;
+    }
+
+    // Distinct words of the whole query, phrase words included, and the words of each phrase
+    private static void parse(String query, List<String> words, List<List<String>> phrases) {
+        if (query == null) {
+            return;
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        Matcher matcher = PHRASE.matcher(query);
+        while (matcher.find()) {
+            List<String> phrase = QuestionIndex.tokenize(matcher.group(1));
+            if (phrase.size() > 1) {
+                phrases.add(phrase);
+            }
+            distinct.addAll(phrase);
+        }
+        distinct.addAll(QuestionIndex.tokenize(PHRASE.matcher(query).replaceAll(" ")));
+        words.addAll(distinct);
+    }
+
+    private static List<Segment> concat(List<Segment> current, List<Segment> added) {
+        List<Segment> merged = new ArrayList<>(current.size() + added.size());
+        merged.addAll(current);
+        merged.addAll(added);
+        return List.copyOf(merged);
+    }
+
+    private record Candidate(VQAQuestion question, double score, long ordinal) {
+    }
+
+    /**
+     * Where a word occurs: the questions, ascending, how often, and at which positions. The positions of
+     * docs[i] are positions[positionStarts[i]] up to positions[positionStarts[i + 1]], ascending.
+     */
+    private record Postings(int[] docs, int[] frequencies, int[] positionStarts, int[] positions) {
+
+        int find(int doc) {
+            return Arrays.binarySearch(docs, doc);
+        }
+
+        boolean hasPosition(int index, int position) {
+            return Arrays.binarySearch(positions, positionStarts[index], positionStarts[index + 1], position) >= 0;
+        }
+    }
+
+    private static final class Segment {
+        private final VQAQuestion[] questions;
+        private final int[] lengths;
+        private final long firstOrdinal;
+        private final long totalLength;
+        private final Map<String, Postings> postings;
+        private final long postingCount;
+        private final long positionCount;
+        private final long estimatedBytes;
+
+        private Segment(VQAQuestion[] questions, int[] lengths, long firstOrdinal, Map<String, Postings> postings) {
+            this.questions = questions;
+            this.lengths = lengths;
+            this.firstOrdinal = firstOrdinal;
+            this.totalLength = Arrays.stream(lengths).asLongStream().sum();
+            this.postings = postings;
+
+            long postingCount = 0;
+            long positionCount = 0;
+            // Object headers of 12 bytes and references of 4, arrays padded to 8 bytes
+            long bytes = array(4L * questions.length) + array(4L * lengths.length) + 48 + 16L * postings.size();
+            for (Map.Entry<String, Postings> entry : postings.entrySet()) {
+                Postings p = entry.getValue();
+                postingCount += p.docs.length;
+                positionCount += p.positions.length;
+                bytes += 24 + array(entry.getKey().length()) // String, Latin-1 in most cases
+                        + 32 // HashMap.Node
+                        + 24 // Postings
+                        + array(4L * p.docs.length) + array(4L * p.frequencies.length)
+                        + array(4L * p.positionStarts.length) + array(4L * p.positions.length);
+            }
+            this.postingCount = postingCount;
+            this.positionCount = positionCount;
+            this.estimatedBytes = bytes;
+        }
+
+        private static long array(long contentBytes) {
+            return (16 + contentBytes + 7) & ~7L;
+        }
+
+        static Segment build(List<VQAQuestion> questions, long firstOrdinal) {
+            List<VQAQuestion> indexed = new ArrayList<>(questions.size());
+            int[] lengths = new int[questions.size()];
+            Map<String, PostingsBuilder> builders = new HashMap<>();
+            for (VQAQuestion question : questions) {
+                if (question.getId() == null) {
+                    continue;
+                }
+                int doc = indexed.size();
+                indexed.add(question);
+
+                Map<String, List<Integer>> occurrences = new LinkedHashMap<>();
+                List<String> text = QuestionIndex.tokenize(question.getQuestionText());
+                List<String> fact = QuestionIndex.tokenize(question.getFactSurface());
+                for (int i = 0; i < text.size(); i++) {
+                    occurrences.computeIfAbsent(text.get(i), w -> new ArrayList<>()).add(i);
+                }
+                for (int i = 0; i < fact.size(); i++) {
+                    occurrences.computeIfAbsent(fact.get(i), w -> new ArrayList<>()).add(text.size() + FIELD_GAP + i);
+                }
+                lengths[doc] = text.size() + fact.size();
+                occurrences.forEach((word, positions) ->
+                        builders.computeIfAbsent(word, w -> new PostingsBuilder()).add(doc, positions));
+            }
+
+            Map<String, Postings> postings = new HashMap<>(builders.size() * 4 / 3 + 1);
+            builders.forEach((word, builder) -> postings.put(word, builder.build()));
+            return new Segment(indexed.toArray(VQAQuestion[]::new), Arrays.copyOf(lengths, indexed.size()),
+                    firstOrdinal, postings);
+        }
+
+        int size() {
+            return questions.length;
+        }
+
+        // Ascending, the postings of the rarest word are checked against the others
+        int[] docsWithAll(List<String> words) {
+            Postings[] wordPostings = new Postings[words.size()];
+            Postings rarest = null;
+            for (int w = 0; w < words.size(); w++) {
+                wordPostings[w] = postings.get(words.get(w));
+                if (wordPostings[w] == null) {
+                    return new int[0];
+                }
+                if (rarest == null || wordPostings[w].docs.length < rarest.docs.length) {
+                    rarest = wordPostings[w];
+                }
+            }
+            int[] docs = new int[rarest.docs.length];
+            int count = 0;
+            candidates:
+            for (int doc : rarest.docs) {
+                for (Postings p : wordPostings) {
+                    if (p != rarest && p.find(doc) < 0) {
+                        continue candidates;
+                    }
+                }
+                docs[count++] = doc;
+            }
+            return Arrays.copyOf(docs, count);
+        }
+
+        /**
+         * Scores the questions containing any of the words, and every phrase, into best
+         *
+         * @return Number of matching questions
+         */
+        int score(List<String> words, double[] idf, List<List<String>> phrases, double averageLength,
+                  int limit, PriorityQueue<Candidate> best, Comparator<Candidate> ranking) {
+            if (!phrases.isEmpty()) {
+                return scorePhraseMatches(words, idf, phrases, averageLength, limit, best, ranking);
+            }
+            // norm(doc) = K1 * (1 - B + B * length / averageLength), without a division per posting
+            double baseNorm = K1 * (1 - B);
+            double lengthNorm = K1 * B / averageLength;
+            double[] scores = new double[questions.length];
+            int[] matched = new int[questions.length];
+            int matchedCount = 0;
+            for (int w = 0; w < words.size(); w++) {
+                Postings p = postings.get(words.get(w));
+                if (p == null) {
+                    continue;
+                }
+                double weight = idf[w] * (K1 + 1);
+                for (int i = 0; i < p.docs.length; i++) {
+                    int doc = p.docs[i];
+                    int frequency = p.frequencies[i];
+                    if (scores[doc] == 0) {
+                        matched[matchedCount++] = doc;
+                    }
+                    scores[doc] += weight * frequency / (frequency + baseNorm + lengthNorm * lengths[doc]);
+                }
+            }
+
+            for (int m = 0; m < matchedCount; m++) {
+                offer(matched[m], scores[matched[m]], limit, best, ranking);
+            }
+            return matchedCount;
+        }
+
+        // Only questions with the phrase word in the fewest questions can match, the rest is never looked at
+        private int scorePhraseMatches(List<String> words, double[] idf, List<List<String>> phrases,
+                                       double averageLength, int limit, PriorityQueue<Candidate> best,
+                                       Comparator<Candidate> ranking) {
+            Postings rarest = null;
+            for (List<String> phrase : phrases) {
+                for (String word : phrase) {
+                    Postings p = postings.get(word);
+                    if (p == null) {
+                        return 0;
+                    }
+                    if (rarest == null || p.docs.length < rarest.docs.length) {
+                        rarest = p;
+                    }
+                }
+            }
+
+            Postings[] wordPostings = new Postings[words.size()];
+            for (int w = 0; w < words.size(); w++) {
+                wordPostings[w] = postings.get(words.get(w));
+            }
+            int total = 0;
+            for (int doc : rarest.docs) {
+                if (!containsPhrases(doc, phrases)) {
+                    continue;
+                }
+                double score = 0;
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                for (int w = 0; w < words.size(); w++) {
+                    int index = wordPostings[w] == null ? -1 : wordPostings[w].find(doc);
+                    if (index >= 0) {
+                        int frequency = wordPostings[w].frequencies[index];
+                        score += idf[w] * frequency * (K1 + 1) / (frequency + norm);
+                    }
+                }
+                total++;
+                offer(doc, score, limit, best, ranking);
+            }
+            return total;
+        }
+
+        private void offer(int doc, double score, int limit, PriorityQueue<Candidate> best,
+                           Comparator<Candidate> ranking) {
+            long ordinal = firstOrdinal + doc;
+            // The common case once the queue is full: ranked below the worst kept one, by score or as a later tie
+            Candidate worst = best.peek();
+            if (best.size() == limit
+                    && (score < worst.score() || score == worst.score() && ordinal > worst.ordinal())) {
+                return;
+            }
+            Candidate candidate = new Candidate(questions[doc], score, ordinal);
+            if (best.size() < limit) {
+                best.add(candidate);
+            } else if (ranking.compare(candidate, best.peek()) > 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        private boolean containsPhrases(int doc, List<List<String>> phrases) {
+            for (List<String> phrase : phrases) {
+                Postings[] words = new Postings[phrase.size()];
+                int[] indexes = new int[phrase.size()];
+                for (int i = 0; i < phrase.size(); i++) {
+                    words[i] = postings.get(phrase.get(i));
+                    indexes[i] = words[i] == null ? -1 : words[i].find(doc);
+                    if (indexes[i] < 0) {
+                        return false;
+                    }
+                }
+                boolean found = false;
+                Postings first = words[0];
+                for (int s = first.positionStarts[indexes[0]]; s < first.positionStarts[indexes[0] + 1] && !found; s++) {
+                    int start = first.positions[s];
+                    found = true;
+                    for (int i = 1; i < phrase.size() && found; i++) {
+                        found = words[i].hasPosition(indexes[i], start + i);
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // Filled question by question, in question order
+    private static final class PostingsBuilder {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int[] positionStarts = new int[5];
+        private int[] positions = new int[4];
+        private int docCount;
+        private int positionCount;
+
+        void add(int doc, List<Integer> wordPositions) {
+            if (docCount == docs.length) {
+                docs = Arrays.copyOf(docs, docCount * 2);
+                frequencies = Arrays.copyOf(frequencies, docCount * 2);
+                positionStarts = Arrays.copyOf(positionStarts, docCount * 2 + 1);
+            }
+            if (positionCount + wordPositions.size() > positions.length) {
+                positions = Arrays.copyOf(positions, Math.max(positions.length * 2, positionCount + wordPositions.size()));
+            }
+            docs[docCount] = doc;
+            frequencies[docCount] = wordPositions.size();
+            positionStarts[docCount] = positionCount;
+            for (int position : wordPositions) {
+                positions[positionCount++] = position;
+            }
+            docCount++;
+            positionStarts[docCount] = positionCount;
+        }
+
+        Postings build() {
+            return new Postings(Arrays.copyOf(docs, docCount), Arrays.copyOf(frequencies, docCount),
+                    Arrays.copyOf(positionStarts, docCount + 1), Arrays.copyOf(positions, positionCount));
+        }
+    }
+}
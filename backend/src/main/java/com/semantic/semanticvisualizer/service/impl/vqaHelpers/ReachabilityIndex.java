@@ -0,0 +1,200 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shortest-path distances over a dataset graph, edges followed either way, for hints.
+ * Nodes are numbered and their neighbours kept in one array. Hints always lead to an answer node, so the
+ * breadth-first distances of every node to an answer node are computed the first time a hint heads there
+ * and kept in the shared {@link DistanceFieldCache}; from then on every hint towards it - from any node,
+ * for any session - is a few array reads.
+ * Immutable apart from those fields. When the graph grows a new index is built, which numbers the old nodes
+ * the same way and takes over the old fields: edges are only ever added, so distances can only shrink,
+ * and each field is corrected from the nodes that gained neighbours rather than computed again.
+ */
+public final class ReachabilityIndex {
+
+    public static final int UNREACHABLE = -1;
+
+    private final Map<String, Integer> ids;
+    private final String[] nodes;
+    private final int[] offsets; // neighbours of node i: neighbours[offsets[i]] .. neighbours[offsets[i + 1] - 1]
+    private final int[] neighbours;
+    private final DistanceFieldCache fields;
+
+    /**
+     * @param adjacency The neighbours of every node, in both directions
+     */
+    ReachabilityIndex(Map<String, ? extends Iterable<String>> adjacency, DistanceFieldCache fields) {
+        this.fields = fields;
+        int size = adjacency.size();
+        ids = new HashMap<>(size * 2);
+        nodes = new String[size];
+        for (String node : adjacency.keySet()) {
+            nodes[ids.size()] = node;
+            ids.put(node, ids.size());
+        }
+
+        offsets = new int[size + 1];
+        int[] flat = new int[Math.max(16, size * 2)];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            offsets[i] = count;
+            for (String neighbour : adjacency.get(nodes[i])) {
+                int id = ids.get(neighbour);
+                if (id != i) {
+                    if (count == flat.length) {
+                        flat = Arrays.copyOf(flat, count * 2);
+                    }
+                    flat[count++] = id;
+                }
+            }
+        }
+        offsets[size] = count;
+        neighbours = Arrays.copyOf(flat, count);
+    }
+
+    /**
+     * A new index over a grown graph, with the distance fields of the previous one brought up to date
+     *
+     * @param previous  The index of the graph before it grew, null for none. Its nodes must come first in
+     *                  the adjacency, in the same order, and keep their neighbours.
+     * @param adjacency The neighbours of every node, in both directions
+     */
+    static ReachabilityIndex extend(ReachabilityIndex previous, Map<String, ? extends Iterable<String>> adjacency,
+                                    DistanceFieldCache fields) {
+        ReachabilityIndex index = new ReachabilityIndex(adjacency, fields);
+        if (previous == null) {
+            return index;
+        }
+        Map<Integer, int[]> kept = fields.remove(previous);
+        if (kept.isEmpty()) {
+            return index;
+        }
+        // Every added edge gave both its ends a neighbour
+        int[] changed = new int[index.size()];
+        int changedCount = 0;
+        for (int node = 0; node < index.size(); node++) {
+            if (node >= previous.size() || index.degree(node) != previous.degree(node)) {
+                changed[changedCount++] = node;
+            }
+        }
+        int[] seeds = Arrays.copyOf(changed, changedCount);
+        kept.forEach((target, field) -> fields.put(index, target, index.relax(field, seeds)));
+        return index;
+    }
+
+    public boolean contains(String node) {
+        return node != null && ids.containsKey(node);
+    }
+
+    /**
+     * @return The number of edges between the nodes, or UNREACHABLE when there is no path or a node is unknown
+     */
+    public int distance(String from, String to) {
+        Integer source = from == null ? null : ids.get(from);
+        Integer target = to == null ? null : ids.get(to);
+        if (source == null || target == null) {
+            return UNREACHABLE;
+        }
+        return field(target)[source];
+    }
+
+    /**
+     * The neighbours of a node that are one step closer to the target, i.e. on a shortest path to it
+     *
+     * @param limit Most neighbours to return
+     * @return Empty when the node is the target, unknown or can't reach the target
+     */
+    public List<String> nextSteps(String from, String to, int limit) {
+        Integer source = from == null ? null : ids.get(from);
+        Integer target = to == null ? null : ids.get(to);
+        if (source == null || target == null) {
+            return List.of();
+        }
+        int[] field = field(target);
+        int remaining = field[source];
+        if (remaining <= 0) {
+            return List.of();
+        }
+        List<String> steps = new ArrayList<>();
+        for (int i = offsets[source]; i < offsets[source + 1] && steps.size() < limit; i++) {
+            if (field[neighbours[i]] == remaining - 1) {
+                steps.add(nodes[neighbours[i]]);
+            }
+        }
+        return steps;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    private int[] field(int target) {
+        return fields.get(this, target, this::bfs);
+    }
+
+    private int degree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    // Distances of the previous graph, lowered where the new edges lead to shorter paths
+    private int[] relax(int[] previous, int[] seeds) {
+        int[] distance = Arrays.copyOf(previous, nodes.length);
+        Arrays.fill(distance, previous.length, nodes.length, UNREACHABLE);
+        int[] queue = new int[nodes.length];
+        boolean[] queued = new boolean[nodes.length];
+        int head = 0;
+        int size = 0;
+        for (int seed : seeds) {
+            if (distance[seed] != UNREACHABLE) {
+                queue[(head + size++) % queue.length] = seed;
+                queued[seed] = true;
+            }
+        }
+        // A node can be lowered more than once, the queue is circular and holds each node at most once
+        while (size > 0) {
+            int node = queue[head];
+            head = (head + 1) % queue.length;
+            size--;
+            queued[node] = false;
+            int next = distance[node] + 1;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int neighbour = neighbours[i];
+                if (distance[neighbour] == UNREACHABLE || next < distance[neighbour]) {
+                    distance[neighbour] = next;
+                    if (!queued[neighbour]) {
+                        queue[(head + size++) % queue.length] = neighbour;
+                        queued[neighbour] = true;
+                    }
+                }
+            }
+        }
+        return distance;
+    }
+
+    private int[] bfs(int source) {
+        int[] distance = new int[nodes.length];
+        Arrays.fill(distance, UNREACHABLE);
+        distance[source] = 0;
+        int[] queue = new int[nodes.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        while (head < tail) {
+            int node = queue[head++];
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int neighbour = neighbours[i];
+                if (distance[neighbour] == UNREACHABLE) {
+                    distance[neighbour] = distance[node] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,168 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import com.semantic.semanticvisualizer.model.vqa.VQASessionDTO;
+import com.semantic.semanticvisualizer.service.impl.persistence.VQAPersistence;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * VQA sessions, bounded in count and lifetime.
+ * A session expires after idle-ttl without use, absolute-ttl after it started at the latest, and
+ * completed-ttl after it was answered correctly. Caffeine keeps variable expiry in a timer wheel, so
+ * every read and write stays O(1), and its scheduler removes expired sessions without waiting for traffic.
+ * Beyond max-size the least valuable sessions are evicted (Caffeine's W-TinyLFU, close to LRU here).
+ * <p>
+ * Every change is also saved through {@link VQAPersistence}. A session that is not in memory - evicted
+ * for size, or started before a restart - is loaded back on first use, with a fresh idle period but its
+ * original absolute lifetime. Expired and removed sessions are deleted from the store as well.
+ * Ids the store doesn't have are remembered for miss-ttl, so requests with unknown or made-up ids don't
+ * reach the database every time; sessions only come into being through {@link #put}, which forgets the miss.
+ */
+@Component
+public class SessionStore {
+
+    private record Entry(VQASessionDTO session, long createdNanos) {
+    }
+
+    private final Cache<String, Entry> sessions;
+    private final Cache<String, Boolean> misses;
+    private final VQAPersistence persistence;
+    private final Duration absoluteTtl;
+    private final Map<RemovalCause, Counter> removals = new EnumMap<>(RemovalCause.class);
+
+    public SessionStore(MeterRegistry registry, VQAPersistence persistence,
+                        @Value("${vqa.sessions.max-size:100000}") long maxSize,
+                        @Value("${vqa.sessions.idle-ttl:30m}") Duration idleTtl,
+                        @Value("${vqa.sessions.absolute-ttl:8h}") Duration absoluteTtl,
+                        @Value("${vqa.sessions.completed-ttl:5m}") Duration completedTtl,
+                        @Value("${vqa.sessions.miss-ttl:30s}") Duration missTtl) {
+        this.persistence = persistence;
+        this.absoluteTtl = absoluteTtl;
+        for (RemovalCause cause : RemovalCause.values()) {
+            removals.put(cause, Counter.builder("vqa.sessions.removed")
+                    .description("VQA sessions dropped from the store")
+                    .tag("cause", cause.name().toLowerCase())
+                    .register(registry));
+        }
+
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new SessionExpiry(idleTtl.toNanos(), absoluteTtl.toNanos(), completedTtl.toNanos()))
+                .scheduler(Scheduler.systemScheduler())
+                .evictionListener((String id, Entry entry, RemovalCause cause) -> removals.get(cause).increment())
+                .removalListener((String id, Entry entry, RemovalCause cause) -> {
+                    if (cause == RemovalCause.EXPIRED || cause == RemovalCause.EXPLICIT) {
+                        persistence.deleteSession(id);
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, sessions, "vqa.sessions");
+        this.misses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(missTtl)
+                .build();
+
+        // Sessions that expired while the app was down are never loaded, nor removed by the cache
+        persistence.deleteSessionsStartedBefore(LocalDateTime.now().minus(absoluteTtl));
+    }
+
+    public void put(VQASessionDTO session) {
+        sessions.put(session.getSessionId(), new Entry(session, System.nanoTime()));
+        // After the put, which waits for a load of the same id still in progress to record its miss
+        misses.invalidate(session.getSessionId());
+        persistence.saveSession(session);
+    }
+
+    /**
+     * @return The session, or null when it never existed or has expired
+     */
+    public VQASessionDTO get(String sessionId) {
+        if (sessionId == null || misses.getIfPresent(sessionId) != null) {
+            return null;
+        }
+        Entry entry = sessions.get(sessionId, this::load);
+        return entry == null ? null : entry.session();
+    }
+
+    /**
+     * Apply a change to a session atomically; its expiry is re-evaluated afterwards
+     *
+     * @return The updated session, or null when it doesn't exist
+     */
+    public VQASessionDTO update(String sessionId, UnaryOperator<VQASessionDTO> change) {
+        if (get(sessionId) == null) {
+            return null;
+        }
+        Entry entry = sessions.asMap().computeIfPresent(sessionId,
+                (id, current) -> new Entry(change.apply(current.session()), current.createdNanos()));
+        if (entry == null) {
+            return null;
+        }
+        persistence.saveSession(entry.session());
+        return entry.session();
+    }
+
+    public void remove(String sessionId) {
+        sessions.invalidate(sessionId);
+    }
+
+    public long size() {
+        return sessions.estimatedSize();
+    }
+
+    // The creation time is set back by the session's age, so the absolute TTL still counts from its start
+    private Entry load(String sessionId) {
+        VQASessionDTO session = persistence.findSession(sessionId).orElse(null);
+        if (session == null || session.getStartTime() == null) {
+            misses.put(sessionId, Boolean.TRUE);
+            return null;
+        }
+        Duration age = Duration.between(session.getStartTime(), LocalDateTime.now());
+        if (age.compareTo(absoluteTtl) >= 0) {
+            misses.put(sessionId, Boolean.TRUE);
+            return null;
+        }
+        return new Entry(session, System.nanoTime() - Math.max(0, age.toNanos()));
+    }
+
+    private record SessionExpiry(long idleNanos, long absoluteNanos, long completedNanos) implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String id, Entry entry, long currentTime) {
+            return remaining(entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterUpdate(String id, Entry entry, long currentTime, long currentDuration) {
+            return remaining(entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String id, Entry entry, long currentTime, long currentDuration) {
+            return entry.session().isCompleted() ? currentDuration : remaining(entry, currentTime);
+        }
+
+        // Completed sessions are only kept for a while so the client can still read them,
+        // reading them again doesn't extend that
+        private long remaining(Entry entry, long currentTime) {
+            long untilAbsolute = Math.max(0, entry.createdNanos() + absoluteNanos - currentTime);
+            long ttl = entry.session().isCompleted() ? completedNanos : idleNanos;
+            return Math.min(ttl, untilAbsolute);
+        }
+    }
+}
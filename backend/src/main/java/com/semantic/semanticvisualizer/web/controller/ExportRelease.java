@@ -0,0 +1,57 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Closes an export the response will never write. An export request is async twice: the export is prepared
+ * on the ontology executor (a CompletableFuture), then streamed (a StreamingResponseBody). When the request
+ * times out or fails during either, e.g. because the client went away, the export is closed here - at once
+ * if it is already prepared, otherwise as soon as it is.
+ */
+class ExportRelease implements DeferredResultProcessingInterceptor, CallableProcessingInterceptor {
+
+    private OntologyExport export;
+    private boolean abandoned;
+
+    synchronized void track(OntologyExport export) {
+        if (abandoned) {
+            export.close();
+        } else {
+            this.export = export;
+        }
+    }
+
+    private synchronized void release() {
+        abandoned = true;
+        if (export != null) {
+            export.close();
+        }
+    }
+
+    // Preparing the export
+
+    @Override
+    public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        release();
+        return true;
+    }
+
+    @Override
+    public <T> boolean handleError(NativeWebRequest request, DeferredResult<T> deferredResult, Throwable t) {
+        release();
+        return true;
+    }
+
+    // Streaming it: done, timed out or failed. A written export has closed itself already.
+
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+        release();
+    }
+}
@@ -1,120 +1,208 @@
 package com.semantic.semanticvisualizer.web.controller;
 
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
 import com.semantic.semanticvisualizer.model.dto.NodeDetailsDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
 import com.semantic.semanticvisualizer.model.dto.OntologyStatsDTO;
+import com.semantic.semanticvisualizer.model.dto.PreloadedResourceDTO;
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
+import com.semantic.semanticvisualizer.monitoring.ServerTiming;
 import com.semantic.semanticvisualizer.service.NodeHistoryService;
 import com.semantic.semanticvisualizer.service.OntologyService;
+import com.semantic.semanticvisualizer.service.impl.admission.AdmissionRejectedException;
+import com.semantic.semanticvisualizer.service.impl.preload.StartupPreloader;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @Controller
 @RequestMapping("/api/ontology")
 @CrossOrigin(origins = {"http://localhost:5173", "http://localhost:3000"})
 public class OntologyController {
 
+    private static final String BUSY_MESSAGE = "Server is busy, please retry later";
+    private static final long BUSY_RETRY_AFTER_SECONDS = 5;
+
     private final OntologyService ontologyService;
     private final NodeHistoryService nodeHistoryService;
+    private final Executor ontologyExecutor;
+    private final StartupPreloader preloader;
 
-    public OntologyController(OntologyService ontologyService, NodeHistoryService nodeHistoryService) {
+    public OntologyController(OntologyService ontologyService, NodeHistoryService nodeHistoryService,
+                              @Qualifier("ontologyExecutor") Executor ontologyExecutor,
+                              StartupPreloader preloader) {
         this.ontologyService = ontologyService;
         this.nodeHistoryService = nodeHistoryService;
+        this.ontologyExecutor = ontologyExecutor;
+        this.preloader = preloader;
     }
 
     /**
      * Parse ontology data - automatically limits to 500 nodes if larger
      * Add ?maxNodes=1000 to customize the limit
+     * Add ?foldLiterals=true&collapseBlankNodes=true to attach literals and blank-node
+     * structures to their subject node instead of creating separate nodes for them
+     * Add ?includePredicates=subClassOf,partOf (or excludePredicates, include/excludeNamespaces,
+     * include/excludeTypes) to filter triples while the graph is built
      */
     @PostMapping("/parse")
-    public ResponseEntity<?> parseOntology(
+    public CompletableFuture<ResponseEntity<?>> parseOntology(
             @RequestBody String ontologyContent,
             @RequestParam(defaultValue = "turtle") String format,
-            @RequestParam(required = false) Integer maxNodes) {
-        try {
-            OntologyGraphDTO graph;
+            @RequestParam(required = false) Integer maxNodes,
+            GraphBuildOptions options) {
+        return async(() -> {
+            try {
+                OntologyGraphDTO graph;
 
-            graph = ontologyService.parseOntologyWithLimit(ontologyContent, format,
-                    Objects.requireNonNullElse(maxNodes, 500));
+                graph = ontologyService.parseOntologyWithLimit(ontologyContent, format,
+                        Objects.requireNonNullElse(maxNodes, 500),
+                        options);
 
-            return ResponseEntity.ok(graph);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("An unexpected error occurred: " + e.getMessage());
-        }
+                return ResponseEntity.ok(graph);
+            } catch (AdmissionRejectedException e) {
+                return serviceUnavailable(e);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("An unexpected error occurred: " + e.getMessage());
+            }
+        });
     }
 
     /**
      * Upload file with automatic optimization
      */
     @PostMapping("/upload")
-    public ResponseEntity<?> uploadOntologyFile(
+    public CompletableFuture<ResponseEntity<?>> uploadOntologyFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(defaultValue = "turtle") String format,
-            @RequestParam(required = false) Integer maxNodes) {
-        try {
-            if (file.isEmpty()) {
-                return ResponseEntity.badRequest().body("Please select a file to upload");
-            }
+            @RequestParam(required = false) Integer maxNodes,
+            GraphBuildOptions options) {
+        return async(() -> {
+            try {
+                if (file.isEmpty()) {
+                    return ResponseEntity.badRequest().body("Please select a file to upload");
+                }
 
-            // Read file content
-            String content = new String(file.getBytes());
-
-            // Parse with limit
-            OntologyGraphDTO graph = ontologyService.parseOntologyWithLimit(
-                    content,
-                    format,
-                    maxNodes != null ? maxNodes : 500
-            );
-
-            return ResponseEntity.ok(graph);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (IOException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("Could not read the uploaded file: " + e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("An unexpected error occurred: " + e.getMessage());
-        }
+                // Parse with limit straight from the upload stream
+                OntologyGraphDTO graph = ontologyService.parseOntologyFileWithLimit(
+                        file,
+                        format,
+                        maxNodes != null ? maxNodes : 500,
+                        options
+                );
+
+                return ResponseEntity.ok(graph);
+            } catch (AdmissionRejectedException e) {
+                return serviceUnavailable(e);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (IOException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body("Could not read the uploaded file: " + e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("An unexpected error occurred: " + e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/node-details/{nodeId}")
-    public ResponseEntity<?> getNodeDetails(
+    public CompletableFuture<ResponseEntity<?>> getNodeDetails(
             @PathVariable String nodeId,
             @RequestBody String ontologyContent,
             @RequestParam(defaultValue = "turtle") String format) {
-        try {
-            NodeDetailsDTO details = ontologyService.getNodeDetails(nodeId, ontologyContent, format);
-            return ResponseEntity.ok(details);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("An unexpected error occurred: " + e.getMessage());
-        }
+        return async(() -> {
+            try {
+                NodeDetailsDTO details = ontologyService.getNodeDetails(nodeId, ontologyContent, format);
+                return ResponseEntity.ok(details);
+            } catch (AdmissionRejectedException e) {
+                return serviceUnavailable(e);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("An unexpected error occurred: " + e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/statistics")
-    public ResponseEntity<?> getOntologyStatistics(
+    public CompletableFuture<ResponseEntity<?>> getOntologyStatistics(
             @RequestBody String ontologyContent,
             @RequestParam(defaultValue = "turtle") String format) {
-        try {
-            OntologyStatsDTO stats = ontologyService.getOntologyStatistics(ontologyContent, format);
-            return ResponseEntity.ok(stats);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("An unexpected error occurred: " + e.getMessage());
-        }
+        return async(() -> {
+            try {
+                OntologyStatsDTO stats = ontologyService.getOntologyStatistics(ontologyContent, format);
+                return ResponseEntity.ok(stats);
+            } catch (AdmissionRejectedException e) {
+                return serviceUnavailable(e);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body("An unexpected error occurred: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Export the sampled subgraph as RDF (turtle, ntriples, jsonld or thrift).
+     * Accepts the same filter parameters as /parse, so the exported RDF matches the filtered view.
+     * The response is streamed to the client in chunks while it is being serialized.
+     */
+    @PostMapping("/export")
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> exportOntology(
+            @RequestBody String ontologyContent,
+            @RequestParam(defaultValue = "turtle") String format,
+            @RequestParam(required = false) Integer maxNodes,
+            @RequestParam(defaultValue = "turtle") String exportFormat,
+            GraphBuildOptions options,
+            HttpServletRequest request) {
+        // The export holds an admission permit until it is written, released here if it never is
+        ExportRelease release = new ExportRelease();
+        WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+        asyncManager.registerDeferredResultInterceptor(ExportRelease.class.getName(), release);
+        asyncManager.registerCallableInterceptor(ExportRelease.class.getName(), release);
+
+        return asyncStreaming(() -> {
+            try {
+                OntologyExport export = ontologyService.exportOntology(ontologyContent, format,
+                        Objects.requireNonNullElse(maxNodes, 500), options, exportFormat);
+                release.track(export);
+
+                return ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType(export.getContentType()))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + export.getFileName() + "\"")
+                        .headers(ServerTiming::addCurrentTo)
+                        .body(export::writeTo);
+            } catch (AdmissionRejectedException e) {
+                return streamingServiceUnavailable(e);
+            } catch (IllegalArgumentException e) {
+                return streamingError(HttpStatus.BAD_REQUEST, e.getMessage());
+            } catch (Exception e) {
+                return streamingError(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + e.getMessage());
+            }
+        });
     }
 
     @PostMapping("/node-click")
@@ -163,4 +251,56 @@ public class OntologyController {
                     .body("Error clearing history: " + e.getMessage());
         }
     }
+
+    /**
+     * Ontologies loaded at startup (preload.ontologies). Sending the same content to /parse or /node-details
+     * is answered from the already parsed model; an /upload is read once to recognize it and then uses it too.
+     */
+    @GetMapping("/preloaded")
+    public ResponseEntity<?> getPreloadedOntologies() {
+        return ResponseEntity.ok(preloader.getResources(PreloadedResourceDTO.KIND_ONTOLOGY));
+    }
+
+    /**
+     * Run heavy work on the bounded ontology executor, so it never ties up the request threads
+     * serving cheap calls like /node-click. A full executor is answered with 503.
+     */
+    private CompletableFuture<ResponseEntity<?>> async(Supplier<ResponseEntity<?>> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, ontologyExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(serviceUnavailable(
+                    new AdmissionRejectedException(BUSY_MESSAGE, BUSY_RETRY_AFTER_SECONDS)));
+        }
+    }
+
+    private CompletableFuture<ResponseEntity<StreamingResponseBody>> asyncStreaming(
+            Supplier<ResponseEntity<StreamingResponseBody>> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, ontologyExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(streamingServiceUnavailable(
+                    new AdmissionRejectedException(BUSY_MESSAGE, BUSY_RETRY_AFTER_SECONDS)));
+        }
+    }
+
+    private ResponseEntity<?> serviceUnavailable(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamingServiceUnavailable(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(e.getMessage().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // Streaming endpoints can only return a StreamingResponseBody, so error messages are written through one as well
+    private ResponseEntity<StreamingResponseBody> streamingError(HttpStatus status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(String.valueOf(message).getBytes(StandardCharsets.UTF_8)));
+    }
 }
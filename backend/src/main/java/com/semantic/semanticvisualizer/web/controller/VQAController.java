@@ -1,15 +1,27 @@
 package com.semantic.semanticvisualizer.web.controller;
 
+import com.semantic.semanticvisualizer.model.dto.PreloadedResourceDTO;
 import com.semantic.semanticvisualizer.model.vqa.*;
-import com.semantic.semanticvisualizer.model.vqa.graph.GraphResponse;
 import com.semantic.semanticvisualizer.service.VQAService;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.BatchPathValidator;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.EvaluationEngine;
+import com.semantic.semanticvisualizer.service.impl.preload.StartupPreloader;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/vqa")
@@ -18,42 +30,106 @@ import java.util.List;
 public class VQAController {
 
     private final VQAService vqaService;
+    private final Executor vqaExecutor;
+    private final StartupPreloader preloader;
+    private final BatchPathValidator batchPathValidator;
+    private final EvaluationEngine evaluationEngine;
 
-    public VQAController(VQAService vqaService) {
+    public VQAController(VQAService vqaService, @Qualifier("vqaExecutor") Executor vqaExecutor,
+                         StartupPreloader preloader, BatchPathValidator batchPathValidator,
+                         EvaluationEngine evaluationEngine) {
         this.vqaService = vqaService;
+        this.vqaExecutor = vqaExecutor;
+        this.preloader = preloader;
+        this.batchPathValidator = batchPathValidator;
+        this.evaluationEngine = evaluationEngine;
     }
 
     @PostMapping("/dataset/upload")
-    public ResponseEntity<?> uploadDataset(@RequestParam("file") MultipartFile file) {
-        try {
-            VQADataset dataset = vqaService.loadVQADataset(file);
-            return ResponseEntity.ok(dataset);
-        } catch (Exception e) {
-            log.error("Dataset upload failed", e);
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+    public CompletableFuture<ResponseEntity<?>> uploadDataset(@RequestParam("file") MultipartFile file) {
+        return async(() -> {
+            try {
+                VQADataset dataset = vqaService.loadVQADataset(file);
+                return ResponseEntity.ok(dataset);
+            } catch (Exception e) {
+                log.error("Dataset upload failed", e);
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
+    // The graph is built when the dataset is loaded, this only hands out its cached JSON
     @GetMapping("/{datasetId}/graph")
     public ResponseEntity<?> getGraph(@PathVariable String datasetId) {
         try {
-            GraphResponse graph = vqaService.generateGraphForDataset(datasetId);
-            return ResponseEntity.ok(graph);
-        } catch (Exception e) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(vqaService.getDatasetGraphJson(datasetId));
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
-    @PostMapping("/dataset/json")
-    public ResponseEntity<VQADataset> uploadDatasetJson(@RequestBody String json) {
+    /**
+     * The pinned ontologies (preloaded at startup) with how many dataset nodes resolve to each
+     */
+    @GetMapping("/{datasetId}/links")
+    public ResponseEntity<?> getOntologyLinks(@PathVariable String datasetId) {
         try {
-            return ResponseEntity.ok(vqaService.loadVQADatasetFromJson(json));
-        } catch (Exception e) {
-            log.error("Dataset JSON parsing failed", e);
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.ok(vqaService.getOntologyLinks(datasetId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         }
     }
 
+    /**
+     * The dataset graph combined with one of the pinned ontologies, by the ontologyId from /{datasetId}/links.
+     * At most maxNodes ontology nodes are added around the resolved dataset nodes.
+     */
+    @GetMapping("/{datasetId}/linked-graph")
+    public ResponseEntity<?> getLinkedGraph(@PathVariable String datasetId,
+                                            @RequestParam String ontologyId,
+                                            @RequestParam(defaultValue = "500") int maxNodes) {
+        try {
+            return ResponseEntity.ok(vqaService.getLinkedGraph(datasetId, ontologyId, maxNodes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/dataset/json")
+    public CompletableFuture<ResponseEntity<?>> uploadDatasetJson(@RequestBody String json) {
+        return async(() -> {
+            try {
+                return ResponseEntity.ok(vqaService.loadVQADatasetFromJson(json));
+            } catch (Exception e) {
+                log.error("Dataset JSON parsing failed", e);
+                return ResponseEntity.badRequest().build();
+            }
+        });
+    }
+
+    /**
+     * Append questions to a loaded dataset, the body is a VQA dataset JSON like for /dataset/json
+     */
+    @PostMapping("/{datasetId}/questions")
+    public CompletableFuture<ResponseEntity<?>> appendQuestions(@PathVariable String datasetId,
+                                                               @RequestBody String json) {
+        return async(() -> {
+            try {
+                return ResponseEntity.ok(vqaService.appendQuestions(datasetId, json));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+        });
+    }
+
+    // Datasets loaded at startup (preload.datasets), with the ids they were registered under
+    @GetMapping("/preloaded")
+    public ResponseEntity<?> getPreloadedDatasets() {
+        return ResponseEntity.ok(preloader.getResources(PreloadedResourceDTO.KIND_DATASET));
+    }
+
     @GetMapping("/{datasetId}/questions")
     public ResponseEntity<?> getQuestions(@PathVariable String datasetId) {
         try {
@@ -64,6 +140,64 @@ public class VQAController {
         }
     }
 
+    /**
+     * A dataset's questions a page at a time, as summaries, optionally filtered by difficulty, image, relation
+     * and words of the question text or fact (q), e.g. /ds1/questions/page?relation=UsedFor&q=kitchen&limit=20; pass nextCursor as cursor
+     */
+    @GetMapping("/{datasetId}/questions/page")
+    public ResponseEntity<?> getQuestionPage(@PathVariable String datasetId,
+                                             @RequestParam(required = false) String cursor,
+                                             @RequestParam(defaultValue = "50") int limit,
+                                             @RequestParam(required = false) String difficulty,
+                                             @RequestParam(required = false) String imageId,
+                                             @RequestParam(required = false) String relation,
+                                             @RequestParam(required = false) String q) {
+        try {
+            return ResponseEntity.ok(vqaService.getQuestionPage(datasetId, difficulty, imageId, relation, q,
+                    cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Questions across all datasets (or one, with datasetId) by difficulty, image and fact,
+     * e.g. /questions?difficulty=hard&imageId=img_12.jpg
+     */
+    @GetMapping("/questions")
+    public ResponseEntity<?> findQuestions(
+            @RequestParam(required = false) String datasetId,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String imageId,
+            @RequestParam(required = false) String factId) {
+        try {
+            return ResponseEntity.ok(vqaService.findQuestions(datasetId, difficulty, imageId, factId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Questions by wording across all datasets (or one, with datasetId), best first,
+     * e.g. /search?q="used for" kitchen&limit=10; quoted phrases have to occur as written
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchQuestions(@RequestParam String q,
+                                             @RequestParam(required = false) String datasetId,
+                                             @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(vqaService.searchQuestions(q, datasetId, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    // Memory held by the question search index, per dataset
+    @GetMapping("/search/footprint")
+    public ResponseEntity<?> getSearchIndexFootprint() {
+        return ResponseEntity.ok(vqaService.getSearchIndexFootprint());
+    }
+
     @GetMapping("/question/{questionId}")
     public ResponseEntity<?> getQuestion(@PathVariable String questionId) {
         try {
@@ -74,6 +208,34 @@ public class VQAController {
         }
     }
 
+    /**
+     * The graph a question needs instead of the whole dataset graph: its answer nodes and their
+     * neighbourhood up to hops away, at most maxNodes nodes, e.g. /question/q7/graph?hops=2&maxNodes=50
+     */
+    @GetMapping("/question/{questionId}/graph")
+    public ResponseEntity<?> getQuestionGraph(@PathVariable String questionId,
+                                              @RequestParam(defaultValue = "1") int hops,
+                                              @RequestParam(defaultValue = "100") int maxNodes) {
+        try {
+            return ResponseEntity.ok(vqaService.getQuestionGraph(questionId, hops, maxNodes));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Where to go next: the body is the current path, a JSON array of node URIs (empty or none to start)
+     */
+    @PostMapping("/question/{questionId}/hint")
+    public ResponseEntity<?> getHint(@PathVariable String questionId,
+                                     @RequestBody(required = false) List<String> currentPath) {
+        try {
+            return ResponseEntity.ok(vqaService.getHint(questionId, currentPath));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
     @PostMapping("/sessions/start/{questionId}")
     public ResponseEntity<?> startSession(@PathVariable String questionId) {
         try {
@@ -85,14 +247,77 @@ public class VQAController {
     }
 
     @PostMapping("/sessions/{sessionId}/validate")
-    public ResponseEntity<?> validatePath(
+    public CompletableFuture<ResponseEntity<?>> validatePath(
             @PathVariable String sessionId,
             @RequestBody UserAnswerPath userPath) {
+        return async(() -> {
+            try {
+                PathValidationResult result = vqaService.validateUserPath(sessionId, userPath);
+                return ResponseEntity.ok(result);
+            } catch (IllegalStateException | IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Validate many answer paths at once, without sessions, e.g. the predictions of a VQA model.
+     * The body is a JSON array of answer paths or one answer path per line; it is read while the results
+     * are written, so batches of any size stream through. The response is NDJSON: one line per answer path
+     * in request order ({"index", "questionId", "result"} or {"index", "questionId", "error"}), followed by
+     * a summary line with the accuracy and mean similarity.
+     */
+    @PostMapping(value = "/validate/batch", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> validateBatch(InputStream body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(out -> batchPathValidator.validate(body, out));
+    }
+
+    /**
+     * Score a predictions file (answer paths with question ids and optional answers, as a JSON array or one
+     * per line) against a dataset. Answers 202 with the job; GET /evaluations/{jobId} reports its progress
+     * and, once completed, exact match, Jaccard, precision/recall/F1 and order scores by difficulty and relation.
+     */
+    @PostMapping("/{datasetId}/evaluations")
+    public ResponseEntity<?> startEvaluation(@PathVariable String datasetId, InputStream predictions) {
         try {
-            PathValidationResult result = vqaService.validateUserPath(sessionId, userPath);
-            return ResponseEntity.ok(result);
-        } catch (IllegalStateException | IllegalArgumentException e) {
+            EvaluationJobDTO job = evaluationEngine.submit(datasetId, predictions);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/vqa/evaluations/" + job.getId())
+                    .body(job);
+        } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Server is busy, please retry later");
+        } catch (Exception e) {
+            log.error("Starting the evaluation of dataset {} failed", datasetId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/evaluations/{jobId}")
+    public ResponseEntity<?> getEvaluation(@PathVariable String jobId) {
+        try {
+            return ResponseEntity.ok(evaluationEngine.getJob(jobId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+    }
+
+    /**
+     * Run dataset ingest and validation on the bounded VQA executor,
+     * answering with 503 when its queue is full
+     */
+    private CompletableFuture<ResponseEntity<?>> async(Supplier<ResponseEntity<?>> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, vqaExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body("Server is busy, please retry later"));
         }
     }
 }
@@ -0,0 +1,137 @@
+package com.semantic.semanticvisualizer.service.impl.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParseAdmissionControlTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService waiters = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void stopWaiters() {
+        waiters.shutdownNow();
+    }
+
+    @Test
+    void closingAPermitAdmitsTheNextRequest() throws Exception {
+        ParseAdmissionControl admission = admission(1, 4, 5000);
+        ParseAdmissionControl.Permit first = admission.admit(1000, "turtle");
+
+        CompletableFuture<ParseAdmissionControl.Permit> second = CompletableFuture.supplyAsync(
+                () -> admission.admit(1000, "turtle"), waiters);
+        awaitQueued(1);
+        assertThat(second).isNotDone();
+
+        first.close();
+        second.get(5, TimeUnit.SECONDS).close();
+        assertThat(gauge("ontology.parse.admission.active")).isZero();
+        assertThat(registry.get("ontology.parse.admission.admitted").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void requestIsRejectedWhenNoSlotFreesUpInTime() {
+        ParseAdmissionControl admission = admission(1, 4, 50);
+        ParseAdmissionControl.Permit held = admission.admit(1000, "turtle");
+
+        assertThatThrownBy(() -> admission.admit(1000, "turtle"))
+                .isInstanceOf(AdmissionRejectedException.class)
+                .extracting(e -> ((AdmissionRejectedException) e).getRetryAfterSeconds())
+                .isEqualTo(7L);
+        assertThat(rejected("timeout")).isEqualTo(1);
+        assertThat(gauge("ontology.parse.admission.queue.depth")).isZero();
+        held.close();
+    }
+
+    @Test
+    void requestIsRejectedAtOnceWhenTheQueueIsFull() throws Exception {
+        ParseAdmissionControl admission = admission(1, 1, 5000);
+        ParseAdmissionControl.Permit held = admission.admit(1000, "turtle");
+        CompletableFuture<ParseAdmissionControl.Permit> waiting = CompletableFuture.supplyAsync(
+                () -> admission.admit(1000, "turtle"), waiters);
+        awaitQueued(1);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> admission.admit(1000, "turtle")).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+        assertThat(rejected("queue_full")).isEqualTo(1);
+
+        held.close();
+        waiting.get(5, TimeUnit.SECONDS).close();
+    }
+
+    @Test
+    void requestWaitsForHeapBudgetAsWellAsASlot() {
+        ParseAdmissionControl admission = admission(4, 4, 50);
+        // Larger than the whole budget, so it is clamped and takes all of it
+        ParseAdmissionControl.Permit large = admission.admit(Runtime.getRuntime().maxMemory(), "turtle");
+        assertThat(gauge("ontology.parse.admission.memory.reserved"))
+                .isEqualTo(gauge("ontology.parse.admission.memory.budget"));
+
+        assertThatThrownBy(() -> admission.admit(1000, "turtle")).isInstanceOf(AdmissionRejectedException.class);
+        assertThat(gauge("ontology.parse.admission.active")).isEqualTo(1);
+
+        large.close();
+        large.close();
+        admission.admit(1000, "turtle").close();
+        assertThat(gauge("ontology.parse.admission.memory.reserved")).isZero();
+    }
+
+    @Test
+    void interruptedWaitIsCountedApart() {
+        ParseAdmissionControl admission = admission(1, 4, 5000);
+        ParseAdmissionControl.Permit held = admission.admit(1000, "turtle");
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThatThrownBy(() -> admission.admit(1000, "turtle")).isInstanceOf(AdmissionRejectedException.class);
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(rejected("interrupted")).isEqualTo(1);
+        assertThat(rejected("timeout")).isZero();
+        held.close();
+        admission.admit(1000, "turtle").close();
+    }
+
+    @Test
+    void costDependsOnTheFormat() {
+        ParseAdmissionControl admission = admission(1, 1, 50);
+
+        assertThat(admission.estimateCostKb(1024 * 1024, "ntriples"))
+                .isLessThan(admission.estimateCostKb(1024 * 1024, "turtle"));
+        assertThat(admission.estimateCostKb(1024 * 1024, "turtle"))
+                .isLessThan(admission.estimateCostKb(1024 * 1024, "jsonld"));
+        assertThat(admission.estimateCostKb(0, null)).isEqualTo(1);
+    }
+
+    private ParseAdmissionControl admission(int maxConcurrent, int maxQueued, long queueTimeoutMs) {
+        return new ParseAdmissionControl(registry, maxConcurrent, maxQueued, queueTimeoutMs, 0.01, 7);
+    }
+
+    private void awaitQueued(int depth) throws InterruptedException {
+        for (int i = 0; i < 250 && gauge("ontology.parse.admission.queue.depth") < depth; i++) {
+            Thread.sleep(20);
+        }
+        assertThat(gauge("ontology.parse.admission.queue.depth")).isEqualTo(depth);
+    }
+
+    private double gauge(String name) {
+        return registry.get(name).gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return registry.get("ontology.parse.admission.rejected").tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,109 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OntologyExporterTest {
+
+    private static final String EX = "http://example.org/";
+
+    private static final String ONTOLOGY = """
+            @prefix ex: <http://example.org/> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            ex:cup ex:usedFor ex:drinking ;
+                rdfs:label "Cup"@en ;
+                ex:volume 250 .
+            ex:drinking ex:needs ex:water .
+            ex:water rdfs:label "Water" .
+            """;
+
+    private final OntologyExporter exporter = new OntologyExporter();
+    private final Model model = ModelFactory.createDefaultModel().read(new StringReader(ONTOLOGY), null, "TTL");
+
+    @Test
+    void everyFormatWritesTheWholeModelBack() throws IOException {
+        for (String format : new String[]{"turtle", "nt", "json-ld", "thrift"}) {
+            OntologyExport export = exporter.prepareExport(model, null, stmt -> true, format);
+
+            assertThat(read(export).isIsomorphicWith(model)).as(format).isTrue();
+        }
+    }
+
+    @Test
+    void onlyStatementsBetweenKeptNodesAreWritten() throws IOException {
+        // Literals are nodes of the graph as well, "Cup"@en is kept but 250 is not
+        Set<String> nodeIds = Set.of(EX + "cup", EX + "drinking", model.createLiteral("Cup", "en").toString());
+        OntologyExport export = exporter.prepareExport(model, nodeIds, stmt -> true, "ntriples");
+
+        assertThat(describe(read(export))).containsExactlyInAnyOrder("cup usedFor drinking", "cup label Cup");
+    }
+
+    @Test
+    void statementFilterOfTheViewIsApplied() throws IOException {
+        OntologyExport export = exporter.prepareExport(model, null,
+                stmt -> !stmt.getPredicate().getLocalName().equals("label"), "jsonld");
+
+        assertThat(describe(read(export))).containsExactlyInAnyOrder(
+                "cup usedFor drinking", "cup volume 250", "drinking needs water");
+    }
+
+    @Test
+    void exportIsOnlySerializedWhenWritten() {
+        OntologyExport export = exporter.prepareExport(model, null, stmt -> {
+            throw new AssertionError("Filtered before writing");
+        }, "turtle");
+
+        assertThat(export.getContentType()).isEqualTo("text/turtle");
+        assertThat(export.getFileName()).isEqualTo("ontology.ttl");
+    }
+
+    @Test
+    void unknownFormatsAreRejected() {
+        assertThatThrownBy(() -> exporter.prepareExport(model, null, stmt -> true, "csv"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> exporter.prepareExport(model, null, stmt -> true, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Model read(OntologyExport export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.writeTo(out);
+        Lang lang = switch (export.getFormat()) {
+            case "turtle" -> Lang.TURTLE;
+            case "ntriples" -> Lang.NTRIPLES;
+            case "jsonld" -> Lang.JSONLD;
+            default -> Lang.RDFTHRIFT;
+        };
+        Model written = ModelFactory.createDefaultModel();
+        RDFParser.source(new ByteArrayInputStream(out.toByteArray())).lang(lang).parse(written);
+        return written;
+    }
+
+    private static Set<String> describe(Model written) {
+        return written.listStatements().toList().stream()
+                .map(OntologyExporterTest::describe)
+                .collect(Collectors.toSet());
+    }
+
+    private static String describe(Statement stmt) {
+        String object = stmt.getObject().isLiteral()
+                ? stmt.getObject().asLiteral().getLexicalForm()
+                : stmt.getObject().asResource().getLocalName();
+        return stmt.getSubject().getLocalName() + " " + stmt.getPredicate().getLocalName() + " " + object;
+    }
+}
@@ -0,0 +1,84 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.jena.rdf.model.Model;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OntologyModelCacheTest {
+
+    private static final String ONTOLOGY = """
+            @prefix ex: <http://example.org/> .
+            ex:café ex:serves ex:crème .
+            """;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final OntologyModelCache cache = new OntologyModelCache(registry);
+    private final OntologyModelLoader loader = new OntologyModelLoader(new PipelineMetrics(registry), cache);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void withoutPreloadedOntologiesNothingIsLookedUp() {
+        Model first = loader.loadModel(ONTOLOGY, "turtle");
+        Model second = loader.loadModel(ONTOLOGY, "turtle");
+
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.size()).isEqualTo(1);
+        assertThat(lookups("hit") + lookups("miss")).isZero();
+    }
+
+    @Test
+    void preloadedContentIsAnsweredWithThePinnedModel() throws IOException {
+        Model preloaded = loader.preloadModel(write(ONTOLOGY), "ttl");
+
+        assertThat(loader.loadModel(ONTOLOGY, "turtle")).isSameAs(preloaded);
+        assertThat(loader.loadModelUncached(ONTOLOGY, "turtle")).isNotSameAs(preloaded);
+        // Same content read as another language is a different model
+        assertThat(cache.find("N-Triples", ONTOLOGY)).isNull();
+        assertThat(lookups("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void contentOfAnotherSizeIsNotHashed() throws IOException {
+        Model preloaded = loader.preloadModel(write(ONTOLOGY), "turtle");
+        String sameSize = ONTOLOGY.replace("serves", "offers");
+        String otherSize = ONTOLOGY.replace("serves", "sells");
+
+        assertThat(loader.loadModel(sameSize, "turtle")).isNotSameAs(preloaded);
+        assertThat(loader.loadModel(otherSize, "turtle")).isNotSameAs(preloaded);
+        assertThat(lookups("miss")).isEqualTo(2);
+    }
+
+    @Test
+    void textIsHashedAsItsUtf8Bytes() {
+        StringBuilder text = new StringBuilder();
+        // Longer than one encoding chunk, with multi-byte characters and a surrogate pair across chunk ends
+        while (text.length() < 20_000) {
+            text.append("ontology é € 😀 ");
+        }
+        text.append('\uD800');
+        String content = text.toString();
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(OntologyModelCache.key("Turtle", content)).isEqualTo(OntologyModelCache.key("Turtle", bytes));
+        assertThat(OntologyModelCache.utf8Length(content)).isEqualTo(bytes.length);
+    }
+
+    private Path write(String content) throws IOException {
+        return Files.writeString(dir.resolve("ontology.ttl"), content);
+    }
+
+    private double lookups(String result) {
+        return registry.get("cache.gets").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,82 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyResolutionIndex.Match;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyResolutionIndex.MatchType;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OntologyResolutionIndexTest {
+
+    private static final String ONTOLOGY = """
+            @prefix ex: <http://example.org/> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            @prefix skos: <http://www.w3.org/2004/02/skos/core#> .
+            ex:Cup rdfs:label "Drinking cup" ; ex:usedFor ex:drinking_water .
+            ex:Mug skos:altLabel "coffee-mug" .
+            ex:ChemicalElement rdfs:subClassOf ex:Substance .
+            ex:Beaker rdfs:label "ChemicalElement" .
+            """;
+
+    private final OntologyResolutionIndex index = new OntologyResolutionIndex(
+            ModelFactory.createDefaultModel().read(new StringReader(ONTOLOGY), null, "TTL"));
+
+    @Test
+    void anExactUriResolvesAsAUriMatch() {
+        assertThat(index.resolve("http://example.org/Cup", "something else"))
+                .isEqualTo(new Match("http://example.org/Cup", MatchType.URI));
+        // Objects are resources of the ontology as well
+        assertThat(index.resolve("http://example.org/Substance", null))
+                .isEqualTo(new Match("http://example.org/Substance", MatchType.URI));
+    }
+
+    @Test
+    void aLabelResolvesAgainstNormalizedLabels() {
+        assertThat(index.resolve("http://other.org/cup1", "drinking_cup"))
+                .isEqualTo(new Match("http://example.org/Cup", MatchType.LABEL));
+        assertThat(index.resolve("coffee mug", "Coffee Mug"))
+                .isEqualTo(new Match("http://example.org/Mug", MatchType.LABEL));
+    }
+
+    @Test
+    void labelsWinOverLocalNames() {
+        // "ChemicalElement" is the local name of ex:ChemicalElement and the label of ex:Beaker
+        assertThat(index.resolve("http://other.org/x", "chemical element"))
+                .isEqualTo(new Match("http://example.org/Beaker", MatchType.LABEL));
+    }
+
+    @Test
+    void aNameThatOnlyEqualsALocalNameIsALocalNameMatch() {
+        // The entity label matches, but only the resource's local name
+        assertThat(index.resolve("http://other.org/x", "Drinking water"))
+                .isEqualTo(new Match("http://example.org/drinking_water", MatchType.LOCAL_NAME));
+        // Without a label, the local name of the entity URI is looked up
+        assertThat(index.resolve("http://other.org/vocab#substance", null))
+                .isEqualTo(new Match("http://example.org/Substance", MatchType.LOCAL_NAME));
+    }
+
+    @Test
+    void unknownEntitiesDoNotResolve() {
+        assertThat(index.resolve("http://other.org/teapot", "Teapot")).isNull();
+        assertThat(index.resolve(null, null)).isNull();
+        assertThat(index.resolve(" ", "  ")).isNull();
+    }
+
+    @Test
+    void labelsFallBackToTheLocalName() {
+        assertThat(index.label("http://example.org/Cup")).isEqualTo("Drinking cup");
+        assertThat(index.label("http://example.org/Substance")).isEqualTo("Substance");
+        assertThat(index.size()).isEqualTo(6);
+    }
+
+    @Test
+    void namesAreNormalized() {
+        assertThat(OntologyResolutionIndex.normalize("ChemicalElement")).isEqualTo("chemical element");
+        assertThat(OntologyResolutionIndex.normalize(" chemical_element ")).isEqualTo("chemical element");
+        assertThat(OntologyResolutionIndex.normalize("Chemical--element.")).isEqualTo("chemical element");
+        assertThat(OntologyResolutionIndex.normalize("_ ")).isNull();
+    }
+}
@@ -0,0 +1,64 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.model.Triple;
+import com.semantic.semanticvisualizer.model.dto.NodeAttributeDTO;
+import com.semantic.semanticvisualizer.model.dto.NodeDTO;
+import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OntologySamplerTest {
+
+    private final OntologySampler sampler = new OntologySampler(new PipelineMetrics(new SimpleMeterRegistry()));
+
+    @Test
+    void smallGraphsAreNotSampled() {
+        OntologyGraphDTO graph = graph();
+
+        assertThat(sampler.limitGraph(graph, 10)).isSameAs(graph);
+        assertThat(sampler.limitGraph(graph, null)).isSameAs(graph);
+    }
+
+    @Test
+    void bestConnectedNodesAreKeptWithTheEdgesBetweenThem() {
+        OntologyGraphDTO sampled = sampler.limitGraph(graph(), 3);
+
+        assertThat(sampled.getNodes()).extracting(NodeDTO::getId).containsExactlyInAnyOrder("hub", "a", "b");
+        assertThat(sampled.getEdges()).hasSize(3);
+    }
+
+    @Test
+    void nodesWithOnlyAttributesAreSampledWhenThereIsRoom() {
+        // Room for every connected node and one of the two without edges, the first one in node order
+        OntologyGraphDTO sampled = sampler.limitGraph(graph(), 7);
+
+        assertThat(sampled.getNodes()).extracting(NodeDTO::getId)
+                .containsExactlyInAnyOrder("hub", "a", "b", "c", "d", "e", "label-only");
+        assertThat(sampled.getEdges()).hasSize(5);
+        assertThat(sampled.getNodes()).filteredOn(node -> node.getId().equals("label-only"))
+                .singleElement()
+                .satisfies(node -> assertThat(node.getAttributes()).hasSize(1));
+    }
+
+    /**
+     * hub - a, hub - b, a - b, hub - c, d - e, and two nodes that only have a folded literal
+     */
+    private static OntologyGraphDTO graph() {
+        OntologyGraphDTO graph = new OntologyGraphDTO();
+        graph.addTriple(new Triple("hub", "links", "a"));
+        graph.addTriple(new Triple("hub", "links", "b"));
+        graph.addTriple(new Triple("a", "links", "b"));
+        graph.addTriple(new Triple("hub", "links", "c"));
+        graph.addAttribute("label-only", literal("Only a label"));
+        graph.addTriple(new Triple("d", "links", "e"));
+        graph.addAttribute("label-only-2", literal("Another label"));
+        return graph;
+    }
+
+    private static NodeAttributeDTO literal(String value) {
+        return new NodeAttributeDTO("label", "label", value, null, null, NodeAttributeDTO.KIND_LITERAL);
+    }
+}
@@ -0,0 +1,117 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers;
+
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils.OntologyUtils;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Statement;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OntologyTripleFilterTest {
+
+    private static final String ZOO = """
+            @prefix ex: <http://example.org/zoo#> .
+            @prefix other: <http://other.org/> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            @prefix owl: <http://www.w3.org/2002/07/owl#> .
+
+            ex:Animal a owl:Class .
+            ex:Dog a owl:Class ;
+                rdfs:subClassOf ex:Animal ;
+                rdfs:label "Dog" ;
+                ex:eats ex:Meat .
+            ex:rex a ex:Dog ;
+                ex:eats ex:Meat ;
+                other:likes other:Ball .
+            """;
+
+    private final Model model = ModelFactory.createDefaultModel().read(new StringReader(ZOO), null, "TTL");
+
+    @Test
+    void withoutFiltersEveryStatementIsAccepted() {
+        assertThat(OntologyTripleFilter.of(model, null)).isSameAs(OntologyTripleFilter.of(model, GraphBuildOptions.defaults()));
+        assertThat(accepted(GraphBuildOptions.defaults())).hasSize((int) model.size());
+    }
+
+    @Test
+    void includedPredicatesMayBePrefixedOrLocalNames() {
+        GraphBuildOptions options = GraphBuildOptions.builder()
+                .includePredicates(List.of("rdfs:subClassOf", " eats ", ""))
+                .build();
+
+        assertThat(accepted(options)).containsExactlyInAnyOrder(
+                "Dog subClassOf Animal", "Dog eats Meat", "rex eats Meat");
+    }
+
+    @Test
+    void excludedPredicatesMayBeFullUris() {
+        GraphBuildOptions options = GraphBuildOptions.builder()
+                .excludePredicates(List.of("http://www.w3.org/2000/01/rdf-schema#label", "type"))
+                .build();
+
+        assertThat(accepted(options)).containsExactlyInAnyOrder(
+                "Dog subClassOf Animal", "Dog eats Meat", "rex eats Meat", "rex likes Ball");
+    }
+
+    @Test
+    void includedNamespacesApplyToSubjectAndResourceObject() {
+        GraphBuildOptions options = GraphBuildOptions.builder()
+                .includeNamespaces(List.of("ex:"))
+                .build();
+
+        assertThat(accepted(options)).containsExactlyInAnyOrder(
+                "Dog subClassOf Animal", "Dog label Dog", "Dog eats Meat", "rex type Dog", "rex eats Meat");
+    }
+
+    @Test
+    void excludedNamespacesApplyToAnyPartOfTheStatement() {
+        GraphBuildOptions options = GraphBuildOptions.builder()
+                .excludeNamespaces(List.of("http://other.org/", "owl:"))
+                .build();
+
+        assertThat(accepted(options)).containsExactlyInAnyOrder(
+                "Dog subClassOf Animal", "Dog label Dog", "Dog eats Meat", "rex type Dog", "rex eats Meat");
+    }
+
+    @Test
+    void includedTypesApplyToTheSubject() {
+        GraphBuildOptions options = GraphBuildOptions.builder()
+                .includeTypes(List.of("ex:Dog"))
+                .build();
+
+        assertThat(accepted(options)).containsExactlyInAnyOrder("rex type Dog", "rex eats Meat", "rex likes Ball");
+    }
+
+    @Test
+    void excludedTypesApplyToSubjectAndObject() {
+        GraphBuildOptions options = GraphBuildOptions.builder()
+                .excludeTypes(List.of("owl:Class"))
+                .build();
+
+        assertThat(accepted(options)).containsExactlyInAnyOrder("rex eats Meat", "rex likes Ball");
+    }
+
+    private Set<String> accepted(GraphBuildOptions options) {
+        OntologyTripleFilter filter = OntologyTripleFilter.of(model, options);
+        return model.listStatements().toList().stream()
+                .filter(filter)
+                .map(OntologyTripleFilterTest::describe)
+                .collect(Collectors.toSet());
+    }
+
+    private static String describe(Statement stmt) {
+        return name(stmt.getSubject()) + " " + stmt.getPredicate().getLocalName() + " " + name(stmt.getObject());
+    }
+
+    private static String name(RDFNode node) {
+        return node.isLiteral() ? node.asLiteral().getLexicalForm() : OntologyUtils.extractLabel(node.asResource().getURI());
+    }
+}
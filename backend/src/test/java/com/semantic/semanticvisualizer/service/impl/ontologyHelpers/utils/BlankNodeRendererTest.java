@@ -0,0 +1,92 @@
+package com.semantic.semanticvisualizer.service.impl.ontologyHelpers.utils;
+
+import com.semantic.semanticvisualizer.model.dto.NodeAttributeDTO;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class BlankNodeRendererTest {
+
+    private static final String EX = "http://example.org/zoo#";
+
+    private static final String ZOO = """
+            @prefix ex: <http://example.org/zoo#> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            @prefix owl: <http://www.w3.org/2002/07/owl#> .
+
+            ex:Food rdfs:label "Tasty food" .
+            ex:Dog rdfs:subClassOf [ a owl:Restriction ; owl:onProperty ex:eats ; owl:someValuesFrom ex:Food ] .
+            ex:Cat rdfs:subClassOf [ a owl:Restriction ; owl:onProperty ex:legs ; owl:cardinality 4 ] .
+            ex:Pet owl:equivalentClass [ owl:unionOf ( ex:Dog ex:Cat ) ] .
+            ex:Wild owl:equivalentClass [ owl:complementOf ex:Pet ] .
+            ex:Pair ex:members ( ex:Dog [ owl:complementOf ex:Cat ] ) .
+            ex:Ball ex:has [ ex:colour "red" ] .
+            """;
+
+    private final Model model = ModelFactory.createDefaultModel().read(new StringReader(ZOO), null, "TTL");
+
+    @Test
+    void restrictionsReadAsPropertyAndFiller() {
+        Resource some = blank("Dog", RDFS.subClassOf.getURI());
+        Resource exactly = blank("Cat", RDFS.subClassOf.getURI());
+
+        assertThat(BlankNodeRenderer.describe(some)).isEqualTo("eats some Tasty food");
+        assertThat(BlankNodeRenderer.describe(exactly)).isEqualTo("legs exactly 4");
+        assertThat(BlankNodeRenderer.kindOf(some)).isEqualTo(NodeAttributeDTO.KIND_RESTRICTION);
+    }
+
+    @Test
+    void classExpressionsNameTheirOperator() {
+        assertThat(BlankNodeRenderer.describe(blank("Pet", OWL.equivalentClass.getURI()))).isEqualTo("unionOf (Dog, Cat)");
+        assertThat(BlankNodeRenderer.describe(blank("Wild", OWL.equivalentClass.getURI()))).isEqualTo("not Pet");
+    }
+
+    @Test
+    void listsAreRenderedInOrder() {
+        Resource list = blank("Pair", EX + "members");
+
+        assertThat(BlankNodeRenderer.describe(list)).isEqualTo("(Dog, not Cat)");
+        assertThat(BlankNodeRenderer.kindOf(list)).isEqualTo(NodeAttributeDTO.KIND_LIST);
+    }
+
+    @Test
+    void otherBlankNodesListTheirProperties() {
+        Resource blank = blank("Ball", EX + "has");
+
+        assertThat(BlankNodeRenderer.describe(blank)).isEqualTo("[colour red]");
+        assertThat(BlankNodeRenderer.kindOf(blank)).isEqualTo(NodeAttributeDTO.KIND_BLANK);
+    }
+
+    @Test
+    void namedTargetsLinkTheOwnerToNamedResources() {
+        Statement restriction = statement("Dog", RDFS.subClassOf.getURI());
+        Statement list = statement("Pair", EX + "members");
+
+        assertThat(BlankNodeRenderer.namedTargets(restriction))
+                .extracting(stmt -> stmt.getPredicate().getURI(), stmt -> stmt.getResource().getURI())
+                .containsExactly(tuple(EX + "eats", EX + "Food"));
+        // Only the named list items, the complement stays collapsed
+        assertThat(BlankNodeRenderer.namedTargets(list))
+                .extracting(stmt -> stmt.getPredicate().getURI(), stmt -> stmt.getResource().getURI())
+                .containsExactly(tuple(EX + "members", EX + "Dog"));
+        assertThat(BlankNodeRenderer.namedTargets(statement("Ball", EX + "has"))).isEmpty();
+        assertThat(BlankNodeRenderer.namedTargets(statement("Cat", RDFS.subClassOf.getURI()))).isEmpty();
+    }
+
+    private Statement statement(String subject, String predicate) {
+        return model.getResource(EX + subject).getProperty(model.getProperty(predicate));
+    }
+
+    private Resource blank(String subject, String predicate) {
+        return statement(subject, predicate).getResource();
+    }
+}
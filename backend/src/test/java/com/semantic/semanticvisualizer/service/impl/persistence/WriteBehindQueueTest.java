@@ -0,0 +1,92 @@
+package com.semantic.semanticvisualizer.service.impl.persistence;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WriteBehindQueueTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void writesQueuedWhileTheWriterIsBusyShareABatch() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test", 100, 4, batch -> {
+            // The batch is reused by the queue
+            batches.add(List.copyOf(batch));
+            started.countDown();
+            await(release);
+        }, registry);
+
+        queue.submit(0);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= 6; i++) {
+            queue.submit(i);
+        }
+        release.countDown();
+        queue.close();
+
+        assertThat(batches).containsExactly(List.of(0), List.of(1, 2, 3, 4), List.of(5, 6));
+        assertThat(writes("success")).isEqualTo(7);
+    }
+
+    @Test
+    void failedBatchIsRetriedSoOnlyTheBadWriteIsDropped() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test", 100, 10, batch -> {
+            started.countDown();
+            await(release);
+            if (batch.contains(-1)) {
+                throw new IllegalStateException("Bad write");
+            }
+            written.addAll(batch);
+        }, registry);
+
+        queue.submit(0);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List.of(1, 2, -1, 3).forEach(queue::submit);
+        release.countDown();
+        queue.close();
+
+        assertThat(written).containsExactly(0, 1, 2, 3);
+        assertThat(writes("success")).isEqualTo(4);
+        assertThat(writes("failure")).isEqualTo(1);
+    }
+
+    @Test
+    void closeFlushesPendingWritesAndRejectsNewOnes() {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        WriteBehindQueue<Integer> queue = new WriteBehindQueue<>("test", 100, 3, written::addAll, registry);
+
+        for (int i = 0; i < 10; i++) {
+            queue.submit(i);
+        }
+        queue.close();
+
+        assertThat(written).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThatThrownBy(() -> queue.submit(10)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private double writes(String result) {
+        return registry.get("persistence.writes").tags("queue", "test", "result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
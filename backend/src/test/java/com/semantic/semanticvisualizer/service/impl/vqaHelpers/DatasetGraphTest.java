@@ -0,0 +1,137 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphEdge;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphNode;
+import com.semantic.semanticvisualizer.model.vqa.graph.GraphResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class DatasetGraphTest {
+
+    private final DistanceFieldCache fields = new DistanceFieldCache(new SimpleMeterRegistry(), 1024 * 1024);
+
+    @Test
+    void anEdgeStatedByEveryQuestionIsKeptOnceWithItsCount() {
+        DatasetGraph graph = new DatasetGraph(List.of(
+                triple("q1", "http://ex/cup", "UsedFor", "http://ex/drinking"),
+                triple("q2", "http://ex/cup", "UsedFor", "http://ex/drinking"),
+                triple("q3", "http://ex/cup", "IsA", "http://ex/container")), fields);
+
+        graph.addQuestions(List.of(triple("q4", "http://ex/cup", "UsedFor", "http://ex/drinking")));
+
+        assertThat(graph.nodeCount()).isEqualTo(3);
+        assertThat(graph.edgeCount()).isEqualTo(2);
+        assertThat(graph.toResponse().getEdges())
+                .extracting(GraphEdge::getLabel, GraphEdge::getCount)
+                .containsExactly(tuple("UsedFor", 3), tuple("IsA", 1));
+    }
+
+    @Test
+    void expectedPathNodesAreTrimmedAndJoinTheTripleNodes() {
+        DatasetGraph graph = new DatasetGraph(List.of(
+                triple("q1", "http://ex/cup", "UsedFor", "http://ex/drinking"),
+                path("q2", " http://ex/cup", "http://ex/drinking ", " ", "http://ex/water")), fields);
+
+        assertThat(graph.toResponse().getNodes()).extracting(GraphNode::getId)
+                .containsExactly("http://ex/cup", "http://ex/drinking", "http://ex/water");
+        assertThat(graph.toResponse().getNodes()).extracting(GraphNode::getLabel)
+                .containsExactly("cup", "drinking", "water");
+        assertThat(graph.toResponse().getEdges())
+                .extracting(GraphEdge::getSource, GraphEdge::getTarget, GraphEdge::getLabel)
+                .containsExactly(
+                        tuple("http://ex/cup", "http://ex/drinking", "UsedFor"),
+                        tuple("http://ex/cup", "http://ex/drinking", "relatedTo"));
+    }
+
+    @Test
+    void theResponseIsBuiltOnceAndRebuiltAfterAnAppend() {
+        DatasetGraph graph = new DatasetGraph(List.of(triple("q1", "http://ex/a", "r", "http://ex/b")), fields);
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        GraphResponse first = graph.toResponse();
+        byte[] json = graph.toJson(objectMapper);
+        assertThat(graph.toResponse()).isSameAs(first);
+        assertThat(graph.toJson(objectMapper)).isSameAs(json);
+
+        graph.addQuestions(List.of(triple("q2", "http://ex/a", "r", "http://ex/b")));
+
+        assertThat(graph.toResponse()).isNotSameAs(first);
+        assertThat(first.getEdges().get(0).getCount()).isEqualTo(1);
+        assertThat(graph.toResponse().getEdges().get(0).getCount()).isEqualTo(2);
+        assertThat(new String(graph.toJson(objectMapper))).contains("\"count\":2");
+    }
+
+    @Test
+    void neighbourhoodFollowsEdgesEitherWayUpToTheHops() {
+        // a -> b -> c -> d, e -> b
+        DatasetGraph graph = new DatasetGraph(List.of(
+                path("q1", "a", "b", "c", "d"),
+                path("q2", "e", "b")), fields);
+
+        DatasetGraph.Subgraph seedsOnly = graph.neighbourhood(List.of("a", "unknown"), 0, 10);
+        DatasetGraph.Subgraph oneHop = graph.neighbourhood(List.of("c"), 1, 10);
+        DatasetGraph.Subgraph twoHops = graph.neighbourhood(List.of("a"), 2, 10);
+
+        assertThat(seedsOnly.nodes()).extracting(GraphNode::getId).containsExactly("a");
+        assertThat(seedsOnly.edges()).isEmpty();
+        assertThat(oneHop.nodes()).extracting(GraphNode::getId).containsExactly("c", "b", "d");
+        assertThat(twoHops.nodes()).extracting(GraphNode::getId).containsExactly("a", "b", "c", "e");
+        assertThat(twoHops.edges()).extracting(GraphEdge::getSource, GraphEdge::getTarget)
+                .containsExactlyInAnyOrder(tuple("a", "b"), tuple("b", "c"), tuple("e", "b"));
+        assertThat(twoHops.truncated()).isFalse();
+    }
+
+    @Test
+    void neighbourhoodStopsAtMaxNodesNearestFirst() {
+        DatasetGraph graph = new DatasetGraph(List.of(
+                path("q1", "a", "b", "c", "d"),
+                path("q2", "e", "b")), fields);
+
+        DatasetGraph.Subgraph limited = graph.neighbourhood(List.of("a"), 3, 3);
+        DatasetGraph.Subgraph seeds = graph.neighbourhood(List.of("a", "c", "e"), 1, 2);
+        DatasetGraph.Subgraph exact = graph.neighbourhood(List.of("d"), 1, 2);
+
+        assertThat(limited.nodes()).extracting(GraphNode::getId).containsExactly("a", "b", "c");
+        assertThat(limited.edges()).hasSize(2);
+        assertThat(limited.truncated()).isTrue();
+        assertThat(seeds.nodes()).extracting(GraphNode::getId).containsExactly("a", "c");
+        assertThat(seeds.truncated()).isTrue();
+        assertThat(exact.nodes()).extracting(GraphNode::getId).containsExactly("d", "c");
+        assertThat(exact.truncated()).isFalse();
+    }
+
+    @Test
+    void answerNodesAreTheTripleAndPathNodesInOrder() {
+        VQAQuestion question = VQAQuestion.builder()
+                .id("q1")
+                .triple(TripleVQA.fromRdf("http://ex/cup", "UsedFor", "http://ex/drinking"))
+                .answerTriplets(List.of(TripleVQA.fromRdf("http://ex/drinking", "Needs", "http://ex/water")))
+                .expectedPath(List.of(" http://ex/cup", "http://ex/glass", " "))
+                .build();
+
+        assertThat(DatasetGraph.answerNodes(question))
+                .containsExactly("http://ex/cup", "http://ex/drinking", "http://ex/water", "http://ex/glass");
+    }
+
+    private static VQAQuestion triple(String id, String subject, String relation, String object) {
+        return VQAQuestion.builder()
+                .id(id)
+                .answerTriplets(List.of(TripleVQA.fromRdf(subject, relation, object)))
+                .build();
+    }
+
+    private static VQAQuestion path(String id, String... nodes) {
+        return VQAQuestion.builder()
+                .id(id)
+                .expectedPath(List.of(nodes))
+                .build();
+    }
+}
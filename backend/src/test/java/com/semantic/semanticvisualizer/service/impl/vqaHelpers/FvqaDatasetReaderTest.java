@@ -0,0 +1,78 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.model.vqa.DatasetRecordError;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FvqaDatasetReaderTest {
+
+    private final FvqaDatasetReader reader = new FvqaDatasetReader(new ObjectMapper());
+
+    @Test
+    void readsAnArrayOrAQuestionsObject() throws IOException {
+        String array = """
+                [{"id": "q1", "question": "What is it?"}, {"question_id": "q2", "img_file": "a.jpg"}]
+                """;
+        String object = """
+                {"name": "fvqa", "meta": {"questions": 2}, "questions": [{"id": "q1"}, {"id": "q2"}]}
+                """;
+
+        assertThat(reader.read(array).questions()).extracting(VQAQuestion::getId).containsExactly("q1", "q2");
+        assertThat(reader.read(array).questions().get(0).getQuestionText()).isEqualTo("What is it?");
+        assertThat(reader.read(object).questions()).extracting(VQAQuestion::getId).containsExactly("q1", "q2");
+    }
+
+    @Test
+    void recordsThatCannotBeBoundAreSkippedAndReported() throws IOException {
+        String json = """
+                {"questions": [
+                  {"id": "q1"},
+                  {"id": "q2", "expectedPath": {"not": "a list"}, "answer": "x"},
+                  "just a string",
+                  {"questionText": "no id"},
+                  {"id": "q5", "answerTriplets": [{"subject": {"label": "a"}, "object": {"label": "b"}}]}
+                ]}
+                """;
+
+        FvqaDatasetReader.Result result = reader.read(json);
+
+        assertThat(result.questions()).extracting(VQAQuestion::getId).containsExactly("q1", "q5");
+        assertThat(result.rejectedCount()).isEqualTo(3);
+        assertThat(result.errors()).extracting(DatasetRecordError::getIndex).containsExactly(1, 2, 3);
+        assertThat(result.errors().get(1).getMessage()).contains("JSON object");
+        assertThat(result.errors().get(2).getMessage()).isEqualTo("Question has no id");
+    }
+
+    @Test
+    void reportedErrorsAreCapped() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < FvqaDatasetReader.MAX_REPORTED_ERRORS + 20; i++) {
+            json.append("{\"questionText\": \"no id\"},");
+        }
+        json.append("{\"id\": \"last\"}]");
+
+        FvqaDatasetReader.Result result = reader.read(json.toString());
+
+        assertThat(result.questions()).extracting(VQAQuestion::getId).containsExactly("last");
+        assertThat(result.rejectedCount()).isEqualTo(FvqaDatasetReader.MAX_REPORTED_ERRORS + 20);
+        assertThat(result.errors()).hasSize(FvqaDatasetReader.MAX_REPORTED_ERRORS);
+    }
+
+    @Test
+    void malformedJsonAbortsTheRead() {
+        assertThatThrownBy(() -> reader.read("[{\"id\": \"q1\"}, {\"id\": ]"))
+                .isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    void documentsWithoutQuestionsAreRejected() {
+        assertThatThrownBy(() -> reader.read("{\"items\": []}")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
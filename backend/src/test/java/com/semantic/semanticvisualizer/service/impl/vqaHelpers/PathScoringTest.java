@@ -0,0 +1,77 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class PathScoringTest {
+
+    private static final ExpectedPath EXPECTED = path("a", "b", "c", "d");
+
+    @Test
+    void identicalPathMatchesExactly() {
+        PathScoring.PathScore score = PathScoring.score(EXPECTED, List.of("a", "b", "c", "d"));
+
+        assertThat(score.exactMatch()).isTrue();
+        assertThat(score.setMatch()).isTrue();
+        assertThat(score.f1()).isEqualTo(1.0);
+        assertThat(score.orderScore()).isEqualTo(1.0);
+    }
+
+    @Test
+    void nodesAreComparedTrimmed() {
+        PathScoring.PathScore score = PathScoring.score(path(" a", "b "), List.of("a ", " b"));
+
+        assertThat(score.exactMatch()).isTrue();
+        assertThat(score.setMatch()).isTrue();
+    }
+
+    @Test
+    void reversedPathIsASetMatchWithALowOrderScore() {
+        PathScoring.PathScore score = PathScoring.score(EXPECTED, List.of("d", "c", "b", "a"));
+
+        assertThat(score.exactMatch()).isFalse();
+        assertThat(score.setMatch()).isTrue();
+        assertThat(score.f1()).isEqualTo(1.0);
+        // Any single node is a common subsequence, no two are in the same order
+        assertThat(score.orderScore()).isEqualTo(0.25);
+    }
+
+    @Test
+    void partialPathScoresPrecisionRecallAndF1OverDistinctNodes() {
+        // a and b are right, x is wrong, a is repeated
+        PathScoring.PathScore score = PathScoring.score(EXPECTED, List.of("a", "x", "b", "a"));
+
+        assertThat(score.precision()).isCloseTo(2.0 / 3, within(1e-9));
+        assertThat(score.recall()).isCloseTo(0.5, within(1e-9));
+        assertThat(score.f1()).isCloseTo(2 * (2.0 / 3) * 0.5 / (2.0 / 3 + 0.5), within(1e-9));
+        assertThat(score.jaccard()).isCloseTo(2.0 / 5, within(1e-9));
+        assertThat(score.setMatch()).isFalse();
+    }
+
+    @Test
+    void orderScoreIsTheLongestCommonSubsequenceOverTheLongerPath() {
+        assertThat(PathScoring.orderScore(List.of("a", "b", "c", "d"), List.of("a", "c", "x", "d", "y")))
+                .isCloseTo(3.0 / 5, within(1e-9));
+        assertThat(PathScoring.orderScore(List.of("a", "b", "c"), List.of("c", "a", "b")))
+                .isCloseTo(2.0 / 3, within(1e-9));
+        assertThat(PathScoring.orderScore(List.of(), List.of())).isEqualTo(0.0);
+    }
+
+    @Test
+    void emptySubmissionScoresZero() {
+        PathScoring.PathScore score = PathScoring.score(EXPECTED, List.of());
+
+        assertThat(score.exactMatch()).isFalse();
+        assertThat(score.f1()).isEqualTo(0.0);
+        assertThat(score.orderScore()).isEqualTo(0.0);
+    }
+
+    private static ExpectedPath path(String... nodes) {
+        return ExpectedPath.of(VQAQuestion.builder().id("q").expectedPath(List.of(nodes)).build());
+    }
+}
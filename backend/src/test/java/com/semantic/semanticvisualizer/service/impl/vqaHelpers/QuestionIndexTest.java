@@ -0,0 +1,141 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.TripleVQA;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuestionIndexTest {
+
+    private final QuestionIndex index = new QuestionIndex();
+
+    @Test
+    void pagesFollowTheCursorToTheEnd() {
+        index.addDataset("ds", questions(0, 7));
+
+        QuestionIndex.Page first = index.page("ds", null, null, null, null, 0, 3);
+        QuestionIndex.Page second = index.page("ds", null, null, null, null, first.nextPosition(), 3);
+        QuestionIndex.Page last = index.page("ds", null, null, null, null, second.nextPosition(), 3);
+
+        assertThat(ids(first)).containsExactly("q0", "q1", "q2");
+        assertThat(ids(second)).containsExactly("q3", "q4", "q5");
+        assertThat(ids(last)).containsExactly("q6");
+        assertThat(last.nextPosition()).isNull();
+    }
+
+    @Test
+    void filteredPagesContinueAfterTheLastQuestionRead() {
+        index.addDataset("ds", questions(0, 10));
+
+        // Every third question is hard: q0, q3, q6, q9
+        QuestionIndex.Page first = index.page("ds", "hard", null, null, null, 0, 2);
+        QuestionIndex.Page second = index.page("ds", "hard", null, null, null, first.nextPosition(), 2);
+
+        assertThat(ids(first)).containsExactly("q0", "q3");
+        assertThat(ids(second)).containsExactly("q6", "q9");
+        assertThat(second.nextPosition()).isNull();
+    }
+
+    @Test
+    void pagesSpanAppendedQuestions() {
+        List<String> expected = new ArrayList<>();
+        int next = 0;
+        // Appends large and small, so buckets are split into several segments
+        for (int size : new int[]{12, 1, 1, 3, 8, 1, 2, 2, 6, 1, 1}) {
+            List<VQAQuestion> appended = questions(next, next + size);
+            index.addDataset("ds", appended);
+            appended.forEach(question -> expected.add(question.getId()));
+            next += size;
+        }
+
+        List<String> paged = new ArrayList<>();
+        Integer position = 0;
+        while (position != null) {
+            QuestionIndex.Page page = index.page("ds", null, null, null, null, position, 7);
+            paged.addAll(ids(page));
+            position = page.nextPosition();
+        }
+        assertThat(paged).isEqualTo(expected);
+
+        List<String> hard = index.page("ds", "hard", null, null, null, 0, 100).questions().stream()
+                .map(VQAQuestion::getId).toList();
+        assertThat(hard).isEqualTo(expected.stream().filter(id -> Integer.parseInt(id.substring(1)) % 3 == 0).toList());
+    }
+
+    @Test
+    void textPositionsFilterThePage() {
+        index.addDataset("ds", questions(0, 10));
+
+        QuestionIndex.Page page = index.page("ds", null, null, null, new int[]{1, 4, 8}, 2, 10);
+        QuestionIndex.Page hard = index.page("ds", "hard", null, null, new int[]{1, 3, 4, 6}, 0, 10);
+
+        assertThat(ids(page)).containsExactly("q4", "q8");
+        assertThat(ids(hard)).containsExactly("q3", "q6");
+    }
+
+    @Test
+    void pagesStayWithinTheirDataset() {
+        index.addDataset("ds1", questions(0, 3));
+        index.addDataset("ds2", questions(3, 5));
+
+        assertThat(ids(index.page("ds2", null, null, null, null, 0, 10))).containsExactly("q3", "q4");
+        assertThat(index.page("unknown", null, null, null, null, 0, 10).questions()).isEmpty();
+    }
+
+    @Test
+    void questionsAreFoundByPlainAndQualifiedId() {
+        VQAQuestion first = VQAQuestion.builder().id("q").build();
+        VQAQuestion second = VQAQuestion.builder().id("q").build();
+        index.addDataset("ds1", List.of(first));
+        index.addDataset("ds2", List.of(second));
+
+        assertThat(index.get("q")).isSameAs(first);
+        assertThat(index.get(QuestionIndex.qualify("ds2", "q"))).isSameAs(second);
+        assertThat(index.get("missing")).isNull();
+    }
+
+    @Test
+    void expectedPathsAreCompiledWhileIndexing() {
+        VQAQuestion question = VQAQuestion.builder().id("q").expectedPath(List.of(" a", "b ")).build();
+        question.setDatasetId("ds");
+        index.addDataset("ds", List.of(question));
+
+        assertThat(index.expectedPath(question)).isSameAs(index.expectedPath(question));
+        assertThat(index.expectedPath(question).nodes()).containsExactly("a", "b");
+    }
+
+    @Test
+    void incompleteAnswerTriplesLeaveTheQuestionWithoutAPath() {
+        TripleVQA noSubject = TripleVQA.builder()
+                .relation(TripleVQA.KGRelation.builder().label("r").build())
+                .object(TripleVQA.KGEntity.builder().label("b").build())
+                .build();
+        VQAQuestion broken = VQAQuestion.builder().id("broken").answerTriplets(List.of(noSubject)).build();
+        broken.setDatasetId("ds");
+        index.addDataset("ds", List.of(broken));
+
+        assertThat(index.get("broken")).isSameAs(broken);
+        assertThatThrownBy(() -> index.expectedPath(broken)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<VQAQuestion> questions(int from, int to) {
+        List<VQAQuestion> questions = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            questions.add(VQAQuestion.builder()
+                    .id("q" + i)
+                    .questionText("Question " + i)
+                    .difficulty(i % 3 == 0 ? "hard" : "easy")
+                    .build());
+        }
+        return questions;
+    }
+
+    private static List<String> ids(QuestionIndex.Page page) {
+        return page.questions().stream().map(VQAQuestion::getId).toList();
+    }
+}
@@ -0,0 +1,142 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QuestionSearchIndexTest {
+
+    private final QuestionSearchIndex index = new QuestionSearchIndex();
+
+    @Test
+    void moreOccurrencesRankFirst() {
+        index.addDataset("ds", List.of(
+                question("once", "Which knife is in the kitchen?", null),
+                question("twice", "Which kitchen knife is in the kitchen?", null)));
+
+        assertThat(ids(index.search("kitchen", null, 10))).containsExactly("twice", "once");
+    }
+
+    @Test
+    void shorterQuestionsRankFirst() {
+        index.addDataset("ds", List.of(
+                question("long", "What is the thing next to the cup on the table used for?", null),
+                question("short", "What is the cup for?", null)));
+
+        assertThat(ids(index.search("cup", null, 10))).containsExactly("short", "long");
+    }
+
+    @Test
+    void rareWordsWeighMoreThanCommonOnes() {
+        index.addDataset("ds", List.of(
+                question("common", "What is this animal?", null),
+                question("rare", "What is this giraffe?", null),
+                question("other1", "What is this animal eating?", null),
+                question("other2", "Where does this animal live?", null)));
+
+        List<QuestionSearchIndex.Hit> hits = index.search("animal giraffe", null, 10).hits();
+
+        assertThat(hits.get(0).question().getId()).isEqualTo("rare");
+        assertThat(hits.get(0).score()).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    void factSurfaceIsSearchedToo() {
+        index.addDataset("ds", List.of(question("q1", "What is shown?", "Bread is made from flour")));
+
+        assertThat(ids(index.search("flour", null, 10))).containsExactly("q1");
+    }
+
+    @Test
+    void totalCountsEveryMatchBeyondTheLimit() {
+        index.addDataset("ds", List.of(
+                question("q1", "red apple", null),
+                question("q2", "red car", null),
+                question("q3", "red sky", null),
+                question("q4", "blue sky", null)));
+
+        QuestionSearchIndex.Result result = index.search("red", null, 2);
+
+        assertThat(result.hits()).hasSize(2);
+        assertThat(result.total()).isEqualTo(3);
+    }
+
+    @Test
+    void tiesKeepLoadOrder() {
+        index.addDataset("ds", List.of(question("first", "a red ball", null)));
+        index.addDataset("ds", List.of(question("second", "a red ball", null)));
+
+        assertThat(ids(index.search("ball", null, 10))).containsExactly("first", "second");
+    }
+
+    @Test
+    void phraseMatchesOnlyWordsInSequence() {
+        index.addDataset("ds", List.of(
+                question("phrase", "What is a cup used for?", null),
+                question("apart", "What is the cup for, and how is it used?", null),
+                question("reversed", "For what is the cup used?", null)));
+
+        QuestionSearchIndex.Result result = index.search("\"used for\"", null, 10);
+
+        assertThat(ids(result)).containsExactly("phrase");
+        assertThat(result.total()).isEqualTo(1);
+    }
+
+    @Test
+    void phraseDoesNotSpanQuestionTextAndFact() {
+        index.addDataset("ds", List.of(question("q1", "What is it used", "for cooking")));
+
+        assertThat(index.search("\"used for\"", null, 10).total()).isZero();
+        assertThat(index.search("\"for cooking\"", null, 10).total()).isEqualTo(1);
+    }
+
+    @Test
+    void phraseAndWordsTogetherRankByAllWords() {
+        index.addDataset("ds", List.of(
+                question("plain", "What is a knife used for?", null),
+                question("kitchen", "What is a knife in the kitchen used for?", null),
+                question("without", "A kitchen knife", null)));
+
+        assertThat(ids(index.search("\"used for\" kitchen", null, 10))).containsExactly("kitchen", "plain");
+    }
+
+    @Test
+    void searchIsLimitedToTheGivenDataset() {
+        index.addDataset("ds1", List.of(question("q1", "red apple", null)));
+        index.addDataset("ds2", List.of(question("q2", "red apple", null)));
+
+        assertThat(ids(index.search("apple", "ds2", 10))).containsExactly("q2");
+        assertThat(ids(index.search("apple", null, 10))).containsExactlyInAnyOrder("q1", "q2");
+    }
+
+    @Test
+    void queryWithoutWordsIsRejected() {
+        assertThatThrownBy(() -> index.search(" ?! ", null, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void positionsWithAllCountAcrossAppends() {
+        index.addDataset("ds", List.of(
+                question("q0", "red apple", null),
+                question("q1", "green apple", null)));
+        index.addDataset("ds", List.of(
+                question("q2", "red car", null),
+                question("q3", "apple that is red", null)));
+
+        assertThat(index.positionsWithAll("ds", List.of("red", "apple"))).containsExactly(0, 3);
+        assertThat(index.positionsWithAll("ds", List.of("red", "banana"))).isEmpty();
+        assertThat(index.positionsWithAll("other", List.of("red"))).isEmpty();
+    }
+
+    private static List<String> ids(QuestionSearchIndex.Result result) {
+        return result.hits().stream().map(hit -> hit.question().getId()).toList();
+    }
+
+    private static VQAQuestion question(String id, String text, String fact) {
+        return VQAQuestion.builder().id(id).questionText(text).factSurface(fact).build();
+    }
+}
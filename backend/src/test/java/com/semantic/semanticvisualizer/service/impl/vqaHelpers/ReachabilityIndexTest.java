@@ -0,0 +1,98 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReachabilityIndexTest {
+
+    private final DistanceFieldCache fields = new DistanceFieldCache(new SimpleMeterRegistry(), 1024 * 1024);
+
+    /**
+     * a - b - c - d, with shortcuts a - e - d and a - g - d, and f on its own
+     */
+    private ReachabilityIndex graph() {
+        Map<String, Set<String>> adjacency = new LinkedHashMap<>();
+        link(adjacency, "a", "b");
+        link(adjacency, "b", "c");
+        link(adjacency, "c", "d");
+        link(adjacency, "a", "e");
+        link(adjacency, "e", "d");
+        link(adjacency, "a", "g");
+        link(adjacency, "g", "d");
+        adjacency.put("f", new LinkedHashSet<>());
+        return new ReachabilityIndex(adjacency, fields);
+    }
+
+    @Test
+    void distancesAreShortestPathsEitherWay() {
+        ReachabilityIndex index = graph();
+
+        assertThat(index.distance("a", "a")).isZero();
+        assertThat(index.distance("a", "b")).isEqualTo(1);
+        assertThat(index.distance("a", "d")).isEqualTo(2);
+        assertThat(index.distance("d", "a")).isEqualTo(2);
+        assertThat(index.distance("b", "e")).isEqualTo(2);
+    }
+
+    @Test
+    void unknownAndDisconnectedNodesAreUnreachable() {
+        ReachabilityIndex index = graph();
+
+        assertThat(index.distance("a", "f")).isEqualTo(ReachabilityIndex.UNREACHABLE);
+        assertThat(index.distance("a", "nowhere")).isEqualTo(ReachabilityIndex.UNREACHABLE);
+        assertThat(index.distance(null, "a")).isEqualTo(ReachabilityIndex.UNREACHABLE);
+        assertThat(index.contains("f")).isTrue();
+        assertThat(index.contains("nowhere")).isFalse();
+    }
+
+    @Test
+    void nextStepsAreTheNeighboursOnAShortestPath() {
+        ReachabilityIndex index = graph();
+
+        assertThat(index.nextSteps("a", "d", 3)).containsExactlyInAnyOrder("e", "g");
+        assertThat(index.nextSteps("a", "d", 1)).hasSize(1);
+        assertThat(index.nextSteps("b", "e", 3)).containsExactly("a");
+    }
+
+    @Test
+    void noNextStepsAtTheTargetOrWithoutAPath() {
+        ReachabilityIndex index = graph();
+
+        assertThat(index.nextSteps("d", "d", 3)).isEmpty();
+        assertThat(index.nextSteps("a", "f", 3)).isEmpty();
+        assertThat(index.nextSteps("nowhere", "a", 3)).isEmpty();
+    }
+
+    @Test
+    void extendedIndexKeepsFieldsCorrectAsTheGraphGrows() {
+        Random random = new Random(7);
+        Map<String, Set<String>> adjacency = new LinkedHashMap<>();
+        ReachabilityIndex index = null;
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 15; i++) {
+                link(adjacency, "n" + random.nextInt(20 + round * 10), "n" + random.nextInt(20 + round * 10));
+            }
+            index = ReachabilityIndex.extend(index, adjacency, fields);
+            ReachabilityIndex fresh = new ReachabilityIndex(adjacency, fields);
+            for (String from : adjacency.keySet()) {
+                // The first nodes are asked every round, so their fields are carried over
+                for (String to : adjacency.keySet().stream().limit(5).toList()) {
+                    assertThat(index.distance(from, to)).as("%s -> %s", from, to).isEqualTo(fresh.distance(from, to));
+                }
+            }
+        }
+    }
+
+    private static void link(Map<String, Set<String>> adjacency, String a, String b) {
+        adjacency.computeIfAbsent(a, node -> new LinkedHashSet<>()).add(b);
+        adjacency.computeIfAbsent(b, node -> new LinkedHashSet<>()).add(a);
+    }
+}
@@ -0,0 +1,200 @@
+package com.semantic.semanticvisualizer.service.impl.vqaHelpers;
+
+import com.semantic.semanticvisualizer.model.vqa.PathValidationResult;
+import com.semantic.semanticvisualizer.model.vqa.VQADataset;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.model.vqa.VQASessionDTO;
+import com.semantic.semanticvisualizer.service.impl.persistence.VQAPersistence;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionStoreTest {
+
+    private final StubPersistence persistence = new StubPersistence();
+
+    @Test
+    void sessionExpiresAfterIdleTtlWithoutUse() throws InterruptedException {
+        SessionStore store = store(Duration.ofMillis(200), Duration.ofHours(1), Duration.ofHours(1));
+        store.put(session("s1"));
+
+        assertThat(store.get("s1")).isNotNull();
+        Thread.sleep(500);
+
+        assertThat(store.get("s1")).isNull();
+        awaitDeleted("s1");
+    }
+
+    @Test
+    void useKeepsASessionUntilItsAbsoluteTtl() throws InterruptedException {
+        SessionStore store = store(Duration.ofMillis(400), Duration.ofMillis(1200), Duration.ofHours(1));
+        long start = System.nanoTime();
+        store.put(session("s1"));
+
+        // Used every 100 ms, well within the idle TTL
+        while (elapsedMillis(start) < 800) {
+            assertThat(store.get("s1")).isNotNull();
+            Thread.sleep(100);
+        }
+        while (elapsedMillis(start) < 1500) {
+            store.get("s1");
+            Thread.sleep(100);
+        }
+
+        assertThat(store.get("s1")).isNull();
+    }
+
+    @Test
+    void completedSessionOnlyLivesForCompletedTtlHoweverOftenItIsRead() throws InterruptedException {
+        SessionStore store = store(Duration.ofHours(1), Duration.ofHours(1), Duration.ofMillis(300));
+        store.put(session("s1"));
+        store.update("s1", session -> {
+            session.setCompleted(true);
+            return session;
+        });
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(store.get("s1")).isNotNull();
+            Thread.sleep(50);
+        }
+        Thread.sleep(400);
+
+        assertThat(store.get("s1")).isNull();
+    }
+
+    @Test
+    void storedSessionIsLoadedOnceUnlessItOutlivedTheAbsoluteTtl() {
+        SessionStore store = store(Duration.ofMinutes(30), Duration.ofHours(8), Duration.ofMinutes(5));
+        persistence.stored.put("recent", session("recent", LocalDateTime.now().minusHours(1)));
+        persistence.stored.put("old", session("old", LocalDateTime.now().minusHours(9)));
+
+        assertThat(store.get("recent")).isNotNull();
+        assertThat(store.get("recent")).isNotNull();
+        assertThat(store.get("old")).isNull();
+
+        assertThat(persistence.finds.get()).isEqualTo(2);
+    }
+
+    @Test
+    void unknownIdsAreRememberedUntilTheSessionIsPut() {
+        SessionStore store = store(Duration.ofMinutes(30), Duration.ofHours(8), Duration.ofMinutes(5));
+
+        assertThat(store.get("s1")).isNull();
+        assertThat(store.get("s1")).isNull();
+        assertThat(persistence.finds.get()).isEqualTo(1);
+
+        store.put(session("s1"));
+        assertThat(store.get("s1")).isNotNull();
+    }
+
+    @Test
+    void changesAreSaved() {
+        SessionStore store = store(Duration.ofMinutes(30), Duration.ofHours(8), Duration.ofMinutes(5));
+        store.put(session("s1"));
+        store.update("s1", session -> {
+            session.setAttempts(2);
+            return session;
+        });
+
+        assertThat(persistence.saved).extracting(VQASessionDTO::getSessionId).containsExactly("s1", "s1");
+        assertThat(store.update("missing", session -> session)).isNull();
+    }
+
+    private SessionStore store(Duration idleTtl, Duration absoluteTtl, Duration completedTtl) {
+        return new SessionStore(new SimpleMeterRegistry(), persistence, 1000, idleTtl, absoluteTtl, completedTtl,
+                Duration.ofMinutes(1));
+    }
+
+    // Removal is reported from another thread
+    private void awaitDeleted(String sessionId) throws InterruptedException {
+        for (int i = 0; i < 50 && !persistence.deleted.contains(sessionId); i++) {
+            Thread.sleep(20);
+        }
+        assertThat(persistence.deleted).contains(sessionId);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    }
+
+    private static VQASessionDTO session(String id) {
+        return session(id, LocalDateTime.now());
+    }
+
+    private static VQASessionDTO session(String id, LocalDateTime startTime) {
+        return VQASessionDTO.builder()
+                .sessionId(id)
+                .questionId("q1")
+                .currentPathNodeURIs(new ArrayList<>())
+                .startTime(startTime)
+                .build();
+    }
+
+    /**
+     * Sessions are only found when a test stores them, saves and deletes are recorded
+     */
+    private static class StubPersistence implements VQAPersistence {
+        final Map<String, VQASessionDTO> stored = new ConcurrentHashMap<>();
+        final List<VQASessionDTO> saved = new CopyOnWriteArrayList<>();
+        final List<String> deleted = new CopyOnWriteArrayList<>();
+        final AtomicInteger finds = new AtomicInteger();
+
+        @Override
+        public void saveSession(VQASessionDTO session) {
+            saved.add(session);
+        }
+
+        @Override
+        public Optional<VQASessionDTO> findSession(String sessionId) {
+            finds.incrementAndGet();
+            return Optional.ofNullable(stored.get(sessionId));
+        }
+
+        @Override
+        public void deleteSession(String sessionId) {
+            deleted.add(sessionId);
+        }
+
+        @Override
+        public void deleteSessionsStartedBefore(LocalDateTime cutoff) {
+        }
+
+        @Override
+        public void saveDataset(VQADataset dataset) {
+        }
+
+        @Override
+        public void saveQuestions(VQADataset dataset, int firstPosition, List<VQAQuestion> questions) {
+        }
+
+        @Override
+        public Optional<VQADataset> findDataset(String datasetId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<String> findDatasetIds() {
+            return List.of();
+        }
+
+        @Override
+        public List<String> findDatasetIdsWithQuestion(String questionId) {
+            return List.of();
+        }
+
+        @Override
+        public void saveValidation(String sessionId, String questionId, PathValidationResult result) {
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * A batch is answered with one NDJSON line per answer path, in request order across chunks, and a summary line
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "vqa.batch.chunk-size=2")
+class BatchValidationTest {
+
+    private static final String DATASET = """
+            {"name": "batch", "questions": [
+              {"id": "q1", "question": "What is the cup used for?",
+               "expectedPath": ["http://example.org/cup", "http://example.org/drinking"]},
+              {"id": "q2", "question": "What does drinking need?",
+               "expectedPath": ["http://example.org/drinking", "http://example.org/water"]}
+            ]}
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String q1;
+    private String q2;
+
+    @BeforeEach
+    void uploadDataset() throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(RequestEntity.post(uri("/api/vqa/dataset/json"))
+                .contentType(MediaType.APPLICATION_JSON).body(DATASET), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // Every test uploads the dataset again, qualified ids address this upload's questions
+        String datasetId = objectMapper.readTree(response.getBody()).get("id").asText();
+        q1 = datasetId + "::q1";
+        q2 = datasetId + "::q2";
+    }
+
+    @Test
+    void everyPathGetsALineInRequestOrderFollowedByTheSummary() throws IOException {
+        String batch = String.join("\n",
+                path(q1, "\"http://example.org/cup\", \"http://example.org/drinking\""),
+                path(q2, "\"http://example.org/drinking\""),
+                path("unknown", "\"http://example.org/cup\""),
+                path(q2, "\"http://example.org/drinking\", \"http://example.org/water\""),
+                path(q1, "\"http://example.org/water\""));
+
+        List<JsonNode> lines = validate(batch);
+
+        assertThat(lines).hasSize(6);
+        assertThat(lines.subList(0, 5)).extracting(line -> line.get("index").asLong())
+                .containsExactly(0L, 1L, 2L, 3L, 4L);
+        assertThat(lines.get(0).get("questionId").asText()).isEqualTo(q1);
+        assertThat(lines.get(0).get("result").get("correct").asBoolean()).isTrue();
+        assertThat(lines.get(1).get("result").get("correct").asBoolean()).isFalse();
+        assertThat(lines.get(1).get("result").get("similarityScore").asDouble()).isEqualTo(0.5);
+        assertThat(lines.get(2).has("result")).isFalse();
+        assertThat(lines.get(2).get("error").asText()).isEqualTo("Question not found: unknown");
+        assertThat(lines.get(3).get("result").get("correct").asBoolean()).isTrue();
+        assertThat(lines.get(4).get("result").get("similarityScore").asDouble()).isZero();
+
+        JsonNode summary = lines.get(5);
+        assertThat(summary.has("index")).isFalse();
+        assertThat(summary.get("total").asLong()).isEqualTo(5);
+        assertThat(summary.get("evaluated").asLong()).isEqualTo(4);
+        assertThat(summary.get("failed").asLong()).isEqualTo(1);
+        assertThat(summary.get("correct").asLong()).isEqualTo(2);
+        assertThat(summary.get("accuracy").asDouble()).isEqualTo(0.5);
+        assertThat(summary.get("meanSimilarity").asDouble()).isCloseTo((1 + 0.5 + 1 + 0) / 4, within(1e-9));
+        assertThat(summary.has("error")).isFalse();
+    }
+
+    @Test
+    void aJsonArrayIsReadLikeNdjson() throws IOException {
+        String batch = "[" + path(q1, "\"http://example.org/cup\", \"http://example.org/drinking\"") + ", "
+                + path(q2, "\"http://example.org/water\"") + "]";
+
+        List<JsonNode> lines = validate(batch);
+
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(2).get("total").asLong()).isEqualTo(2);
+        assertThat(lines.get(2).get("correct").asLong()).isEqualTo(1);
+    }
+
+    @Test
+    void anUnreadablePathEndsTheStreamWithTheResultsSoFar() throws IOException {
+        String batch = String.join("\n",
+                path(q1, "\"http://example.org/cup\", \"http://example.org/drinking\""),
+                "{\"questionId\": \"" + q2 + "\", \"nodeURIs\": {\"not\": \"a list\"}}",
+                path(q2, "\"http://example.org/water\""));
+
+        List<JsonNode> lines = validate(batch);
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(0).get("result").get("correct").asBoolean()).isTrue();
+        assertThat(lines.get(1).get("total").asLong()).isEqualTo(1);
+        assertThat(lines.get(1).get("error").asText()).startsWith("Invalid answer path at index 1");
+    }
+
+    @Test
+    void anEmptyBatchOnlyHasTheSummary() throws IOException {
+        List<JsonNode> lines = validate("");
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0).get("total").asLong()).isZero();
+        assertThat(lines.get(0).get("accuracy").asDouble()).isZero();
+    }
+
+    private List<JsonNode> validate(String batch) throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(RequestEntity.post(uri("/api/vqa/validate/batch"))
+                .contentType(MediaType.APPLICATION_JSON).body(batch), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/x-ndjson"));
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static String path(String questionId, String nodes) {
+        return "{\"questionId\": \"" + questionId + "\", \"nodeURIs\": [" + nodes + "]}";
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
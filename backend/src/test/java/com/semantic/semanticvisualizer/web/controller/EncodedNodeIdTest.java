@@ -0,0 +1,72 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.semantic.semanticvisualizer.model.dto.NodeDetailsDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Node ids are URIs, sent URL-encoded as a path variable. An encoded slash has to reach the controller
+ * as part of the id instead of being rejected by Tomcat or splitting the path.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class EncodedNodeIdTest {
+
+    private static final String ONTOLOGY = """
+            @prefix ex: <http://example.org/> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            ex:cup ex:usedFor ex:drinking .
+            ex:cup rdfs:label "Cup" .
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void nodeDetailsAcceptsEncodedSlashes() {
+        ResponseEntity<NodeDetailsDTO> response = nodeDetails("http%3A%2F%2Fexample.org%2Fcup");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().getId()).isEqualTo("http://example.org/cup");
+        assertThat(response.getBody().getOutgoingConnections())
+                .anyMatch(related -> related.getNodeId().equals("http://example.org/drinking"));
+    }
+
+    @Test
+    void encodedSlashDoesNotSplitThePath() {
+        // Decoded before matching, this would be /node-details/http:/example.org/cup and match no handler
+        ResponseEntity<NodeDetailsDTO> response = nodeDetails("http:%2F%2Fexample.org%2Fcup");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().getId()).isEqualTo("http://example.org/cup");
+    }
+
+    @Test
+    void encodedSlashIsNoPathSeparatorElsewhere() {
+        URI uri = URI.create("http://localhost:" + port + "/api/ontology%2Fclick-history");
+        ResponseEntity<String> response = restTemplate.exchange(RequestEntity.get(uri).build(), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private ResponseEntity<NodeDetailsDTO> nodeDetails(String encodedNodeId) {
+        // A URI rather than a template, so the id is sent exactly as encoded here
+        URI uri = URI.create("http://localhost:" + port + "/api/ontology/node-details/" + encodedNodeId);
+        return restTemplate.exchange(RequestEntity.post(uri).contentType(MediaType.TEXT_PLAIN).body(ONTOLOGY),
+                NodeDetailsDTO.class);
+    }
+}
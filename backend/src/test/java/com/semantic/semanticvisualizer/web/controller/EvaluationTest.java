@@ -0,0 +1,176 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.model.vqa.EvaluationJobDTO;
+import com.semantic.semanticvisualizer.service.VQAService;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.EvaluationEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * A predictions file is scored by a background job whose report breaks the scores down by difficulty and relation
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "vqa.evaluation.max-file-bytes=2048")
+class EvaluationTest {
+
+    private static final String DATASET = """
+            {"name": "evaluation", "questions": [
+              {"id": "q1", "difficulty": "easy", "answer": "drinking",
+               "answerTriplets": [{"subject": {"uri": "http://example.org/cup"},
+                                   "relation": {"label": "UsedFor"},
+                                   "object": {"uri": "http://example.org/drinking"}}]},
+              {"id": "q2", "difficulty": "hard",
+               "expectedPath": ["http://example.org/drinking", "http://example.org/water"]},
+              {"id": "q3", "difficulty": "hard",
+               "expectedPath": ["http://example.org/water", "http://example.org/glass"]},
+              {"id": "q4", "question": "No path to score against"}
+            ]}
+            """;
+
+    private static final String PREDICTIONS = """
+            {"questionId": "q1", "nodeURIs": ["http://example.org/cup", "http://example.org/drinking"], "userAnswer": " Drinking "}
+            {"questionId": "q2", "nodeURIs": ["http://example.org/water", "http://example.org/drinking"]}
+            {"questionId": "nope", "nodeURIs": ["http://example.org/cup"]}
+            {"questionId": "q4", "nodeURIs": ["http://example.org/cup"]}
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private VQAService vqaService;
+
+    @Autowired
+    @Qualifier("vqaBatchPool")
+    private ForkJoinPool pool;
+
+    private String datasetId;
+
+    @BeforeEach
+    void uploadDataset() throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(RequestEntity.post(uri("/api/vqa/dataset/json"))
+                .contentType(MediaType.APPLICATION_JSON).body(DATASET), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        datasetId = objectMapper.readTree(response.getBody()).get("id").asText();
+    }
+
+    @Test
+    void theReportScoresEveryPredictionByDifficultyAndRelation() throws Exception {
+        ResponseEntity<String> started = restTemplate.exchange(
+                RequestEntity.post(uri("/api/vqa/" + datasetId + "/evaluations"))
+                        .contentType(MediaType.APPLICATION_JSON).body(PREDICTIONS), String.class);
+        assertThat(started.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        String jobId = objectMapper.readTree(started.getBody()).get("id").asText();
+        assertThat(started.getHeaders().getFirst(HttpHeaders.LOCATION)).isEqualTo("/api/vqa/evaluations/" + jobId);
+
+        JsonNode job = awaitJob(jobId);
+
+        assertThat(job.get("status").asText()).isEqualTo(EvaluationJobDTO.STATUS_COMPLETED);
+        assertThat(job.get("processed").asLong()).isEqualTo(4);
+        assertThat(job.get("progress").asDouble()).isEqualTo(1.0);
+        JsonNode report = job.get("report");
+        assertThat(report.get("predictions").asLong()).isEqualTo(4);
+        assertThat(report.get("unknownQuestions").asLong()).isEqualTo(1);
+        assertThat(report.get("invalid").asLong()).isEqualTo(1);
+        assertThat(report.get("missingQuestions").asLong()).isEqualTo(2);
+
+        JsonNode overall = report.get("overall");
+        assertThat(overall.get("count").asLong()).isEqualTo(2);
+        assertThat(overall.get("exactMatch").asDouble()).isEqualTo(0.5);
+        assertThat(overall.get("setMatch").asDouble()).isEqualTo(1.0);
+        assertThat(overall.get("jaccard").asDouble()).isEqualTo(1.0);
+        assertThat(overall.get("f1").asDouble()).isEqualTo(1.0);
+        assertThat(overall.get("orderScore").asDouble()).isEqualTo(0.75);
+        assertThat(overall.get("answered").asLong()).isEqualTo(1);
+        assertThat(overall.get("answerAccuracy").asDouble()).isEqualTo(1.0);
+
+        assertThat(report.get("byDifficulty").get("easy").get("exactMatch").asDouble()).isEqualTo(1.0);
+        assertThat(report.get("byDifficulty").get("hard").get("exactMatch").asDouble()).isZero();
+        assertThat(report.get("byDifficulty").get("hard").has("answerAccuracy")).isFalse();
+        assertThat(report.get("byRelation").get("UsedFor").get("count").asLong()).isEqualTo(1);
+        assertThat(report.get("byRelation").get("(none)").get("orderScore").asDouble()).isEqualTo(0.5);
+    }
+
+    @Test
+    void aPredictionsFileOverTheMaximumSizeIsABadRequest() {
+        String tooLarge = PREDICTIONS.repeat(2048 / PREDICTIONS.length() + 1);
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                RequestEntity.post(uri("/api/vqa/" + datasetId + "/evaluations"))
+                        .contentType(MediaType.APPLICATION_JSON).body(tooLarge), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).contains("2048 bytes");
+    }
+
+    @Test
+    void anUnknownDatasetOrJobIsABadRequest() {
+        ResponseEntity<String> dataset = restTemplate.exchange(
+                RequestEntity.post(uri("/api/vqa/no-such-dataset/evaluations"))
+                        .contentType(MediaType.APPLICATION_JSON).body(PREDICTIONS), String.class);
+        ResponseEntity<String> job = restTemplate.getForEntity(uri("/api/vqa/evaluations/no-such-job"), String.class);
+
+        assertThat(dataset.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(job.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void aRejectedJobIsPassedOnToTheCaller() {
+        EvaluationEngine full = new EvaluationEngine(vqaService, objectMapper,
+                command -> {
+                    throw new RejectedExecutionException("full");
+                },
+                pool, 1024, 2048, 100, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> full.submit(datasetId,
+                new ByteArrayInputStream(PREDICTIONS.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private JsonNode awaitJob(String jobId) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (true) {
+            JsonNode job = objectMapper.readTree(
+                    restTemplate.getForObject(uri("/api/vqa/evaluations/" + jobId), String.class));
+            String status = job.get("status").asText();
+            if (status.equals(EvaluationJobDTO.STATUS_COMPLETED) || status.equals(EvaluationJobDTO.STATUS_FAILED)
+                    || System.nanoTime() > deadline) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
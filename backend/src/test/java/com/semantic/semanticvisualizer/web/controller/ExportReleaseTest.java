@@ -0,0 +1,63 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExportReleaseTest {
+
+    // The interceptor is called for both async stages of the request
+    private static final DeferredResult<Object> PREPARING = new DeferredResult<>();
+    private static final Callable<Object> STREAMING = () -> null;
+
+    private final AtomicInteger releases = new AtomicInteger();
+    private final ExportRelease release = new ExportRelease();
+
+    @Test
+    void preparedExportIsClosedWhenTheRequestTimesOut() {
+        release.track(export());
+
+        release.handleTimeout(null, PREPARING);
+
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    void exportPreparedAfterATimeoutIsClosedAtOnce() {
+        release.handleTimeout(null, PREPARING);
+        assertThat(releases.get()).isZero();
+
+        release.track(export());
+
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    void exportIsClosedWhenPreparingFails() {
+        release.track(export());
+
+        release.handleError(null, PREPARING, new IllegalStateException("Client went away"));
+
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    @Test
+    void exportIsClosedOnceStreamingCompletes() {
+        release.track(export());
+        assertThat(releases.get()).isZero();
+
+        release.afterCompletion(null, STREAMING);
+
+        assertThat(releases.get()).isEqualTo(1);
+    }
+
+    private OntologyExport export() {
+        return new OntologyExport("turtle", "text/turtle", "ontology.ttl", out -> {
+        }, releases::incrementAndGet);
+    }
+}
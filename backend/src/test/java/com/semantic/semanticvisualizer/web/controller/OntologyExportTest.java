@@ -0,0 +1,96 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.model.export.OntologyExport;
+import com.semantic.semanticvisualizer.service.OntologyService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * An export holds an admission permit from the parse until the RDF is written, or until it is known it never will be
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class OntologyExportTest {
+
+    private static final String ONTOLOGY = """
+            @prefix ex: <http://example.org/> .
+            @prefix rdfs: <http://www.w3.org/2000/01/rdf-schema#> .
+            ex:cup ex:usedFor ex:drinking .
+            ex:cup rdfs:label "Cup" .
+            ex:drinking ex:needs ex:water .
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private OntologyService ontologyService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void exportStreamsTheOntologyAndReleasesItsPermit() {
+        URI uri = URI.create("http://localhost:" + port + "/api/ontology/export?exportFormat=ntriples");
+        ResponseEntity<String> response = restTemplate.exchange(
+                RequestEntity.post(uri).contentType(MediaType.TEXT_PLAIN).body(ONTOLOGY), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.parseMediaType("application/n-triples"));
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION)).contains("ontology.nt");
+        Model exported = ModelFactory.createDefaultModel().read(new StringReader(response.getBody()), null, "N-TRIPLES");
+        assertThat(exported.isIsomorphicWith(ModelFactory.createDefaultModel()
+                .read(new StringReader(ONTOLOGY), null, "TTL"))).isTrue();
+        assertThat(activeParses()).isZero();
+    }
+
+    @Test
+    void unsupportedFormatIsABadRequestAndReleasesItsPermit() {
+        URI uri = URI.create("http://localhost:" + port + "/api/ontology/export?exportFormat=csv");
+        ResponseEntity<String> response = restTemplate.exchange(
+                RequestEntity.post(uri).contentType(MediaType.TEXT_PLAIN).body(ONTOLOGY), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(activeParses()).isZero();
+    }
+
+    @Test
+    void permitIsHeldUntilTheExportIsWrittenOrClosed() throws IOException {
+        OntologyExport written = ontologyService.exportOntology(ONTOLOGY, "turtle", 500, GraphBuildOptions.defaults(), "turtle");
+        OntologyExport abandoned = ontologyService.exportOntology(ONTOLOGY, "turtle", 500, GraphBuildOptions.defaults(), "turtle");
+        assertThat(activeParses()).isEqualTo(2);
+
+        written.writeTo(new ByteArrayOutputStream());
+        assertThat(activeParses()).isEqualTo(1);
+
+        abandoned.close();
+        abandoned.close();
+        written.close();
+        assertThat(activeParses()).isZero();
+    }
+
+    private double activeParses() {
+        return registry.get("ontology.parse.admission.active").gauge().value();
+    }
+}
@@ -0,0 +1,55 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * With no parse slots every parse times out waiting for admission, cheap endpoints are not affected
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "ontology.parse.max-concurrent=0",
+        "ontology.parse.queue-timeout-ms=50",
+        "ontology.parse.retry-after-seconds=7"})
+class ParseAdmissionTest {
+
+    private static final String ONTOLOGY = """
+            @prefix ex: <http://example.org/> .
+            ex:cup ex:usedFor ex:drinking .
+            """;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void parseThatIsNotAdmittedInTimeIsAnswered503WithRetryAfter() {
+        for (String endpoint : new String[]{"/parse", "/statistics", "/export"}) {
+            ResponseEntity<String> response = restTemplate.postForEntity("/api/ontology" + endpoint, text(ONTOLOGY), String.class);
+
+            assertThat(response.getStatusCode()).as(endpoint).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).as(endpoint).isEqualTo("7");
+        }
+    }
+
+    @Test
+    void cheapEndpointsDoNotWaitForAdmission() {
+        ResponseEntity<String> response = restTemplate.postForEntity(
+                "/api/ontology/node-click?nodeId=n1&nodeName=Cup", null, String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private static HttpEntity<String> text(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.TEXT_PLAIN);
+        return new HttpEntity<>(body, headers);
+    }
+}
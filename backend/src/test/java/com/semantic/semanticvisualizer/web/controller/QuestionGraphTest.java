@@ -0,0 +1,111 @@
+package com.semantic.semanticvisualizer.web.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A question's graph is its answer nodes and their neighbourhood in the dataset graph, not the whole graph
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class QuestionGraphTest {
+
+    private static final String DATASET = """
+            {"name": "subgraph", "questions": [
+              {"id": "q1", "answerTriplets": [{"subject": {"uri": "http://ex/cup"}, "relation": {"label": "UsedFor"},
+                                               "object": {"uri": "http://ex/drinking"}}]},
+              {"id": "q2", "expectedPath": ["http://ex/drinking", "http://ex/water", "http://ex/river"]},
+              {"id": "q3", "expectedPath": ["http://ex/cup", "http://ex/glass"]}
+            ]}
+            """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String q1;
+
+    @BeforeEach
+    void uploadDataset() throws IOException {
+        ResponseEntity<String> response = restTemplate.exchange(RequestEntity.post(uri("/api/vqa/dataset/json"))
+                .contentType(MediaType.APPLICATION_JSON).body(DATASET), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        q1 = objectMapper.readTree(response.getBody()).get("id").asText() + "::q1";
+    }
+
+    @Test
+    void hopsWidenTheGraphAroundTheAnswerNodes() throws IOException {
+        JsonNode answerOnly = graph("?hops=0");
+        JsonNode oneHop = graph("");
+        JsonNode twoHops = graph("?hops=2");
+
+        assertThat(ids(answerOnly.get("answerNodes"))).containsExactly("http://ex/cup", "http://ex/drinking");
+        assertThat(ids(answerOnly.get("nodes"))).containsExactly("http://ex/cup", "http://ex/drinking");
+        assertThat(answerOnly.get("edges")).hasSize(1);
+        assertThat(ids(oneHop.get("nodes")))
+                .containsExactlyInAnyOrder("http://ex/cup", "http://ex/drinking", "http://ex/glass", "http://ex/water");
+        assertThat(ids(twoHops.get("nodes"))).contains("http://ex/river").hasSize(5);
+        assertThat(twoHops.get("truncated").asBoolean()).isFalse();
+        assertThat(twoHops.get("hops").asInt()).isEqualTo(2);
+    }
+
+    @Test
+    void maxNodesTruncatesTheGraph() throws IOException {
+        JsonNode limited = graph("?hops=2&maxNodes=3");
+
+        assertThat(limited.get("nodes")).hasSize(3);
+        assertThat(limited.get("truncated").asBoolean()).isTrue();
+    }
+
+    @Test
+    void invalidParametersOrQuestionsAreABadRequest() {
+        assertThat(status(q1, "?hops=-1")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(status(q1, "?maxNodes=0")).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(status("no-such-question", "")).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private JsonNode graph(String query) throws IOException {
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                uri("/api/vqa/question/" + q1 + "/graph" + query), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return objectMapper.readTree(response.getBody());
+    }
+
+    private HttpStatus status(String questionId, String query) {
+        return HttpStatus.valueOf(restTemplate.getForEntity(
+                uri("/api/vqa/question/" + questionId + "/graph" + query), String.class).getStatusCode().value());
+    }
+
+    private static List<String> ids(JsonNode array) {
+        List<String> ids = new ArrayList<>();
+        for (JsonNode element : array) {
+            ids.add(element.isTextual() ? element.asText() : element.get("id").asText());
+        }
+        return ids;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,64 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.monitoring.PipelineMetrics;
+import com.semantic.semanticvisualizer.service.impl.NodeHistoryImplementation;
+import com.semantic.semanticvisualizer.service.impl.VQAServiceImplementation;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyGraphBuilder;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyModelCache;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyModelLoader;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyNodeDetails;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologySampler;
+import com.semantic.semanticvisualizer.service.impl.persistence.VQAPersistence;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.DistanceFieldCache;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.OntologyLinker;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.SessionStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * Wires the pipeline components by hand, the way Spring would, without starting a context
+ */
+final class Components {
+
+    private static final MeterRegistry REGISTRY = new SimpleMeterRegistry();
+    private static final PipelineMetrics METRICS = new PipelineMetrics(REGISTRY);
+
+    private Components() {
+    }
+
+    // Nothing is preloaded, so every call really parses
+    static OntologyModelLoader modelLoader() {
+        return new OntologyModelLoader(METRICS, new OntologyModelCache(REGISTRY));
+    }
+
+    static OntologyGraphBuilder graphBuilder() {
+        return new OntologyGraphBuilder(METRICS);
+    }
+
+    static OntologySampler sampler() {
+        return new OntologySampler(METRICS);
+    }
+
+    static OntologyNodeDetails nodeDetails() {
+        return new OntologyNodeDetails(METRICS, REGISTRY);
+    }
+
+    static NodeHistoryImplementation nodeHistory() {
+        return new NodeHistoryImplementation();
+    }
+
+    // Without a database: datasets and sessions are kept in memory only. No ontologies to link to.
+    static VQAServiceImplementation vqaService() {
+        return new VQAServiceImplementation(new ObjectMapper().findAndRegisterModules(), sessionStore(),
+                VQAPersistence.NONE, new OntologyLinker(new OntologyModelCache(REGISTRY)),
+                new DistanceFieldCache(REGISTRY, 64L * 1024 * 1024));
+    }
+
+    static SessionStore sessionStore() {
+        return new SessionStore(REGISTRY, VQAPersistence.NONE, 100_000, Duration.ofMinutes(30), Duration.ofHours(8), Duration.ofMinutes(5),
+                Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,41 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.semantic.semanticvisualizer.service.impl.vqaHelpers.FvqaDatasetReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FvqaDatasetReader - streaming an uploaded FVQA dataset into questions.
+ * Runs the reader on its own, registering the dataset would keep every iteration's questions alive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatasetIngestBenchmark {
+
+    @Param({"1000", "30000"})
+    public int questions;
+
+    private FvqaDatasetReader reader;
+    private byte[] content;
+
+    @Setup
+    public void setUp() {
+        reader = new FvqaDatasetReader(new ObjectMapper().findAndRegisterModules());
+        content = SyntheticData.vqaDatasetJson(20_000, SyntheticData.Skew.POWER_LAW, questions, 4)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public FvqaDatasetReader.Result ingest() throws IOException {
+        return reader.read(new ByteArrayInputStream(content));
+    }
+}
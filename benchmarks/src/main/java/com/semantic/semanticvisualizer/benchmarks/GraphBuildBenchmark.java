@@ -0,0 +1,49 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.model.dto.GraphBuildOptions;
+import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyGraphBuilder;
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OntologyGraphBuilder.buildGraphFromModel - turning a parsed model into the graph DTO
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBuildBenchmark {
+
+    @Param({"200", "2000", "20000"})
+    public int nodes;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public SyntheticData.Skew skew;
+
+    @Param({"false", "true"})
+    public boolean foldLiterals;
+
+    private OntologyGraphBuilder builder;
+    private Model model;
+    private GraphBuildOptions options;
+
+    @Setup
+    public void setUp() {
+        builder = Components.graphBuilder();
+        model = SyntheticData.ontology(nodes, skew);
+        options = GraphBuildOptions.builder()
+                .foldLiterals(foldLiterals)
+                .collapseBlankNodes(foldLiterals)
+                .build();
+    }
+
+    @Benchmark
+    public OntologyGraphDTO buildGraph() {
+        return builder.buildGraphFromModel(model, 500, options);
+    }
+}
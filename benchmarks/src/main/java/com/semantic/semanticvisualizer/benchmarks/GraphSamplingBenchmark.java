@@ -0,0 +1,48 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.model.dto.OntologyGraphDTO;
+import com.semantic.semanticvisualizer.model.dto.OntologyStatsDTO;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologySampler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OntologySampler.limitGraph and OntologyGraphDTO.calculateStatistics on an already built graph
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphSamplingBenchmark {
+
+    @Param({"2000", "20000"})
+    public int nodes;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public SyntheticData.Skew skew;
+
+    @Param({"500", "5000"})
+    public int maxNodes;
+
+    private OntologySampler sampler;
+    private OntologyGraphDTO graph;
+
+    @Setup
+    public void setUp() {
+        sampler = Components.sampler();
+        graph = Components.graphBuilder().buildGraphFromModel(SyntheticData.ontology(nodes, skew), maxNodes);
+    }
+
+    @Benchmark
+    public OntologyGraphDTO limitGraph() {
+        return sampler.limitGraph(graph, maxNodes);
+    }
+
+    @Benchmark
+    public OntologyStatsDTO calculateStatistics() {
+        return graph.calculateStatistics();
+    }
+}
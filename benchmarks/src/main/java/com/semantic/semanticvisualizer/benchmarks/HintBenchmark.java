@@ -0,0 +1,47 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.model.vqa.HintResult;
+import com.semantic.semanticvisualizer.model.vqa.VQADataset;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.service.impl.VQAServiceImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VQAServiceImplementation.getHint against a loaded dataset, from a path that has wandered off
+ * the answer: its last node is a random entity of the dataset graph.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HintBenchmark {
+
+    @Param({"100", "10000"})
+    public int questions;
+
+    private VQAServiceImplementation vqaService;
+    private String questionId;
+    private List<String> currentPath;
+
+    @Setup
+    public void setUp() {
+        vqaService = Components.vqaService();
+        VQADataset dataset = vqaService.loadVQADatasetFromJson(
+                SyntheticData.vqaDatasetJson(20_000, SyntheticData.Skew.POWER_LAW, questions, 4));
+
+        VQAQuestion question = dataset.getQuestions().getLast();
+        VQAQuestion elsewhere = dataset.getQuestions().get(dataset.getQuestions().size() / 2);
+        questionId = question.getId();
+        currentPath = List.of(elsewhere.getExpectedPath().getLast());
+    }
+
+    @Benchmark
+    public HintResult getHint() {
+        return vqaService.getHint(questionId, currentPath);
+    }
+}
@@ -0,0 +1,49 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.model.dto.NodeDetailsDTO;
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyNodeDetails;
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OntologyNodeDetails.extractDetails for a hub node (entity0 under POWER_LAW) and a tail node
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeDetailsBenchmark {
+
+    @Param({"2000", "20000"})
+    public int nodes;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public SyntheticData.Skew skew;
+
+    private OntologyNodeDetails nodeDetails;
+    private Model model;
+    private String hubNode;
+    private String tailNode;
+
+    @Setup
+    public void setUp() {
+        nodeDetails = Components.nodeDetails();
+        model = SyntheticData.ontology(nodes, skew);
+        hubNode = SyntheticData.entityUri(0);
+        tailNode = SyntheticData.entityUri(nodes - 1);
+    }
+
+    @Benchmark
+    public NodeDetailsDTO hubNode() {
+        return nodeDetails.extractDetails(model, hubNode);
+    }
+
+    @Benchmark
+    public NodeDetailsDTO tailNode() {
+        return nodeDetails.extractDetails(model, tailNode);
+    }
+}
@@ -0,0 +1,43 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.service.impl.NodeHistoryImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NodeHistoryImplementation.addNodeClick - a mix of repeated and new clicks on a full history
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeHistoryBenchmark {
+
+    // Distinct nodes clicked - below the history size every click is a repeat, above it most are new
+    @Param({"20", "1000"})
+    public int distinctNodes;
+
+    private NodeHistoryImplementation history;
+    private String[] nodeIds;
+    private int next;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        history = Components.nodeHistory();
+        nodeIds = new String[distinctNodes];
+        for (int i = 0; i < distinctNodes; i++) {
+            nodeIds[i] = SyntheticData.entityUri(i);
+        }
+        next = 0;
+    }
+
+    @Benchmark
+    public void addNodeClick() {
+        String nodeId = nodeIds[next];
+        next = (next + 7) % distinctNodes;
+        history.addNodeClick(nodeId, nodeId, 0.5);
+    }
+}
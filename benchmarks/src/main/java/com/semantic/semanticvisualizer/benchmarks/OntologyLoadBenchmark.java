@@ -0,0 +1,60 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.service.impl.ontologyHelpers.OntologyModelLoader;
+import org.apache.jena.rdf.model.Model;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OntologyModelLoader.loadModel - parsing the request body into a Jena model,
+ * and answering it with the preloaded model when the content is that of a preloaded ontology
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OntologyLoadBenchmark {
+
+    @Param({"200", "2000", "20000"})
+    public int nodes;
+
+    @Param({"turtle", "ntriples", "rdfxml", "jsonld"})
+    public String format;
+
+    @Param({"UNIFORM", "POWER_LAW"})
+    public SyntheticData.Skew skew;
+
+    private OntologyModelLoader loader;
+    private OntologyModelLoader preloadedLoader;
+    private String content;
+
+    @Setup
+    public void setUp() throws IOException {
+        loader = Components.modelLoader();
+        preloadedLoader = Components.modelLoader();
+        content = SyntheticData.ontologyContent(nodes, skew, format);
+        Path file = Files.createTempFile("ontology", "." + format);
+        try {
+            Files.writeString(file, content);
+            preloadedLoader.preloadModel(file, format);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Benchmark
+    public Model loadModel() {
+        return loader.loadModel(content, format);
+    }
+
+    @Benchmark
+    public Model loadModelPreloaded() {
+        return preloadedLoader.loadModel(content, format);
+    }
+}
@@ -0,0 +1,61 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.model.vqa.PathValidationResult;
+import com.semantic.semanticvisualizer.model.vqa.UserAnswerPath;
+import com.semantic.semanticvisualizer.model.vqa.VQADataset;
+import com.semantic.semanticvisualizer.model.vqa.VQAQuestion;
+import com.semantic.semanticvisualizer.service.impl.VQAServiceImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VQAServiceImplementation.validateUserPath against a loaded dataset.
+ * The user path shares half of its nodes with the expected path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathValidationBenchmark {
+
+    @Param({"100", "10000"})
+    public int questions;
+
+    @Param({"2", "8"})
+    public int pathLength;
+
+    private VQAServiceImplementation vqaService;
+    private String sessionId;
+    private UserAnswerPath userPath;
+
+    @Setup
+    public void setUp() {
+        vqaService = Components.vqaService();
+        VQADataset dataset = vqaService.loadVQADatasetFromJson(
+                SyntheticData.vqaDatasetJson(20_000, SyntheticData.Skew.POWER_LAW, questions, pathLength));
+
+        // The last question is the worst case for a lookup that scans the datasets
+        VQAQuestion question = dataset.getQuestions().getLast();
+        sessionId = vqaService.startVQASession(question.getId()).getSessionId();
+
+        List<String> nodes = new ArrayList<>(question.getExpectedPath().subList(0, pathLength / 2));
+        for (int i = nodes.size(); i < pathLength; i++) {
+            nodes.add(SyntheticData.entityUri(-i - 1));
+        }
+        userPath = UserAnswerPath.builder()
+                .sessionId(sessionId)
+                .questionId(question.getId())
+                .nodeURIs(nodes)
+                .build();
+    }
+
+    @Benchmark
+    public PathValidationResult validateUserPath() {
+        return vqaService.validateUserPath(sessionId, userPath);
+    }
+}
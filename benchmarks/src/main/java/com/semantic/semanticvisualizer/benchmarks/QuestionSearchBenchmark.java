@@ -0,0 +1,42 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.model.vqa.QuestionSearchResponse;
+import com.semantic.semanticvisualizer.service.impl.VQAServiceImplementation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VQAServiceImplementation.searchQuestions across every loaded dataset: four datasets of the given size,
+ * a plain word query matching every question and a phrase query matching few.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionSearchBenchmark {
+
+    @Param({"1000", "25000"})
+    public int questions;
+
+    @Param({"reached in 3 steps", "\"from entity 481\""})
+    public String query;
+
+    private VQAServiceImplementation vqaService;
+
+    @Setup
+    public void setUp() {
+        vqaService = Components.vqaService();
+        for (int i = 0; i < 4; i++) {
+            vqaService.loadVQADatasetFromJson(
+                    SyntheticData.vqaDatasetJson(20_000, SyntheticData.Skew.POWER_LAW, questions, 4));
+        }
+    }
+
+    @Benchmark
+    public QuestionSearchResponse search() {
+        return vqaService.searchQuestions(query, null, 20);
+    }
+}
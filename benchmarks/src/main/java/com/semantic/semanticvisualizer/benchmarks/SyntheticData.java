@@ -0,0 +1,69 @@
+package com.semantic.semanticvisualizer.benchmarks;
+
+import com.semantic.semanticvisualizer.datagen.OntologyGenerator;
+import com.semantic.semanticvisualizer.datagen.OntologySpec;
+import com.semantic.semanticvisualizer.datagen.RdfOutput;
+import com.semantic.semanticvisualizer.datagen.SyntheticGraph;
+import com.semantic.semanticvisualizer.datagen.VqaDatasetGenerator;
+import com.semantic.semanticvisualizer.datagen.VqaSpec;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.riot.system.StreamRDFLib;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Benchmark inputs from the datagen module. Generation is seeded, so the same parameters
+ * always produce the same ontology and dataset and results of different commits can be compared.
+ */
+public final class SyntheticData {
+
+    public enum Skew {
+        UNIFORM(0.0), POWER_LAW(1.2);
+
+        private final double degreeExponent;
+
+        Skew(double degreeExponent) {
+            this.degreeExponent = degreeExponent;
+        }
+    }
+
+    private SyntheticData() {
+    }
+
+    public static OntologySpec spec(int nodes, Skew skew) {
+        return OntologySpec.of(nodes).withDegreeExponent(skew.degreeExponent);
+    }
+
+    public static Model ontology(int nodes, Skew skew) {
+        Model model = ModelFactory.createDefaultModel();
+        new OntologyGenerator(spec(nodes, skew)).generate(StreamRDFLib.graph(model.getGraph()));
+        return model;
+    }
+
+    public static String ontologyContent(int nodes, Skew skew, String format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new OntologyGenerator(spec(nodes, skew)).generate(RdfOutput.open(out, format));
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * FVQA dataset whose paths walk over the edges of {@link #ontology(int, Skew)}
+     */
+    public static String vqaDatasetJson(int nodes, Skew skew, int questions, int pathLength) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            new VqaDatasetGenerator(spec(nodes, skew), VqaSpec.of(questions, pathLength)).generate(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    public static String entityUri(int index) {
+        return SyntheticGraph.entityUri(index);
+    }
+}
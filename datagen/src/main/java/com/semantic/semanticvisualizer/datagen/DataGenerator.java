@@ -0,0 +1,115 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command line entry point. Writes an ontology and a matching FVQA dataset to disk:
+ * <pre>
+ * java -jar semantic-visualizer-datagen-0.0.1-SNAPSHOT-cli.jar --nodes 1000000 --format ntriples \
+ *      --degree-exponent 1.5 --literal-ratio 0.3 --class-depth 5 --blank-density 0.1 \
+ *      --questions 50000 --min-path 2 --max-path 6 --out target/data
+ * </pre>
+ * Produces target/data/ontology.nt and target/data/fvqa.json. Use --questions 0 to skip the dataset.
+ */
+public final class DataGenerator {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private DataGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parse(args);
+        if (options.containsKey("help")) {
+            printUsage();
+            return;
+        }
+
+        OntologySpec defaults = OntologySpec.of(intOption(options, "nodes", 10_000));
+        OntologySpec ontology = new OntologySpec(
+                defaults.nodes(),
+                intOption(options, "avg-degree", defaults.avgDegree()),
+                doubleOption(options, "degree-exponent", defaults.degreeExponent()),
+                doubleOption(options, "literal-ratio", defaults.literalRatio()),
+                intOption(options, "class-depth", defaults.classDepth()),
+                doubleOption(options, "blank-density", defaults.blankNodeDensity()),
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(OntologySpec.DEFAULT_SEED))));
+        String format = options.getOrDefault("format", "turtle");
+        Path outDir = Path.of(options.getOrDefault("out", "target/data"));
+        Files.createDirectories(outDir);
+
+        Path ontologyFile = outDir.resolve("ontology." + RdfOutput.fileExtension(format));
+        long start = System.nanoTime();
+        long triples;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(ontologyFile), BUFFER_SIZE)) {
+            triples = new OntologyGenerator(ontology).generate(RdfOutput.open(out, format));
+        }
+        report(ontologyFile, triples + " statements", start);
+
+        int questions = intOption(options, "questions", 1_000);
+        if (questions > 0) {
+            VqaSpec vqa = new VqaSpec(questions,
+                    intOption(options, "min-path", 2),
+                    intOption(options, "max-path", 4),
+                    ontology.seed());
+            Path datasetFile = outDir.resolve("fvqa.json");
+            start = System.nanoTime();
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(datasetFile), BUFFER_SIZE)) {
+                new VqaDatasetGenerator(ontology, vqa).generate(out);
+            }
+            report(datasetFile, questions + " questions", start);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String key = args[i].substring(2);
+            if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                options.put(key, args[++i]);
+            } else {
+                options.put(key, "true");
+            }
+        }
+        return options;
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        return options.containsKey(key) ? Integer.parseInt(options.get(key)) : defaultValue;
+    }
+
+    private static double doubleOption(Map<String, String> options, String key, double defaultValue) {
+        return options.containsKey(key) ? Double.parseDouble(options.get(key)) : defaultValue;
+    }
+
+    private static void report(Path file, String what, long startNanos) throws IOException {
+        System.out.printf("%s: %s, %.1f MB in %.1f s%n", file, what,
+                Files.size(file) / (1024.0 * 1024.0), (System.nanoTime() - startNanos) / 1e9);
+    }
+
+    private static void printUsage() {
+        System.out.println("""
+                Options (defaults in brackets):
+                  --nodes N              entity nodes [10000]
+                  --avg-degree N         statements per entity besides type and label [4]
+                  --degree-exponent X    Zipf exponent of the in-degree, 0 = uniform [1.2]
+                  --literal-ratio X      share of statements with literal objects [0.2]
+                  --class-depth N        depth of the class tree [4]
+                  --blank-density X      share of classes/entities with blank-node structures [0.05]
+                  --format F             turtle, ntriples, trig, thrift, rdfxml, jsonld [turtle]
+                  --questions N          FVQA questions, 0 to skip [1000]
+                  --min-path N           shortest expected path [2]
+                  --max-path N           longest expected path [4]
+                  --seed N               [42]
+                  --out DIR              output directory [target/data]""");
+    }
+}
@@ -0,0 +1,123 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.RDF;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes expanded JSON-LD, one node object per run of triples with the same subject.
+ * Only the triples of the current subject are buffered.
+ */
+class JsonLdStreamWriter extends StreamRDFBase {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonGenerator json;
+    private Node currentSubject;
+    private final List<String> types = new ArrayList<>();
+    private final Map<String, List<Node>> properties = new LinkedHashMap<>();
+
+    JsonLdStreamWriter(OutputStream out) {
+        try {
+            this.json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void start() {
+        try {
+            json.writeStartArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        if (!triple.getSubject().equals(currentSubject)) {
+            flushSubject();
+            currentSubject = triple.getSubject();
+        }
+        if (triple.getPredicate().equals(RDF.type.asNode()) && triple.getObject().isURI()) {
+            types.add(triple.getObject().getURI());
+        } else {
+            properties.computeIfAbsent(triple.getPredicate().getURI(), p -> new ArrayList<>()).add(triple.getObject());
+        }
+    }
+
+    @Override
+    public void finish() {
+        flushSubject();
+        try {
+            json.writeEndArray();
+            json.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushSubject() {
+        if (currentSubject == null) {
+            return;
+        }
+        try {
+            json.writeStartObject();
+            json.writeStringField("@id", reference(currentSubject));
+            if (!types.isEmpty()) {
+                json.writeArrayFieldStart("@type");
+                for (String type : types) {
+                    json.writeString(type);
+                }
+                json.writeEndArray();
+            }
+            for (Map.Entry<String, List<Node>> property : properties.entrySet()) {
+                json.writeArrayFieldStart(property.getKey());
+                for (Node value : property.getValue()) {
+                    writeValue(value);
+                }
+                json.writeEndArray();
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        types.clear();
+        properties.clear();
+        currentSubject = null;
+    }
+
+    private void writeValue(Node value) throws IOException {
+        json.writeStartObject();
+        if (value.isLiteral()) {
+            json.writeStringField("@value", value.getLiteralLexicalForm());
+            if (!value.getLiteralLanguage().isEmpty()) {
+                json.writeStringField("@language", value.getLiteralLanguage());
+            } else if (value.getLiteralDatatypeURI() != null
+                    && !XSDDatatype.XSDstring.getURI().equals(value.getLiteralDatatypeURI())) {
+                json.writeStringField("@type", value.getLiteralDatatypeURI());
+            }
+        } else {
+            json.writeStringField("@id", reference(value));
+        }
+        json.writeEndObject();
+    }
+
+    private static String reference(Node node) {
+        return node.isBlank() ? "_:" + node.getBlankNodeLabel() : node.getURI();
+    }
+}
@@ -0,0 +1,116 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import org.apache.jena.datatypes.xsd.XSDDatatype;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.apache.jena.vocabulary.XSD;
+
+/**
+ * Streams a synthetic ontology into a {@link StreamRDF}, entity by entity, so the output can be
+ * far bigger than the heap. All statements of a subject are emitted together.
+ */
+public final class OntologyGenerator {
+
+    private static final Node DETAIL_CLASS = NodeFactory.createURI(SyntheticGraph.NS + "Detail");
+    private static final Node HAS_DETAIL = NodeFactory.createURI(SyntheticGraph.NS + "hasDetail");
+    private static final Node VALUE = NodeFactory.createURI(SyntheticGraph.NS + "value");
+
+    private final SyntheticGraph graph;
+    private long triples;
+
+    public OntologyGenerator(OntologySpec spec) {
+        this.graph = new SyntheticGraph(spec);
+    }
+
+    /**
+     * Write the whole ontology, including start() and finish() of the stream
+     *
+     * @return Number of statements written (a random edge can repeat, the parsed model may be slightly smaller)
+     */
+    public long generate(StreamRDF out) {
+        triples = 0;
+        out.start();
+        out.prefix("syn", SyntheticGraph.NS);
+        out.prefix("rdf", RDF.getURI());
+        out.prefix("rdfs", RDFS.getURI());
+        out.prefix("owl", OWL.getURI());
+        out.prefix("xsd", XSD.getURI());
+
+        writeProperties(out);
+        writeClasses(out);
+        for (int entity = 0; entity < graph.spec().nodes(); entity++) {
+            writeEntity(out, entity);
+        }
+
+        out.finish();
+        return triples;
+    }
+
+    private void writeProperties(StreamRDF out) {
+        for (int property = 0; property < OntologySpec.PROPERTY_COUNT; property++) {
+            Node node = uri(SyntheticGraph.propertyUri(property));
+            emit(out, node, RDF.type.asNode(), OWL.ObjectProperty.asNode());
+            emit(out, node, RDFS.label.asNode(), NodeFactory.createLiteralString(SyntheticGraph.propertyLabel(property)));
+        }
+    }
+
+    private void writeClasses(StreamRDF out) {
+        for (int cls = 0; cls < graph.classCount(); cls++) {
+            Node node = uri(SyntheticGraph.classUri(cls));
+            emit(out, node, RDF.type.asNode(), OWL.Class.asNode());
+            if (cls > 0) {
+                emit(out, node, RDFS.subClassOf.asNode(), uri(SyntheticGraph.classUri(SyntheticGraph.parentClass(cls))));
+            }
+            if (graph.hasRestriction(cls)) {
+                // Class_n rdfs:subClassOf [ a owl:Restriction ; owl:onProperty syn:relationK ; owl:someValuesFrom Class_parent ]
+                Node restriction = NodeFactory.createBlankNode("r" + cls);
+                emit(out, node, RDFS.subClassOf.asNode(), restriction);
+                emit(out, restriction, RDF.type.asNode(), OWL.Restriction.asNode());
+                emit(out, restriction, OWL.onProperty.asNode(),
+                        uri(SyntheticGraph.propertyUri(cls % OntologySpec.PROPERTY_COUNT)));
+                emit(out, restriction, OWL.someValuesFrom.asNode(),
+                        uri(SyntheticGraph.classUri(SyntheticGraph.parentClass(cls))));
+            }
+        }
+    }
+
+    private void writeEntity(StreamRDF out, int entity) {
+        Node node = uri(SyntheticGraph.entityUri(entity));
+        SyntheticGraph.EntityStatements statements = graph.statementsOf(entity);
+
+        emit(out, node, RDF.type.asNode(), uri(SyntheticGraph.classUri(graph.classOf(entity))));
+        emit(out, node, RDFS.label.asNode(), NodeFactory.createLiteralString(SyntheticGraph.entityLabel(entity)));
+
+        for (int edge = 0; edge < statements.edgeCount(); edge++) {
+            emit(out, node, uri(SyntheticGraph.propertyUri(statements.property(edge))),
+                    uri(SyntheticGraph.entityUri(statements.target(edge))));
+        }
+        for (int literal = 0; literal < statements.literalCount(); literal++) {
+            emit(out, node, literal % 2 == 0 ? RDFS.comment.asNode() : VALUE,
+                    literal % 2 == 0
+                            ? NodeFactory.createLiteralLang("Synthetic comment " + entity + "-" + literal, "en")
+                            : NodeFactory.createLiteralDT(String.valueOf(entity * 31L + literal), XSDDatatype.XSDinteger));
+        }
+
+        if (statements.hasDetail()) {
+            Node detail = NodeFactory.createBlankNode("d" + entity);
+            emit(out, node, HAS_DETAIL, detail);
+            emit(out, detail, RDF.type.asNode(), DETAIL_CLASS);
+            emit(out, detail, RDFS.label.asNode(), NodeFactory.createLiteralString("Detail of entity " + entity));
+        }
+    }
+
+    private void emit(StreamRDF out, Node subject, Node predicate, Node object) {
+        out.triple(Triple.create(subject, predicate, object));
+        triples++;
+    }
+
+    private static Node uri(String uri) {
+        return NodeFactory.createURI(uri);
+    }
+}
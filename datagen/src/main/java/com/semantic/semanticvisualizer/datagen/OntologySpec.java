@@ -0,0 +1,82 @@
+package com.semantic.semanticvisualizer.datagen;
+
+/**
+ * Shape of a synthetic ontology
+ *
+ * @param nodes            Number of entity nodes (classes, properties and blank nodes come on top)
+ * @param avgDegree        Average number of statements per entity, besides its rdf:type and rdfs:label
+ * @param degreeExponent   Zipf exponent of the in-degree distribution, 0 for uniform, ~1-2 for a few big hubs
+ * @param literalRatio     Share of an entity's statements that have a literal object
+ * @param classDepth       Depth of the class hierarchy (a tree with {@link #CLASS_BRANCHING} children per class)
+ * @param blankNodeDensity Share of classes with an OWL restriction and of entities with a blank-node detail
+ * @param seed             Seed, the same spec always produces the same ontology
+ */
+public record OntologySpec(int nodes, int avgDegree, double degreeExponent, double literalRatio,
+                           int classDepth, double blankNodeDensity, long seed) {
+
+    public static final int CLASS_BRANCHING = 3;
+    public static final int PROPERTY_COUNT = 8;
+    public static final long DEFAULT_SEED = 42L;
+
+    public OntologySpec {
+        if (nodes < 1) {
+            throw new IllegalArgumentException("nodes must be at least 1");
+        }
+        if (avgDegree < 1) {
+            throw new IllegalArgumentException("avgDegree must be at least 1");
+        }
+        if (degreeExponent < 0) {
+            throw new IllegalArgumentException("degreeExponent cannot be negative");
+        }
+        if (literalRatio < 0 || literalRatio >= 1) {
+            throw new IllegalArgumentException("literalRatio must be in [0, 1)");
+        }
+        if (classDepth < 1) {
+            throw new IllegalArgumentException("classDepth must be at least 1");
+        }
+        if (blankNodeDensity < 0 || blankNodeDensity > 1) {
+            throw new IllegalArgumentException("blankNodeDensity must be in [0, 1]");
+        }
+    }
+
+    public static OntologySpec of(int nodes) {
+        return new OntologySpec(nodes, 4, 1.2, 0.2, 4, 0.05, DEFAULT_SEED);
+    }
+
+    public OntologySpec withAvgDegree(int avgDegree) {
+        return new OntologySpec(nodes, avgDegree, degreeExponent, literalRatio, classDepth, blankNodeDensity, seed);
+    }
+
+    public OntologySpec withDegreeExponent(double degreeExponent) {
+        return new OntologySpec(nodes, avgDegree, degreeExponent, literalRatio, classDepth, blankNodeDensity, seed);
+    }
+
+    public OntologySpec withLiteralRatio(double literalRatio) {
+        return new OntologySpec(nodes, avgDegree, degreeExponent, literalRatio, classDepth, blankNodeDensity, seed);
+    }
+
+    public OntologySpec withClassDepth(int classDepth) {
+        return new OntologySpec(nodes, avgDegree, degreeExponent, literalRatio, classDepth, blankNodeDensity, seed);
+    }
+
+    public OntologySpec withBlankNodeDensity(double blankNodeDensity) {
+        return new OntologySpec(nodes, avgDegree, degreeExponent, literalRatio, classDepth, blankNodeDensity, seed);
+    }
+
+    public OntologySpec withSeed(long seed) {
+        return new OntologySpec(nodes, avgDegree, degreeExponent, literalRatio, classDepth, blankNodeDensity, seed);
+    }
+
+    /**
+     * Number of classes in the full class tree
+     */
+    public int classCount() {
+        int count = 0;
+        int level = 1;
+        for (int depth = 0; depth < classDepth; depth++) {
+            count += level;
+            level *= CLASS_BRANCHING;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,49 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.system.StreamRDF;
+import org.apache.jena.riot.system.StreamRDFWriter;
+
+import java.io.OutputStream;
+
+/**
+ * Streaming RDF writers for every format the backend can parse.
+ * Jena has no streaming RDF/XML or JSON-LD writer, those two are written by hand.
+ */
+public final class RdfOutput {
+
+    private RdfOutput() {
+    }
+
+    public static StreamRDF open(OutputStream out, String format) {
+        return switch (normalize(format)) {
+            case "turtle", "ttl" -> StreamRDFWriter.getWriterStream(out, RDFFormat.TURTLE_BLOCKS, null);
+            case "ntriples", "n-triples", "nt" -> StreamRDFWriter.getWriterStream(out, RDFFormat.NTRIPLES_UTF8, null);
+            case "trig" -> StreamRDFWriter.getWriterStream(out, RDFFormat.TRIG_BLOCKS, null);
+            case "thrift", "rdf-thrift" -> StreamRDFWriter.getWriterStream(out, RDFFormat.RDF_THRIFT, null);
+            case "rdfxml", "rdf/xml" -> new RdfXmlStreamWriter(out);
+            case "jsonld", "json-ld" -> new JsonLdStreamWriter(out);
+            default -> throw new IllegalArgumentException("Unsupported format: " + format
+                    + ". Supported formats: turtle, ntriples, trig, thrift, rdfxml, jsonld");
+        };
+    }
+
+    public static String fileExtension(String format) {
+        return switch (normalize(format)) {
+            case "turtle", "ttl" -> "ttl";
+            case "ntriples", "n-triples", "nt" -> "nt";
+            case "trig" -> "trig";
+            case "thrift", "rdf-thrift" -> "trdf";
+            case "rdfxml", "rdf/xml" -> "rdf";
+            case "jsonld", "json-ld" -> "jsonld";
+            default -> throw new IllegalArgumentException("Unsupported format: " + format);
+        };
+    }
+
+    private static String normalize(String format) {
+        if (format == null) {
+            throw new IllegalArgumentException("Format cannot be null");
+        }
+        return format.toLowerCase().trim();
+    }
+}
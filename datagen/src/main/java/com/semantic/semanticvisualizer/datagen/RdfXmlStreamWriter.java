@@ -0,0 +1,149 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.vocabulary.RDF;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Writes RDF/XML as a flat list of rdf:Description elements, one per run of triples
+ * with the same subject. Prefixes announced before the first triple become xmlns declarations.
+ */
+class RdfXmlStreamWriter extends StreamRDFBase {
+
+    private static final String RDF_NS = RDF.getURI();
+
+    private final XMLStreamWriter xml;
+    private final Map<String, String> namespaces = new LinkedHashMap<>();
+    private boolean rootWritten;
+    private Node currentSubject;
+    private int generatedPrefixes;
+
+    RdfXmlStreamWriter(OutputStream out) {
+        try {
+            this.xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Could not create RDF/XML writer", e);
+        }
+    }
+
+    @Override
+    public void prefix(String prefix, String iri) {
+        if (!rootWritten && !prefix.isEmpty() && !RDF_NS.equals(iri)) {
+            namespaces.put(iri, prefix);
+        }
+    }
+
+    @Override
+    public void triple(Triple triple) {
+        try {
+            writeRoot();
+            if (!triple.getSubject().equals(currentSubject)) {
+                if (currentSubject != null) {
+                    xml.writeEndElement();
+                }
+                currentSubject = triple.getSubject();
+                xml.writeStartElement("rdf", "Description", RDF_NS);
+                writeNodeReference(currentSubject, "about");
+            }
+            writeProperty(triple.getPredicate().getURI(), triple.getObject());
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Failed to write RDF/XML", e));
+        }
+    }
+
+    @Override
+    public void finish() {
+        try {
+            writeRoot();
+            if (currentSubject != null) {
+                xml.writeEndElement();
+            }
+            xml.writeEndElement();
+            xml.writeEndDocument();
+            xml.flush();
+        } catch (XMLStreamException e) {
+            throw new UncheckedIOException(new IOException("Failed to write RDF/XML", e));
+        }
+    }
+
+    private void writeRoot() throws XMLStreamException {
+        if (rootWritten) {
+            return;
+        }
+        rootWritten = true;
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("rdf", "RDF", RDF_NS);
+        xml.writeNamespace("rdf", RDF_NS);
+        for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+            xml.writeNamespace(namespace.getValue(), namespace.getKey());
+        }
+    }
+
+    private void writeProperty(String predicate, Node object) throws XMLStreamException {
+        int split = localNameStart(predicate);
+        String namespace = predicate.substring(0, split);
+        String prefix = RDF_NS.equals(namespace) ? "rdf" : namespaces.get(namespace);
+        boolean declare = prefix == null;
+        if (declare) {
+            prefix = "ns" + (generatedPrefixes++);
+        }
+
+        if (object.isLiteral()) {
+            xml.writeStartElement(prefix, predicate.substring(split), namespace);
+            if (declare) {
+                xml.writeNamespace(prefix, namespace);
+            }
+            if (!object.getLiteralLanguage().isEmpty()) {
+                xml.writeAttribute("xml", "http://www.w3.org/XML/1998/namespace", "lang", object.getLiteralLanguage());
+            } else if (object.getLiteralDatatypeURI() != null
+                    && !object.getLiteralDatatypeURI().endsWith("#string")) {
+                xml.writeAttribute("rdf", RDF_NS, "datatype", object.getLiteralDatatypeURI());
+            }
+            xml.writeCharacters(object.getLiteralLexicalForm());
+            xml.writeEndElement();
+        } else {
+            xml.writeEmptyElement(prefix, predicate.substring(split), namespace);
+            if (declare) {
+                xml.writeNamespace(prefix, namespace);
+            }
+            writeNodeReference(object, "resource");
+        }
+    }
+
+    private void writeNodeReference(Node node, String uriAttribute) throws XMLStreamException {
+        if (node.isBlank()) {
+            xml.writeAttribute("rdf", RDF_NS, "nodeID", "b" + node.getBlankNodeLabel().replaceAll("[^A-Za-z0-9_]", "_"));
+        } else {
+            xml.writeAttribute("rdf", RDF_NS, uriAttribute, node.getURI());
+        }
+    }
+
+    // Property URIs are split into namespace + local name, the local name has to be a valid XML name
+    private static int localNameStart(String uri) {
+        int split = uri.length();
+        while (split > 0) {
+            char c = uri.charAt(split - 1);
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-' || c == '.')) {
+                break;
+            }
+            split--;
+        }
+        while (split < uri.length() && !(Character.isLetter(uri.charAt(split)) || uri.charAt(split) == '_')) {
+            split++;
+        }
+        if (split == uri.length()) {
+            throw new IllegalArgumentException("Predicate cannot be written as RDF/XML: " + uri);
+        }
+        return split;
+    }
+}
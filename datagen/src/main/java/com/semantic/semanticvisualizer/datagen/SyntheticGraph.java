@@ -0,0 +1,154 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * The deterministic layout behind a generated ontology. The statements of any entity can be
+ * recomputed on demand from the spec, so neither the ontology nor the dataset generator
+ * has to hold the graph in memory, no matter how big it is.
+ */
+public final class SyntheticGraph {
+
+    public static final String NS = "http://example.org/synthetic#";
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final OntologySpec spec;
+    private final int classCount;
+    private final int firstLeafClass;
+
+    public SyntheticGraph(OntologySpec spec) {
+        this.spec = spec;
+        this.classCount = spec.classCount();
+        int leaves = 1;
+        for (int depth = 1; depth < spec.classDepth(); depth++) {
+            leaves *= OntologySpec.CLASS_BRANCHING;
+        }
+        this.firstLeafClass = classCount - leaves;
+    }
+
+    public OntologySpec spec() {
+        return spec;
+    }
+
+    public int classCount() {
+        return classCount;
+    }
+
+    public static String entityUri(int entity) {
+        return NS + "entity" + entity;
+    }
+
+    public static String entityLabel(int entity) {
+        return "Entity " + entity;
+    }
+
+    public static String classUri(int cls) {
+        return NS + "Class" + cls;
+    }
+
+    public static String propertyUri(int property) {
+        return NS + "relation" + property;
+    }
+
+    public static String propertyLabel(int property) {
+        return "relation" + property;
+    }
+
+    public static int parentClass(int cls) {
+        return (cls - 1) / OntologySpec.CLASS_BRANCHING;
+    }
+
+    // Entities are spread over the leaves of the class tree
+    public int classOf(int entity) {
+        return firstLeafClass + Math.floorMod(entity, classCount - firstLeafClass);
+    }
+
+    public boolean hasRestriction(int cls) {
+        return cls > 0 && random(-cls - 1L).nextDouble() < spec.blankNodeDensity();
+    }
+
+    /**
+     * All statements of an entity besides its type and label
+     */
+    public EntityStatements statementsOf(int entity) {
+        SplittableRandom random = random(entity);
+        int statements = 1 + random.nextInt(2 * spec.avgDegree() - 1);
+
+        EntityStatements result = new EntityStatements(statements);
+        for (int i = 0; i < statements; i++) {
+            if (random.nextDouble() < spec.literalRatio()) {
+                result.literals++;
+            } else {
+                result.addEdge(random.nextInt(OntologySpec.PROPERTY_COUNT), pickTarget(random));
+            }
+        }
+        result.hasDetail = random.nextDouble() < spec.blankNodeDensity();
+        return result;
+    }
+
+    /**
+     * Zipf-distributed entity index - low indices are the hubs. An exponent of 0 is uniform.
+     */
+    private int pickTarget(SplittableRandom random) {
+        int n = spec.nodes();
+        double s = spec.degreeExponent();
+        if (s == 0) {
+            return random.nextInt(n);
+        }
+
+        // Inverse CDF of the continuous power law x^-s on [1, n + 1)
+        double u = random.nextDouble();
+        double rank;
+        if (Math.abs(s - 1.0) < 1e-9) {
+            rank = Math.exp(u * Math.log(n + 1.0));
+        } else {
+            double oneMinusS = 1.0 - s;
+            rank = Math.pow((Math.pow(n + 1.0, oneMinusS) - 1.0) * u + 1.0, 1.0 / oneMinusS);
+        }
+        return Math.min(n - 1, Math.max(0, (int) rank - 1));
+    }
+
+    private SplittableRandom random(long key) {
+        return new SplittableRandom(spec.seed() ^ (key * GOLDEN_GAMMA));
+    }
+
+    public static final class EntityStatements {
+        private final int[] properties;
+        private final int[] targets;
+        private int edges;
+        private int literals;
+        private boolean hasDetail;
+
+        private EntityStatements(int capacity) {
+            this.properties = new int[capacity];
+            this.targets = new int[capacity];
+        }
+
+        private void addEdge(int property, int target) {
+            properties[edges] = property;
+            targets[edges] = target;
+            edges++;
+        }
+
+        public int edgeCount() {
+            return edges;
+        }
+
+        public int property(int edge) {
+            return properties[edge];
+        }
+
+        public int target(int edge) {
+            return targets[edge];
+        }
+
+        public int literalCount() {
+            return literals;
+        }
+
+        public boolean hasDetail() {
+            return hasDetail;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.semantic.semanticvisualizer.datagen;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+/**
+ * Streams an FVQA dataset whose expectedPath and answerTriplets are random walks over
+ * the edges of the matching synthetic ontology. Questions are written one at a time.
+ */
+public final class VqaDatasetGenerator {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int IMAGE_COUNT = 1000;
+    private static final int MAX_WALK_ATTEMPTS = 100;
+
+    private final SyntheticGraph graph;
+    private final VqaSpec spec;
+
+    public VqaDatasetGenerator(OntologySpec ontologySpec, VqaSpec spec) {
+        this.graph = new SyntheticGraph(ontologySpec);
+        this.spec = spec;
+    }
+
+    /**
+     * Write the dataset as {"questions": [...]}
+     *
+     * @return Number of questions written
+     */
+    public int generate(OutputStream out) throws IOException {
+        SplittableRandom random = new SplittableRandom(spec.seed());
+        int[] path = new int[spec.maxPathLength()];
+        int[] relations = new int[spec.maxPathLength()];
+
+        try (JsonGenerator json = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("questions");
+            for (int q = 0; q < spec.questions(); q++) {
+                int length = spec.minPathLength() + random.nextInt(spec.maxPathLength() - spec.minPathLength() + 1);
+                length = walk(random, path, relations, length);
+                writeQuestion(json, q, path, relations, length);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return spec.questions();
+    }
+
+    /**
+     * Random walk along out-edges; restarts from another entity when it hits a dead end.
+     * Falls back to the longest walk found when the ontology is too sparse for the full length.
+     */
+    private int walk(SplittableRandom random, int[] path, int[] relations, int length) {
+        int best = 0;
+        int[] bestPath = null;
+        int[] bestRelations = null;
+
+        for (int attempt = 0; attempt < MAX_WALK_ATTEMPTS; attempt++) {
+            path[0] = random.nextInt(graph.spec().nodes());
+            int size = 1;
+            while (size < length) {
+                SyntheticGraph.EntityStatements statements = graph.statementsOf(path[size - 1]);
+                if (statements.edgeCount() == 0) {
+                    break;
+                }
+                int edge = random.nextInt(statements.edgeCount());
+                relations[size - 1] = statements.property(edge);
+                path[size] = statements.target(edge);
+                size++;
+            }
+            if (size == length) {
+                return size;
+            }
+            if (size > best) {
+                best = size;
+                bestPath = path.clone();
+                bestRelations = relations.clone();
+            }
+        }
+
+        System.arraycopy(bestPath, 0, path, 0, best);
+        System.arraycopy(bestRelations, 0, relations, 0, best);
+        return best;
+    }
+
+    private void writeQuestion(JsonGenerator json, int q, int[] path, int[] relations, int length) throws IOException {
+        int answer = path[length - 1];
+
+        json.writeStartObject();
+        json.writeStringField("id", "q" + q);
+        json.writeStringField("questionText", "Which entity is reached from "
+                + SyntheticGraph.entityLabel(path[0]) + " in " + (length - 1) + " steps?");
+        json.writeStringField("answer", SyntheticGraph.entityLabel(answer));
+        json.writeStringField("difficulty", length <= 2 ? "easy" : length <= 4 ? "medium" : "hard");
+        json.writeStringField("img_file", "synthetic_" + (q % IMAGE_COUNT) + ".jpg");
+        json.writeStringField("fact_id", "fact" + q);
+        json.writeStringField("fact_surface", SyntheticGraph.entityLabel(path[0]) + " "
+                + SyntheticGraph.propertyLabel(relations[0]) + " " + SyntheticGraph.entityLabel(path[1]));
+
+        json.writeArrayFieldStart("expectedPath");
+        for (int i = 0; i < length; i++) {
+            json.writeString(SyntheticGraph.entityUri(path[i]));
+        }
+        json.writeEndArray();
+
+        json.writeArrayFieldStart("answerTriplets");
+        for (int i = 0; i + 1 < length; i++) {
+            json.writeStartObject();
+            writeEntity(json, "subject", SyntheticGraph.entityLabel(path[i]), SyntheticGraph.entityUri(path[i]));
+            writeEntity(json, "relation", SyntheticGraph.propertyLabel(relations[i]), SyntheticGraph.propertyUri(relations[i]));
+            writeEntity(json, "object", SyntheticGraph.entityLabel(path[i + 1]), SyntheticGraph.entityUri(path[i + 1]));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+
+        json.writeEndObject();
+    }
+
+    private void writeEntity(JsonGenerator json, String field, String label, String uri) throws IOException {
+        json.writeObjectFieldStart(field);
+        json.writeStringField("label", label);
+        json.writeStringField("uri", uri);
+        json.writeEndObject();
+    }
+}
@@ -0,0 +1,28 @@
+package com.semantic.semanticvisualizer.datagen;
+
+/**
+ * Shape of a synthetic FVQA dataset over an ontology generated from an {@link OntologySpec}
+ *
+ * @param questions     Number of questions
+ * @param minPathLength Minimum number of nodes in an expected path (a random walk over the ontology's edges)
+ * @param maxPathLength Maximum number of nodes in an expected path, longer paths are marked harder
+ * @param seed          Seed for picking the walks
+ */
+public record VqaSpec(int questions, int minPathLength, int maxPathLength, long seed) {
+
+    public VqaSpec {
+        if (questions < 0) {
+            throw new IllegalArgumentException("questions cannot be negative");
+        }
+        if (minPathLength < 2 || maxPathLength < minPathLength) {
+            throw new IllegalArgumentException("path lengths must satisfy 2 <= minPathLength <= maxPathLength");
+        }
+    }
+
+    /**
+     * Every question gets a path of exactly the given length
+     */
+    public static VqaSpec of(int questions, int pathLength) {
+        return new VqaSpec(questions, pathLength, pathLength, OntologySpec.DEFAULT_SEED);
+    }
+}
@@ -0,0 +1,69 @@
+package com.semantic.semanticvisualizer.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies (in microseconds) and outcomes of one operation. Users record concurrently into an
+ * HdrHistogram {@link Recorder}, the reporter drains it once per interval.
+ */
+class EndpointStats {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Operation operation;
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+    private final Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+    EndpointStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    Operation operation() {
+        return operation;
+    }
+
+    void record(long latencyMicros, int status) {
+        recorder.recordValue(Math.max(1, latencyMicros));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+        // status 0 is a transport failure (timeout, connection refused)
+        if (status == 0 || status >= 400) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Drain what was recorded since the last call and add it to the run total
+     */
+    synchronized Histogram interval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    // Warmup results are dropped
+    synchronized void reset() {
+        recorder.reset();
+        total.reset();
+        errors.reset();
+        statuses.clear();
+    }
+
+    synchronized Histogram total() {
+        return total;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Map<Integer, LongAdder> statuses() {
+        return statuses;
+    }
+}
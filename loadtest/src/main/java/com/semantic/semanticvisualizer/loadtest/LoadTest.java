@@ -0,0 +1,314 @@
+package com.semantic.semanticvisualizer.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Closed-loop load test: every virtual user picks an operation from the weighted mix, sends it
+ * and waits for the response before the next one. Per-operation latencies are written as
+ * HdrHistogram logs (one interval per second) and percentile distributions, next to a summary
+ * with throughput, error rates and the app's heap/GC figures.
+ * <pre>
+ * java -jar target/loadtest.jar --app-jar ../backend/target/semantic-visualizer-0.0.1-SNAPSHOT-exec.jar \
+ *      --users 100 --duration 120 --mix upload=1,click=40,session=5,validate=20
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final long REPORT_INTERVAL_MS = 1000;
+    private static final double MICROS_PER_MS = 1000.0;
+    private static final long REQUEST_TIMEOUT_SECONDS = 120;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--help")) {
+            System.out.println(LoadTestConfig.usage());
+            return;
+        }
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        Files.createDirectories(config.outDir());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Process app = config.appJar() == null ? null : startApp(client, config);
+        try {
+            waitUntilUp(client, config.baseUrl(), app);
+            run(client, config);
+        } finally {
+            if (app != null) {
+                app.destroy();
+                app.waitFor(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private static void run(HttpClient client, LoadTestConfig config) throws Exception {
+        Workload workload = new Workload(client, config);
+        workload.prepare();
+        System.out.printf("Prepared a %.1f KB ontology (%d nodes) and %d questions%n",
+                workload.ontologyBytes() / 1024.0, config.nodes(), config.questions());
+
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new EndpointStats(operation));
+        }
+        Operation[] schedule = schedule(config.mix());
+
+        ServerStats server = new ServerStats(client, config.baseUrl());
+        long warmupEnd = System.nanoTime() + config.warmup().toNanos();
+        long end = warmupEnd + config.duration().toNanos();
+
+        ExecutorService users = Executors.newVirtualThreadPerTaskExecutor();
+        for (int u = 0; u < config.users(); u++) {
+            Workload.User user = new Workload.User(u);
+            users.submit(() -> userLoop(client, workload, user, schedule, stats, config, end));
+        }
+
+        System.out.printf("Warming up for %ds with %d users%n", config.warmup().toSeconds(), config.users());
+        sleepUntil(warmupEnd);
+        stats.values().forEach(EndpointStats::reset);
+        ServerStats.Snapshot before = server.snapshot();
+        System.out.printf("Measuring for %ds%n", config.duration().toSeconds());
+
+        double peakHeap = measure(stats, server, config, end);
+
+        users.shutdown();
+        users.awaitTermination(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        ServerStats.Snapshot after = server.snapshot();
+
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(config.outDir().resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                report(out, stats, config, before, after, peakHeap);
+            }
+        }
+        for (EndpointStats endpoint : stats.values()) {
+            if (endpoint.total().getTotalCount() > 0) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(
+                        config.outDir().resolve(endpoint.operation().key() + ".hgrm")))) {
+                    endpoint.total().outputPercentileDistribution(out, MICROS_PER_MS);
+                }
+            }
+        }
+        System.out.println("Histograms written to " + config.outDir().toAbsolutePath());
+    }
+
+    private static void userLoop(HttpClient client, Workload workload, Workload.User user, Operation[] schedule,
+                                 Map<Operation, EndpointStats> stats, LoadTestConfig config, long end) {
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            Operation operation = workload.prerequisite(schedule[user.random().nextInt(schedule.length)], user);
+            int status = 0;
+            long start = System.nanoTime();
+            try {
+                HttpRequest request = workload.request(operation, user);
+                start = System.nanoTime();
+                HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                status = response.statusCode();
+                stats.get(operation).record((System.nanoTime() - start) / 1000, status);
+                workload.onResponse(operation, user, response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                stats.get(operation).record((System.nanoTime() - start) / 1000, status);
+            }
+
+            if (!config.thinkTime().isZero()) {
+                try {
+                    Thread.sleep(config.thinkTime());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Drain the recorders every second into per-operation .hlog files until the run ends
+     *
+     * @return The highest heap usage seen during the run, in bytes
+     */
+    private static double measure(Map<Operation, EndpointStats> stats, ServerStats server, LoadTestConfig config,
+                                  long end) throws IOException, InterruptedException {
+        Map<Operation, HistogramLogWriter> logs = new EnumMap<>(Operation.class);
+        List<PrintStream> streams = new ArrayList<>();
+        long startMillis = System.currentTimeMillis();
+        for (Operation operation : config.mix().keySet()) {
+            PrintStream stream = new PrintStream(Files.newOutputStream(config.outDir().resolve(operation.key() + ".hlog")));
+            HistogramLogWriter log = new HistogramLogWriter(stream);
+            log.outputLogFormatVersion();
+            log.outputStartTime(startMillis);
+            log.setBaseTime(startMillis);
+            log.outputLegend();
+            logs.put(operation, log);
+            streams.add(stream);
+        }
+
+        double peakHeap = Double.NaN;
+        try {
+            long intervalStart = System.currentTimeMillis();
+            while (System.nanoTime() < end) {
+                Thread.sleep(Math.min(REPORT_INTERVAL_MS, Math.max(1, TimeUnit.NANOSECONDS.toMillis(end - System.nanoTime()))));
+                long intervalEnd = System.currentTimeMillis();
+                for (EndpointStats endpoint : stats.values()) {
+                    Histogram interval = endpoint.interval();
+                    HistogramLogWriter log = logs.get(endpoint.operation());
+                    if (log != null) {
+                        interval.setStartTimeStamp(intervalStart);
+                        interval.setEndTimeStamp(intervalEnd);
+                        log.outputIntervalHistogram(interval);
+                    }
+                }
+                intervalStart = intervalEnd;
+
+                double heap = server.heapUsed();
+                if (!Double.isNaN(heap) && (Double.isNaN(peakHeap) || heap > peakHeap)) {
+                    peakHeap = heap;
+                }
+            }
+            // Requests still in flight when time is up are not counted
+            stats.values().forEach(EndpointStats::interval);
+        } finally {
+            streams.forEach(PrintStream::close);
+        }
+        return peakHeap;
+    }
+
+    private static void report(PrintStream out, Map<Operation, EndpointStats> stats, LoadTestConfig config,
+                               ServerStats.Snapshot before, ServerStats.Snapshot after, double peakHeap) {
+        double seconds = config.duration().toMillis() / 1000.0;
+        long totalRequests = 0;
+        long totalErrors = 0;
+
+        out.printf(Locale.ROOT, "%n%d users, %ds measured, mix %s%n%n", config.users(), config.duration().toSeconds(), config.mix());
+        out.printf(Locale.ROOT, "%-40s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "errors", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (EndpointStats endpoint : stats.values()) {
+            Histogram histogram = endpoint.total();
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            totalRequests += count;
+            totalErrors += endpoint.errors();
+            out.printf(Locale.ROOT, "%-40s %9d %9.1f %7.2f%% %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.operation().endpoint(), count, count / seconds, 100.0 * endpoint.errors() / count,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+            if (endpoint.errors() > 0) {
+                out.printf(Locale.ROOT, "%-40s statuses %s%n", "", endpoint.statuses());
+            }
+        }
+        out.printf(Locale.ROOT, "%-40s %9d %9.1f %7.2f%%%n", "total", totalRequests, totalRequests / seconds,
+                totalRequests == 0 ? 0.0 : 100.0 * totalErrors / totalRequests);
+
+        out.printf(Locale.ROOT, "%nServer (actuator):%n");
+        out.printf(Locale.ROOT, "  heap used       %8.1f MB -> %8.1f MB, peak %8.1f MB, max %8.1f MB%n",
+                mb(before.heapUsed()), mb(after.heapUsed()), mb(peakHeap), mb(after.heapMax()));
+        out.printf(Locale.ROOT, "  heap committed  %8.1f MB%n", mb(after.heapCommitted()));
+        out.printf(Locale.ROOT, "  GC pauses       %8.0f, %.3f s total, longest %.1f ms%n",
+                after.gcPauses() - before.gcPauses(), after.gcPauseSeconds() - before.gcPauseSeconds(),
+                after.gcPauseMaxSeconds() * 1000);
+        out.printf(Locale.ROOT, "  allocated       %8.1f MB/s%n", mb(after.allocatedBytes() - before.allocatedBytes()) / seconds);
+        out.printf(Locale.ROOT, "  process CPU     %8.1f %%, live threads %.0f%n", after.cpuUsage() * 100, after.liveThreads());
+    }
+
+    // Weighted mix flattened into a lookup table, so picking an operation is a single random index
+    private static Operation[] schedule(Map<Operation, Integer> mix) {
+        List<Operation> schedule = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                schedule.add(operation);
+            }
+        });
+        return schedule.toArray(Operation[]::new);
+    }
+
+    private static Process startApp(HttpClient client, LoadTestConfig config) throws IOException, InterruptedException {
+        // Otherwise the test would silently run against whatever already listens on the port
+        if (isUp(client, config.baseUrl())) {
+            throw new IllegalStateException("Something already answers at " + config.baseUrl()
+                    + ", stop it or drop --app-jar to test it directly");
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(List.of(config.appJvmArgs().trim().split("\\s+")));
+        command.add("-jar");
+        command.add(config.appJar().toAbsolutePath().toString());
+        command.add("--server.port=" + URI.create(config.baseUrl()).getPort());
+
+        System.out.println("Starting " + String.join(" ", command));
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(config.outDir().resolve("app.log").toFile())
+                .start();
+    }
+
+    private static void waitUntilUp(HttpClient client, String baseUrl, Process app) throws InterruptedException {
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (app != null && !app.isAlive()) {
+                throw new IllegalStateException("The app exited with " + app.exitValue() + " during startup, see app.log");
+            }
+            if (isUp(client, baseUrl)) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("App at " + baseUrl + " did not come up within " + STARTUP_TIMEOUT.toSeconds() + "s");
+    }
+
+    private static boolean isUp(HttpClient client, String baseUrl) throws InterruptedException {
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health"))
+                .timeout(Duration.ofSeconds(5))
+                .GET()
+                .build();
+        try {
+            return client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false; // not listening yet
+        }
+    }
+
+    private static void sleepUntil(long nanoTime) throws InterruptedException {
+        long remaining = nanoTime - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MS;
+    }
+
+    private static double mb(double bytes) {
+        return bytes / (1024.0 * 1024.0);
+    }
+}
@@ -0,0 +1,79 @@
+package com.semantic.semanticvisualizer.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of a load-test run, parsed from --key value arguments
+ */
+public record LoadTestConfig(String baseUrl, Path appJar, String appJvmArgs, int users, Duration duration,
+                             Duration warmup, Duration thinkTime, Map<Operation, Integer> mix, int nodes,
+                             int questions, int maxNodes, Path outDir) {
+
+    public static final String DEFAULT_MIX = "upload=1,click=20,session=5,validate=10";
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String key = args[i].substring(2);
+            options.put(key, i + 1 < args.length && !args[i + 1].startsWith("--") ? args[++i] : "true");
+        }
+
+        return new LoadTestConfig(
+                options.getOrDefault("base-url", "http://localhost:8080"),
+                options.containsKey("app-jar") ? Path.of(options.get("app-jar")) : null,
+                options.getOrDefault("app-jvm-args", "-Xmx1g"),
+                Integer.parseInt(options.getOrDefault("users", "50")),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+                Duration.ofMillis(Long.parseLong(options.getOrDefault("think-ms", "0"))),
+                parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(options.getOrDefault("nodes", "2000")),
+                Integer.parseInt(options.getOrDefault("questions", "500")),
+                Integer.parseInt(options.getOrDefault("max-nodes", "500")),
+                Path.of(options.getOrDefault("out", "target/loadtest")));
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like click=20, got: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The workload mix is empty");
+        }
+        return weights;
+    }
+
+    public static String usage() {
+        return """
+                Options (defaults in brackets):
+                  --base-url URL      app to test [http://localhost:8080]
+                  --app-jar PATH      start this backend jar first and stop it afterwards
+                  --app-jvm-args S    JVM arguments for --app-jar [-Xmx1g]
+                  --users N           concurrent virtual users [50]
+                  --duration S        measured seconds [60]
+                  --warmup S          seconds of load before measuring [10]
+                  --think-ms N        pause between requests of a user [0]
+                  --mix SPEC          operation weights [%s]
+                                      operations: upload, parse, click, history, details, session,
+                                      validate, graph
+                  --nodes N           entities in the synthetic ontology [2000]
+                  --questions N       questions in the synthetic FVQA dataset [500]
+                  --max-nodes N       maxNodes passed to upload/parse [500]
+                  --out DIR           histograms and summary [target/loadtest]""".formatted(DEFAULT_MIX);
+    }
+}
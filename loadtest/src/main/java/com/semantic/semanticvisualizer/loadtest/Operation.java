@@ -0,0 +1,40 @@
+package com.semantic.semanticvisualizer.loadtest;
+
+/**
+ * Operations of the workload mix, named as they are given in --mix
+ */
+public enum Operation {
+    UPLOAD("upload", "POST /api/ontology/upload"),
+    PARSE("parse", "POST /api/ontology/parse"),
+    NODE_CLICK("click", "POST /api/ontology/node-click"),
+    CLICK_HISTORY("history", "GET /api/ontology/click-history"),
+    NODE_DETAILS("details", "POST /api/ontology/node-details/{id}"),
+    SESSION_START("session", "POST /api/vqa/sessions/start/{id}"),
+    VALIDATE("validate", "POST /api/vqa/sessions/{id}/validate"),
+    DATASET_GRAPH("graph", "GET /api/vqa/{datasetId}/graph");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equalsIgnoreCase(key.trim())) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation in mix: " + key);
+    }
+}
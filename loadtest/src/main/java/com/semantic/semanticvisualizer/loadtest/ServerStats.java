@@ -0,0 +1,72 @@
+package com.semantic.semanticvisualizer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Heap and GC figures of the app under test, read from its actuator metrics endpoint
+ */
+class ServerStats {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client;
+    private final String baseUrl;
+
+    ServerStats(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    record Snapshot(double heapUsed, double heapCommitted, double heapMax, double gcPauses, double gcPauseSeconds,
+                    double gcPauseMaxSeconds, double allocatedBytes, double cpuUsage, double liveThreads) {
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(
+                metric("jvm.memory.used?tag=area:heap", "VALUE"),
+                metric("jvm.memory.committed?tag=area:heap", "VALUE"),
+                metric("jvm.memory.max?tag=area:heap", "VALUE"),
+                metric("jvm.gc.pause", "COUNT"),
+                metric("jvm.gc.pause", "TOTAL_TIME"),
+                metric("jvm.gc.pause", "MAX"),
+                metric("jvm.gc.memory.allocated", "COUNT"),
+                metric("process.cpu.usage", "VALUE"),
+                metric("jvm.threads.live", "VALUE"));
+    }
+
+    double heapUsed() {
+        return metric("jvm.memory.used?tag=area:heap", "VALUE");
+    }
+
+    /**
+     * @return The statistic, or NaN when the app does not expose it
+     */
+    private double metric(String path, String statistic) {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + path))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (JsonNode measurement : MAPPER.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // missing metrics only leave a gap in the report
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,201 @@
+package com.semantic.semanticvisualizer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.semantic.semanticvisualizer.datagen.OntologyGenerator;
+import com.semantic.semanticvisualizer.datagen.OntologySpec;
+import com.semantic.semanticvisualizer.datagen.RdfOutput;
+import com.semantic.semanticvisualizer.datagen.SyntheticGraph;
+import com.semantic.semanticvisualizer.datagen.VqaDatasetGenerator;
+import com.semantic.semanticvisualizer.datagen.VqaSpec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * The requests of each operation, built from a synthetic ontology and FVQA dataset
+ * (see the datagen module) that are prepared and uploaded once before the run
+ */
+class Workload {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(120);
+    private static final String BOUNDARY = "loadtest-boundary-7d1f";
+
+    private final HttpClient client;
+    private final LoadTestConfig config;
+
+    private byte[] ontology;
+    private byte[] uploadBody;
+    private String datasetId;
+    private final List<String> questionIds = new ArrayList<>();
+    private final Map<String, List<String>> expectedPaths = new HashMap<>();
+
+    Workload(HttpClient client, LoadTestConfig config) {
+        this.client = client;
+        this.config = config;
+    }
+
+    /**
+     * Generate the inputs and upload the dataset the VQA operations work on
+     */
+    void prepare() throws IOException, InterruptedException {
+        OntologySpec spec = OntologySpec.of(config.nodes());
+
+        ByteArrayOutputStream ontologyOut = new ByteArrayOutputStream();
+        new OntologyGenerator(spec).generate(RdfOutput.open(ontologyOut, "turtle"));
+        ontology = ontologyOut.toByteArray();
+        uploadBody = multipart(ontology);
+
+        ByteArrayOutputStream datasetOut = new ByteArrayOutputStream();
+        new VqaDatasetGenerator(spec, new VqaSpec(config.questions(), 2, 5, spec.seed())).generate(datasetOut);
+
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/api/vqa/dataset/json"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(datasetOut.toByteArray()))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Dataset upload failed with " + response.statusCode() + ": " + response.body());
+        }
+
+        JsonNode dataset = MAPPER.readTree(response.body());
+        datasetId = dataset.path("id").asText();
+        for (JsonNode question : dataset.path("questions")) {
+            String id = question.path("id").asText();
+            List<String> path = new ArrayList<>();
+            question.path("expectedPath").forEach(node -> path.add(node.asText()));
+            questionIds.add(id);
+            expectedPaths.put(id, path);
+        }
+    }
+
+    int ontologyBytes() {
+        return ontology.length;
+    }
+
+    /**
+     * Per-user state - the sessions a user has started, by question
+     */
+    static final class User {
+        private final SplittableRandom random;
+        private final Map<String, String> sessions = new HashMap<>();
+
+        User(long seed) {
+            this.random = new SplittableRandom(seed);
+        }
+
+        SplittableRandom random() {
+            return random;
+        }
+    }
+
+    HttpRequest request(Operation operation, User user) throws IOException {
+        SplittableRandom random = user.random;
+        return switch (operation) {
+            case UPLOAD -> post("/api/ontology/upload?format=turtle&maxNodes=" + config.maxNodes(),
+                    "multipart/form-data; boundary=" + BOUNDARY, uploadBody);
+            case PARSE -> post("/api/ontology/parse?format=turtle&maxNodes=" + config.maxNodes(),
+                    "text/plain", ontology);
+            case NODE_CLICK -> {
+                int entity = random.nextInt(config.nodes());
+                yield post("/api/ontology/node-click?nodeId=" + encode(SyntheticGraph.entityUri(entity))
+                        + "&nodeName=" + encode(SyntheticGraph.entityLabel(entity))
+                        + "&degreeOpacity=0.5", "text/plain", new byte[0]);
+            }
+            case CLICK_HISTORY -> HttpRequest.newBuilder(uri("/api/ontology/click-history"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            case NODE_DETAILS -> post("/api/ontology/node-details/"
+                            + encode(SyntheticGraph.entityUri(random.nextInt(config.nodes()))) + "?format=turtle",
+                    "text/plain", ontology);
+            case SESSION_START -> post("/api/vqa/sessions/start/" + encode(randomQuestion(random)),
+                    "text/plain", new byte[0]);
+            case VALIDATE -> validateRequest(user);
+            case DATASET_GRAPH -> HttpRequest.newBuilder(uri("/api/vqa/" + datasetId + "/graph"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+        };
+    }
+
+    /**
+     * Remember the session id a session start returned, so the user can validate paths in it later
+     */
+    void onResponse(Operation operation, User user, HttpResponse<String> response) throws IOException {
+        if (operation == Operation.SESSION_START && response.statusCode() == 200) {
+            JsonNode session = MAPPER.readTree(response.body());
+            user.sessions.put(session.path("questionId").asText(), session.path("sessionId").asText());
+        }
+    }
+
+    /**
+     * @return The operation that has to run first - a validation needs a started session
+     */
+    Operation prerequisite(Operation operation, User user) {
+        return operation == Operation.VALIDATE && user.sessions.isEmpty() ? Operation.SESSION_START : operation;
+    }
+
+    private HttpRequest validateRequest(User user) throws IOException {
+        List<String> questions = new ArrayList<>(user.sessions.keySet());
+        String questionId = questions.get(user.random.nextInt(questions.size()));
+        List<String> expected = expectedPaths.getOrDefault(questionId, List.of());
+
+        // Half of the expected path plus random nodes, so validation does real matching work
+        List<String> nodes = new ArrayList<>(expected.subList(0, expected.size() / 2));
+        while (nodes.size() < expected.size()) {
+            nodes.add(SyntheticGraph.entityUri(user.random.nextInt(config.nodes())));
+        }
+
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("sessionId", user.sessions.get(questionId));
+        body.put("questionId", questionId);
+        body.set("nodeURIs", MAPPER.valueToTree(nodes));
+        return post("/api/vqa/sessions/" + encode(user.sessions.get(questionId)) + "/validate",
+                "application/json", MAPPER.writeValueAsBytes(body));
+    }
+
+    private String randomQuestion(SplittableRandom random) {
+        return questionIds.get(random.nextInt(questionIds.size()));
+    }
+
+    private HttpRequest post(String path, String contentType, byte[] body) {
+        return HttpRequest.newBuilder(uri(path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(config.baseUrl() + path);
+    }
+
+    private static byte[] multipart(byte[] content) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 256);
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"ontology.ttl\"\r\n"
+                + "Content-Type: text/turtle\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        body.write(content);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}